@@ -0,0 +1,96 @@
+package com.xatkit.core.recognition.nluserver.benchmarks;
+
+import com.xatkit.core.recognition.nluserver.mapper.NLUServerIntentTable;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.BotData;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.BotSnapshot;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Intent;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.NLUContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the name lookups performed on the bot when predictions are read and mapped.
+ * <p>
+ * Each invocation looks up the next name of a fixed sequence, so that the lookups are not constant-folded and
+ * visit the whole bot.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BotDataLookupBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "50000"})
+    private int intentCount;
+
+    private BotData bot;
+
+    private BotSnapshot snapshot;
+
+    private NLUServerIntentTable intentTable;
+
+    private String[] intentNames;
+
+    private String[] contextNames;
+
+    private int intentCursor;
+
+    private int contextCursor;
+
+    @Setup
+    public void setUp() {
+        SyntheticBot syntheticBot = new SyntheticBot(intentCount);
+        bot = syntheticBot.getBot();
+        snapshot = bot.snapshot();
+        intentTable = new NLUServerIntentTable(snapshot, SyntheticBot::createIntentDefinition);
+        intentNames = syntheticBot.getIntentNames();
+        contextNames = syntheticBot.getContextNames();
+    }
+
+    @Benchmark
+    public Intent getIntent() {
+        return bot.getIntent(nextIntentName());
+    }
+
+    @Benchmark
+    public NLUContext getNluContext() {
+        return bot.getNluContext(nextContextName());
+    }
+
+    @Benchmark
+    public Intent getSnapshotIntent() {
+        return snapshot.getIntent(nextIntentName());
+    }
+
+    @Benchmark
+    public Intent getIntentTableIntent() {
+        return intentTable.getIntent(intentTable.getId(nextIntentName()));
+    }
+
+    private String nextIntentName() {
+        if (++intentCursor == intentNames.length) {
+            intentCursor = 0;
+        }
+        return intentNames[intentCursor];
+    }
+
+    private String nextContextName() {
+        if (++contextCursor == contextNames.length) {
+            contextCursor = 0;
+        }
+        return contextNames[contextCursor];
+    }
+}
@@ -0,0 +1,91 @@
+package com.xatkit.core.recognition.nluserver.benchmarks;
+
+import com.xatkit.core.recognition.nluserver.json.NLUServerBotDataWriter;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.BotData;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.BotSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Measures the construction of the bot definition sent to the NLU server when the bot is deployed.
+ * <p>
+ * The definition is written to an {@link OutputStream} that only counts the written bytes, so that the benchmark
+ * does not measure buffer copies.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BotDataWriterBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "50000"})
+    private int intentCount;
+
+    private BotData bot;
+
+    private BotSnapshot snapshot;
+
+    private NLUServerBotDataWriter writer;
+
+    @Setup
+    public void setUp() {
+        bot = new SyntheticBot(intentCount).getBot();
+        snapshot = bot.snapshot();
+        writer = new NLUServerBotDataWriter();
+    }
+
+    @Benchmark
+    public BotSnapshot snapshot() {
+        return bot.snapshot();
+    }
+
+    @Benchmark
+    public long write() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        writer.write(snapshot, bot.getBotName(), out);
+        return out.count;
+    }
+
+    @Benchmark
+    public long writeCompressed() throws IOException {
+        CountingOutputStream out = new CountingOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            writer.write(snapshot, bot.getBotName(), gzip);
+        }
+        return out.count;
+    }
+
+    /**
+     * An {@link OutputStream} discarding the written bytes.
+     */
+    private static class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.xatkit.core.recognition.nluserver.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks of the NLU client with the GC profiler.
+ * <p>
+ * This class accepts the JMH command line options (e.g. {@code -p intentCount=1000} or a benchmark regexp), and
+ * always adds the {@link GCProfiler} so that the allocation rate is reported along with the throughput.
+ */
+public final class NLUServerBenchmarks {
+
+    private NLUServerBenchmarks() {
+    }
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        Options options = new OptionsBuilder()
+                .parent(commandLineOptions)
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,56 @@
+package com.xatkit.core.recognition.nluserver.benchmarks;
+
+import com.xatkit.core.recognition.nluserver.json.NLUServerPredictionReader;
+import com.xatkit.core.recognition.nluserver.mapper.NLUServerIntentTable;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Prediction;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the parsing of the prediction responses returned by the NLU server.
+ * <p>
+ * The response classifies the input against all the intents of the bot, which is the worst case for a bot with a
+ * single context.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PredictionReaderBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "50000"})
+    private int intentCount;
+
+    private byte[] response;
+
+    private NLUServerPredictionReader reader;
+
+    @Setup
+    public void setUp() {
+        SyntheticBot syntheticBot = new SyntheticBot(intentCount);
+        NLUServerIntentTable intentTable = new NLUServerIntentTable(syntheticBot.getBot().snapshot(),
+                SyntheticBot::createIntentDefinition);
+        response = syntheticBot.createPredictionResponse();
+        reader = new NLUServerPredictionReader(() -> intentTable);
+    }
+
+    @Benchmark
+    public Prediction readPrediction() throws IOException {
+        return reader.readPrediction(new ByteArrayInputStream(response));
+    }
+}
@@ -0,0 +1,81 @@
+package com.xatkit.core.recognition.nluserver.benchmarks;
+
+import com.xatkit.core.EventDefinitionRegistry;
+import com.xatkit.core.recognition.nluserver.json.NLUServerPredictionReader;
+import com.xatkit.core.recognition.nluserver.mapper.NLUServerIntentTable;
+import com.xatkit.core.recognition.nluserver.mapper.NLUServerRecognizedIntentMapper;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Prediction;
+import com.xatkit.intent.IntentDefinition;
+import com.xatkit.intent.RecognizedIntent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the mapping of the predictions returned by the NLU server to {@link RecognizedIntent}s.
+ * <p>
+ * The {@link Prediction} is read once in the setup; the benchmarks only measure the mapping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecognizedIntentMapperBenchmark {
+
+    @Param({"10", "100", "1000", "10000", "50000"})
+    private int intentCount;
+
+    private NLUServerRecognizedIntentMapper mapper;
+
+    private NLUServerIntentTable intentTable;
+
+    private Prediction prediction;
+
+    private Set<IntentDefinition> accessibleIntents;
+
+    @Setup
+    public void setUp() throws IOException {
+        SyntheticBot syntheticBot = new SyntheticBot(intentCount);
+        EventDefinitionRegistry eventRegistry = syntheticBot.createEventRegistry();
+        mapper = new NLUServerRecognizedIntentMapper(syntheticBot.getConfiguration(), eventRegistry);
+        intentTable = new NLUServerIntentTable(syntheticBot.getBot().snapshot(), eventRegistry::getIntentDefinition);
+        prediction = new NLUServerPredictionReader(() -> intentTable)
+                .readPrediction(new ByteArrayInputStream(syntheticBot.createPredictionResponse()));
+        accessibleIntents = new HashSet<>();
+        for (String intentName : syntheticBot.getAccessibleIntentNames()) {
+            accessibleIntents.add(eventRegistry.getIntentDefinition(intentName));
+        }
+    }
+
+    @Benchmark
+    public List<RecognizedIntent> mapRecognitionResult() {
+        return mapper.mapRecognitionResult(prediction);
+    }
+
+    @Benchmark
+    public List<RecognizedIntent> mapBestRecognitionResult() {
+        return mapper.mapBestRecognitionResult(prediction, intentTable, accessibleIntents::contains);
+    }
+
+    @Benchmark
+    public List<RecognizedIntent> mapBestRecognitionResultWithoutIntentTable() {
+        return mapper.mapBestRecognitionResult(prediction, accessibleIntents::contains);
+    }
+}
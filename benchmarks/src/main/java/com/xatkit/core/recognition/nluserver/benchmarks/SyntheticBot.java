@@ -0,0 +1,216 @@
+package com.xatkit.core.recognition.nluserver.benchmarks;
+
+import com.google.gson.stream.JsonWriter;
+import com.xatkit.core.EventDefinitionRegistry;
+import com.xatkit.core.recognition.nluserver.NLUServerConfiguration;
+import com.xatkit.core.recognition.nluserver.json.NLUServerJsonUtils;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.BotData;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Intent;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.NLUContext;
+import com.xatkit.dsl.DSL;
+import com.xatkit.intent.IntentDefinition;
+import org.apache.commons.configuration2.BaseConfiguration;
+import org.apache.commons.configuration2.Configuration;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static fr.inria.atlanmod.commons.Preconditions.checkArgument;
+
+/**
+ * A synthetic bot used as the input of the benchmarks.
+ * <p>
+ * The bot contains {@code intentCount} intents with {@link #TRAINING_SENTENCES} training sentences each. The intents
+ * are partitioned in contexts of {@link #CONTEXT_SIZE} intents, and the {@link #GLOBAL_CONTEXT} references all of
+ * them. The generated data only depends on {@code intentCount}, so that benchmark runs are comparable.
+ */
+public final class SyntheticBot {
+
+    /**
+     * The name of the context referencing all the intents of the bot.
+     */
+    public static final String GLOBAL_CONTEXT = "Global";
+
+    /**
+     * The number of intents of each partition context.
+     */
+    public static final int CONTEXT_SIZE = 10;
+
+    /**
+     * The number of training sentences of each intent.
+     */
+    public static final int TRAINING_SENTENCES = 5;
+
+    /**
+     * The confidence threshold of the {@link NLUServerConfiguration} returned by {@link #getConfiguration()}.
+     */
+    public static final float CONFIDENCE_THRESHOLD = 0.3f;
+
+    private final int intentCount;
+
+    private final BotData bot;
+
+    private final String[] intentNames;
+
+    private final String[] contextNames;
+
+    /**
+     * Creates a {@link SyntheticBot} with the provided number of intents.
+     *
+     * @param intentCount the number of intents of the bot
+     * @throws IllegalArgumentException if the provided {@code intentCount} is not strictly positive
+     */
+    public SyntheticBot(int intentCount) {
+        checkArgument(intentCount > 0, "Cannot create a bot with %s intents, expected a strictly positive value",
+                intentCount);
+        this.intentCount = intentCount;
+        this.bot = new BotData("SyntheticBot" + intentCount);
+        this.intentNames = new String[intentCount];
+        this.contextNames = new String[(intentCount + CONTEXT_SIZE - 1) / CONTEXT_SIZE];
+        NLUContext globalContext = new NLUContext(GLOBAL_CONTEXT);
+        NLUContext context = null;
+        for (int i = 0; i < intentCount; i++) {
+            if (i % CONTEXT_SIZE == 0) {
+                context = new NLUContext("Context" + (i / CONTEXT_SIZE));
+                contextNames[i / CONTEXT_SIZE] = context.getName();
+                bot.addNLUContext(context);
+            }
+            intentNames[i] = "Intent" + i;
+            Intent intent = new Intent(intentNames[i]);
+            for (int j = 0; j < TRAINING_SENTENCES; j++) {
+                intent.addTrainingSentence("training sentence " + j + " of the synthetic intent number " + i);
+            }
+            bot.addIntent(intent);
+            context.addIntentReference(intent);
+            globalContext.addIntentReference(intent);
+        }
+        bot.addNLUContext(globalContext);
+    }
+
+    public int getIntentCount() {
+        return intentCount;
+    }
+
+    public BotData getBot() {
+        return bot;
+    }
+
+    /**
+     * Returns the names of the intents, indexed by intent number.
+     *
+     * @return the names of the intents
+     */
+    public String[] getIntentNames() {
+        return intentNames.clone();
+    }
+
+    /**
+     * Returns the names of the partition contexts, indexed by context number.
+     *
+     * @return the names of the partition contexts
+     */
+    public String[] getContextNames() {
+        return contextNames.clone();
+    }
+
+    /**
+     * Creates an {@link EventDefinitionRegistry} containing an {@link IntentDefinition} for each intent of the bot.
+     *
+     * @return the created {@link EventDefinitionRegistry}
+     */
+    public EventDefinitionRegistry createEventRegistry() {
+        EventDefinitionRegistry eventRegistry = new EventDefinitionRegistry();
+        for (String intentName : intentNames) {
+            eventRegistry.registerEventDefinition(createIntentDefinition(intentName));
+        }
+        return eventRegistry;
+    }
+
+    /**
+     * Creates an {@link IntentDefinition} with the provided {@code name}.
+     *
+     * @param name the name of the intent
+     * @return the created {@link IntentDefinition}
+     */
+    public static IntentDefinition createIntentDefinition(String name) {
+        return DSL.intent(name).trainingSentence("training sentence of " + name).getIntentDefinition();
+    }
+
+    /**
+     * Returns a {@link NLUServerConfiguration} for the bot.
+     * <p>
+     * The configuration does not point to a running server, it can only be used by the components that do not send
+     * requests.
+     *
+     * @return the {@link NLUServerConfiguration}
+     */
+    public NLUServerConfiguration getConfiguration() {
+        Configuration configuration = new BaseConfiguration();
+        configuration.addProperty(NLUServerConfiguration.BOT_NAME, bot.getBotName());
+        configuration.addProperty(NLUServerConfiguration.URL, "http://127.0.0.1:8000");
+        configuration.addProperty(NLUServerConfiguration.CONFIDENCE_THRESHOLD, CONFIDENCE_THRESHOLD);
+        return new NLUServerConfiguration(configuration);
+    }
+
+    /**
+     * Creates the body of a prediction response classifying the input in the {@link #GLOBAL_CONTEXT}.
+     * <p>
+     * The response contains a classification for each intent of the bot, as returned by the NLU server. Two
+     * intents are above the {@link #CONFIDENCE_THRESHOLD}, the other ones share the remaining probability.
+     *
+     * @return the UTF-8 encoded response body
+     */
+    public byte[] createPredictionResponse() {
+        Random random = new Random(intentCount);
+        int best = random.nextInt(intentCount);
+        int second = (best + 1 + random.nextInt(intentCount)) % intentCount;
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonWriter writer = NLUServerJsonUtils.newWriter(out)) {
+            writer.beginObject();
+            writer.name("classifications").beginArray();
+            for (int i = 0; i < intentCount; i++) {
+                double score;
+                if (i == best) {
+                    score = 0.55;
+                } else if (i == second && intentCount > 1) {
+                    score = 0.35;
+                } else {
+                    score = random.nextDouble() * 0.1 / intentCount;
+                }
+                writer.beginObject();
+                writer.name("intent").value(intentNames[i]);
+                writer.name("score").value(score);
+                writer.name("matched_utterance").value("an utterance to classify");
+                writer.name("matched_parameters").beginArray().endArray();
+                writer.endObject();
+            }
+            writer.endArray();
+            writer.endObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Returns the names of the intents accessible from a state of the bot.
+     * <p>
+     * The accessible intents are the ones of the partition context containing the top intent of
+     * {@link #createPredictionResponse()}, so that the best accessible candidate is found in the prediction.
+     *
+     * @return the names of the accessible intents
+     */
+    public List<String> getAccessibleIntentNames() {
+        int best = new Random(intentCount).nextInt(intentCount);
+        int first = best - best % CONTEXT_SIZE;
+        List<String> result = new ArrayList<>(CONTEXT_SIZE);
+        for (int i = first; i < Math.min(first + CONTEXT_SIZE, intentCount); i++) {
+            result.add(intentNames[i]);
+        }
+        return result;
+    }
+}
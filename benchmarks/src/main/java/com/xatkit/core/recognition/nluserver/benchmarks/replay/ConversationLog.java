@@ -0,0 +1,74 @@
+package com.xatkit.core.recognition.nluserver.benchmarks.replay;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reads the conversation logs replayed by the {@link ConversationReplayer}.
+ * <p>
+ * A conversation log is a UTF-8 text file containing a user input per line, as tab-separated values:
+ * <pre>
+ * state&lt;TAB&gt;utterance[&lt;TAB&gt;intent]
+ * </pre>
+ * The {@code state} is the name of the state the bot was in when the input was received, and the optional
+ * {@code intent} is the name of the intent the input has been matched to. Empty lines and lines starting with
+ * {@code #} are ignored.
+ */
+public final class ConversationLog {
+
+    private ConversationLog() {
+    }
+
+    /**
+     * Reads the conversation log stored in the provided {@code path}.
+     *
+     * @param path the path of the conversation log
+     * @return the {@link ConversationRecord}s of the log, in the order they have been recorded
+     * @throws IOException              if an error occurred when reading the file
+     * @throws IllegalArgumentException if a line of the log is malformed
+     */
+    public static List<ConversationRecord> read(Path path) throws IOException {
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return read(reader);
+        }
+    }
+
+    /**
+     * Reads the conversation log provided by the given {@code reader}.
+     * <p>
+     * This method does not close the provided {@code reader}.
+     *
+     * @param reader the {@link Reader} to read the log from
+     * @return the {@link ConversationRecord}s of the log, in the order they have been recorded
+     * @throws IOException              if an error occurred when reading the log
+     * @throws IllegalArgumentException if a line of the log is malformed
+     */
+    public static List<ConversationRecord> read(Reader reader) throws IOException {
+        BufferedReader bufferedReader = reader instanceof BufferedReader ? (BufferedReader) reader :
+                new BufferedReader(reader);
+        List<ConversationRecord> records = new ArrayList<>();
+        String line;
+        int lineNumber = 0;
+        while ((line = bufferedReader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            String[] fields = line.split("\t", -1);
+            if (fields.length < 2 || fields.length > 3 || fields[0].isEmpty() || fields[1].isEmpty()) {
+                throw new IllegalArgumentException("Malformed conversation log line " + lineNumber + ": expected "
+                        + "state<TAB>utterance[<TAB>intent], found \"" + line + "\"");
+            }
+            String intent = fields.length == 3 && !fields[2].isEmpty() ? fields[2] : null;
+            records.add(new ConversationRecord(fields[0], fields[1], intent));
+        }
+        return Collections.unmodifiableList(records);
+    }
+}
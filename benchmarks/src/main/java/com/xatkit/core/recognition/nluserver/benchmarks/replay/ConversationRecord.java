@@ -0,0 +1,62 @@
+package com.xatkit.core.recognition.nluserver.benchmarks.replay;
+
+import javax.annotation.Nullable;
+
+import static fr.inria.atlanmod.commons.Preconditions.checkArgument;
+import static fr.inria.atlanmod.commons.Preconditions.checkNotNull;
+
+/**
+ * A user input recorded in a conversation log.
+ *
+ * @see ConversationLog
+ */
+public final class ConversationRecord {
+
+    /**
+     * The name of the state the bot was in when the input was received.
+     */
+    private final String state;
+
+    /**
+     * The user input.
+     */
+    private final String utterance;
+
+    /**
+     * The name of the intent the input has been matched to, or {@code null} if it is unknown.
+     */
+    @Nullable
+    private final String intent;
+
+    /**
+     * Creates a {@link ConversationRecord}.
+     *
+     * @param state     the name of the state the bot was in when the input was received
+     * @param utterance the user input
+     * @param intent    the name of the intent the input has been matched to, or {@code null} if it is unknown
+     * @throws NullPointerException     if the provided {@code state} or {@code utterance} is {@code null}
+     * @throws IllegalArgumentException if the provided {@code utterance} is empty
+     */
+    public ConversationRecord(String state, String utterance, @Nullable String intent) {
+        this.state = checkNotNull(state, "Cannot create a %s with a null state",
+                ConversationRecord.class.getSimpleName());
+        this.utterance = checkNotNull(utterance, "Cannot create a %s with a null utterance",
+                ConversationRecord.class.getSimpleName());
+        checkArgument(!utterance.isEmpty(), "Cannot create a %s with an empty utterance",
+                ConversationRecord.class.getSimpleName());
+        this.intent = intent;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public String getUtterance() {
+        return utterance;
+    }
+
+    @Nullable
+    public String getIntent() {
+        return intent;
+    }
+}
@@ -0,0 +1,162 @@
+package com.xatkit.core.recognition.nluserver.benchmarks.replay;
+
+import com.xatkit.core.EventDefinitionRegistry;
+import com.xatkit.core.recognition.nluserver.NLUServerConfiguration;
+import com.xatkit.core.recognition.nluserver.NLUServerIntentRecognitionProvider;
+import com.xatkit.core.recognition.nluserver.utils.EmbeddedNLUServer;
+import fr.inria.atlanmod.commons.log.Log;
+import org.apache.commons.configuration2.BaseConfiguration;
+import org.apache.commons.configuration2.Configuration;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * Replays a conversation log against a {@link NLUServerIntentRecognitionProvider} from the command line.
+ * <p>
+ * The bot is reconstructed from the log (see {@link ReplayBot}) and deployed on the NLU server at {@code --url}, or
+ * on an {@link EmbeddedNLUServer} if no URL is provided. The JSON summary of the run is printed on the standard
+ * output, or written to {@code --summary}.
+ * <p>
+ * Options:
+ * <ul>
+ *     <li>{@code --log <path>}: the conversation log to replay (mandatory, see {@link ConversationLog})</li>
+ *     <li>{@code --url <url>}: the URL of the NLU server, an embedded server is started if it is not set</li>
+ *     <li>{@code --concurrency <n>}: the number of worker threads (default {@code 8})</li>
+ *     <li>{@code --rate <n>}: the number of requests per second, {@code 0} for a closed loop (default {@code 0})</li>
+ *     <li>{@code --requests <n>}: the number of requests to send (default: the size of the log)</li>
+ *     <li>{@code --warmup <n>}: the number of requests sent before the measured run (default {@code 0})</li>
+ *     <li>{@code --summary <path>}: the file to write the JSON summary to</li>
+ *     <li>{@code --histogram <path>}: the file to write the HdrHistogram percentile distribution to</li>
+ *     <li>{@code --server-latency <ms>}, {@code --server-jitter <ms>}, {@code --server-error-rate <rate>}: the
+ *     behavior of the embedded server</li>
+ * </ul>
+ * Any other {@code xatkit.nluserver.*} property can be passed as a system property to configure the provider.
+ */
+public final class ConversationReplay {
+
+    private ConversationReplay() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String logPath = options.get("log");
+        if (isNull(logPath)) {
+            System.err.println("Usage: ConversationReplay --log <path> [--url <url>] [--concurrency <n>] "
+                    + "[--rate <n>] [--requests <n>] [--warmup <n>] [--summary <path>] [--histogram <path>]");
+            System.exit(1);
+        }
+        List<ConversationRecord> records = ConversationLog.read(Paths.get(logPath));
+        ReplayBot replayBot = new ReplayBot(records);
+
+        EmbeddedNLUServer embeddedServer = null;
+        String url = options.get("url");
+        if (isNull(url)) {
+            embeddedServer = new EmbeddedNLUServer();
+            embeddedServer.start();
+            url = embeddedServer.getUrl();
+        }
+        NLUServerIntentRecognitionProvider provider = null;
+        try {
+            EventDefinitionRegistry eventRegistry = new EventDefinitionRegistry();
+            replayBot.registerIntents(eventRegistry);
+            provider = new NLUServerIntentRecognitionProvider(eventRegistry, createConfiguration(url), null);
+            replayBot.deploy(provider);
+            if (nonNull(embeddedServer)) {
+                embeddedServer.setLatency(Long.parseLong(options.getOrDefault("server-latency", "0")));
+                embeddedServer.setJitter(Long.parseLong(options.getOrDefault("server-jitter", "0")));
+                embeddedServer.setErrorRate(Double.parseDouble(options.getOrDefault("server-error-rate", "0")));
+            }
+
+            ConversationReplayer replayer = new ConversationReplayer(provider, replayBot::getState,
+                    Integer.parseInt(options.getOrDefault("concurrency", "8")),
+                    Double.parseDouble(options.getOrDefault("rate", "0")));
+            int warmup = Integer.parseInt(options.getOrDefault("warmup", "0"));
+            if (warmup > 0) {
+                Log.info("Warming up with {0} requests", warmup);
+                replayer.replay(records, warmup);
+            }
+            int requestCount = Integer.parseInt(options.getOrDefault("requests", String.valueOf(records.size())));
+            Log.info("Replaying {0} requests against {1}", requestCount, url);
+            ReplayResult result = replayer.replay(records, requestCount);
+
+            writeSummary(result, options.get("summary"));
+            String histogramPath = options.get("histogram");
+            if (nonNull(histogramPath)) {
+                try (PrintStream out = new PrintStream(Files.newOutputStream(Paths.get(histogramPath)), false,
+                        StandardCharsets.UTF_8.name())) {
+                    result.writePercentileDistribution(out);
+                }
+            }
+        } finally {
+            if (nonNull(provider) && !provider.isShutdown()) {
+                provider.shutdown();
+            }
+            if (nonNull(embeddedServer)) {
+                embeddedServer.stop();
+            }
+        }
+    }
+
+    /**
+     * Creates the {@link Configuration} of the provider under test.
+     * <p>
+     * The configuration contains the {@code xatkit.nluserver.*} system properties.
+     *
+     * @param url the URL of the NLU server
+     * @return the created {@link Configuration}
+     */
+    private static Configuration createConfiguration(String url) {
+        Configuration configuration = new BaseConfiguration();
+        configuration.addProperty(NLUServerConfiguration.BOT_NAME, "ConversationReplay");
+        configuration.addProperty(NLUServerConfiguration.FORCE_OVERWRITE, true);
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith("xatkit.nluserver."))
+                .forEach(name -> configuration.setProperty(name, System.getProperty(name)));
+        configuration.setProperty(NLUServerConfiguration.URL, url);
+        return configuration;
+    }
+
+    private static void writeSummary(ReplayResult result, String summaryPath) throws IOException {
+        if (isNull(summaryPath)) {
+            Writer writer = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+            result.writeSummary(writer);
+            System.out.println();
+        } else {
+            Path path = Paths.get(summaryPath);
+            try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+                result.writeSummary(writer);
+            }
+        }
+    }
+
+    /**
+     * Parses the provided {@code --name value} arguments.
+     *
+     * @param args the arguments to parse
+     * @return the values of the options, mapped by name
+     * @throws IllegalArgumentException if an argument is not a {@code --name value} pair
+     */
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (int i = 0; i < args.length; i += 2) {
+            if (!args[i].startsWith("--") || i + 1 == args.length) {
+                throw new IllegalArgumentException("Invalid argument " + args[i] + ", expected --<name> <value>");
+            }
+            options.put(args[i].substring(2), args[i + 1]);
+        }
+        return options;
+    }
+}
@@ -0,0 +1,166 @@
+package com.xatkit.core.recognition.nluserver.benchmarks.replay;
+
+import com.xatkit.core.recognition.IntentRecognitionProvider;
+import com.xatkit.execution.State;
+import com.xatkit.execution.StateContext;
+import com.xatkit.intent.RecognizedIntent;
+import fr.inria.atlanmod.commons.log.Log;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+import static fr.inria.atlanmod.commons.Preconditions.checkArgument;
+import static fr.inria.atlanmod.commons.Preconditions.checkNotNull;
+
+/**
+ * Replays conversation logs against an {@link IntentRecognitionProvider} and measures the recognition latency.
+ * <p>
+ * The records are sent by {@code concurrency} worker threads, in the order of the log (wrapping around if more
+ * requests than records are replayed). If the {@code arrivalRate} is {@code 0} the replay is a closed loop: each
+ * worker sends its next request as soon as the previous one completes. Otherwise the replay is an open loop: request
+ * {@code i} is scheduled {@code i / arrivalRate} seconds after the start of the run, and its latency is measured
+ * from this scheduled time. Requests that cannot be sent on time because all the workers are busy are therefore
+ * reported with the time they have waited, instead of silently lowering the load.
+ * <p>
+ * Each request is sent through {@link IntentRecognitionProvider#getIntent(String, StateContext)} in a new
+ * {@link StateContext} set to the recorded state.
+ */
+public class ConversationReplayer {
+
+    /**
+     * The highest latency (in microseconds) recorded in the histograms, higher values are clamped.
+     */
+    private static final long HIGHEST_TRACKABLE_LATENCY = TimeUnit.MINUTES.toMicros(10);
+
+    private final IntentRecognitionProvider provider;
+
+    /**
+     * The function returning the {@link State} with a given name.
+     */
+    private final Function<String, State> stateResolver;
+
+    private final int concurrency;
+
+    /**
+     * The number of requests sent per second, or {@code 0} for a closed-loop replay.
+     */
+    private final double arrivalRate;
+
+    /**
+     * Creates a {@link ConversationReplayer}.
+     *
+     * @param provider      the {@link IntentRecognitionProvider} to send the requests to
+     * @param stateResolver the function returning the {@link State} with a given name, or {@code null} if it does
+     *                      not exist
+     * @param concurrency   the number of worker threads sending the requests
+     * @param arrivalRate   the number of requests sent per second, or {@code 0} for a closed-loop replay
+     * @throws NullPointerException     if the provided {@code provider} or {@code stateResolver} is {@code null}
+     * @throws IllegalArgumentException if the provided {@code concurrency} is not strictly positive or if the
+     *                                  provided {@code arrivalRate} is negative
+     */
+    public ConversationReplayer(IntentRecognitionProvider provider, Function<String, State> stateResolver,
+                                int concurrency, double arrivalRate) {
+        this.provider = checkNotNull(provider, "Cannot create a %s with a null provider",
+                ConversationReplayer.class.getSimpleName());
+        this.stateResolver = checkNotNull(stateResolver, "Cannot create a %s with a null state resolver",
+                ConversationReplayer.class.getSimpleName());
+        checkArgument(concurrency > 0, "Cannot create a %s with a concurrency of %s, expected a strictly positive "
+                + "value", ConversationReplayer.class.getSimpleName(), concurrency);
+        checkArgument(arrivalRate >= 0, "Cannot create a %s with an arrival rate of %s, expected a positive value",
+                ConversationReplayer.class.getSimpleName(), arrivalRate);
+        this.concurrency = concurrency;
+        this.arrivalRate = arrivalRate;
+    }
+
+    /**
+     * Replays the provided {@code records}.
+     * <p>
+     * This method blocks until all the requests are completed.
+     *
+     * @param records      the {@link ConversationRecord}s to replay
+     * @param requestCount the number of requests to send
+     * @return the {@link ReplayResult} of the run
+     * @throws IllegalArgumentException if the provided {@code records} are empty or if the provided
+     *                                  {@code requestCount} is negative
+     * @throws InterruptedException     if the calling thread is interrupted while waiting for the requests
+     */
+    public ReplayResult replay(List<ConversationRecord> records, int requestCount) throws InterruptedException {
+        checkArgument(!records.isEmpty(), "Cannot replay an empty conversation log");
+        checkArgument(requestCount >= 0, "Cannot replay %s requests, expected a positive value", requestCount);
+        Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_LATENCY, 3);
+        LongAdder errorCount = new LongAdder();
+        LongAdder fallbackCount = new LongAdder();
+        AtomicInteger nextRequest = new AtomicInteger();
+        long interval = arrivalRate > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / arrivalRate) : 0;
+        AtomicInteger threadCount = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency, r -> {
+            Thread thread = new Thread(r, "conversation-replayer-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        long start = System.nanoTime();
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(() -> {
+                int request;
+                while ((request = nextRequest.getAndIncrement()) < requestCount) {
+                    ConversationRecord record = records.get(request % records.size());
+                    StateContext context = provider.createContext("replay-" + request);
+                    long scheduledTime;
+                    if (interval > 0) {
+                        scheduledTime = start + request * interval;
+                        waitUntil(scheduledTime);
+                    } else {
+                        scheduledTime = System.nanoTime();
+                    }
+                    try {
+                        State state = stateResolver.apply(record.getState());
+                        checkNotNull(state, "Unknown state %s", record.getState());
+                        context.setState(state);
+                        RecognizedIntent recognizedIntent = provider.getIntent(record.getUtterance(), context);
+                        if (recognizedIntent.getDefinition() == IntentRecognitionProvider.DEFAULT_FALLBACK_INTENT) {
+                            fallbackCount.increment();
+                        }
+                    } catch (Exception e) {
+                        errorCount.increment();
+                        Log.debug("Error when replaying \"{0}\" in state {1}: {2}", record.getUtterance(),
+                                record.getState(), e.getMessage());
+                    }
+                    long latency = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduledTime);
+                    latencies.recordValue(Math.min(latency, HIGHEST_TRACKABLE_LATENCY));
+                }
+            });
+        }
+        workers.shutdown();
+        try {
+            while (!workers.awaitTermination(1, TimeUnit.SECONDS)) {
+                Log.debug("Replayed {0}/{1} requests", Math.min(nextRequest.get(), requestCount), requestCount);
+            }
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            throw e;
+        }
+        long duration = System.nanoTime() - start;
+        return new ReplayResult(latencies, requestCount, errorCount.sum(), fallbackCount.sum(), duration,
+                concurrency, arrivalRate);
+    }
+
+    /**
+     * Parks the current thread until the provided {@code time}.
+     *
+     * @param time the {@link System#nanoTime()} to wait for
+     */
+    private static void waitUntil(long time) {
+        long remaining;
+        while ((remaining = time - System.nanoTime()) > 0 && !Thread.currentThread().isInterrupted()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.xatkit.core.recognition.nluserver.benchmarks.replay;
+
+import com.xatkit.core.EventDefinitionRegistry;
+import com.xatkit.core.recognition.IntentRecognitionProvider;
+import com.xatkit.core.recognition.IntentRecognitionProviderException;
+import com.xatkit.core.recognition.nluserver.utils.FakeState;
+import com.xatkit.dsl.DSL;
+import com.xatkit.execution.State;
+import com.xatkit.intent.IntentDefinition;
+
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static fr.inria.atlanmod.commons.Preconditions.checkArgument;
+
+/**
+ * A bot reconstructed from the {@link ConversationRecord}s of a conversation log.
+ * <p>
+ * Each intent of the log is trained with the distinct utterances that have been matched to it, and each state of
+ * the log accesses the intents matched in this state. States without matched intents access all the intents of the
+ * log. This bot is registered to the provider under test so that a log can be replayed against a server that does
+ * not host the recorded bot, e.g. an embedded stand-in.
+ */
+public final class ReplayBot {
+
+    /**
+     * The intents of the bot, mapped by name.
+     */
+    private final Map<String, IntentDefinition> intents = new LinkedHashMap<>();
+
+    /**
+     * The states of the bot, mapped by name.
+     */
+    private final Map<String, FakeState> states = new LinkedHashMap<>();
+
+    /**
+     * Creates a {@link ReplayBot} from the provided {@code records}.
+     *
+     * @param records the {@link ConversationRecord}s to create the bot from
+     * @throws IllegalArgumentException if none of the provided {@code records} has an intent
+     */
+    public ReplayBot(List<ConversationRecord> records) {
+        Map<String, Set<String>> trainingSentences = new LinkedHashMap<>();
+        Map<String, Set<String>> stateIntents = new LinkedHashMap<>();
+        for (ConversationRecord record : records) {
+            Set<String> accessedIntents = stateIntents.computeIfAbsent(record.getState(),
+                    k -> new LinkedHashSet<>());
+            if (record.getIntent() != null) {
+                trainingSentences.computeIfAbsent(record.getIntent(), k -> new LinkedHashSet<>())
+                        .add(record.getUtterance());
+                accessedIntents.add(record.getIntent());
+            }
+        }
+        checkArgument(!trainingSentences.isEmpty(), "Cannot create a %s from a conversation log without intents",
+                ReplayBot.class.getSimpleName());
+        trainingSentences.forEach((intentName, sentences) -> {
+            IntentDefinition intent = DSL.intent(intentName).trainingSentence(sentences.iterator().next())
+                    .getIntentDefinition();
+            sentences.stream().skip(1).forEach(intent.getTrainingSentences()::add);
+            intents.put(intentName, intent);
+        });
+        stateIntents.forEach((stateName, intentNames) -> {
+            FakeState state = new FakeState();
+            state.setName(stateName);
+            List<IntentDefinition> accessedIntents = new ArrayList<>();
+            for (String intentName : intentNames.isEmpty() ? intents.keySet() : intentNames) {
+                accessedIntents.add(intents.get(intentName));
+            }
+            state.setIntents(accessedIntents);
+            states.put(stateName, state);
+        });
+    }
+
+    /**
+     * Returns the intents of the bot.
+     *
+     * @return the {@link IntentDefinition}s of the bot
+     */
+    public Collection<IntentDefinition> getIntents() {
+        return intents.values();
+    }
+
+    /**
+     * Returns the state with the provided {@code name}.
+     *
+     * @param name the name of the state
+     * @return the {@link State}, or {@code null} if the bot does not contain it
+     */
+    @Nullable
+    public State getState(String name) {
+        return states.get(name);
+    }
+
+    /**
+     * Registers the intents of the bot to the provided {@code eventRegistry}.
+     * <p>
+     * This method must be called before the provider using the {@code eventRegistry} is trained.
+     *
+     * @param eventRegistry the {@link EventDefinitionRegistry} to register the intents to
+     */
+    public void registerIntents(EventDefinitionRegistry eventRegistry) {
+        intents.values().forEach(eventRegistry::registerEventDefinition);
+    }
+
+    /**
+     * Registers the intents and states of the bot to the provided {@code provider}, and trains it.
+     *
+     * @param provider the {@link IntentRecognitionProvider} to register the bot to
+     * @throws IntentRecognitionProviderException if an error occurred when registering the bot or training the
+     *                                            provider
+     */
+    public void deploy(IntentRecognitionProvider provider) throws IntentRecognitionProviderException {
+        for (IntentDefinition intent : intents.values()) {
+            provider.registerIntentDefinition(intent);
+        }
+        for (State state : states.values()) {
+            provider.registerState(state);
+        }
+        provider.trainMLEngine();
+    }
+}
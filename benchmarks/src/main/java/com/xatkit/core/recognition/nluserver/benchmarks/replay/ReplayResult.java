@@ -0,0 +1,146 @@
+package com.xatkit.core.recognition.nluserver.benchmarks.replay;
+
+import com.google.gson.stream.JsonWriter;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The result of a {@link ConversationReplayer} run.
+ * <p>
+ * The latencies are recorded in microseconds. In open-loop runs they are measured from the time the request was
+ * scheduled to be sent, so that requests delayed by a saturated client are not under-reported.
+ */
+public final class ReplayResult {
+
+    /**
+     * The percentiles reported in the summary.
+     */
+    private static final double[] PERCENTILES = {50, 95, 99, 99.9};
+
+    /**
+     * The names of the {@link #PERCENTILES} in the summary.
+     */
+    private static final String[] PERCENTILE_NAMES = {"p50", "p95", "p99", "p999"};
+
+    private final Histogram latencies;
+
+    private final long requestCount;
+
+    private final long errorCount;
+
+    private final long fallbackCount;
+
+    private final long durationNanos;
+
+    private final int concurrency;
+
+    private final double arrivalRate;
+
+    ReplayResult(Histogram latencies, long requestCount, long errorCount, long fallbackCount, long durationNanos,
+                 int concurrency, double arrivalRate) {
+        this.latencies = latencies;
+        this.requestCount = requestCount;
+        this.errorCount = errorCount;
+        this.fallbackCount = fallbackCount;
+        this.durationNanos = durationNanos;
+        this.concurrency = concurrency;
+        this.arrivalRate = arrivalRate;
+    }
+
+    /**
+     * Returns the latencies of the replayed requests, in microseconds.
+     *
+     * @return a copy of the latency {@link Histogram}
+     */
+    public Histogram getLatencies() {
+        return latencies.copy();
+    }
+
+    public long getRequestCount() {
+        return requestCount;
+    }
+
+    /**
+     * Returns the number of requests that threw an exception.
+     *
+     * @return the number of failed requests
+     */
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    /**
+     * Returns the number of requests that have been matched to the default fallback intent.
+     *
+     * @return the number of fallbacks
+     */
+    public long getFallbackCount() {
+        return fallbackCount;
+    }
+
+    public long getDuration(TimeUnit unit) {
+        return unit.convert(durationNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Returns the number of requests completed per second.
+     *
+     * @return the throughput of the run
+     */
+    public double getThroughput() {
+        return durationNanos == 0 ? 0 : requestCount * 1e9 / durationNanos;
+    }
+
+    /**
+     * Returns the latency at the provided {@code percentile}.
+     *
+     * @param percentile the percentile, between {@code 0} and {@code 100}
+     * @return the latency in microseconds
+     */
+    public long getLatency(double percentile) {
+        return latencies.getValueAtPercentile(percentile);
+    }
+
+    /**
+     * Writes a JSON summary of the run.
+     * <p>
+     * This method flushes the provided {@code writer} but does not close it.
+     *
+     * @param writer the {@link Writer} to write the summary to
+     * @throws IOException if an error occurred when writing the summary
+     */
+    public void writeSummary(Writer writer) throws IOException {
+        JsonWriter jsonWriter = new JsonWriter(writer);
+        jsonWriter.beginObject();
+        jsonWriter.name("concurrency").value(concurrency);
+        jsonWriter.name("arrival_rate").value(arrivalRate);
+        jsonWriter.name("requests").value(requestCount);
+        jsonWriter.name("errors").value(errorCount);
+        jsonWriter.name("fallbacks").value(fallbackCount);
+        jsonWriter.name("duration_ms").value(getDuration(TimeUnit.MILLISECONDS));
+        jsonWriter.name("throughput").value(getThroughput());
+        jsonWriter.name("latency_us").beginObject();
+        jsonWriter.name("min").value(latencies.getMinValue());
+        jsonWriter.name("mean").value(latencies.getMean());
+        for (int i = 0; i < PERCENTILES.length; i++) {
+            jsonWriter.name(PERCENTILE_NAMES[i]).value(getLatency(PERCENTILES[i]));
+        }
+        jsonWriter.name("max").value(latencies.getMaxValue());
+        jsonWriter.endObject();
+        jsonWriter.endObject();
+        jsonWriter.flush();
+    }
+
+    /**
+     * Writes the latency percentile distribution of the run in the HdrHistogram text format, in milliseconds.
+     *
+     * @param out the {@link PrintStream} to write the distribution to
+     */
+    public void writePercentileDistribution(PrintStream out) {
+        latencies.outputPercentileDistribution(out, 1000.0);
+    }
+}
@@ -1,30 +1,56 @@
 package com.xatkit.core.recognition.nluserver;
 
 import com.xatkit.core.recognition.IntentRecognitionProviderException;
+import com.xatkit.core.recognition.nluserver.json.NLUServerBotDataWriter;
+import com.xatkit.core.recognition.nluserver.json.NLUServerPredictionReader;
+import com.xatkit.core.recognition.nluserver.jfr.NLUServerDeployEvent;
+import com.xatkit.core.recognition.nluserver.jfr.NLUServerFlightRecorder;
+import com.xatkit.core.recognition.nluserver.jfr.NLUServerInitializeEvent;
+import com.xatkit.core.recognition.nluserver.jfr.NLUServerPredictEvent;
+import com.xatkit.core.recognition.nluserver.jfr.NLUServerTrainEvent;
+import com.xatkit.core.recognition.nluserver.mapper.NLUServerIntentTable;
 import com.xatkit.core.recognition.nluserver.mapper.dsl.BotData;
-import com.xatkit.core.recognition.nluserver.mapper.dsl.Classification;
-import com.xatkit.core.recognition.nluserver.mapper.dsl.CustomEntityType;
-import com.xatkit.core.recognition.nluserver.mapper.dsl.CustomEntityTypeEntry;
-import com.xatkit.core.recognition.nluserver.mapper.dsl.EntityParameter;
-import com.xatkit.core.recognition.nluserver.mapper.dsl.EntityType;
-import com.xatkit.core.recognition.nluserver.mapper.dsl.Intent;
-import com.xatkit.core.recognition.nluserver.mapper.dsl.IntentReference;
-import com.xatkit.core.recognition.nluserver.mapper.dsl.MatchedParam;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.BotSnapshot;
 import com.xatkit.core.recognition.nluserver.mapper.dsl.NLUContext;
 import com.xatkit.core.recognition.nluserver.mapper.dsl.Prediction;
+import com.xatkit.intent.IntentDefinition;
 import fr.inria.atlanmod.commons.log.Log;
+import kong.unirest.HttpRequestWithBody;
 import kong.unirest.HttpResponse;
 import kong.unirest.JsonNode;
-import kong.unirest.Unirest;
-import kong.unirest.json.JSONArray;
-import kong.unirest.json.JSONObject;
+import kong.unirest.RawResponse;
+import kong.unirest.UnirestInstance;
+import lombok.NonNull;
 
-import java.util.ArrayList;
+import javax.annotation.Nullable;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
 
+import static fr.inria.atlanmod.commons.Preconditions.checkState;
 import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
 
 
 /**
@@ -41,18 +67,177 @@ public class NLUServerClientAPIWrapper {
 
     private final NLUServerConfiguration configuration;
 
+    /**
+     * The bot definition the elements are registered to.
+     * <p>
+     * This builder is only read when the bot is deployed, see {@link #activeIntentTable} for the definition used by
+     * the predictions.
+     */
     private final BotData bot;
 
+    /**
+     * The function returning the Xatkit {@link IntentDefinition} corresponding to an intent name.
+     */
+    private final Function<String, IntentDefinition> intentDefinitionResolver;
+
+    /**
+     * The intent table of the bot definition answering the predictions.
+     * <p>
+     * The table and its {@link BotSnapshot} are published when the corresponding model is activated, and read
+     * without locking by the threads computing the predictions.
+     */
+    private volatile NLUServerIntentTable activeIntentTable;
+
+    /**
+     * The replicas of the NLU server.
+     * <p>
+     * Each {@link NLUServerClientAPIWrapper} owns its endpoints (and their connection pools), configured with the
+     * {@code xatkit.nluserver.http.*} and {@code xatkit.nluserver.endpoint.*} options of the provided
+     * {@link NLUServerConfiguration}. The bot is deployed and trained on all the endpoints, and each prediction is
+     * sent to a single one.
+     */
+    private final NLUServerEndpointPool endpointPool;
+
+    /**
+     * The batcher grouping concurrent prediction requests.
+     * <p>
+     * This field is {@code null} if batching is disabled.
+     *
+     * @see NLUServerConfiguration#BATCH_ENABLED
+     */
+    private final NLUServerPredictionBatcher batcher;
+
+    /**
+     * Whether the server supports the batch prediction endpoint.
+     * <p>
+     * This field is set to {@code false} the first time the server answers a batch with a {@code 404} status, the
+     * predictions are then sent one by one even if batching is enabled.
+     */
+    private volatile boolean batchSupported = true;
+
+    /**
+     * The hedger duplicating slow prediction requests on other replicas.
+     * <p>
+     * This field is {@code null} if hedging is disabled.
+     *
+     * @see NLUServerConfiguration#HEDGE_ENABLED
+     */
+    private final NLUServerRequestHedger hedger;
+
+    /**
+     * The pending prediction requests, used to coalesce identical requests.
+     * <p>
+     * This field is {@code null} if coalescing is disabled.
+     *
+     * @see NLUServerConfiguration#PREDICT_COALESCE
+     */
+    private final ConcurrentMap<NLUServerPredictionKey, CompletableFuture<Prediction>> inFlightPredictions;
+
+    /**
+     * The cache of the predictions returned by the server.
+     * <p>
+     * This field is {@code null} if caching is disabled.
+     *
+     * @see NLUServerConfiguration#CACHE_ENABLED
+     */
+    private final NLUServerPredictionCache predictionCache;
+
+    /**
+     * The store containing the fingerprint of the last deployed bot definition.
+     * <p>
+     * This field is {@code null} if unchanged bots are always redeployed.
+     *
+     * @see NLUServerConfiguration#DEPLOY_SKIP_UNCHANGED
+     */
+    private final NLUServerFingerprintStore fingerprintStore;
+
+    /**
+     * The metrics of the client.
+     * <p>
+     * This field is {@code null} if metrics are disabled.
+     *
+     * @see NLUServerConfiguration#METRICS_ENABLED
+     */
+    private final NLUServerMetrics metrics;
+
+    /**
+     * The socket timeout (in milliseconds) of the prediction requests.
+     * <p>
+     * This timeout is bounded by the {@link NLUServerConfiguration#PREDICT_DEADLINE}, if any: a stalled prediction
+     * request is aborted by the HTTP client once its caller has stopped waiting for it.
+     */
+    private final int predictSocketTimeout;
+
+    /**
+     * The reader used to stream the prediction responses into {@link Prediction} instances.
+     */
+    private final NLUServerPredictionReader predictionReader;
+
+    /**
+     * The writer used to stream the bot definition when deploying it.
+     */
+    private final NLUServerBotDataWriter botDataWriter;
+
+    /**
+     * The suffix of the name of the second deployment used by the blue/green training.
+     *
+     * @see #deployAndTrainBotAsync()
+     */
+    static final String GREEN_DEPLOYMENT_SUFFIX = "_green";
+
+    /**
+     * The name of the deployed bot answering the predictions.
+     * <p>
+     * This name is either the name of the bot or the name of the bot with the {@link #GREEN_DEPLOYMENT_SUFFIX},
+     * and is switched once a new model is trained.
+     */
+    private volatile String activeDeploymentName;
+
+    /**
+     * Whether a trained model answers the predictions.
+     */
+    private volatile boolean trainedModel = false;
+
+    /**
+     * The training job currently running, if any.
+     */
+    private final AtomicReference<NLUServerTrainingJob> currentTrainingJob = new AtomicReference<>();
+
+    /**
+     * The executor running the background training jobs.
+     */
+    private final ExecutorService trainingExecutor;
+
     private boolean iamshutdown;
 
     /**
      * Initializes the NLUServer client using the provided {@code configuration}.
+     * <p>
+     * The intents returned by the server are not resolved to Xatkit {@link IntentDefinition}s, see
+     * {@link #NLUServerClientAPIWrapper(NLUServerConfiguration, BotData, Function)}.
      *
      * @param configuration the {@link NLUServerConfiguration} containing the credentials file path
      * @throws IntentRecognitionProviderException if the provided {@code configuration} does not
      *                                            contain a valid url
      */
     public NLUServerClientAPIWrapper(NLUServerConfiguration configuration, BotData bot) throws IntentRecognitionProviderException {
+        this(configuration, bot, name -> null);
+    }
+
+    /**
+     * Initializes the NLUServer client using the provided {@code configuration}.
+     *
+     * @param configuration            the {@link NLUServerConfiguration} containing the credentials file path
+     * @param bot                      the {@link BotData} to deploy
+     * @param intentDefinitionResolver the function returning the Xatkit {@link IntentDefinition} corresponding
+     *                                 to an intent name, or {@code null} if it does not exist
+     * @throws IntentRecognitionProviderException if the provided {@code configuration} does not
+     *                                            contain a valid url
+     * @see NLUServerIntentTable
+     */
+    public NLUServerClientAPIWrapper(NLUServerConfiguration configuration, BotData bot,
+                                     @NonNull Function<String, IntentDefinition> intentDefinitionResolver)
+            throws IntentRecognitionProviderException {
 
         if (isNull(bot) || isNull(configuration)) {
             throw new IntentRecognitionProviderException("An error occurred when initializing the NLUServer client: "
@@ -63,62 +248,183 @@ public class NLUServerClientAPIWrapper {
 
         }
         iamshutdown = false;
-        Unirest.config().defaultBaseUrl(configuration.getUrl());
+        this.activeDeploymentName = bot.getBotName();
+        this.intentDefinitionResolver = intentDefinitionResolver;
+        this.activeIntentTable = new NLUServerIntentTable(bot.snapshot(), intentDefinitionResolver);
+        this.endpointPool = new NLUServerEndpointPool(configuration);
+        this.trainingExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "nluserver-training");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.predictionReader = new NLUServerPredictionReader(() -> activeIntentTable);
+        this.botDataWriter = new NLUServerBotDataWriter();
+        if (configuration.isBatchEnabled()) {
+            this.batcher = new NLUServerPredictionBatcher(configuration.getBatchMaxSize(),
+                    configuration.getBatchWindow(), this::predictBatchAsync);
+        } else {
+            this.batcher = null;
+        }
+        if (configuration.isPredictCoalesce()) {
+            this.inFlightPredictions = new ConcurrentHashMap<>();
+        } else {
+            this.inFlightPredictions = null;
+        }
+        if (configuration.isCacheEnabled()) {
+            this.predictionCache = new NLUServerPredictionCache(configuration.getCacheMaxSize(),
+                    configuration.getCacheTtl());
+        } else {
+            this.predictionCache = null;
+        }
+        if (configuration.isDeploySkipUnchanged()) {
+            this.fingerprintStore =
+                    new NLUServerFingerprintStore(Paths.get(configuration.getDeployFingerprintDirectory()),
+                            bot.getBotName());
+            String storedDeploymentName = this.fingerprintStore.readDeploymentName();
+            if (nonNull(storedDeploymentName)) {
+                /*
+                 * The bot has already been deployed by a previous run: the first training reuses this deployment if
+                 * the bot has not changed, and overwrites it otherwise. The model is not reported as trained until
+                 * then, the active snapshot is still empty and cannot answer the predictions.
+                 */
+                this.activeDeploymentName = storedDeploymentName;
+            }
+        } else {
+            this.fingerprintStore = null;
+        }
+        if (configuration.isHedgeEnabled()) {
+            this.hedger = new NLUServerRequestHedger(endpointPool, configuration.getHedgePercentile(),
+                    configuration.getHedgeMaxRatio(), configuration.getHedgeMinDelay());
+        } else {
+            this.hedger = null;
+        }
+        if (configuration.isMetricsEnabled()) {
+            this.metrics = new NLUServerMetrics(configuration.getMetricsRegistry(), bot.getBotName());
+        } else {
+            this.metrics = null;
+        }
+        long deadline = configuration.getPredictDeadline();
+        if (deadline > 0 && (configuration.getHttpSocketTimeout() <= 0
+                || deadline < configuration.getHttpSocketTimeout())) {
+            /*
+             * A socket timeout of 0 is infinite.
+             */
+            this.predictSocketTimeout = (int) deadline;
+        } else {
+            this.predictSocketTimeout = configuration.getHttpSocketTimeout();
+        }
     }
 
-
     /**
-     * Deploy the bot on the NLUServer available in the configuration URL.
+     * Deploy the bot on the provided {@code endpoint}.
+     * @param endpoint       the {@link NLUServerEndpoint} to deploy the bot on
+     * @param snapshot       the {@link BotSnapshot} to deploy
+     * @param deploymentName the name to deploy the bot under
+     * @param forceOverwrite whether to overwrite an existing bot with the same name
      * @return true if the bot was successfully deployed
      */
-    private boolean deployBot() {
+    private boolean deployBot(NLUServerEndpoint endpoint, BotSnapshot snapshot, String deploymentName,
+                              boolean forceOverwrite) {
         boolean isDeployed = false;
+        UnirestInstance httpClient = endpoint.getClient();
 
         Map<String, Object> fields = new HashMap<>();
-        fields.put("name", bot.getBotName());
-        fields.put("force_overwrite", configuration.isForceOverwrite());
+        fields.put("name", deploymentName);
+        fields.put("force_overwrite", forceOverwrite);
 
+        NLUServerDeployEvent deployEvent = NLUServerFlightRecorder.isAvailable() ?
+                NLUServerDeployEvent.begin(deploymentName, forceOverwrite) : null;
         HttpResponse<JsonNode> response
-                    = Unirest.post("/bot/new/")
+                    = httpClient.post("/bot/new/")
                     .header("Content-Type", "application/json")
                     .header("Accept", "application/json")
                     .body(fields).asJson();
+        if (nonNull(deployEvent)) {
+            deployEvent.complete(response.getStatus());
+        }
         if (response.getStatus() == 200) {
             this.bot.setUUID(response.getBody().getObject().get("uuid").toString());
+            NLUServerInitializeEvent initializeEvent = NLUServerFlightRecorder.isAvailable() ?
+                    NLUServerInitializeEvent.begin(deploymentName, configuration.isDeployCompression()) : null;
+            int initializationStatus = 0;
             try {
-                Map<String, Object> initializationFields = new HashMap<>();
-                BotDTO botDTO = new BotDTO(bot);
-
-                initializationFields.put("name", botDTO.name);
-                initializationFields.put("contexts", botDTO.contexts);
-                initializationFields.put("entities", botDTO.entities);
-                initializationFields.put("intents", botDTO.intents);
-
-                HttpResponse<JsonNode> responseInitialization = Unirest.post("/bot/{botname}/initialize/")
+                HttpRequestWithBody initializationRequest = httpClient.post("/bot/{botname}/initialize/")
                         .header("Content-Type", "application/json")
                         .header("Accept", "application/json")
-                        .routeParam("botname", bot.getBotName())
-                        .body(initializationFields)
-                        .asJson();
+                        .routeParam("botname", deploymentName);
+                if (configuration.isDeployCompression()) {
+                    initializationRequest.header("Content-Encoding", "gzip");
+                }
+                HttpResponse<JsonNode> responseInitialization;
+                try (CountingInputStream definition = new CountingInputStream(botDataWriter.stream(snapshot,
+                        deploymentName, configuration.isDeployCompression()))) {
+                    responseInitialization = initializationRequest
+                            .body(definition)
+                            .asJson();
+                    if (nonNull(metrics)) {
+                        metrics.recordDeployPayload(definition.getCount());
+                    }
+                    if (nonNull(initializeEvent)) {
+                        initializeEvent.setPayloadBytes(definition.getCount());
+                    }
+                }
+                initializationStatus = responseInitialization.getStatus();
                 if (responseInitialization.getStatus() == 200) {
                     isDeployed = true;
                 } else {
+                    recordError(responseInitialization.getStatus());
                     Log.warn("Error during bot initialization: {0}", responseInitialization.getStatusText());
                 }
             } catch(Exception e) {
-                System.out.println(e.getMessage());
+                Log.error("An error occurred when initializing the bot {0}: {1}", deploymentName, e.getMessage());
+            } finally {
+                if (nonNull(initializeEvent)) {
+                    initializeEvent.complete(initializationStatus);
+                }
             }
         } else {
+            recordError(response.getStatus());
             Log.warn("Error during bot creation: {0}", response.getStatusText());
         }
         return isDeployed;
     }
 
     /**
-     * Trains the bot on the NLUServer available in the configuration URL
+     * Trains the bot on the provided {@code endpoint}.
+     * @param endpoint       the {@link NLUServerEndpoint} to train the bot on
+     * @param deploymentName the name the bot has been deployed under
      */
-    private boolean trainBot() {
+    private boolean trainBot(NLUServerEndpoint endpoint, String deploymentName) {
         boolean isTrained = false;
+        UnirestInstance httpClient = endpoint.getClient();
+        Map<String, Object> configurationFields = createTrainingFields();
+
+        NLUServerTrainEvent trainEvent = NLUServerFlightRecorder.isAvailable() ?
+                NLUServerTrainEvent.begin(deploymentName) : null;
+        HttpResponse<JsonNode> response = httpClient.post("/bot/{botname}/train/")
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .routeParam("botname", deploymentName)
+                .body(configurationFields)
+                .asJson();
+        if (nonNull(trainEvent)) {
+            trainEvent.complete(response.getStatus());
+        }
+        if (response.isSuccess()) {
+            isTrained = true;
+        } else {
+            recordError(response.getStatus());
+            Log.warn("Error during bot training {0}", response.getStatusText() + response.getBody().toString());
+        }
+        return isTrained;
+    }
+
+    /**
+     * Creates the training options sent to the server.
+     *
+     * @return the training options
+     */
+    private Map<String, Object> createTrainingFields() {
         Map<String, Object> configurationFields = new HashMap<>();
         configurationFields.put("country", configuration.getLanguageCode());
         configurationFields.put("region", configuration.getLanguageRegionCode());
@@ -135,164 +441,900 @@ public class NLUServerClientAPIWrapper {
         configurationFields.put("use_ner_in_prediction", configuration.isUseNerInPrediction());
         configurationFields.put("activation_last_layer", configuration.getActivationLastLayer());
         configurationFields.put("activation_hidden_layers", configuration.getActivationHiddenLayers());
+        return configurationFields;
+    }
 
-        HttpResponse<JsonNode> response = Unirest.post("/bot/{botname}/train/")
-                .header("Content-Type", "application/json")
-                .header("Accept", "application/json")
-                .routeParam("botname", bot.getBotName())
-                .body(configurationFields)
-                .asJson();
-        if (response.isSuccess()) {
-            isTrained = true;
-        } else {
-            Log.warn("Error during bot training {0}", response.getStatusText() + response.getBody().toString());
+    /**
+     * Deploys and trains the bot on all the replicas of the NLU server.
+     * <p>
+     * This method blocks until the bot is trained. The bot is deployed in place of the current model, and the
+     * prediction cache (if enabled) is cleared once the bot has been redeployed, whether it succeeded or not. If
+     * {@link NLUServerConfiguration#DEPLOY_SKIP_UNCHANGED} is enabled and the fingerprint of the bot definition and
+     * its training options matches the stored one, the bot is not redeployed.
+     *
+     * @return {@code true} if the bot was deployed and trained on all the replicas (or did not need to be),
+     * {@code false} otherwise
+     * @see #deployAndTrainBot(BotSnapshot)
+     */
+    public boolean deployAndTrainBot() {
+        return deployAndTrainBot(bot.snapshot());
+    }
+
+    /**
+     * Deploys and trains the provided {@code snapshot} of the bot on all the replicas of the NLU server.
+     * <p>
+     * The {@link NLUServerIntentTable} of the {@code snapshot} is built before the deployment, and the
+     * {@code snapshot} and its table are published to the predictions once it is trained.
+     *
+     * @param snapshot the {@link BotSnapshot} to deploy
+     * @return {@code true} if the bot was deployed and trained on all the replicas (or did not need to be),
+     * {@code false} otherwise
+     * @throws NullPointerException if the provided {@code snapshot} is {@code null}
+     * @see #deployAndTrainBot()
+     * @see #deployAndTrainBotAsync(BotSnapshot)
+     */
+    public boolean deployAndTrainBot(@NonNull BotSnapshot snapshot) {
+        NLUServerTrainingJob job = new NLUServerTrainingJob(activeDeploymentName, endpointPool.getEndpoints().size());
+        checkState(currentTrainingJob.compareAndSet(null, job), "Cannot train the bot %s, a training job is "
+                + "already running", bot.getBotName());
+        runTrainingJob(job, new NLUServerIntentTable(snapshot, intentDefinitionResolver),
+                configuration.isForceOverwrite());
+        return job.getResult().join();
+    }
+
+    /**
+     * Deploys and trains the bot on all the replicas of the NLU server in the background.
+     * <p>
+     * The bot is deployed under a different name than the current model (blue/green deployment): the current model
+     * keeps answering the predictions while the new one is trained, and the predictions are switched to the new
+     * model once it is trained on all the replicas. If the training fails the current model keeps answering the
+     * predictions.
+     * <p>
+     * The returned {@link NLUServerTrainingJob} can be used to poll the progress of the training, and to register
+     * completion callbacks.
+     *
+     * @return the submitted {@link NLUServerTrainingJob}
+     * @throws IllegalStateException if a training job is already running
+     * @see #deployAndTrainBotAsync(BotSnapshot)
+     */
+    public NLUServerTrainingJob deployAndTrainBotAsync() {
+        return deployAndTrainBotAsync(bot.snapshot());
+    }
+
+    /**
+     * Deploys and trains the provided {@code snapshot} of the bot on all the replicas of the NLU server in the
+     * background.
+     * <p>
+     * The {@link NLUServerIntentTable} of the {@code snapshot} is built before the job is submitted. The
+     * {@code snapshot} and its table are published to the predictions once it is trained on all the replicas, the
+     * predictions keep using the current snapshot until then.
+     *
+     * @param snapshot the {@link BotSnapshot} to deploy
+     * @return the submitted {@link NLUServerTrainingJob}
+     * @throws NullPointerException  if the provided {@code snapshot} is {@code null}
+     * @throws IllegalStateException if a training job is already running
+     * @see #deployAndTrainBotAsync()
+     */
+    public NLUServerTrainingJob deployAndTrainBotAsync(@NonNull BotSnapshot snapshot) {
+        String deploymentName = bot.getBotName().equals(activeDeploymentName) ?
+                bot.getBotName() + GREEN_DEPLOYMENT_SUFFIX : bot.getBotName();
+        NLUServerIntentTable intentTable = new NLUServerIntentTable(snapshot, intentDefinitionResolver);
+        NLUServerTrainingJob job = new NLUServerTrainingJob(deploymentName, endpointPool.getEndpoints().size());
+        checkState(currentTrainingJob.compareAndSet(null, job), "Cannot train the bot %s, a training job is "
+                + "already running", bot.getBotName());
+        try {
+            /*
+             * The new model is not used by the predictions until it is trained, it can be safely overwritten.
+             */
+            trainingExecutor.execute(() -> runTrainingJob(job, intentTable, true));
+        } catch (RejectedExecutionException e) {
+            currentTrainingJob.set(null);
+            job.complete(false);
         }
-        return isTrained;
+        return job;
     }
 
-    public boolean deployAndTrainBot() {
-        boolean isDeployed;
-        boolean isTrained = false;
-        isDeployed = deployBot();
-        if (isDeployed) {
-            isTrained = trainBot();
+    /**
+     * Returns the training job currently running.
+     *
+     * @return the running {@link NLUServerTrainingJob}, or {@code null} if the bot is not being trained
+     */
+    public NLUServerTrainingJob getCurrentTrainingJob() {
+        return currentTrainingJob.get();
+    }
+
+    /**
+     * Returns whether a trained model answers the predictions.
+     * <p>
+     * This method returns {@code true} once a populated {@link BotSnapshot} has been activated, i.e. once a training
+     * job completed. A deployment stored by a previous run (see {@link NLUServerConfiguration#DEPLOY_SKIP_UNCHANGED})
+     * is only reported as trained once it has been activated by the first training.
+     *
+     * @return {@code true} if a model has been trained (or reused) and activated, {@code false} otherwise
+     */
+    public boolean hasTrainedModel() {
+        return trainedModel;
+    }
+
+    /**
+     * Returns the name of the deployed bot answering the predictions.
+     *
+     * @return the name of the deployed bot answering the predictions
+     */
+    public String getActiveDeploymentName() {
+        return activeDeploymentName;
+    }
+
+    /**
+     * Returns the snapshot of the bot definition answering the predictions.
+     * <p>
+     * The returned snapshot is empty until a model is activated.
+     *
+     * @return the active {@link BotSnapshot}
+     */
+    public BotSnapshot getActiveBot() {
+        return activeIntentTable.getBot();
+    }
+
+    /**
+     * Returns the intent table of the bot definition answering the predictions.
+     *
+     * @return the active {@link NLUServerIntentTable}
+     */
+    public NLUServerIntentTable getActiveIntentTable() {
+        return activeIntentTable;
+    }
+
+    /**
+     * Deploys and trains the bot on all the replicas of the NLU server, and activates it.
+     * <p>
+     * The bot is not redeployed if its fingerprint matches the stored one, in this case the stored deployment is
+     * activated.
+     *
+     * @param job            the {@link NLUServerTrainingJob} to run
+     * @param intentTable    the {@link NLUServerIntentTable} of the {@link BotSnapshot} to deploy
+     * @param forceOverwrite whether to overwrite an existing bot with the same name
+     */
+    private void runTrainingJob(NLUServerTrainingJob job, NLUServerIntentTable intentTable, boolean forceOverwrite) {
+        BotSnapshot snapshot = intentTable.getBot();
+        boolean isDone = false;
+        try {
+            String fingerprint = null;
+            if (nonNull(fingerprintStore)) {
+                try {
+                    fingerprint = computeFingerprint(snapshot);
+                } catch (IOException e) {
+                    Log.warn("Cannot compute the fingerprint of the bot {0}, the bot will be redeployed: {1}",
+                            bot.getBotName(), e.getMessage());
+                }
+                String storedDeploymentName = fingerprintStore.readDeploymentName();
+                if (nonNull(fingerprint) && nonNull(storedDeploymentName) && fingerprintStore.matches(fingerprint)) {
+                    Log.info("The bot {0} has not changed since its last deployment (fingerprint {1}), skipping "
+                            + "deployment and training", bot.getBotName(), fingerprint);
+                    activate(storedDeploymentName, intentTable, !storedDeploymentName.equals(activeDeploymentName));
+                    isDone = true;
+                    return;
+                }
+                if (job.getDeploymentName().equals(storedDeploymentName)) {
+                    /*
+                     * Clear the stored fingerprint: the stored deployment is overwritten, if the deployment fails
+                     * the bot must be redeployed at the next start.
+                     */
+                    fingerprintStore.clear();
+                }
+            }
+            isDone = deployAndTrainBotOnAllEndpoints(job, snapshot, forceOverwrite);
+            if (isDone) {
+                activate(job.getDeploymentName(), intentTable, true);
+                if (nonNull(fingerprint)) {
+                    fingerprintStore.write(fingerprint, job.getDeploymentName());
+                }
+            } else if (job.getDeploymentName().equals(activeDeploymentName) && nonNull(predictionCache)) {
+                /*
+                 * The active model has been (partially) overwritten.
+                 */
+                predictionCache.invalidateAll();
+            }
+        } catch (RuntimeException e) {
+            Log.error("An error occurred when training the bot {0}: {1}", bot.getBotName(), e.getMessage());
+        } finally {
+            currentTrainingJob.set(null);
+            job.complete(isDone);
         }
-        return isDeployed && isTrained;
+    }
 
+    /**
+     * Switches the predictions to the provided {@code deploymentName}.
+     *
+     * @param deploymentName the name of the deployed bot answering the predictions
+     * @param intentTable    the {@link NLUServerIntentTable} of the {@link BotSnapshot} deployed under
+     *                       {@code deploymentName}
+     * @param modelChanged   whether the model answering the predictions changed, in which case the prediction
+     *                       cache (if enabled) is cleared
+     */
+    private void activate(String deploymentName, NLUServerIntentTable intentTable, boolean modelChanged) {
+        this.activeIntentTable = intentTable;
+        this.activeDeploymentName = deploymentName;
+        this.trainedModel = true;
+        if (modelChanged && nonNull(predictionCache)) {
+            predictionCache.invalidateAll();
+        }
     }
+
+    /**
+     * Computes the fingerprint of the bot definition and its training options.
+     * <p>
+     * The fingerprint is the SHA-256 digest of the definition sent to the server's initialization endpoint, the
+     * training options (sorted by name), and the urls of the server replicas.
+     *
+     * @return the hex-encoded fingerprint
+     * @throws IOException if an error occurred when serializing the bot definition
+     */
+    String computeFingerprint() throws IOException {
+        return computeFingerprint(bot.snapshot());
+    }
+
+    /**
+     * Computes the fingerprint of the provided {@code snapshot} and the training options.
+     *
+     * @param snapshot the {@link BotSnapshot} to compute the fingerprint of
+     * @return the hex-encoded fingerprint
+     * @throws IOException if an error occurred when serializing the bot definition
+     * @see #computeFingerprint()
+     */
+    String computeFingerprint(BotSnapshot snapshot) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not supported by the JVM", e);
+        }
+        try (DigestOutputStream out = new DigestOutputStream(new NullOutputStream(), digest)) {
+            botDataWriter.write(snapshot, snapshot.getBotName(), out);
+        }
+        for (Map.Entry<String, Object> field : new TreeMap<>(createTrainingFields()).entrySet()) {
+            digest.update((field.getKey() + "=" + field.getValue() + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        for (String url : configuration.getUrls()) {
+            digest.update((url + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * An {@link OutputStream} discarding the written bytes.
+     */
+    private static class NullOutputStream extends OutputStream {
+
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    }
+
+    /**
+     * An {@link InputStream} counting the bytes read from the underlying stream.
+     */
+    private static class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+
+        long getCount() {
+            return count;
+        }
+    }
+
+    /**
+     * Deploys and trains the bot on all the replicas of the NLU server.
+     *
+     * @param job            the {@link NLUServerTrainingJob} to update with the progress of the training
+     * @param snapshot       the {@link BotSnapshot} to deploy
+     * @param forceOverwrite whether to overwrite an existing bot with the same name
+     * @return {@code true} if the bot was deployed and trained on all the replicas, {@code false} otherwise
+     */
+    private boolean deployAndTrainBotOnAllEndpoints(NLUServerTrainingJob job, BotSnapshot snapshot,
+                                                    boolean forceOverwrite) {
+        boolean allTrained = true;
+        for (NLUServerEndpoint endpoint : endpointPool.getEndpoints()) {
+            boolean isDeployed;
+            boolean isTrained = false;
+            job.setStatus(NLUServerTrainingJob.Status.DEPLOYING);
+            long start = System.nanoTime();
+            isDeployed = deployBot(endpoint, snapshot, job.getDeploymentName(), forceOverwrite);
+            if (nonNull(metrics)) {
+                metrics.recordDeploy(System.nanoTime() - start);
+            }
+            if (isDeployed) {
+                job.setStatus(NLUServerTrainingJob.Status.TRAINING);
+                start = System.nanoTime();
+                isTrained = trainBot(endpoint, job.getDeploymentName());
+                if (nonNull(metrics)) {
+                    metrics.recordTrain(System.nanoTime() - start);
+                }
+            }
+            if (isDeployed && isTrained) {
+                job.endpointCompleted();
+            } else {
+                Log.warn("Cannot deploy and train the bot on the NLU server {0}", endpoint.getUrl());
+                allTrained = false;
+            }
+        }
+        return allTrained;
+    }
+
     /**
      * Shutdowns the NLUServer client.
      */
     public void shutdown() {
         this.iamshutdown = true;
+        if (nonNull(batcher)) {
+            batcher.shutdown();
+        }
+        if (nonNull(hedger)) {
+            hedger.shutdown();
+        }
+        this.trainingExecutor.shutdownNow();
+        this.endpointPool.shutdown();
     }
 
     public boolean isShutdown() {
         return iamshutdown;
     }
 
-    public Prediction predict(NLUContext nluContext, String input) {
-        Prediction prediction = null;
+    /**
+     * Returns the cache of the predictions returned by the server.
+     *
+     * @return the {@link NLUServerPredictionCache}, or {@code null} if caching is disabled
+     * @see NLUServerConfiguration#CACHE_ENABLED
+     */
+    public NLUServerPredictionCache getPredictionCache() {
+        return predictionCache;
+    }
 
-        Map<String, Object> fields = new HashMap<>();
-        fields.put("utterance", input);
-        fields.put("context", nluContext.getName());
+    /**
+     * Returns the metrics of the client.
+     *
+     * @return the {@link NLUServerMetrics}, or {@code null} if metrics are disabled
+     * @see NLUServerConfiguration#METRICS_ENABLED
+     */
+    public NLUServerMetrics getMetrics() {
+        return metrics;
+    }
 
-        HttpResponse<JsonNode> response = Unirest.post("/bot/{botname}/predict/")
-                .routeParam("botname", bot.getBotName())
-                .header("Content-Type", "application/json")
-                .header("Accept", "application/json")
-                .body(fields)
-                .asJson();
+    /**
+     * Predicts the intent matching the provided {@code input} in the given {@code nluContext}.
+     * <p>
+     * This method blocks the calling thread until the NLU server answers. See
+     * {@link #predictAsync(NLUContext, String)} for a non-blocking alternative.
+     *
+     * @param nluContext the {@link NLUContext} to compute the prediction in
+     * @param input      the user input to classify
+     * @return the {@link Prediction} returned by the server, or {@code null} if the server returned an error
+     */
+    public Prediction predict(NLUContext nluContext, String input) {
+        return predict(nluContext, input, null);
+    }
 
-        if (response.isSuccess()) {
-            kong.unirest.json.JSONObject predictionDTO = response.getBody().getObject();
-            JSONArray classificationsDTO = predictionDTO.getJSONArray("classifications");
-
-            prediction = new Prediction();
-
-            for (int i = 0; i < classificationsDTO.length(); i++) {
-                JSONObject classificationDTO = classificationsDTO.getJSONObject(i);
-                Classification c = new Classification();
-                c.setIntent(this.bot.getIntent(classificationDTO.getString("intent")));
-                c.setScore(classificationDTO.getFloat("score"));
-                c.setMatchedUtterance(classificationDTO.getString("matched_utterance"));
-                JSONArray matchedParamsDTO = classificationDTO.getJSONArray("matched_parameters");
-                //Iterate over the map and add the params to the prediction
-                for (int j = 0; j < matchedParamsDTO.length(); j++) {
-                    JSONObject matchedParamDTO = matchedParamsDTO.getJSONObject(j);
-                    MatchedParam p = new MatchedParam(matchedParamDTO.getString("name"),
-                            matchedParamDTO.optString("value", ""),
-                            matchedParamDTO.optJSONObject("info").toMap());
-                    c.addMatchedParam(p);
+    /**
+     * Predicts the intent matching the provided {@code input} in the given {@code nluContext}, and records the
+     * duration of the request phases in the provided {@code timings}.
+     * <p>
+     * The {@link NLUServerRecognitionTimings.Phase#REQUEST} and {@link NLUServerRecognitionTimings.Phase#READ}
+     * phases are recorded if the prediction is requested to a single replica. They are not recorded if the
+     * prediction is cached, shared with a pending request, batched, or hedged.
+     *
+     * @param nluContext the {@link NLUContext} to compute the prediction in
+     * @param input      the user input to classify
+     * @param timings    the {@link NLUServerRecognitionTimings} to record the phases in, or {@code null} to skip
+     *                   the recording
+     * @return the {@link Prediction} returned by the server, or {@code null} if the server returned an error
+     * @see #predict(NLUContext, String)
+     */
+    public Prediction predict(NLUContext nluContext, String input, @Nullable NLUServerRecognitionTimings timings) {
+        if (nonNull(batcher) || nonNull(hedger) || nonNull(inFlightPredictions) || nonNull(predictionCache)) {
+            return predictAsync(nluContext, input, timings).join();
+        }
+        NLUServerEndpoint endpoint = endpointPool.select();
+        endpoint.requestStarted();
+        if (nonNull(metrics)) {
+            metrics.requestStarted();
+        }
+        boolean success = false;
+        int status = 0;
+        Prediction prediction = null;
+        String deploymentName = activeDeploymentName;
+        NLUServerPredictEvent event = NLUServerFlightRecorder.isAvailable() ?
+                NLUServerPredictEvent.begin(deploymentName, nluContext.getName()) : null;
+        LongConsumer payloadListener = isNull(event) ? null : event::setPayloadBytes;
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Prediction> response = endpoint.getClient().post("/bot/{botname}/predict/")
+                    .routeParam("botname", deploymentName)
+                    .header("Content-Type", "application/json")
+                    .header("Accept", "application/json")
+                    .socketTimeout(predictSocketTimeout)
+                    .body(createPredictionFields(nluContext, input))
+                    .asObject(rawResponse -> readPrediction(rawResponse, timings, start, payloadListener));
+            success = isHealthyResponse(response);
+            status = response.getStatus();
+            prediction = response.getBody();
+            return prediction;
+        } finally {
+            if (nonNull(event)) {
+                event.complete(status, prediction);
+            }
+            endpoint.requestCompleted(success);
+            if (nonNull(metrics)) {
+                metrics.requestCompleted();
+                if (status < 200 || status >= 300) {
+                    metrics.recordError(status);
                 }
-                prediction.addClassification(c);
             }
-        } else {
-            Log.warn("Error during bot prediction {0}", response.getStatusText() + response.getBody().toString());
         }
-        return prediction;
     }
 
-    private class CustomEntityEntryDTO {
-        String value;
-        List<String> synonyms = new ArrayList<>();
+    /**
+     * Asynchronously predicts the intent matching the provided {@code input} in the given {@code nluContext}.
+     * <p>
+     * The request is sent through Unirest's asynchronous client: the calling thread is released as soon as the
+     * request is submitted, and the returned {@link CompletableFuture} is completed once the server's response has
+     * been processed. If batching is enabled the request is added to the current batch, otherwise, if hedging is
+     * enabled, the request is sent again to another replica if it is not answered in time.
+     * <p>
+     * If coalescing is enabled, a request for an input that is already being classified in the same context does
+     * not call the server, and is completed with the result of the pending request. If caching is enabled, the
+     * returned {@link CompletableFuture} is already completed when the prediction is cached. In both cases the
+     * returned {@link Prediction} is shared with other callers, and is read-only (see
+     * {@link Prediction#setReadOnly()}).
+     *
+     * @param nluContext the {@link NLUContext} to compute the prediction in
+     * @param input      the user input to classify
+     * @return a {@link CompletableFuture} completed with the {@link Prediction} returned by the server, or with
+     * {@code null} if the server returned an error
+     * @see #predict(NLUContext, String)
+     * @see NLUServerPredictionBatcher
+     * @see NLUServerRequestHedger
+     */
+    public CompletableFuture<Prediction> predictAsync(NLUContext nluContext, String input) {
+        return predictAsync(nluContext, input, null);
+    }
+
+    /**
+     * Asynchronously predicts the intent matching the provided {@code input} in the given {@code nluContext}, and
+     * records the duration of the request phases in the provided {@code timings}.
+     * <p>
+     * The phases are recorded before the completion of the returned {@link CompletableFuture}, see
+     * {@link #predict(NLUContext, String, NLUServerRecognitionTimings)} for the recorded phases.
+     *
+     * @param nluContext the {@link NLUContext} to compute the prediction in
+     * @param input      the user input to classify
+     * @param timings    the {@link NLUServerRecognitionTimings} to record the phases in, or {@code null} to skip
+     *                   the recording
+     * @return a {@link CompletableFuture} completed with the {@link Prediction} returned by the server, or with
+     * {@code null} if the server returned an error
+     * @see #predictAsync(NLUContext, String)
+     */
+    public CompletableFuture<Prediction> predictAsync(NLUContext nluContext, String input,
+                                                      @Nullable NLUServerRecognitionTimings timings) {
+        if (isNull(inFlightPredictions) && isNull(predictionCache)) {
+            return sendPrediction(nluContext, input, timings);
+        }
+        NLUServerPredictionKey key = new NLUServerPredictionKey(activeDeploymentName, nluContext.getName(),
+                input);
+        if (nonNull(predictionCache)) {
+            Prediction cachedPrediction = predictionCache.get(key);
+            if (nonNull(cachedPrediction)) {
+                return CompletableFuture.completedFuture(cachedPrediction);
+            }
+        }
+        if (isNull(inFlightPredictions)) {
+            return fetchPrediction(key, nluContext, input, timings);
+        }
+        CompletableFuture<Prediction> inFlightPrediction = inFlightPredictions.get(key);
+        if (isNull(inFlightPrediction)) {
+            CompletableFuture<Prediction> prediction = new CompletableFuture<>();
+            inFlightPrediction = inFlightPredictions.putIfAbsent(key, prediction);
+            if (isNull(inFlightPrediction)) {
+                inFlightPrediction = prediction;
+                fetchPrediction(key, nluContext, input, timings).whenComplete((result, throwable) -> {
+                    /*
+                     * Remove the request before completing it: requests received after the response are sent to
+                     * the server.
+                     */
+                    inFlightPredictions.remove(key, prediction);
+                    if (isNull(throwable)) {
+                        if (nonNull(result)) {
+                            result.setReadOnly();
+                        }
+                        prediction.complete(result);
+                    } else {
+                        prediction.completeExceptionally(throwable);
+                    }
+                });
+            }
+        }
+        /*
+         * Each caller gets its own future: cancelling it does not cancel the request shared with the other callers.
+         */
+        return inFlightPrediction.thenApply(Function.identity());
     }
 
-    private class EntityTypeDTO {
-        String name;
-        List<CustomEntityEntryDTO> entries = new ArrayList<>();
-        //We use a single class to represent all the possible entities, either custom or not
+    /**
+     * Sends a prediction request for the provided {@code input} and caches its result.
+     * <p>
+     * Errors (i.e. {@code null} predictions) are not cached.
+     *
+     * @param key        the key of the prediction in the cache
+     * @param nluContext the {@link NLUContext} to compute the prediction in
+     * @param input      the user input to classify
+     * @param timings    the {@link NLUServerRecognitionTimings} to record the phases in, or {@code null}
+     * @return a {@link CompletableFuture} completed with the {@link Prediction} returned by the server, or with
+     * {@code null} if the server returned an error
+     * @see NLUServerPredictionCache
+     */
+    private CompletableFuture<Prediction> fetchPrediction(NLUServerPredictionKey key, NLUContext nluContext,
+                                                          String input,
+                                                          @Nullable NLUServerRecognitionTimings timings) {
+        if (isNull(predictionCache)) {
+            return sendPrediction(nluContext, input, timings);
+        }
+        long generation = predictionCache.getGeneration();
+        return sendPrediction(nluContext, input, timings).thenApply(prediction -> {
+            if (nonNull(prediction)) {
+                predictionCache.put(key, prediction, generation);
+            }
+            return prediction;
+        });
     }
 
-    private class IntentParameterDTO {
-        String fragment;
-        String name;
-        String entity;
+    /**
+     * Sends a prediction request for the provided {@code input} in the given {@code nluContext}.
+     * <p>
+     * The request is added to the current batch if batching is enabled (and supported by the server), and sent
+     * individually otherwise (see {@link #sendSinglePrediction(NLUContext, String, NLUServerRecognitionTimings)}).
+     * <p>
+     * The request phases are not recorded in the provided {@code timings} if the request is batched: a batched
+     * request shares its phases with the other requests of the batch.
+     *
+     * @param nluContext the {@link NLUContext} to compute the prediction in
+     * @param input      the user input to classify
+     * @param timings    the {@link NLUServerRecognitionTimings} to record the phases in, or {@code null}
+     * @return a {@link CompletableFuture} completed with the {@link Prediction} returned by the server, or with
+     * {@code null} if the server returned an error
+     */
+    private CompletableFuture<Prediction> sendPrediction(NLUContext nluContext, String input,
+                                                         @Nullable NLUServerRecognitionTimings timings) {
+        if (nonNull(batcher) && batchSupported) {
+            return batcher.submit(nluContext, input);
+        }
+        return sendSinglePrediction(nluContext, input, timings);
     }
 
-    private class IntentDTO {
-        String name;
-        List<String> training_sentences = new ArrayList<>();
-        List<IntentParameterDTO> parameters = new ArrayList<>();
+    /**
+     * Sends an individual prediction request for the provided {@code input} in the given {@code nluContext}.
+     * <p>
+     * The request is hedged if hedging is enabled, and sent to the replica selected by the
+     * {@link NLUServerEndpointPool} otherwise.
+     * <p>
+     * The request phases are only recorded in the provided {@code timings} in the latter case: the attempts of a
+     * hedged request run concurrently.
+     *
+     * @param nluContext the {@link NLUContext} to compute the prediction in
+     * @param input      the user input to classify
+     * @param timings    the {@link NLUServerRecognitionTimings} to record the phases in, or {@code null}
+     * @return a {@link CompletableFuture} completed with the {@link Prediction} returned by the server, or with
+     * {@code null} if the server returned an error
+     */
+    private CompletableFuture<Prediction> sendSinglePrediction(NLUContext nluContext, String input,
+                                                               @Nullable NLUServerRecognitionTimings timings) {
+        if (nonNull(hedger)) {
+            return hedger.send(endpoint -> predictAsync(endpoint, nluContext, input, null));
+        }
+        return predictAsync(endpointPool.select(), nluContext, input, timings);
     }
 
-    private class IntentReferenceDTO {
-        String intent;
+    /**
+     * Asynchronously predicts the intent matching the provided {@code input} on the given {@code endpoint}.
+     *
+     * @param endpoint   the {@link NLUServerEndpoint} to send the request to
+     * @param nluContext the {@link NLUContext} to compute the prediction in
+     * @param input      the user input to classify
+     * @param timings    the {@link NLUServerRecognitionTimings} to record the phases in, or {@code null}
+     * @return a {@link CompletableFuture} completed with the {@link Prediction} returned by the server, or with
+     * {@code null} if the server returned an error
+     */
+    private CompletableFuture<Prediction> predictAsync(NLUServerEndpoint endpoint, NLUContext nluContext,
+                                                       String input, @Nullable NLUServerRecognitionTimings timings) {
+        endpoint.requestStarted();
+        String deploymentName = activeDeploymentName;
+        NLUServerPredictEvent event = NLUServerFlightRecorder.isAvailable() ?
+                NLUServerPredictEvent.begin(deploymentName, nluContext.getName()) : null;
+        LongConsumer payloadListener = isNull(event) ? null : event::setPayloadBytes;
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<Prediction>> request = track(endpoint, endpoint.getClient()
+                .post("/bot/{botname}/predict/")
+                .routeParam("botname", deploymentName)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .socketTimeout(predictSocketTimeout)
+                .body(createPredictionFields(nluContext, input))
+                .asObjectAsync(rawResponse -> readPrediction(rawResponse, timings, start, payloadListener)));
+        if (nonNull(event)) {
+            request = request.whenComplete((response, throwable) -> event.complete(
+                    isNull(throwable) ? response.getStatus() : 0, isNull(throwable) ? response.getBody() : null));
+        }
+        return request.thenApply(HttpResponse::getBody);
     }
 
-    private class NLUContextDTO {
-        String name;
-        List<IntentReferenceDTO> intent_refs = new ArrayList<>();
+    /**
+     * Sends the provided prediction {@code requests} to the server's batch prediction endpoint.
+     * <p>
+     * The server computes all the predictions in a single call, and returns them in the order of the provided
+     * {@code requests}.
+     * <p>
+     * The batch endpoint is not implemented by all the versions of the NLU server: if the server answers with a
+     * {@code 404} status batching is disabled, and the {@code requests} (as well as the next ones) are sent
+     * individually.
+     *
+     * @param requests the prediction requests to send
+     * @return a {@link CompletableFuture} completed with the {@link Prediction}s returned by the server, or with
+     * {@code null} if the server returned an error
+     */
+    private CompletableFuture<List<Prediction>> predictBatchAsync(
+            List<NLUServerPredictionBatcher.PendingPrediction> requests) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("requests", requests.stream()
+                .map(r -> createPredictionFields(r.getNluContext(), r.getInput()))
+                .collect(Collectors.toList()));
+        NLUServerEndpoint endpoint = endpointPool.select();
+        endpoint.requestStarted();
+        return track(endpoint, endpoint.getClient().post("/bot/{botname}/predict/batch/")
+                .routeParam("botname", activeDeploymentName)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .socketTimeout(predictSocketTimeout)
+                .body(fields)
+                .asObjectAsync(this::readPredictions))
+                .thenCompose(response -> {
+                    if (response.getStatus() == 404) {
+                        if (batchSupported) {
+                            batchSupported = false;
+                            Log.warn("The NLU server does not implement the batch prediction endpoint, batching "
+                                    + "is disabled and the predictions are sent individually");
+                        }
+                        return sendSinglePredictions(requests);
+                    }
+                    return CompletableFuture.completedFuture(response.getBody());
+                });
     }
 
-    private class BotDTO {
-        String name;
-        List<NLUContextDTO> contexts = new ArrayList<>();
-        List<EntityTypeDTO> entities = new ArrayList<>();
-        List<IntentDTO> intents = new ArrayList<>();
+    /**
+     * Sends the provided prediction {@code requests} individually.
+     *
+     * @param requests the prediction requests to send
+     * @return a {@link CompletableFuture} completed with the {@link Prediction}s returned by the server, in the
+     * order of the provided {@code requests}, or completed exceptionally if one of the requests failed
+     * @see #sendSinglePrediction(NLUContext, String, NLUServerRecognitionTimings)
+     */
+    private CompletableFuture<List<Prediction>> sendSinglePredictions(
+            List<NLUServerPredictionBatcher.PendingPrediction> requests) {
+        List<CompletableFuture<Prediction>> predictions = requests.stream()
+                .map(r -> sendSinglePrediction(r.getNluContext(), r.getInput(), null))
+                .collect(Collectors.toList());
+        return CompletableFuture.allOf(predictions.toArray(new CompletableFuture<?>[0]))
+                .thenApply(v -> predictions.stream().map(CompletableFuture::join).collect(Collectors.toList()));
+    }
 
-        BotDTO (BotData bot) {
-            this.name = bot.getBotName();
-            for (EntityType e : bot.getEntities()) {
-                EntityTypeDTO eDTO = new EntityTypeDTO();
-                eDTO.name = e.getName();
-                if (e instanceof CustomEntityType) {
-                    for (CustomEntityTypeEntry entry : ((CustomEntityType) e).getEntries()) {
-                        CustomEntityEntryDTO entryDTO = new CustomEntityEntryDTO();
-                        entryDTO.value = entry.getValue();
-                        entryDTO.synonyms.addAll(entry.getSynonyms());
-                        eDTO.entries.add(entryDTO);
-                    }
+    /**
+     * Records the completion of the provided {@code request} on the {@code endpoint} it has been sent to.
+     * <p>
+     * The request is also recorded in the {@link NLUServerMetrics} if metrics are enabled.
+     *
+     * @param endpoint the {@link NLUServerEndpoint} the request has been sent to
+     * @param request  the pending request
+     * @param <T>      the type of the response body
+     * @return the provided {@code request}, completed once the endpoint has been updated
+     * @see NLUServerEndpoint#requestCompleted(boolean)
+     */
+    private <T> CompletableFuture<HttpResponse<T>> track(NLUServerEndpoint endpoint,
+                                                         CompletableFuture<HttpResponse<T>> request) {
+        if (nonNull(metrics)) {
+            metrics.requestStarted();
+        }
+        return request.whenComplete((response, throwable) -> {
+            endpoint.requestCompleted(isNull(throwable) && isHealthyResponse(response));
+            if (nonNull(metrics)) {
+                metrics.requestCompleted();
+                if (nonNull(throwable)) {
+                    metrics.recordError(0);
+                } else if (!response.isSuccess()) {
+                    metrics.recordError(response.getStatus());
                 }
-                this.entities.add(eDTO);
             }
+        });
+    }
 
-            for (Intent i : bot.getIntents()) {
-                IntentDTO intentDTO = new IntentDTO();
-                intentDTO.name = i.getName();
-                intentDTO.training_sentences.addAll(i.getTrainingSentences());
-                for (EntityParameter ep : i.getParameters()) {
-                    IntentParameterDTO erDTO = new IntentParameterDTO();
-                    erDTO.name = ep.getName();
-                    erDTO.fragment = ep.getFragment();
-                    erDTO.entity = ep.getType().getName();
-                    intentDTO.parameters.add(erDTO);
+    /**
+     * Records a failed request in the {@link NLUServerMetrics}, if metrics are enabled.
+     *
+     * @param status the HTTP status of the response
+     */
+    private void recordError(int status) {
+        if (nonNull(metrics)) {
+            metrics.recordError(status);
+        }
+    }
+
+    /**
+     * Creates the body of a prediction request.
+     *
+     * @param nluContext the {@link NLUContext} to compute the prediction in
+     * @param input      the user input to classify
+     * @return the fields to send to the server
+     */
+    private Map<String, Object> createPredictionFields(NLUContext nluContext, String input) {
+        Map<String, Object> fields = new HashMap<>();
+        fields.put("utterance", input);
+        fields.put("context", nluContext.getName());
+        if (configuration.getPredictTopK() > 0) {
+            fields.put("top_k", configuration.getPredictTopK());
+        }
+        return fields;
+    }
+
+    /**
+     * Reads the {@link Prediction} contained in the provided {@code rawResponse}.
+     * <p>
+     * The response content is streamed into the {@link Prediction} by the {@link NLUServerPredictionReader},
+     * without building an intermediate JSON tree.
+     * <p>
+     * The {@link NLUServerRecognitionTimings.Phase#REQUEST} phase ends when this method is called, the
+     * {@link NLUServerRecognitionTimings.Phase#READ} phase when the response content has been read.
+     *
+     * @param rawResponse     the response of a prediction request
+     * @param timings         the {@link NLUServerRecognitionTimings} to record the phases in, or {@code null}
+     * @param start           the {@link System#nanoTime()} when the request has been submitted
+     * @param payloadListener the listener notified with the size of the response content (e.g. the
+     *                        {@link NLUServerPredictEvent} of the request), or {@code null}
+     * @return the read {@link Prediction}, or {@code null} if the server returned an error
+     * @throws UncheckedIOException if an error occurred when reading the response
+     */
+    private Prediction readPrediction(RawResponse rawResponse, @Nullable NLUServerRecognitionTimings timings,
+                                      long start, @Nullable LongConsumer payloadListener) {
+        long received = System.nanoTime();
+        if (nonNull(timings)) {
+            timings.record(NLUServerRecognitionTimings.Phase.REQUEST, received - start);
+        }
+        if (!isSuccess(rawResponse)) {
+            Log.warn("Error during bot prediction {0}", rawResponse.getStatusText() + rawResponse.getContentAsString());
+            return null;
+        }
+        try {
+            Prediction prediction;
+            if (isNull(metrics) && isNull(payloadListener)) {
+                prediction = predictionReader.readPrediction(rawResponse.getContent());
+            } else {
+                CountingInputStream content = new CountingInputStream(rawResponse.getContent());
+                prediction = predictionReader.readPrediction(content);
+                if (nonNull(metrics)) {
+                    metrics.recordPredictPayload(content.getCount());
+                }
+                if (nonNull(payloadListener)) {
+                    payloadListener.accept(content.getCount());
                 }
-                this.intents.add(intentDTO);
             }
+            if (nonNull(timings)) {
+                timings.record(NLUServerRecognitionTimings.Phase.READ, System.nanoTime() - received);
+            }
+            return limitClassifications(prediction);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the prediction returned by the NLU server", e);
+        }
+    }
 
-            for (NLUContext c : bot.getNluContexts()) {
-                NLUContextDTO cDTO = new NLUContextDTO();
-                cDTO.name = c.getName();
-                for (IntentReference ir : c.getIntentReferences()) {
-                    IntentReferenceDTO irDTO = new IntentReferenceDTO();
-                    irDTO.intent = ir.getName();
-                    irDTO.intent = ir.getName();
-                    cDTO.intent_refs.add(irDTO);
-                }
-                this.contexts.add(cDTO);
+    /**
+     * Reads the {@link Prediction}s contained in the provided batch prediction {@code rawResponse}.
+     *
+     * @param rawResponse the response of a batch prediction request
+     * @return the read {@link Prediction}s, or {@code null} if the server returned an error
+     * @throws UncheckedIOException if an error occurred when reading the response
+     */
+    private List<Prediction> readPredictions(RawResponse rawResponse) {
+        if (!isSuccess(rawResponse)) {
+            Log.warn("Error during bot batch prediction {0}",
+                    rawResponse.getStatusText() + rawResponse.getContentAsString());
+            return null;
+        }
+        try {
+            List<Prediction> predictions;
+            if (isNull(metrics)) {
+                predictions = predictionReader.readPredictions(rawResponse.getContent());
+            } else {
+                CountingInputStream content = new CountingInputStream(rawResponse.getContent());
+                predictions = predictionReader.readPredictions(content);
+                metrics.recordPredictPayload(content.getCount());
             }
+            predictions.replaceAll(this::limitClassifications);
+            return predictions;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read the predictions returned by the NLU server", e);
+        }
+    }
+
+    /**
+     * Keeps the top {@link NLUServerConfiguration#PREDICT_TOP_K} classifications of the provided
+     * {@code prediction}.
+     * <p>
+     * The server is asked for the top classifications only, this method truncates the predictions returned by
+     * servers that do not support this option.
+     *
+     * @param prediction the {@link Prediction} to truncate
+     * @return the provided {@code prediction} if it does not need to be truncated, or a new {@link Prediction}
+     * containing its top classifications
+     */
+    private Prediction limitClassifications(Prediction prediction) {
+        int topK = configuration.getPredictTopK();
+        if (topK <= 0 || prediction.size() <= topK) {
+            return prediction;
         }
+        return prediction.top(topK);
+    }
+
+    /**
+     * Returns whether the provided {@code rawResponse} has a successful (2xx) status.
+     *
+     * @param rawResponse the response to check
+     * @return {@code true} if the response is successful, {@code false} otherwise
+     */
+    private static boolean isSuccess(RawResponse rawResponse) {
+        return rawResponse.getStatus() >= 200 && rawResponse.getStatus() < 300;
+    }
+
+    /**
+     * Returns whether the provided {@code response} denotes a working replica.
+     * <p>
+     * Client errors (4xx) are caused by the request itself, and are not considered as failures of the replica.
+     *
+     * @param response the response to check
+     * @return {@code true} if the response does not have a server error (5xx) status, {@code false} otherwise
+     */
+    private static boolean isHealthyResponse(HttpResponse<?> response) {
+        return response.getStatus() < 500;
     }
 }
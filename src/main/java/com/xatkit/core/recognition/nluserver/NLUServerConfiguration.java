@@ -1,10 +1,18 @@
 package com.xatkit.core.recognition.nluserver;
 
 import fr.inria.atlanmod.commons.log.Log;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import lombok.NonNull;
 import lombok.Value;
 import org.apache.commons.configuration2.Configuration;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
 import static fr.inria.atlanmod.commons.Preconditions.checkArgument;
 
 /**
@@ -55,6 +63,10 @@ public class NLUServerConfiguration {
 
     /**
      * The url of the Xatkit NLU Server
+     * <p>
+     * This property can contain several comma-separated urls (or be set multiple times) to access replicas of the
+     * server. In this case the bot is deployed on every replica, and the prediction requests are balanced between
+     * them.
      */
     public static final String URL = "xatkit.nluserver.url";
 
@@ -133,6 +145,260 @@ public class NLUServerConfiguration {
      */
     public static final String ACTIVATION_HIDDEN_LAYERS = "xatkit.nluserver.activation_hidden_layers";
 
+    /**
+     * The {@link Configuration} key to store the maximum number of connections of the client's HTTP pool.
+     */
+    public static final String HTTP_MAX_CONNECTIONS = "xatkit.nluserver.http.max_connections";
+
+    /**
+     * The {@link Configuration} key to store the maximum number of connections per route of the client's HTTP pool.
+     */
+    public static final String HTTP_MAX_CONNECTIONS_PER_ROUTE = "xatkit.nluserver.http.max_connections_per_route";
+
+    /**
+     * The {@link Configuration} key to store the connection timeout (in milliseconds) of the client's HTTP pool.
+     */
+    public static final String HTTP_CONNECT_TIMEOUT = "xatkit.nluserver.http.connect_timeout";
+
+    /**
+     * The {@link Configuration} key to store the socket timeout (in milliseconds) of the client's HTTP pool.
+     */
+    public static final String HTTP_SOCKET_TIMEOUT = "xatkit.nluserver.http.socket_timeout";
+
+    /**
+     * The {@link Configuration} key to store the time (in milliseconds) a pooled connection is kept alive.
+     * <p>
+     * Connections older than this value are evicted from the pool. The default value is {@code -1} (connections
+     * are kept alive as long as the server accepts them).
+     */
+    public static final String HTTP_CONNECTION_TTL = "xatkit.nluserver.http.connection_ttl";
+
+    /**
+     * The {@link Configuration} key to enable the batching of concurrent prediction requests.
+     * <p>
+     * When enabled, concurrent predictions are grouped and sent to the server's batch prediction endpoint
+     * ({@code /bot/{botname}/predict/batch/}). The default value is {@code false}.
+     * <p>
+     * <b>Note</b>: this option requires a server implementing the batch prediction endpoint, that is not provided
+     * by all the versions of the NLU server. If the server answers a batch with a {@code 404} status the client
+     * disables batching and sends the predictions individually.
+     *
+     * @see NLUServerPredictionBatcher
+     */
+    public static final String BATCH_ENABLED = "xatkit.nluserver.batch.enabled";
+
+    /**
+     * The {@link Configuration} key to store the maximum time (in milliseconds) a prediction request waits for its
+     * batch to be sent.
+     */
+    public static final String BATCH_WINDOW = "xatkit.nluserver.batch.window";
+
+    /**
+     * The {@link Configuration} key to store the maximum number of prediction requests in a batch.
+     */
+    public static final String BATCH_MAX_SIZE = "xatkit.nluserver.batch.max_size";
+
+    /**
+     * The {@link Configuration} key to enable the gzip compression of the bot definition sent to the server.
+     * <p>
+     * The server must accept gzip-encoded request bodies to enable this option. The default value is {@code false}.
+     */
+    public static final String DEPLOY_COMPRESSION = "xatkit.nluserver.deploy.compression";
+
+    /**
+     * The {@link Configuration} key to store the number of consecutive failed requests ejecting a server replica.
+     *
+     * @see NLUServerEndpoint
+     */
+    public static final String ENDPOINT_MAX_FAILURES = "xatkit.nluserver.endpoint.max_failures";
+
+    /**
+     * The {@link Configuration} key to store the time (in milliseconds) an ejected server replica stays ejected.
+     *
+     * @see NLUServerEndpoint
+     */
+    public static final String ENDPOINT_EJECTION_TIME = "xatkit.nluserver.endpoint.ejection_time";
+
+    /**
+     * The {@link Configuration} key to enable the hedging of prediction requests.
+     * <p>
+     * When enabled, a prediction that has not been answered within {@link #HEDGE_PERCENTILE} of the recent prediction
+     * latencies is sent again to another replica, and the first response is used. The default value is {@code false}.
+     *
+     * @see NLUServerRequestHedger
+     */
+    public static final String HEDGE_ENABLED = "xatkit.nluserver.hedge.enabled";
+
+    /**
+     * The {@link Configuration} key to store the percentile of the recent prediction latencies after which a
+     * prediction is hedged.
+     */
+    public static final String HEDGE_PERCENTILE = "xatkit.nluserver.hedge.percentile";
+
+    /**
+     * The {@link Configuration} key to store the maximum ratio of hedged predictions.
+     * <p>
+     * This value bounds the additional load caused by hedging: with the default value ({@code 0.1}) at most 10% of the
+     * predictions are sent twice.
+     */
+    public static final String HEDGE_MAX_RATIO = "xatkit.nluserver.hedge.max_ratio";
+
+    /**
+     * The {@link Configuration} key to store the minimum time (in milliseconds) to wait before hedging a prediction.
+     */
+    public static final String HEDGE_MIN_DELAY = "xatkit.nluserver.hedge.min_delay";
+
+    /**
+     * The {@link Configuration} key to enable the coalescing of identical in-flight prediction requests.
+     * <p>
+     * When enabled, a prediction request for an input that is already being classified in the same context waits for
+     * the pending request instead of calling the server. Synchronous predictions are then computed with the
+     * asynchronous client. The default value is {@code false}.
+     */
+    public static final String PREDICT_COALESCE = "xatkit.nluserver.predict.coalesce";
+
+    /**
+     * The {@link Configuration} key to enable the caching of the predictions returned by the server.
+     * <p>
+     * The cache is cleared each time the bot is deployed and trained. The default value is {@code false}.
+     *
+     * @see NLUServerPredictionCache
+     */
+    public static final String CACHE_ENABLED = "xatkit.nluserver.cache.enabled";
+
+    /**
+     * The {@link Configuration} key to store the maximum number of cached predictions.
+     */
+    public static final String CACHE_MAX_SIZE = "xatkit.nluserver.cache.max_size";
+
+    /**
+     * The {@link Configuration} key to store the time (in milliseconds) a cached prediction is kept after it has been
+     * returned by the server.
+     * <p>
+     * The default value is {@code -1} (cached predictions only expire when the cache is full or the bot is retrained).
+     */
+    public static final String CACHE_TTL = "xatkit.nluserver.cache.ttl";
+
+    /**
+     * The {@link Configuration} key to enable the local matching of the inputs that are exactly a training sentence.
+     * <p>
+     * This option is only used if {@link #CHECK_EXACT_PREDICTION_MATCH} is enabled. Inputs matching a training sentence
+     * are classified by the client without calling the server, and do not get the parameters and scores computed by
+     * the server. The default value is {@code false}. If this option is disabled and a {@link #PREDICT_DEADLINE} is
+     * set, the inputs are only matched locally when the server does not answer in time.
+     *
+     * @see NLUServerExactMatchIndex
+     */
+    public static final String LOCAL_EXACT_MATCH = "xatkit.nluserver.exact_match.local";
+
+    /**
+     * The {@link Configuration} key to skip the deployment and the training of a bot that has not changed since its
+     * last deployment.
+     * <p>
+     * The fingerprint of the bot definition and its training options is stored in a marker file in
+     * {@link #DEPLOY_FINGERPRINT_DIRECTORY}. The default value is {@code false}.
+     *
+     * @see NLUServerFingerprintStore
+     */
+    public static final String DEPLOY_SKIP_UNCHANGED = "xatkit.nluserver.deploy.skip_unchanged";
+
+    /**
+     * The {@link Configuration} key to store the directory containing the fingerprint marker files.
+     * <p>
+     * The default value is the {@code xatkit-nluserver} folder of the system's temporary directory.
+     */
+    public static final String DEPLOY_FINGERPRINT_DIRECTORY = "xatkit.nluserver.deploy.fingerprint_directory";
+
+    /**
+     * The {@link Configuration} key to train the bot in the background.
+     * <p>
+     * When enabled, retraining a bot deploys the new model next to the current one (blue/green deployment): the current
+     * model answers the predictions until the new one is trained. The first training of a bot is always blocking. The
+     * default value is {@code false}.
+     *
+     * @see NLUServerTrainingJob
+     */
+    public static final String TRAIN_ASYNC = "xatkit.nluserver.train.async";
+
+    /**
+     * The {@link Configuration} key to store the maximum number of classifications returned for a prediction.
+     * <p>
+     * When set to a positive value, the server is asked for the top {@code k} classifications only, and the predictions
+     * containing more classifications are truncated by the client. Classifications outside the top {@code k} are not
+     * considered when selecting the intent to match. The default value is {@code 0} (all the classifications are
+     * returned).
+     */
+    public static final String PREDICT_TOP_K = "xatkit.nluserver.predict.top_k";
+
+    /**
+     * The {@link Configuration} key to record the performance metrics of the client.
+     * <p>
+     * When enabled, the prediction latencies and the duration of their phases, fallbacks, errors, pending requests,
+     * payload sizes, and deployment and training durations are recorded in the {@link #METRICS_REGISTRY} (see
+     * {@link NLUServerMetrics}). The default value is {@code false}.
+     */
+    public static final String METRICS_ENABLED = "xatkit.nluserver.metrics.enabled";
+
+    /**
+     * The {@link Configuration} key to store the Micrometer {@link MeterRegistry} the metrics are recorded in.
+     * <p>
+     * This property must be set programmatically with a {@link MeterRegistry} instance. The default value is
+     * Micrometer's {@link Metrics#globalRegistry}, the registries added to it (e.g. a Prometheus registry) export the
+     * metrics of the client.
+     */
+    public static final String METRICS_REGISTRY = "xatkit.nluserver.metrics.registry";
+
+    /**
+     * The {@link Configuration} key to attach the duration of the recognition phases to the recognized intents.
+     * <p>
+     * When enabled, the durations (in milliseconds) of the phases of each recognition are stored in the NLP data of the
+     * {@link com.xatkit.intent.RecognizedIntent} under {@link NLUServerRecognitionTimings#NLP_DATA_KEY}, so that slow
+     * recognitions can be analyzed from the bot's execution. The phases are also recorded in the
+     * {@link #METRICS_REGISTRY} if {@link #METRICS_ENABLED} is set. The default value is {@code false}.
+     */
+    public static final String TIMINGS_ATTACHED = "xatkit.nluserver.timings.attached";
+
+    /**
+     * The {@link Configuration} key to log the recognized intents in the recognition monitor from a background thread.
+     * <p>
+     * When enabled, the recognitions are queued and logged in batches by a {@link NLUServerMonitorDispatcher}, so that
+     * the latency of the recognitions does not depend on the monitor's I/O. The default value is {@code false} (the
+     * recognitions are logged before being returned).
+     */
+    public static final String MONITOR_ASYNC = "xatkit.nluserver.monitor.async";
+
+    /**
+     * The {@link Configuration} key to store the maximum number of recognitions waiting to be logged in the
+     * recognition monitor when {@link #MONITOR_ASYNC} is enabled.
+     */
+    public static final String MONITOR_QUEUE_SIZE = "xatkit.nluserver.monitor.queue_size";
+
+    /**
+     * The {@link Configuration} key to store the delay (in milliseconds) between two batches of recognitions logged in
+     * the recognition monitor when {@link #MONITOR_ASYNC} is enabled.
+     */
+    public static final String MONITOR_FLUSH_INTERVAL = "xatkit.nluserver.monitor.flush_interval";
+
+    /**
+     * The {@link Configuration} key to store the policy applied when the recognitions are queued faster than they are
+     * logged in the recognition monitor ({@code drop} or {@code sample}).
+     * <p>
+     * See {@link NLUServerMonitorDispatcher.OverflowPolicy} for more information. The default value is {@code drop}.
+     */
+    public static final String MONITOR_OVERFLOW = "xatkit.nluserver.monitor.overflow";
+
+    /**
+     * The {@link Configuration} key to store the maximum time (in milliseconds) a recognition waits for the NLU
+     * server.
+     * <p>
+     * When the deadline is reached the pending request is abandoned, and the input is matched locally if it is
+     * exactly a training sentence (see {@link #CHECK_EXACT_PREDICTION_MATCH}), or to the default fallback intent
+     * otherwise. The prediction requests are also sent with a socket timeout bounded by the deadline, so that the
+     * HTTP client releases the connection of a stalled request. The default value is {@code -1} (the recognitions
+     * wait for the {@link #HTTP_SOCKET_TIMEOUT}).
+     */
+    public static final String PREDICT_DEADLINE = "xatkit.nluserver.predict.deadline";
+
     /**
      * The unique identifier of the NLUServer project.
      *
@@ -153,10 +419,17 @@ public class NLUServerConfiguration {
     private float confidenceThreshold;
 
     /**
+     * The first url of {@link #urls}.
+     *
      * @see #URL
      */
     private String url;
 
+    /**
+     * @see #URL
+     */
+    private List<String> urls;
+
     /**
      * The language code of the Xatkit NLUServer project.
      *
@@ -240,6 +513,166 @@ public class NLUServerConfiguration {
      */
     private String activationHiddenLayers;
 
+    /**
+     * @see #HTTP_MAX_CONNECTIONS
+     */
+    private int httpMaxConnections;
+
+    /**
+     * @see #HTTP_MAX_CONNECTIONS_PER_ROUTE
+     */
+    private int httpMaxConnectionsPerRoute;
+
+    /**
+     * @see #HTTP_CONNECT_TIMEOUT
+     */
+    private int httpConnectTimeout;
+
+    /**
+     * @see #HTTP_SOCKET_TIMEOUT
+     */
+    private int httpSocketTimeout;
+
+    /**
+     * @see #HTTP_CONNECTION_TTL
+     */
+    private long httpConnectionTtl;
+
+    /**
+     * @see #BATCH_ENABLED
+     */
+    private boolean batchEnabled;
+
+    /**
+     * @see #BATCH_WINDOW
+     */
+    private long batchWindow;
+
+    /**
+     * @see #BATCH_MAX_SIZE
+     */
+    private int batchMaxSize;
+
+    /**
+     * @see #DEPLOY_COMPRESSION
+     */
+    private boolean deployCompression;
+
+    /**
+     * @see #ENDPOINT_MAX_FAILURES
+     */
+    private int endpointMaxFailures;
+
+    /**
+     * @see #ENDPOINT_EJECTION_TIME
+     */
+    private long endpointEjectionTime;
+
+    /**
+     * @see #HEDGE_ENABLED
+     */
+    private boolean hedgeEnabled;
+
+    /**
+     * @see #HEDGE_PERCENTILE
+     */
+    private double hedgePercentile;
+
+    /**
+     * @see #HEDGE_MAX_RATIO
+     */
+    private double hedgeMaxRatio;
+
+    /**
+     * @see #HEDGE_MIN_DELAY
+     */
+    private long hedgeMinDelay;
+
+    /**
+     * @see #PREDICT_COALESCE
+     */
+    private boolean predictCoalesce;
+
+    /**
+     * @see #CACHE_ENABLED
+     */
+    private boolean cacheEnabled;
+
+    /**
+     * @see #CACHE_MAX_SIZE
+     */
+    private long cacheMaxSize;
+
+    /**
+     * @see #CACHE_TTL
+     */
+    private long cacheTtl;
+
+    /**
+     * @see #LOCAL_EXACT_MATCH
+     */
+    private boolean localExactMatch;
+
+    /**
+     * @see #DEPLOY_SKIP_UNCHANGED
+     */
+    private boolean deploySkipUnchanged;
+
+    /**
+     * @see #DEPLOY_FINGERPRINT_DIRECTORY
+     */
+    private String deployFingerprintDirectory;
+
+    /**
+     * @see #TRAIN_ASYNC
+     */
+    private boolean trainAsync;
+
+    /**
+     * @see #PREDICT_TOP_K
+     */
+    private int predictTopK;
+
+    /**
+     * @see #METRICS_ENABLED
+     */
+    private boolean metricsEnabled;
+
+    /**
+     * @see #METRICS_REGISTRY
+     */
+    private MeterRegistry metricsRegistry;
+
+    /**
+     * @see #TIMINGS_ATTACHED
+     */
+    private boolean timingsAttached;
+
+    /**
+     * @see #MONITOR_ASYNC
+     */
+    private boolean monitorAsync;
+
+    /**
+     * @see #MONITOR_QUEUE_SIZE
+     */
+    private int monitorQueueSize;
+
+    /**
+     * @see #MONITOR_FLUSH_INTERVAL
+     */
+    private long monitorFlushInterval;
+
+    /**
+     * @see #MONITOR_OVERFLOW
+     */
+    private NLUServerMonitorDispatcher.OverflowPolicy monitorOverflow;
+
+    /**
+     * @see #PREDICT_DEADLINE
+     */
+    private long predictDeadline;
+
     /**
      * The default language processed by the NLU Server.
      */
@@ -268,7 +701,18 @@ public class NLUServerConfiguration {
         this.botName = baseConfiguration.getString(BOT_NAME);
         this.forceOverwrite = baseConfiguration.getBoolean(FORCE_OVERWRITE, false);
         this.confidenceThreshold = baseConfiguration.getFloat(CONFIDENCE_THRESHOLD, 0.3f);
-        this.url = baseConfiguration.getString(URL);
+        List<String> configuredUrls = new ArrayList<>();
+        for (String value : baseConfiguration.getStringArray(URL)) {
+            for (String configuredUrl : value.split(",")) {
+                if (!configuredUrl.trim().isEmpty()) {
+                    configuredUrls.add(configuredUrl.trim());
+                }
+            }
+        }
+        checkArgument(!configuredUrls.isEmpty(), "The provided %s does not contain a valid value for the property "
+                + "%s", Configuration.class.getSimpleName(), URL);
+        this.urls = Collections.unmodifiableList(configuredUrls);
+        this.url = this.urls.get(0);
 
         if (baseConfiguration.containsKey(LANGUAGE_CODE)) {
             languageCode = baseConfiguration.getString(LANGUAGE_CODE);
@@ -297,6 +741,46 @@ public class NLUServerConfiguration {
         this.useNerInPrediction = baseConfiguration.getBoolean(USE_NER_IN_PREDICTION, true);
         this.activationLastLayer = baseConfiguration.getString(ACTIVATION_LAST_LAYER, "sigmoid");
         this.activationHiddenLayers = baseConfiguration.getString(ACTIVATION_HIDDEN_LAYERS, "tanh");
+        this.httpMaxConnections = baseConfiguration.getInt(HTTP_MAX_CONNECTIONS, 200);
+        this.httpMaxConnectionsPerRoute = baseConfiguration.getInt(HTTP_MAX_CONNECTIONS_PER_ROUTE, 20);
+        this.httpConnectTimeout = baseConfiguration.getInt(HTTP_CONNECT_TIMEOUT, 10000);
+        this.httpSocketTimeout = baseConfiguration.getInt(HTTP_SOCKET_TIMEOUT, 60000);
+        this.httpConnectionTtl = baseConfiguration.getLong(HTTP_CONNECTION_TTL, -1);
+        this.batchEnabled = baseConfiguration.getBoolean(BATCH_ENABLED, false);
+        this.batchWindow = baseConfiguration.getLong(BATCH_WINDOW, 5);
+        this.batchMaxSize = baseConfiguration.getInt(BATCH_MAX_SIZE, 32);
+        this.deployCompression = baseConfiguration.getBoolean(DEPLOY_COMPRESSION, false);
+        this.endpointMaxFailures = baseConfiguration.getInt(ENDPOINT_MAX_FAILURES, 3);
+        this.endpointEjectionTime = baseConfiguration.getLong(ENDPOINT_EJECTION_TIME, 10000);
+        this.hedgeEnabled = baseConfiguration.getBoolean(HEDGE_ENABLED, false);
+        this.hedgePercentile = baseConfiguration.getDouble(HEDGE_PERCENTILE, 95);
+        this.hedgeMaxRatio = baseConfiguration.getDouble(HEDGE_MAX_RATIO, 0.1);
+        this.hedgeMinDelay = baseConfiguration.getLong(HEDGE_MIN_DELAY, 20);
+        this.predictCoalesce = baseConfiguration.getBoolean(PREDICT_COALESCE, false);
+        this.cacheEnabled = baseConfiguration.getBoolean(CACHE_ENABLED, false);
+        this.cacheMaxSize = baseConfiguration.getLong(CACHE_MAX_SIZE, 10000);
+        this.cacheTtl = baseConfiguration.getLong(CACHE_TTL, -1);
+        this.localExactMatch = baseConfiguration.getBoolean(LOCAL_EXACT_MATCH, false);
+        this.deploySkipUnchanged = baseConfiguration.getBoolean(DEPLOY_SKIP_UNCHANGED, false);
+        this.deployFingerprintDirectory = baseConfiguration.getString(DEPLOY_FINGERPRINT_DIRECTORY,
+                System.getProperty("java.io.tmpdir") + File.separator + "xatkit-nluserver");
+        this.trainAsync = baseConfiguration.getBoolean(TRAIN_ASYNC, false);
+        this.predictTopK = baseConfiguration.getInt(PREDICT_TOP_K, 0);
+        this.metricsEnabled = baseConfiguration.getBoolean(METRICS_ENABLED, false);
+        this.metricsRegistry = baseConfiguration.getProperty(METRICS_REGISTRY) instanceof MeterRegistry
+                ? (MeterRegistry) baseConfiguration.getProperty(METRICS_REGISTRY) : Metrics.globalRegistry;
+        this.timingsAttached = baseConfiguration.getBoolean(TIMINGS_ATTACHED, false);
+        this.monitorAsync = baseConfiguration.getBoolean(MONITOR_ASYNC, false);
+        this.monitorQueueSize = baseConfiguration.getInt(MONITOR_QUEUE_SIZE, 4096);
+        this.monitorFlushInterval = baseConfiguration.getLong(MONITOR_FLUSH_INTERVAL, 100);
+        String overflow = baseConfiguration.getString(MONITOR_OVERFLOW, "drop").trim().toUpperCase(Locale.ROOT);
+        checkArgument(overflow.equals(NLUServerMonitorDispatcher.OverflowPolicy.DROP.name())
+                        || overflow.equals(NLUServerMonitorDispatcher.OverflowPolicy.SAMPLE.name()),
+                "The provided %s does not contain a valid value for the property %s (expected drop or sample, found "
+                        + "%s)", Configuration.class.getSimpleName(), MONITOR_OVERFLOW,
+                baseConfiguration.getString(MONITOR_OVERFLOW));
+        this.monitorOverflow = NLUServerMonitorDispatcher.OverflowPolicy.valueOf(overflow);
+        this.predictDeadline = baseConfiguration.getLong(PREDICT_DEADLINE, -1);
 
     }
 
@@ -0,0 +1,131 @@
+package com.xatkit.core.recognition.nluserver;
+
+import fr.inria.atlanmod.commons.log.Log;
+import kong.unirest.UnirestInstance;
+import lombok.NonNull;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A replica of the NLU server the client can send requests to.
+ * <p>
+ * Each endpoint owns its HTTP client, and tracks the number of requests currently sent to it as well as its health.
+ * An endpoint is ejected from the {@link NLUServerEndpointPool} after
+ * {@link NLUServerConfiguration#ENDPOINT_MAX_FAILURES} consecutive failed requests, and re-admitted after
+ * {@link NLUServerConfiguration#ENDPOINT_EJECTION_TIME} milliseconds.
+ */
+public class NLUServerEndpoint {
+
+    /**
+     * The URL of the replica.
+     */
+    private final String url;
+
+    /**
+     * The HTTP client used to access the replica.
+     */
+    private final UnirestInstance client;
+
+    /**
+     * The number of consecutive failures ejecting the endpoint.
+     */
+    private final int maxFailures;
+
+    /**
+     * The time (in milliseconds) an ejected endpoint stays ejected.
+     */
+    private final long ejectionTime;
+
+    /**
+     * The number of requests currently sent to the replica.
+     */
+    private final AtomicInteger outstandingRequests = new AtomicInteger();
+
+    /**
+     * The number of consecutive failed requests.
+     */
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    /**
+     * The time (in milliseconds since epoch) the endpoint is re-admitted in the pool.
+     */
+    private volatile long ejectedUntil = 0;
+
+    /**
+     * Constructs a {@link NLUServerEndpoint} with the provided parameters.
+     *
+     * @param url          the URL of the replica
+     * @param client       the HTTP client used to access the replica
+     * @param maxFailures  the number of consecutive failures ejecting the endpoint
+     * @param ejectionTime the time (in milliseconds) an ejected endpoint stays ejected
+     * @throws NullPointerException if the provided {@code url} or {@code client} is {@code null}
+     */
+    public NLUServerEndpoint(@NonNull String url, @NonNull UnirestInstance client, int maxFailures,
+                             long ejectionTime) {
+        this.url = url;
+        this.client = client;
+        this.maxFailures = maxFailures;
+        this.ejectionTime = ejectionTime;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public UnirestInstance getClient() {
+        return client;
+    }
+
+    public int getOutstandingRequests() {
+        return outstandingRequests.get();
+    }
+
+    /**
+     * Returns whether the endpoint can receive requests.
+     *
+     * @return {@code true} if the endpoint is not ejected, {@code false} otherwise
+     */
+    public boolean isHealthy() {
+        return System.currentTimeMillis() >= ejectedUntil;
+    }
+
+    public long getEjectedUntil() {
+        return ejectedUntil;
+    }
+
+    /**
+     * Records that a request has been sent to the replica.
+     * <p>
+     * Each call to this method must be followed by a call to {@link #requestCompleted(boolean)}.
+     */
+    public void requestStarted() {
+        outstandingRequests.incrementAndGet();
+    }
+
+    /**
+     * Records the completion of a request sent to the replica.
+     * <p>
+     * A successful request resets the failure count of the endpoint, while a failed one ejects it if the number of
+     * consecutive failures reaches the configured maximum.
+     *
+     * @param success whether the request succeeded
+     */
+    public void requestCompleted(boolean success) {
+        outstandingRequests.decrementAndGet();
+        if (success) {
+            consecutiveFailures.set(0);
+        } else if (consecutiveFailures.incrementAndGet() >= maxFailures) {
+            consecutiveFailures.set(0);
+            ejectedUntil = System.currentTimeMillis() + ejectionTime;
+            Log.warn("NLU server {0} ejected after {1} consecutive failures, it will be re-admitted in {2}ms", url,
+                    maxFailures, ejectionTime);
+        }
+    }
+
+    /**
+     * Shuts down the HTTP client of the endpoint.
+     */
+    public void shutdown() {
+        client.shutDown();
+    }
+}
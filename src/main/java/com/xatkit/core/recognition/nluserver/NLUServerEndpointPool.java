@@ -0,0 +1,144 @@
+package com.xatkit.core.recognition.nluserver;
+
+import kong.unirest.Unirest;
+import kong.unirest.UnirestInstance;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static fr.inria.atlanmod.commons.Preconditions.checkArgument;
+
+/**
+ * The replicas of the NLU server accessed by a {@link NLUServerClientAPIWrapper}.
+ * <p>
+ * The pool contains a {@link NLUServerEndpoint} for each URL in {@link NLUServerConfiguration#URL}, and balances
+ * the requests between them: {@link #select()} returns the healthy endpoint with the fewest outstanding requests.
+ * Endpoints ejected after consecutive failures are not selected until they are re-admitted.
+ */
+public class NLUServerEndpointPool {
+
+    /**
+     * The endpoints of the pool.
+     */
+    private final List<NLUServerEndpoint> endpoints;
+
+    /**
+     * The counter used to rotate the starting point of the selection, so that ties are spread over the endpoints.
+     */
+    private final AtomicInteger rotation = new AtomicInteger();
+
+    /**
+     * Constructs a {@link NLUServerEndpointPool} containing an endpoint for each URL of the provided {@code
+     * configuration}.
+     *
+     * @param configuration the {@link NLUServerConfiguration} containing the URLs and the HTTP client options
+     * @throws NullPointerException if the provided {@code configuration} is {@code null}
+     */
+    public NLUServerEndpointPool(@NonNull NLUServerConfiguration configuration) {
+        List<NLUServerEndpoint> created = new ArrayList<>();
+        for (String url : configuration.getUrls()) {
+            created.add(new NLUServerEndpoint(url, createHttpClient(configuration, url),
+                    configuration.getEndpointMaxFailures(), configuration.getEndpointEjectionTime()));
+        }
+        this.endpoints = Collections.unmodifiableList(created);
+    }
+
+    /**
+     * Constructs a {@link NLUServerEndpointPool} containing the provided {@code endpoints}.
+     *
+     * @param endpoints the endpoints of the pool
+     * @throws NullPointerException     if the provided {@code endpoints} is {@code null}
+     * @throws IllegalArgumentException if the provided {@code endpoints} is empty
+     */
+    public NLUServerEndpointPool(@NonNull List<NLUServerEndpoint> endpoints) {
+        checkArgument(!endpoints.isEmpty(), "Cannot create a %s without endpoints",
+                NLUServerEndpointPool.class.getSimpleName());
+        this.endpoints = Collections.unmodifiableList(new ArrayList<>(endpoints));
+    }
+
+    /**
+     * Creates an isolated HTTP client accessing the provided {@code url}.
+     * <p>
+     * The created client does not share its connection pool with other clients nor with the global {@link Unirest}
+     * configuration, meaning that several bots deployed in the same JVM can access different NLU servers with their
+     * own limits and timeouts.
+     *
+     * @param configuration the {@link NLUServerConfiguration} containing the HTTP client options
+     * @param url           the base URL of the client
+     * @return the created client
+     */
+    private static UnirestInstance createHttpClient(NLUServerConfiguration configuration, String url) {
+        UnirestInstance client = Unirest.spawnInstance();
+        client.config()
+                .defaultBaseUrl(url)
+                .concurrency(configuration.getHttpMaxConnections(), configuration.getHttpMaxConnectionsPerRoute())
+                .connectTimeout(configuration.getHttpConnectTimeout())
+                .socketTimeout(configuration.getHttpSocketTimeout())
+                .connectionTTL(configuration.getHttpConnectionTtl(), TimeUnit.MILLISECONDS);
+        return client;
+    }
+
+    /**
+     * Returns all the endpoints of the pool, including the ejected ones.
+     *
+     * @return an unmodifiable {@link List} containing the endpoints of the pool
+     */
+    public List<NLUServerEndpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * Selects the endpoint to send the next request to.
+     *
+     * @return the healthy endpoint with the fewest outstanding requests
+     * @see #select(NLUServerEndpoint)
+     */
+    public NLUServerEndpoint select() {
+        return select(null);
+    }
+
+    /**
+     * Selects the endpoint to send the next request to, avoiding the provided {@code excluded} one.
+     * <p>
+     * This method returns the healthy endpoint with the fewest outstanding requests. If all the endpoints are
+     * ejected, the one re-admitted first is returned. The {@code excluded} endpoint is only returned if the pool
+     * does not contain any other endpoint.
+     *
+     * @param excluded the endpoint to avoid, can be {@code null}
+     * @return the selected endpoint
+     */
+    public NLUServerEndpoint select(NLUServerEndpoint excluded) {
+        int size = endpoints.size();
+        int start = Math.floorMod(rotation.getAndIncrement(), size);
+        NLUServerEndpoint best = null;
+        NLUServerEndpoint firstReadmitted = null;
+        for (int i = 0; i < size; i++) {
+            NLUServerEndpoint endpoint = endpoints.get((start + i) % size);
+            if (endpoint == excluded) {
+                continue;
+            }
+            if (endpoint.isHealthy()) {
+                if (best == null || endpoint.getOutstandingRequests() < best.getOutstandingRequests()) {
+                    best = endpoint;
+                }
+            } else if (firstReadmitted == null || endpoint.getEjectedUntil() < firstReadmitted.getEjectedUntil()) {
+                firstReadmitted = endpoint;
+            }
+        }
+        if (best != null) {
+            return best;
+        }
+        return firstReadmitted != null ? firstReadmitted : excluded;
+    }
+
+    /**
+     * Shuts down the HTTP clients of the endpoints.
+     */
+    public void shutdown() {
+        endpoints.forEach(NLUServerEndpoint::shutdown);
+    }
+}
@@ -0,0 +1,189 @@
+package com.xatkit.core.recognition.nluserver;
+
+import com.xatkit.core.recognition.nluserver.mapper.dsl.BotSnapshot;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Classification;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.EntityParameter;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Intent;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.IntentReference;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.NLUContext;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Prediction;
+import lombok.NonNull;
+
+import javax.annotation.Nullable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import static java.util.Objects.isNull;
+
+/**
+ * Matches the user inputs that are exactly one of the training sentences of the bot.
+ * <p>
+ * The index contains, for each {@link NLUContext}, the training sentences of the {@link Intent}s reachable from it.
+ * An input matching one of these sentences is classified locally with a confidence of {@code 1.0}, without calling
+ * the NLU server. This is typically the case of button presses and quick replies.
+ * <p>
+ * Inputs and training sentences are normalized before being compared: leading/trailing whitespaces are removed,
+ * consecutive whitespaces are collapsed, and the text is lowercased if {@link NLUServerConfiguration#LOWERCASE} is
+ * enabled. Stemming is performed by the server and is not reproduced here, meaning that the index only matches
+ * sentences that are identical before stemming. The following sentences are not indexed:
+ * <ul>
+ * <li>sentences containing a parameter fragment (the parameter values are extracted by the server)</li>
+ * <li>sentences shared by several intents reachable from the same context</li>
+ * </ul>
+ *
+ * @see NLUServerConfiguration#CHECK_EXACT_PREDICTION_MATCH
+ * @see NLUServerConfiguration#LOCAL_EXACT_MATCH
+ */
+public class NLUServerExactMatchIndex {
+
+    /**
+     * Whether the training sentences and inputs are lowercased.
+     */
+    private final boolean lowercase;
+
+    /**
+     * The indexed intents, mapped by context name and normalized training sentence.
+     * <p>
+     * This map is rebuilt by {@link #build(BotSnapshot)} and never modified once published.
+     */
+    private volatile Map<String, Map<String, Intent>> index = Collections.emptyMap();
+
+    /**
+     * Constructs an empty {@link NLUServerExactMatchIndex}.
+     *
+     * @param lowercase whether the training sentences and inputs are lowercased
+     */
+    public NLUServerExactMatchIndex(boolean lowercase) {
+        this.lowercase = lowercase;
+    }
+
+    /**
+     * Indexes the training sentences of the provided {@code bot}.
+     * <p>
+     * This method replaces the previous content of the index. It must be called once the {@link IntentReference}s of
+     * the {@code bot} have been resolved.
+     *
+     * @param bot the {@link BotSnapshot} to index
+     * @throws NullPointerException if the provided {@code bot} is {@code null}
+     */
+    public void build(@NonNull BotSnapshot bot) {
+        Map<String, Map<String, Intent>> newIndex = new HashMap<>();
+        for (NLUContext context : bot.getNluContexts()) {
+            Map<String, Intent> sentences = new HashMap<>();
+            Set<String> ambiguousSentences = new HashSet<>();
+            for (IntentReference reference : context.getIntentReferences()) {
+                Intent intent = reference.getIntent();
+                if (isNull(intent)) {
+                    continue;
+                }
+                for (String trainingSentence : intent.getTrainingSentences()) {
+                    if (containsParameter(intent, trainingSentence)) {
+                        continue;
+                    }
+                    String sentence = normalize(trainingSentence);
+                    Intent indexedIntent = sentences.putIfAbsent(sentence, intent);
+                    if (indexedIntent != null && indexedIntent != intent) {
+                        ambiguousSentences.add(sentence);
+                    }
+                }
+            }
+            sentences.keySet().removeAll(ambiguousSentences);
+            newIndex.put(context.getName(), sentences);
+        }
+        this.index = newIndex;
+    }
+
+    /**
+     * Returns the {@link Intent} whose training sentence is exactly the provided {@code input}.
+     *
+     * @param contextName the name of the {@link NLUContext} to match the {@code input} in
+     * @param input       the user input to match
+     * @return the matched {@link Intent}, or {@code null} if the {@code input} does not match any indexed sentence
+     * @throws NullPointerException if the provided {@code contextName} or {@code input} is {@code null}
+     */
+    @Nullable
+    public Intent match(@NonNull String contextName, @NonNull String input) {
+        Map<String, Intent> sentences = index.get(contextName);
+        if (isNull(sentences) || sentences.isEmpty()) {
+            return null;
+        }
+        return sentences.get(normalize(input));
+    }
+
+    /**
+     * Creates the {@link Prediction} of the provided {@code input} if it is exactly a training sentence.
+     * <p>
+     * The created {@link Prediction} contains a single {@link Classification} with a score of {@code 1.0}.
+     *
+     * @param contextName the name of the {@link NLUContext} to match the {@code input} in
+     * @param input       the user input to match
+     * @return the created {@link Prediction}, or {@code null} if the {@code input} does not match any indexed
+     * sentence
+     * @throws NullPointerException if the provided {@code contextName} or {@code input} is {@code null}
+     * @see #match(String, String)
+     */
+    @Nullable
+    public Prediction predict(@NonNull String contextName, @NonNull String input) {
+        Intent intent = match(contextName, input);
+        if (isNull(intent)) {
+            return null;
+        }
+        Classification classification = new Classification();
+        classification.setIntent(intent);
+        classification.setScore(1.0f);
+        classification.setMatchedUtterance(input);
+        Prediction prediction = new Prediction();
+        prediction.addClassification(classification);
+        return prediction;
+    }
+
+    /**
+     * Normalizes the provided {@code text}.
+     *
+     * @param text the text to normalize
+     * @return the normalized text
+     */
+    String normalize(String text) {
+        StringBuilder sb = new StringBuilder(text.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = sb.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    sb.append(' ');
+                    pendingSpace = false;
+                }
+                sb.append(c);
+            }
+        }
+        String normalized = sb.toString();
+        return lowercase ? normalized.toLowerCase(Locale.ROOT) : normalized;
+    }
+
+    /**
+     * Returns whether the provided {@code trainingSentence} contains one of the parameter fragments of the
+     * provided {@code intent}.
+     *
+     * @param intent           the {@link Intent} defining the parameters
+     * @param trainingSentence the training sentence to check
+     * @return {@code true} if the sentence contains a parameter fragment, {@code false} otherwise
+     */
+    private static boolean containsParameter(Intent intent, String trainingSentence) {
+        for (EntityParameter parameter : intent.getParameters()) {
+            if (nonEmpty(parameter.getFragment()) && trainingSentence.contains(parameter.getFragment())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean nonEmpty(String value) {
+        return value != null && !value.isEmpty();
+    }
+}
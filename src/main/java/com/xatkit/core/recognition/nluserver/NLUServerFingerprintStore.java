@@ -0,0 +1,142 @@
+package com.xatkit.core.recognition.nluserver;
+
+import fr.inria.atlanmod.commons.log.Log;
+import lombok.NonNull;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Stores the fingerprint of the last bot definition deployed and trained on the NLU server.
+ * <p>
+ * The fingerprint is stored in a local marker file named after the bot, along with the name the bot has been
+ * deployed under on the server. It allows to skip the deployment and the training of a bot that has not changed
+ * since its last deployment (e.g. when restarting the bot).
+ * <p>
+ * <b>Note</b>: the marker file is a local stand-in for a fingerprint stored by the server: it does not detect
+ * that the server lost the bot (e.g. after a server reinstallation). Delete the marker file or disable
+ * {@link NLUServerConfiguration#DEPLOY_SKIP_UNCHANGED} to force the deployment.
+ *
+ * @see NLUServerConfiguration#DEPLOY_SKIP_UNCHANGED
+ */
+public class NLUServerFingerprintStore {
+
+    /**
+     * The marker file containing the fingerprint.
+     */
+    private final Path file;
+
+    /**
+     * Constructs a {@link NLUServerFingerprintStore} storing the fingerprint of the provided {@code botName} in the
+     * given {@code directory}.
+     *
+     * @param directory the directory containing the marker files
+     * @param botName   the name of the bot
+     * @throws NullPointerException if the provided {@code directory} or {@code botName} is {@code null}
+     */
+    public NLUServerFingerprintStore(@NonNull Path directory, @NonNull String botName) {
+        this.file = directory.resolve(botName.replaceAll("[^A-Za-z0-9._-]", "_") + ".fingerprint");
+    }
+
+    /**
+     * Returns the marker file containing the fingerprint.
+     *
+     * @return the marker file
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Reads the stored fingerprint.
+     *
+     * @return the stored fingerprint, or {@code null} if there is no stored fingerprint or if it cannot be read
+     */
+    @Nullable
+    public String read() {
+        return readLine(0);
+    }
+
+    /**
+     * Reads the name the bot corresponding to the stored fingerprint has been deployed under.
+     *
+     * @return the deployment name, or {@code null} if there is no stored fingerprint or if it cannot be read
+     */
+    @Nullable
+    public String readDeploymentName() {
+        return readLine(1);
+    }
+
+    /**
+     * Reads the provided {@code line} of the marker file.
+     *
+     * @param line the index of the line to read
+     * @return the content of the line, or {@code null} if the line does not exist or cannot be read
+     */
+    @Nullable
+    private String readLine(int line) {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+            return lines.size() > line ? lines.get(line).trim() : null;
+        } catch (IOException e) {
+            Log.warn("Cannot read the fingerprint file {0}: {1}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Returns whether the provided {@code fingerprint} is the stored one.
+     *
+     * @param fingerprint the fingerprint to check
+     * @return {@code true} if the provided {@code fingerprint} is the stored one, {@code false} otherwise
+     * @throws NullPointerException if the provided {@code fingerprint} is {@code null}
+     */
+    public boolean matches(@NonNull String fingerprint) {
+        return fingerprint.equals(read());
+    }
+
+    /**
+     * Stores the provided {@code fingerprint}.
+     * <p>
+     * The marker file is replaced atomically (if supported by the file system). Errors are logged and do not
+     * prevent the bot from running: the bot is redeployed at its next start.
+     *
+     * @param fingerprint    the fingerprint to store
+     * @param deploymentName the name the bot has been deployed under on the server
+     * @throws NullPointerException if the provided {@code fingerprint} or {@code deploymentName} is {@code null}
+     */
+    public void write(@NonNull String fingerprint, @NonNull String deploymentName) {
+        try {
+            Files.createDirectories(file.getParent());
+            Path tmp = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+            Files.write(tmp, Arrays.asList(fingerprint, deploymentName), StandardCharsets.UTF_8);
+            try {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Log.warn("Cannot write the fingerprint file {0}: {1}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes the stored fingerprint.
+     */
+    public void clear() {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            Log.warn("Cannot delete the fingerprint file {0}: {1}", file, e.getMessage());
+        }
+    }
+}
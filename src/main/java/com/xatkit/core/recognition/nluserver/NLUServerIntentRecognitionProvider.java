@@ -5,13 +5,15 @@ import com.xatkit.core.XatkitException;
 import com.xatkit.core.recognition.AbstractIntentRecognitionProvider;
 import com.xatkit.core.recognition.IntentRecognitionProviderException;
 import com.xatkit.core.recognition.RecognitionMonitor;
+import com.xatkit.core.recognition.nluserver.jfr.NLUServerFlightRecorder;
+import com.xatkit.core.recognition.nluserver.jfr.NLUServerMappingEvent;
 import com.xatkit.core.recognition.nluserver.mapper.NLUServerEntityMapper;
 import com.xatkit.core.recognition.nluserver.mapper.NLUServerEntityReferenceMapper;
 import com.xatkit.core.recognition.nluserver.mapper.NLUServerIntentMapper;
 import com.xatkit.core.recognition.nluserver.mapper.NLUServerRecognizedIntentMapper;
 import com.xatkit.core.recognition.nluserver.mapper.NLUServerStateMapper;
 import com.xatkit.core.recognition.nluserver.mapper.dsl.BotData;
-import com.xatkit.core.recognition.nluserver.mapper.dsl.Classification;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.BotSnapshot;
 import com.xatkit.core.recognition.nluserver.mapper.dsl.EntityParameter;
 import com.xatkit.core.recognition.nluserver.mapper.dsl.EntityType;
 import com.xatkit.core.recognition.nluserver.mapper.dsl.Intent;
@@ -35,10 +37,18 @@ import org.apache.commons.configuration2.ConfigurationConverter;
 
 import javax.annotation.Nullable;
 import java.text.MessageFormat;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static fr.inria.atlanmod.commons.Preconditions.checkArgument;
 import static fr.inria.atlanmod.commons.Preconditions.checkNotNull;
+import static java.util.Objects.isNull;
 import static java.util.Objects.nonNull;
 
 /**
@@ -69,6 +79,14 @@ public class NLUServerIntentRecognitionProvider extends AbstractIntentRecognitio
      */
     private final String botName;
 
+    /**
+     * The bot definition the intents, states, and entities are registered to.
+     * <p>
+     * This builder is only accessed by the registration methods and {@link #trainMLEngine()}, that publishes an
+     * immutable {@link BotSnapshot} of it to the threads computing the predictions.
+     *
+     * @see NLUServerClientAPIWrapper#getActiveBot()
+     */
     private BotData bot;
 
     /**
@@ -77,6 +95,17 @@ public class NLUServerIntentRecognitionProvider extends AbstractIntentRecognitio
     @Nullable
     private final RecognitionMonitor recognitionMonitor;
 
+    /**
+     * The dispatcher logging the recognized intents in the {@link #recognitionMonitor} from a background thread.
+     * <p>
+     * This field is {@code null} if there is no {@link RecognitionMonitor} or if the recognitions are logged
+     * synchronously.
+     *
+     * @see NLUServerConfiguration#MONITOR_ASYNC
+     */
+    @Nullable
+    private final NLUServerMonitorDispatcher monitorDispatcher;
+
     /**
      * The mapper creating a NLUServer {@link Intent}s from {@link IntentDefinition} instances.
      */
@@ -104,6 +133,25 @@ public class NLUServerIntentRecognitionProvider extends AbstractIntentRecognitio
      */
     private NLUServerRecognizedIntentMapper nluServerRecognizedIntentMapper;
 
+    /**
+     * The index matching the inputs that are exactly a training sentence without calling the NLUServer.
+     * <p>
+     * This field is {@code null} if local exact matching is disabled and no deadline is set. If local exact matching
+     * is disabled, this index is only used when the NLUServer does not answer before the deadline.
+     *
+     * @see NLUServerConfiguration#LOCAL_EXACT_MATCH
+     * @see NLUServerConfiguration#PREDICT_DEADLINE
+     */
+    @Nullable
+    private final NLUServerExactMatchIndex exactMatchIndex;
+
+    /**
+     * The number of recognitions that did not receive the NLUServer's prediction before the deadline.
+     *
+     * @see NLUServerConfiguration#PREDICT_DEADLINE
+     */
+    private final AtomicLong deadlineOverrunCount = new AtomicLong();
+
     /**
      * Constructs a {@link NLUServerIntentRecognitionProvider} with the provided {@code eventRegistry}, {@code
      * configuration}, and {@code
@@ -128,11 +176,18 @@ public class NLUServerIntentRecognitionProvider extends AbstractIntentRecognitio
         this.botName = this.configuration.getBotName();
         this.bot = new BotData(this.botName);
         try {
-            this.nluServerClientWrapper = new NLUServerClientAPIWrapper(this.configuration, this.bot);
+            this.nluServerClientWrapper = new NLUServerClientAPIWrapper(this.configuration, this.bot,
+                    eventRegistry::getIntentDefinition);
         } catch (IntentRecognitionProviderException e) {
             throw new XatkitException("An error occurred when creating the NLU Server client, see attached "
                     + "exception", e);
         }
+        if (this.configuration.isCheckExactPredictionMatch()
+                && (this.configuration.isLocalExactMatch() || this.configuration.getPredictDeadline() > 0)) {
+            this.exactMatchIndex = new NLUServerExactMatchIndex(this.configuration.isLower());
+        } else {
+            this.exactMatchIndex = null;
+        }
         this.nluServerStateMapper = new NLUServerStateMapper(this.configuration);
         this.nluServerEntityReferenceMapper = new NLUServerEntityReferenceMapper();
         this.nluServerIntentMapper = new NLUServerIntentMapper(this.configuration,
@@ -140,7 +195,13 @@ public class NLUServerIntentRecognitionProvider extends AbstractIntentRecognitio
         this.nluServerEntityMapper = new NLUServerEntityMapper(this.nluServerEntityReferenceMapper);
         this.nluServerRecognizedIntentMapper = new NLUServerRecognizedIntentMapper(this.configuration, eventRegistry);
         this.recognitionMonitor = recognitionMonitor;
-
+        if (nonNull(recognitionMonitor) && this.configuration.isMonitorAsync()) {
+            this.monitorDispatcher = new NLUServerMonitorDispatcher(recognitionMonitor,
+                    this.configuration.getMonitorQueueSize(), this.configuration.getMonitorFlushInterval(),
+                    this.configuration.getMonitorOverflow());
+        } else {
+            this.monitorDispatcher = null;
+        }
     }
 
     /**
@@ -270,21 +331,54 @@ public class NLUServerIntentRecognitionProvider extends AbstractIntentRecognitio
      * This method checks every second whether the underlying ML Engine has finished its training. Note that this
      * method is blocking as long as the ML Engine training is not terminated, and may not terminate if an issue
      * occurred on the NLUServer side.
+     * <p>
+     * If {@link NLUServerConfiguration#TRAIN_ASYNC} is enabled and a trained model already answers the
+     * predictions, this method submits the training in the background and returns immediately: the current model
+     * keeps answering the predictions until the new one is trained (see {@link #getCurrentTrainingJob()}). The
+     * first training is always synchronous, including when it reuses a deployment of a previous run (see
+     * {@link NLUServerConfiguration#DEPLOY_SKIP_UNCHANGED}).
+     * <p>
+     * The intents, states, and entities registered so far are captured in an immutable {@link BotSnapshot}, that is
+     * used by the predictions once the corresponding model is trained. Registering new elements while the bot is
+     * trained does not affect the predictions.
      */
     @Override
     public void trainMLEngine() throws IntentRecognitionProviderException {
         checkNotShutdown();
         prepareTrainingData();
+        BotSnapshot snapshot = bot.snapshot();
+        if (configuration.isTrainAsync() && this.nluServerClientWrapper.hasTrainedModel()) {
+            NLUServerTrainingJob job;
+            try {
+                job = this.nluServerClientWrapper.deployAndTrainBotAsync(snapshot);
+            } catch (IllegalStateException e) {
+                throw new IntentRecognitionProviderException("Cannot start the NLUServer agent training", e);
+            }
+            Log.info("Starting NLUServer agent training in the background, the current model answers the "
+                    + "predictions until the new one is trained");
+            job.onComplete(j -> {
+                if (j.getStatus() == NLUServerTrainingJob.Status.COMPLETED) {
+                    indexTrainingSentences(snapshot);
+                    Log.info("NLUServer agent trained, the predictions are now answered by {0}",
+                            j.getDeploymentName());
+                } else {
+                    Log.error("Failed to deploy and train the NLUServer agent, the previous model keeps answering "
+                            + "the predictions");
+                }
+            });
+            return;
+        }
         Log.info("Starting NLUServer agent training (this may take a few minutes)");
         boolean isDone = false;
         try {
-            isDone = this.nluServerClientWrapper.deployAndTrainBot();
+            isDone = this.nluServerClientWrapper.deployAndTrainBot(snapshot);
         } catch (RuntimeException e) {
             throw new IntentRecognitionProviderException("An error occurred during the NLUServer agent training", e);
         }
         if (!isDone) {
             throw new IntentRecognitionProviderException("Failed to deploy and train the NLUServer agent");
         }
+        indexTrainingSentences(snapshot);
         Log.info("NLUServer agent trained, intent matching will be available in a few seconds");
     }
 
@@ -293,25 +387,49 @@ public class NLUServerIntentRecognitionProvider extends AbstractIntentRecognitio
      * registered names.
      * <p>
      * We also link {@link Intent}s with their parameters ({@link EntityType})
+     * <p>
+     * Only the unresolved links are set. The links are resolved on the elements of the {@link BotData}, that are
+     * never read by the threads computing the predictions: the {@link BotSnapshot} taken afterwards contains copies
+     * of these elements, linked to each other (see {@link BotData#snapshot()}).
      */
     private void prepareTrainingData() {
         for (Intent i: bot.getIntents()) {
             for (EntityParameter p: i.getParameters()) {
-                p.setType(bot.getEntityType(p.getTypeName()));
+                if (isNull(p.getType())) {
+                    p.setType(bot.getEntityType(p.getTypeName()));
+                }
             }
         }
         for (NLUContext c : bot.getNluContexts()) {
             for (IntentReference r : c.getIntentReferences()) {
-                r.setIntent(bot.getIntent(r.getName()));
+                if (isNull(r.getIntent())) {
+                    r.setIntent(bot.getIntent(r.getName()));
+                }
             }
         }
     }
 
+    /**
+     * Indexes the training sentences reachable from each state (see {@link NLUServerExactMatchIndex}).
+     * <p>
+     * This method is called once the NLUServer model is trained, so that the local exact matches are consistent
+     * with the model answering the predictions.
+     *
+     * @param snapshot the {@link BotSnapshot} the model has been trained with
+     */
+    private void indexTrainingSentences(BotSnapshot snapshot) {
+        if (nonNull(exactMatchIndex)) {
+            exactMatchIndex.build(snapshot);
+        }
+    }
+
     /**
      * {@inheritDoc}
      *
      * @throws NullPointerException               if the provided {@code input} or {@code context} is {@code null}
      * @throws IntentRecognitionProviderException if an error occurred when accessing the intent provider
+     * @see #getIntentInternalAsync(String, StateContext)
+     * @see NLUServerConfiguration#PREDICT_DEADLINE
      */
     @Override
     protected RecognizedIntent getIntentInternal(@NonNull String input, @NonNull StateContext context)
@@ -319,36 +437,278 @@ public class NLUServerIntentRecognitionProvider extends AbstractIntentRecognitio
         checkNotShutdown();
         checkArgument(!input.isEmpty(), "Cannot retrieve the intent from empty string");
 
+        long start = System.nanoTime();
+        NLUServerRecognitionTimings timings = createTimings();
         try {
-            RecognizedIntent recognizedIntent;
-
             //We assume the nluContexts and states have the same name, @see NLUServerStateMapper
-            Prediction prediction = this.nluServerClientWrapper.predict(bot.getNluContext(context.getState().getName()),
-                    input);
-
-            if (prediction.isEmpty()) {
-                recognizedIntent = IntentFactory.eINSTANCE.createRecognizedIntent();
-                recognizedIntent.setDefinition(DEFAULT_FALLBACK_INTENT);
-                recognizedIntent.setRecognitionConfidence(0);
-                recognizedIntent.setMatchedInput(input);
-            } else if ( prediction.getTopClassification().getScore() < configuration.getConfidenceThreshold()) {
-                Classification topClassification = prediction.getTopClassification();
-                recognizedIntent = IntentFactory.eINSTANCE.createRecognizedIntent();
-                recognizedIntent.setDefinition(DEFAULT_FALLBACK_INTENT);
-                recognizedIntent.setRecognitionConfidence(topClassification.getScore());
-                recognizedIntent.setMatchedInput(topClassification.getMatchedUtterance());
-            } else {
-                List<RecognizedIntent> recognizedIntents =
-                        nluServerRecognizedIntentMapper.mapRecognitionResult(prediction);
-                recognizedIntent = getBestCandidate(recognizedIntents, context);
-            }
-
-            if (nonNull(recognitionMonitor)) {
-                recognitionMonitor.logRecognizedIntent(context, recognizedIntent);
+            Prediction prediction = configuration.isLocalExactMatch() ? getExactMatch(context, input) : null;
+            if (isNull(prediction)) {
+                if (configuration.getPredictDeadline() > 0) {
+                    prediction = predictBeforeDeadline(input, context, timings);
+                } else {
+                    prediction = this.nluServerClientWrapper.predict(getNluContext(context), input, timings);
+                }
             }
-            return recognizedIntent;
+            return toRecognizedIntent(input, context, prediction, timings);
         } catch (Exception e) {
             throw new IntentRecognitionProviderException(e);
+        } finally {
+            recordPrediction(context, start, timings);
+        }
+    }
+
+    /**
+     * Asynchronously computes the {@link RecognizedIntent} matching the provided {@code input}.
+     * <p>
+     * This method is the non-blocking counterpart of {@link #getIntentInternal(String, StateContext)}: the
+     * prediction request is submitted to the NLU server and the calling thread is released immediately. The
+     * returned {@link CompletableFuture} is completed with the {@link RecognizedIntent} once the server answers, or
+     * completed exceptionally with an {@link IntentRecognitionProviderException} if an error occurred.
+     * <p>
+     * <b>Note</b>: this method does not run the pre/post-processors configured for this provider, they are only
+     * executed by the synchronous {@link #getIntent(String, StateContext)}. The
+     * {@link NLUServerConfiguration#PREDICT_DEADLINE} does not complete the returned future with a fallback, it only
+     * bounds the socket timeout of the request: a stalled request completes the future exceptionally.
+     *
+     * @param input   the textual user input to extract the {@link RecognizedIntent} from
+     * @param context the {@link StateContext} wrapping the underlying {@link RecognizedIntent}
+     * @return a {@link CompletableFuture} completed with the {@link RecognizedIntent} extracted from the provided
+     * {@code input}
+     * @throws NullPointerException               if the provided {@code input} or {@code context} is {@code null}
+     * @throws IntentRecognitionProviderException if the provider is shutdown
+     * @throws IllegalArgumentException           if the provided {@code input} is empty
+     */
+    public CompletableFuture<RecognizedIntent> getIntentInternalAsync(@NonNull String input,
+                                                                      @NonNull StateContext context)
+            throws IntentRecognitionProviderException {
+        checkNotShutdown();
+        checkArgument(!input.isEmpty(), "Cannot retrieve the intent from empty string");
+
+        long start = System.nanoTime();
+        NLUServerRecognitionTimings timings = createTimings();
+        //We assume the nluContexts and states have the same name, @see NLUServerStateMapper
+        Prediction exactMatch = configuration.isLocalExactMatch() ? getExactMatch(context, input) : null;
+        CompletableFuture<Prediction> pendingPrediction = nonNull(exactMatch)
+                ? CompletableFuture.completedFuture(exactMatch)
+                : this.nluServerClientWrapper.predictAsync(getNluContext(context), input, timings);
+        return pendingPrediction.handle((prediction, throwable) -> {
+            try {
+                if (nonNull(throwable)) {
+                    throw new IntentRecognitionProviderException(throwable);
+                }
+                return toRecognizedIntent(input, context, prediction, timings);
+            } catch (IntentRecognitionProviderException e) {
+                throw new CompletionException(e);
+            } catch (Exception e) {
+                throw new CompletionException(new IntentRecognitionProviderException(e));
+            } finally {
+                recordPrediction(context, start, timings);
+            }
+        });
+    }
+
+    /**
+     * Predicts the intent matching the provided {@code input}, waiting at most
+     * {@link NLUServerConfiguration#PREDICT_DEADLINE} milliseconds for the NLUServer.
+     * <p>
+     * If the deadline is reached the pending request is cancelled and the overrun is counted (see
+     * {@link #getDeadlineOverrunCount()}). The input is then matched locally if it is exactly a training sentence
+     * reachable from the current state, otherwise an empty {@link Prediction} is returned, that is matched to the
+     * {@link #DEFAULT_FALLBACK_INTENT}.
+     * <p>
+     * The request phases are recorded in their own {@link NLUServerRecognitionTimings}, and merged in the provided
+     * {@code timings} only if the prediction is received before the deadline: a cancelled request keeps running in
+     * the background, and must not record its phases in the timings read by the calling thread.
+     *
+     * @param input   the user input to classify
+     * @param context the {@link StateContext} to classify the input in
+     * @param timings the {@link NLUServerRecognitionTimings} to record the phases in, or {@code null}
+     * @return the {@link Prediction} returned by the NLUServer, or the local {@link Prediction} if the deadline has
+     * been reached
+     * @throws ExecutionException   if an error occurred when computing the prediction
+     * @throws InterruptedException if the calling thread has been interrupted while waiting for the prediction
+     */
+    private Prediction predictBeforeDeadline(String input, StateContext context,
+                                             @Nullable NLUServerRecognitionTimings timings)
+            throws ExecutionException, InterruptedException {
+        NLUServerRecognitionTimings requestTimings = isNull(timings) ? null : new NLUServerRecognitionTimings();
+        CompletableFuture<Prediction> pendingPrediction =
+                this.nluServerClientWrapper.predictAsync(getNluContext(context), input, requestTimings);
+        try {
+            Prediction prediction = pendingPrediction.get(configuration.getPredictDeadline(), TimeUnit.MILLISECONDS);
+            if (nonNull(timings)) {
+                timings.merge(requestTimings);
+            }
+            return prediction;
+        } catch (TimeoutException e) {
+            /*
+             * Cancelling the future does not abort the HTTP request, the request's socket timeout is bounded by the
+             * deadline so that the connection of a stalled request is released by the HTTP client.
+             */
+            pendingPrediction.cancel(false);
+            deadlineOverrunCount.incrementAndGet();
+            NLUServerMetrics metrics = this.nluServerClientWrapper.getMetrics();
+            if (nonNull(metrics)) {
+                metrics.recordDeadlineOverrun();
+            }
+            Log.debug("The NLUServer did not answer in {0} ms, matching the input \"{1}\" locally",
+                    configuration.getPredictDeadline(), input);
+            Prediction localPrediction = getExactMatch(context, input);
+            return isNull(localPrediction) ? new Prediction() : localPrediction;
+        } catch (InterruptedException e) {
+            pendingPrediction.cancel(false);
+            Thread.currentThread().interrupt();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates the {@link NLUServerRecognitionTimings} recording the phases of a recognition.
+     *
+     * @return the created {@link NLUServerRecognitionTimings}, or {@code null} if the phases are neither recorded
+     * in the metrics nor attached to the {@link RecognizedIntent}s
+     * @see NLUServerConfiguration#TIMINGS_ATTACHED
+     */
+    @Nullable
+    private NLUServerRecognitionTimings createTimings() {
+        if (isNull(this.nluServerClientWrapper.getMetrics()) && !configuration.isTimingsAttached()) {
+            return null;
+        }
+        return new NLUServerRecognitionTimings();
+    }
+
+    /**
+     * Records the latency of a recognition and the duration of its phases in the {@link NLUServerMetrics}, if
+     * metrics are enabled.
+     * <p>
+     * The latency is recorded with the name of the current state of the provided {@code context}, that is also the
+     * name of the corresponding {@link NLUContext}.
+     *
+     * @param context the {@link StateContext} the recognition has been computed in
+     * @param start   the {@link System#nanoTime()} when the recognition started
+     * @param timings the {@link NLUServerRecognitionTimings} of the recognition, or {@code null}
+     */
+    private void recordPrediction(StateContext context, long start, @Nullable NLUServerRecognitionTimings timings) {
+        NLUServerMetrics metrics = this.nluServerClientWrapper.getMetrics();
+        if (nonNull(metrics)) {
+            metrics.recordPrediction(isNull(context.getState()) ? null : context.getState().getName(),
+                    System.nanoTime() - start);
+            if (nonNull(timings)) {
+                metrics.recordTimings(timings);
+            }
+        }
+    }
+
+    /**
+     * Returns the {@link NLUContext} corresponding to the current state of the provided {@code context}.
+     * <p>
+     * The {@link NLUContext} is retrieved from the {@link BotSnapshot} answering the predictions, that is read
+     * without locking.
+     *
+     * @param context the {@link StateContext} to retrieve the {@link NLUContext} of
+     * @return the {@link NLUContext}, or {@code null} if the state is not part of the trained model
+     */
+    @Nullable
+    private NLUContext getNluContext(StateContext context) {
+        return this.nluServerClientWrapper.getActiveBot().getNluContext(context.getState().getName());
+    }
+
+    /**
+     * Returns the local {@link Prediction} of the provided {@code input} if it is exactly a training sentence of an
+     * intent reachable from the current state.
+     *
+     * @param context the {@link StateContext} to match the {@code input} in
+     * @param input   the user input to match
+     * @return the local {@link Prediction}, or {@code null} if the {@code input} must be sent to the NLUServer
+     * @see NLUServerExactMatchIndex
+     */
+    @Nullable
+    private Prediction getExactMatch(StateContext context, String input) {
+        if (isNull(exactMatchIndex)) {
+            return null;
+        }
+        return exactMatchIndex.predict(context.getState().getName(), input);
+    }
+
+    /**
+     * Creates the {@link RecognizedIntent} corresponding to the provided {@code prediction}.
+     * <p>
+     * This method returns the {@link #DEFAULT_FALLBACK_INTENT} if the {@code prediction} is empty or if its top
+     * classification is below the configured confidence threshold. The created {@link RecognizedIntent} is logged in
+     * the {@link RecognitionMonitor} (if it exists), or submitted to the {@link NLUServerMonitorDispatcher} if the
+     * recognitions are logged asynchronously.
+     * <p>
+     * The mapping phases are recorded in the provided {@code timings}, that are attached to the created
+     * {@link RecognizedIntent} if {@link NLUServerConfiguration#TIMINGS_ATTACHED} is enabled.
+     *
+     * @param input      the user input the {@code prediction} has been computed from
+     * @param context    the {@link StateContext} the {@code prediction} has been computed in
+     * @param prediction the {@link Prediction} returned by the NLU server
+     * @param timings    the {@link NLUServerRecognitionTimings} of the recognition, or {@code null}
+     * @return the created {@link RecognizedIntent}
+     * @throws IntentRecognitionProviderException if the NLU server did not return a {@link Prediction}
+     */
+    private RecognizedIntent toRecognizedIntent(String input, StateContext context, @Nullable Prediction prediction,
+                                                @Nullable NLUServerRecognitionTimings timings)
+            throws IntentRecognitionProviderException {
+        if (prediction == null) {
+            throw new IntentRecognitionProviderException(MessageFormat.format("The NLU server did not return a "
+                    + "prediction for the input \"{0}\"", input));
+        }
+        RecognizedIntent recognizedIntent;
+        if (prediction.isEmpty()) {
+            recognizedIntent = IntentFactory.eINSTANCE.createRecognizedIntent();
+            recognizedIntent.setDefinition(DEFAULT_FALLBACK_INTENT);
+            recognizedIntent.setRecognitionConfidence(0);
+            recognizedIntent.setMatchedInput(input);
+            recordFallback();
+        } else if (prediction.getTopScore() < configuration.getConfidenceThreshold()) {
+            recognizedIntent = IntentFactory.eINSTANCE.createRecognizedIntent();
+            recognizedIntent.setDefinition(DEFAULT_FALLBACK_INTENT);
+            recognizedIntent.setRecognitionConfidence(prediction.getTopScore());
+            recognizedIntent.setMatchedInput(prediction.getMatchedUtterance(prediction.getTopIndex()));
+            recordFallback();
+        } else {
+            /*
+             * Only the best classification matching an intent accessible from the current state is transformed,
+             * getBestCandidate does not select the other ones.
+             */
+            NLUServerMappingEvent mappingEvent = NLUServerFlightRecorder.isAvailable() ?
+                    NLUServerMappingEvent.begin(botName, context.getState().getName()) : null;
+            long mappingStart = System.nanoTime();
+            Collection<IntentDefinition> accessedIntents = context.getState().getAllAccessedIntents();
+            List<RecognizedIntent> recognizedIntents =
+                    nluServerRecognizedIntentMapper.mapBestRecognitionResult(prediction,
+                            nluServerClientWrapper.getActiveIntentTable(), accessedIntents::contains);
+            long candidateStart = System.nanoTime();
+            recognizedIntent = getBestCandidate(recognizedIntents, context);
+            if (nonNull(timings)) {
+                timings.record(NLUServerRecognitionTimings.Phase.MAPPING, candidateStart - mappingStart);
+                timings.record(NLUServerRecognitionTimings.Phase.CANDIDATE, System.nanoTime() - candidateStart);
+            }
+            if (nonNull(mappingEvent)) {
+                mappingEvent.complete(prediction, recognizedIntent);
+            }
+        }
+
+        if (nonNull(timings) && configuration.isTimingsAttached()) {
+            recognizedIntent.getNlpData().put(NLUServerRecognitionTimings.NLP_DATA_KEY, timings.toMap());
+        }
+        if (nonNull(monitorDispatcher)) {
+            monitorDispatcher.submit(context, recognizedIntent);
+        } else if (nonNull(recognitionMonitor)) {
+            recognitionMonitor.logRecognizedIntent(context, recognizedIntent);
+        }
+        return recognizedIntent;
+    }
+
+    /**
+     * Records a fallback in the {@link NLUServerMetrics}, if metrics are enabled.
+     */
+    private void recordFallback() {
+        NLUServerMetrics metrics = this.nluServerClientWrapper.getMetrics();
+        if (nonNull(metrics)) {
+            metrics.recordFallback();
         }
     }
 
@@ -358,6 +718,12 @@ public class NLUServerIntentRecognitionProvider extends AbstractIntentRecognitio
     @Override
     public void shutdown() throws IntentRecognitionProviderException {
         checkNotShutdown();
+        if (nonNull(this.monitorDispatcher)) {
+            /*
+             * Log the pending recognitions before closing the monitor.
+             */
+            this.monitorDispatcher.shutdown();
+        }
         if (nonNull(this.recognitionMonitor)) {
             this.recognitionMonitor.shutdown();
         }
@@ -392,6 +758,65 @@ public class NLUServerIntentRecognitionProvider extends AbstractIntentRecognitio
         return recognitionMonitor;
     }
 
+    /**
+     * Returns the NLUServer training job currently running in the background.
+     *
+     * @return the running {@link NLUServerTrainingJob}, or {@code null} if the bot is not being trained
+     * @see NLUServerConfiguration#TRAIN_ASYNC
+     */
+    @Nullable
+    public NLUServerTrainingJob getCurrentTrainingJob() {
+        return this.nluServerClientWrapper.getCurrentTrainingJob();
+    }
+
+    /**
+     * Returns the number of recognitions that did not receive the NLUServer's prediction before the deadline.
+     *
+     * @return the number of deadline overruns
+     * @see NLUServerConfiguration#PREDICT_DEADLINE
+     */
+    public long getDeadlineOverrunCount() {
+        return deadlineOverrunCount.get();
+    }
+
+    /**
+     * Returns the dispatcher logging the recognized intents in the {@link RecognitionMonitor}.
+     * <p>
+     * The returned dispatcher exposes the number of pending and discarded recognitions.
+     *
+     * @return the {@link NLUServerMonitorDispatcher}, or {@code null} if there is no {@link RecognitionMonitor} or
+     * if the recognitions are logged synchronously
+     * @see NLUServerConfiguration#MONITOR_ASYNC
+     */
+    @Nullable
+    public NLUServerMonitorDispatcher getMonitorDispatcher() {
+        return monitorDispatcher;
+    }
+
+    /**
+     * Returns the cache of the predictions returned by the NLU server.
+     * <p>
+     * The returned cache exposes the hit, miss, and eviction counts of the provider.
+     *
+     * @return the {@link NLUServerPredictionCache}, or {@code null} if caching is disabled
+     * @see NLUServerConfiguration#CACHE_ENABLED
+     */
+    @Nullable
+    public NLUServerPredictionCache getPredictionCache() {
+        return this.nluServerClientWrapper.getPredictionCache();
+    }
+
+    /**
+     * Returns the metrics of the provider.
+     *
+     * @return the {@link NLUServerMetrics}, or {@code null} if metrics are disabled
+     * @see NLUServerConfiguration#METRICS_ENABLED
+     */
+    @Nullable
+    public NLUServerMetrics getMetrics() {
+        return this.nluServerClientWrapper.getMetrics();
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -0,0 +1,329 @@
+package com.xatkit.core.recognition.nluserver;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.NonNull;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Records the performance metrics of the NLU server client in a Micrometer {@link MeterRegistry}.
+ * <p>
+ * All the meters are tagged with the name of the bot. The meters are created once, and the meters depending on a
+ * context or an HTTP status are cached: recording a value does not allocate tags nor take a lock once the
+ * corresponding meter exists. The registry takes care of exporting the meters, e.g. to Prometheus.
+ * <p>
+ * The following meters are recorded:
+ * <ul>
+ *     <li>{@value #PREDICT}: the recognition latency (timer with a percentile histogram), tagged by
+ *     {@code context}</li>
+ *     <li>{@value #PHASE}: the duration of each phase of the recognitions (timer with a percentile histogram), tagged
+ *     by {@code phase} (see {@link NLUServerRecognitionTimings.Phase})</li>
+ *     <li>{@value #FALLBACKS}: the number of inputs matched to the default fallback intent because the prediction
+ *     was empty or below the confidence threshold</li>
+ *     <li>{@value #DEADLINE_OVERRUNS}: the number of recognitions that did not receive the server's prediction
+ *     before the {@link NLUServerConfiguration#PREDICT_DEADLINE}</li>
+ *     <li>{@value #ERRORS}: the number of failed requests, tagged by HTTP {@code status} ({@code none} if no
+ *     response has been received)</li>
+ *     <li>{@value #IN_FLIGHT}: the number of pending requests</li>
+ *     <li>{@value #PAYLOAD}: the size in bytes of the bot definitions sent to the server ({@code operation=deploy})
+ *     and of the prediction responses ({@code operation=predict})</li>
+ *     <li>{@value #DEPLOY} and {@value #TRAIN}: the duration of the deployment and of the training of the bot on a
+ *     server replica</li>
+ * </ul>
+ *
+ * @see NLUServerConfiguration#METRICS_ENABLED
+ */
+public class NLUServerMetrics {
+
+    /**
+     * The name of the recognition latency timer.
+     */
+    public static final String PREDICT = "xatkit.nluserver.predict";
+
+    /**
+     * The name of the recognition phases timer.
+     */
+    public static final String PHASE = "xatkit.nluserver.predict.phase";
+
+    /**
+     * The name of the fallback counter.
+     */
+    public static final String FALLBACKS = "xatkit.nluserver.fallbacks";
+
+    /**
+     * The name of the deadline overruns counter.
+     */
+    public static final String DEADLINE_OVERRUNS = "xatkit.nluserver.deadline.overruns";
+
+    /**
+     * The name of the failed requests counter.
+     */
+    public static final String ERRORS = "xatkit.nluserver.errors";
+
+    /**
+     * The name of the pending requests gauge.
+     */
+    public static final String IN_FLIGHT = "xatkit.nluserver.requests.in_flight";
+
+    /**
+     * The name of the payload size distribution summary.
+     */
+    public static final String PAYLOAD = "xatkit.nluserver.payload";
+
+    /**
+     * The name of the deployment duration timer.
+     */
+    public static final String DEPLOY = "xatkit.nluserver.deploy";
+
+    /**
+     * The name of the training duration timer.
+     */
+    public static final String TRAIN = "xatkit.nluserver.train";
+
+    /**
+     * The {@code context} tag value used when the context of a prediction is unknown.
+     */
+    static final String UNKNOWN_CONTEXT = "unknown";
+
+    /**
+     * The highest HTTP status (exclusive) with its own {@value #ERRORS} counter.
+     */
+    private static final int MAX_STATUS = 600;
+
+    private static final NLUServerRecognitionTimings.Phase[] PHASES = NLUServerRecognitionTimings.Phase.values();
+
+    private final MeterRegistry registry;
+
+    /**
+     * The tags shared by all the meters.
+     */
+    private final Tags botTags;
+
+    /**
+     * The recognition latency timers, mapped by context name.
+     */
+    private final ConcurrentMap<String, Timer> predictTimers = new ConcurrentHashMap<>();
+
+    /**
+     * The failed requests counters, indexed by HTTP status ({@code 0} if no response has been received).
+     * <p>
+     * The counters are created lazily. Concurrent creations of the same counter are harmless: the registry returns
+     * the existing meter.
+     */
+    private final AtomicReferenceArray<Counter> errorCounters = new AtomicReferenceArray<>(MAX_STATUS);
+
+    /**
+     * The recognition phases timers, indexed by {@link NLUServerRecognitionTimings.Phase#ordinal()}.
+     */
+    private final Timer[] phaseTimers;
+
+    private final Counter fallbackCounter;
+
+    private final Counter deadlineOverrunCounter;
+
+    /**
+     * The value of the {@value #IN_FLIGHT} gauge.
+     * <p>
+     * The registry only holds a weak reference to this value, it must be referenced by this class.
+     */
+    private final AtomicInteger inFlightRequests;
+
+    private final DistributionSummary deployPayloadSummary;
+
+    private final DistributionSummary predictPayloadSummary;
+
+    private final Timer deployTimer;
+
+    private final Timer trainTimer;
+
+    /**
+     * Constructs a {@link NLUServerMetrics} recording the metrics of the provided {@code botName}.
+     *
+     * @param registry the {@link MeterRegistry} to register the meters to
+     * @param botName  the name of the bot
+     * @throws NullPointerException if the provided {@code registry} or {@code botName} is {@code null}
+     */
+    public NLUServerMetrics(@NonNull MeterRegistry registry, @NonNull String botName) {
+        this.registry = registry;
+        this.botTags = Tags.of("bot", botName);
+        this.phaseTimers = new Timer[PHASES.length];
+        for (NLUServerRecognitionTimings.Phase phase : PHASES) {
+            this.phaseTimers[phase.ordinal()] = Timer.builder(PHASE)
+                    .description("Duration of the phases of the intent recognition")
+                    .tags(botTags)
+                    .tag("phase", phase.getTag())
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+        this.fallbackCounter = Counter.builder(FALLBACKS)
+                .description("Inputs matched to the default fallback intent")
+                .tags(botTags)
+                .register(registry);
+        this.deadlineOverrunCounter = Counter.builder(DEADLINE_OVERRUNS)
+                .description("Recognitions that did not receive the server's prediction in time")
+                .tags(botTags)
+                .register(registry);
+        this.inFlightRequests = registry.gauge(IN_FLIGHT, botTags, new AtomicInteger());
+        this.deployPayloadSummary = createPayloadSummary("deploy");
+        this.predictPayloadSummary = createPayloadSummary("predict");
+        this.deployTimer = Timer.builder(DEPLOY)
+                .description("Deployment of the bot on a NLU server replica")
+                .tags(botTags)
+                .register(registry);
+        this.trainTimer = Timer.builder(TRAIN)
+                .description("Training of the bot on a NLU server replica")
+                .tags(botTags)
+                .register(registry);
+    }
+
+    private DistributionSummary createPayloadSummary(String operation) {
+        return DistributionSummary.builder(PAYLOAD)
+                .description("Size of the payloads exchanged with the NLU server")
+                .baseUnit("bytes")
+                .tags(botTags)
+                .tag("operation", operation)
+                .register(registry);
+    }
+
+    /**
+     * Returns the {@link MeterRegistry} the meters are registered to.
+     *
+     * @return the {@link MeterRegistry}
+     */
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Records the latency of a recognition in the provided {@code context}.
+     *
+     * @param context  the name of the context the input has been classified in, or {@code null} if it is unknown
+     * @param duration the duration of the recognition in nanoseconds
+     */
+    public void recordPrediction(@Nullable String context, long duration) {
+        String contextName = context == null ? UNKNOWN_CONTEXT : context;
+        Timer timer = predictTimers.get(contextName);
+        if (timer == null) {
+            timer = predictTimers.computeIfAbsent(contextName, k -> Timer.builder(PREDICT)
+                    .description("Latency of the intent recognition")
+                    .tags(botTags)
+                    .tag("context", k)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        timer.record(duration, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the duration of the phases of a recognition.
+     * <p>
+     * The phases that have not been recorded in the provided {@code timings} are ignored.
+     *
+     * @param timings the {@link NLUServerRecognitionTimings} of the recognition
+     * @throws NullPointerException if the provided {@code timings} is {@code null}
+     */
+    public void recordTimings(@NonNull NLUServerRecognitionTimings timings) {
+        for (NLUServerRecognitionTimings.Phase phase : PHASES) {
+            long duration = timings.getDuration(phase);
+            if (duration >= 0) {
+                phaseTimers[phase.ordinal()].record(duration, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    /**
+     * Records an input matched to the default fallback intent.
+     */
+    public void recordFallback() {
+        fallbackCounter.increment();
+    }
+
+    /**
+     * Records a recognition that did not receive the server's prediction before its deadline.
+     */
+    public void recordDeadlineOverrun() {
+        deadlineOverrunCounter.increment();
+    }
+
+    /**
+     * Records a failed request.
+     *
+     * @param status the HTTP status of the response, or {@code 0} if no response has been received
+     */
+    public void recordError(int status) {
+        int index = status > 0 && status < MAX_STATUS ? status : 0;
+        Counter counter = errorCounters.get(index);
+        if (counter == null) {
+            counter = Counter.builder(ERRORS)
+                    .description("Failed requests to the NLU server")
+                    .tags(botTags)
+                    .tag("status", index == 0 ? "none" : String.valueOf(index))
+                    .register(registry);
+            errorCounters.set(index, counter);
+        }
+        counter.increment();
+    }
+
+    /**
+     * Records a request sent to the server.
+     * <p>
+     * Each call to this method must be followed by a call to {@link #requestCompleted()}.
+     */
+    public void requestStarted() {
+        inFlightRequests.incrementAndGet();
+    }
+
+    /**
+     * Records the completion of a request sent to the server.
+     *
+     * @see #requestStarted()
+     */
+    public void requestCompleted() {
+        inFlightRequests.decrementAndGet();
+    }
+
+    /**
+     * Records the size of a bot definition sent to the server.
+     *
+     * @param bytes the size of the definition in bytes
+     */
+    public void recordDeployPayload(long bytes) {
+        deployPayloadSummary.record(bytes);
+    }
+
+    /**
+     * Records the size of a prediction response.
+     *
+     * @param bytes the size of the response in bytes
+     */
+    public void recordPredictPayload(long bytes) {
+        predictPayloadSummary.record(bytes);
+    }
+
+    /**
+     * Records the duration of a deployment.
+     *
+     * @param duration the duration of the deployment in nanoseconds
+     */
+    public void recordDeploy(long duration) {
+        deployTimer.record(duration, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records the duration of a training.
+     *
+     * @param duration the duration of the training in nanoseconds
+     */
+    public void recordTrain(long duration) {
+        trainTimer.record(duration, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,288 @@
+package com.xatkit.core.recognition.nluserver;
+
+import com.xatkit.core.recognition.RecognitionMonitor;
+import com.xatkit.execution.ExecutionFactory;
+import com.xatkit.execution.StateContext;
+import com.xatkit.intent.RecognizedIntent;
+import fr.inria.atlanmod.commons.log.Log;
+import lombok.NonNull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static fr.inria.atlanmod.commons.Preconditions.checkArgument;
+
+/**
+ * Logs the recognized intents in a {@link RecognitionMonitor} from a background thread.
+ * <p>
+ * The recognitions are added to a bounded lock-free queue, that is drained every
+ * {@link NLUServerConfiguration#MONITOR_FLUSH_INTERVAL} milliseconds by a single writer thread. The thread computing
+ * the recognition does not wait for the monitor to persist it, and the monitor is only accessed by the writer
+ * thread.
+ * <p>
+ * When the monitor cannot keep up with the recognitions, the queue fills up and the {@link OverflowPolicy} decides
+ * which recognitions are discarded. The discarded recognitions are counted and reported in the log.
+ * <p>
+ * <b>Note</b>: the {@link StateContext} of a recognition is copied when it is submitted, because it is updated by
+ * the bot while the recognition waits in the queue. The {@link RecognizedIntent} is not copied: changes made to it
+ * after its submission (e.g. by the post-processors) may be visible to the monitor.
+ *
+ * @see NLUServerConfiguration#MONITOR_ASYNC
+ */
+public class NLUServerMonitorDispatcher {
+
+    /**
+     * The policy applied to the recognitions submitted when the queue is filling up.
+     */
+    public enum OverflowPolicy {
+
+        /**
+         * Discards the recognitions submitted when the queue is full.
+         */
+        DROP,
+
+        /**
+         * Keeps one recognition out of {@link #SAMPLING_RATE} once the queue is half full, and discards the
+         * recognitions submitted when the queue is full.
+         * <p>
+         * This policy slows down the growth of the queue when the monitor cannot keep up, so that the monitor
+         * still receives a sample of the recognitions instead of a burst followed by a gap.
+         */
+        SAMPLE
+    }
+
+    /**
+     * The number of recognitions submitted for each recognition kept by {@link OverflowPolicy#SAMPLE}.
+     */
+    public static final int SAMPLING_RATE = 10;
+
+    /**
+     * The monitor the recognitions are logged in.
+     */
+    private final RecognitionMonitor recognitionMonitor;
+
+    /**
+     * The maximum number of recognitions waiting in the queue.
+     */
+    private final int capacity;
+
+    private final OverflowPolicy overflowPolicy;
+
+    /**
+     * The recognitions waiting to be logged.
+     */
+    private final Queue<PendingRecognition> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * The number of recognitions in the {@link #queue}.
+     * <p>
+     * {@link ConcurrentLinkedQueue#size()} traverses the queue, this counter is used to bound it instead. It is
+     * incremented before a recognition is added, so that concurrent submissions cannot exceed the capacity.
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * The number of recognitions submitted while the queue is half full, used by {@link OverflowPolicy#SAMPLE}.
+     */
+    private final AtomicLong overflowingCount = new AtomicLong();
+
+    /**
+     * The number of discarded recognitions.
+     */
+    private final AtomicLong droppedCount = new AtomicLong();
+
+    /**
+     * The number of discarded recognitions already reported in the log.
+     * <p>
+     * This field is only accessed by the writer thread.
+     */
+    private long reportedDroppedCount;
+
+    /**
+     * The executor running the writer.
+     */
+    private final ScheduledExecutorService writer;
+
+    /**
+     * Whether the dispatcher has been shutdown.
+     */
+    private volatile boolean shutdown;
+
+    /**
+     * Constructs a {@link NLUServerMonitorDispatcher} with the provided parameters.
+     *
+     * @param recognitionMonitor the {@link RecognitionMonitor} to log the recognitions in
+     * @param capacity           the maximum number of recognitions waiting to be logged
+     * @param flushInterval      the delay (in milliseconds) between two drains of the queue
+     * @param overflowPolicy     the {@link OverflowPolicy} applied when the queue is filling up
+     * @throws NullPointerException     if the provided {@code recognitionMonitor} or {@code overflowPolicy} is
+     *                                  {@code null}
+     * @throws IllegalArgumentException if the provided {@code capacity} or {@code flushInterval} is not strictly
+     *                                  positive
+     */
+    public NLUServerMonitorDispatcher(@NonNull RecognitionMonitor recognitionMonitor, int capacity, long flushInterval,
+                                      @NonNull OverflowPolicy overflowPolicy) {
+        checkArgument(capacity > 0, "Cannot create the monitor dispatcher: the queue size must be strictly positive "
+                + "(provided: %s)", capacity);
+        checkArgument(flushInterval > 0, "Cannot create the monitor dispatcher: the flush interval must be strictly "
+                + "positive (provided: %s)", flushInterval);
+        this.recognitionMonitor = recognitionMonitor;
+        this.capacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        this.writer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "nluserver-monitor-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.writer.scheduleWithFixedDelay(this::flush, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Submits a recognition to log in the {@link RecognitionMonitor}.
+     * <p>
+     * This method does not block: the recognition is either added to the queue or discarded. A recognition
+     * submitted concurrently with {@link #shutdown()} is either logged by its final flush, or discarded.
+     *
+     * @param context          the {@link StateContext} the intent has been recognized in
+     * @param recognizedIntent the {@link RecognizedIntent} to log
+     * @return {@code true} if the recognition has been added to the queue, {@code false} if it has been discarded
+     * @throws NullPointerException if the provided {@code context} or {@code recognizedIntent} is {@code null}
+     */
+    public boolean submit(@NonNull StateContext context, @NonNull RecognizedIntent recognizedIntent) {
+        if (shutdown || !reserve()) {
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        PendingRecognition recognition = new PendingRecognition(copy(context), recognizedIntent);
+        queue.offer(recognition);
+        /*
+         * shutdown() may have started after the check above. If it did not, the final flush is ordered after the
+         * recognition is added and logs it. Otherwise the recognition is removed from the queue, unless the final
+         * flush already polled it.
+         */
+        if (shutdown && queue.remove(recognition)) {
+            size.decrementAndGet();
+            droppedCount.incrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Reserves a slot in the queue according to the {@link OverflowPolicy}.
+     *
+     * @return {@code true} if a slot has been reserved, {@code false} if the recognition must be discarded
+     */
+    private boolean reserve() {
+        if (overflowPolicy == OverflowPolicy.SAMPLE && size.get() >= capacity / 2
+                && overflowingCount.getAndIncrement() % SAMPLING_RATE != 0) {
+            return false;
+        }
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Logs the recognitions waiting in the queue.
+     * <p>
+     * This method is called periodically by the writer thread, and by {@link #shutdown()} once the writer is stopped.
+     * An error thrown by the monitor is logged, and does not prevent the next recognitions from being logged.
+     */
+    private void flush() {
+        PendingRecognition recognition;
+        while ((recognition = queue.poll()) != null) {
+            size.decrementAndGet();
+            try {
+                recognitionMonitor.logRecognizedIntent(recognition.context, recognition.recognizedIntent);
+            } catch (RuntimeException e) {
+                Log.error("Cannot log the recognized intent {0} in the monitor: {1}",
+                        recognition.recognizedIntent.getDefinition().getName(), e.getMessage());
+            }
+        }
+        long dropped = droppedCount.get();
+        if (dropped > reportedDroppedCount) {
+            Log.warn("The monitor cannot keep up with the recognitions, {0} recognitions have been discarded "
+                    + "({1} in total)", dropped - reportedDroppedCount, dropped);
+            reportedDroppedCount = dropped;
+        }
+    }
+
+    /**
+     * Returns the number of recognitions waiting to be logged.
+     *
+     * @return the number of recognitions in the queue
+     */
+    public int getQueueSize() {
+        return size.get();
+    }
+
+    /**
+     * Returns the number of recognitions discarded because the queue was full (or filling up with
+     * {@link OverflowPolicy#SAMPLE}), or because the dispatcher was shutdown.
+     *
+     * @return the number of discarded recognitions
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Stops the writer and logs the recognitions waiting in the queue.
+     * <p>
+     * The recognitions submitted after this call are discarded, and counted in {@link #getDroppedCount()}. This
+     * method does not shutdown the {@link RecognitionMonitor}.
+     */
+    public void shutdown() {
+        shutdown = true;
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                Log.warn("The monitor writer did not terminate in time, some recognitions may not be logged");
+                writer.shutdownNow();
+                return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writer.shutdownNow();
+            return;
+        }
+        flush();
+    }
+
+    /**
+     * Copies the attributes of the provided {@code context} read by the {@link RecognitionMonitor}.
+     *
+     * @param context the {@link StateContext} to copy
+     * @return the copy
+     */
+    private static StateContext copy(StateContext context) {
+        StateContext copy = ExecutionFactory.eINSTANCE.createStateContext();
+        copy.setContextId(context.getContextId());
+        copy.setState(context.getState());
+        copy.setConfiguration(context.getConfiguration());
+        return copy;
+    }
+
+    /**
+     * A recognition waiting to be logged.
+     */
+    private static class PendingRecognition {
+
+        private final StateContext context;
+
+        private final RecognizedIntent recognizedIntent;
+
+        private PendingRecognition(StateContext context, RecognizedIntent recognizedIntent) {
+            this.context = context;
+            this.recognizedIntent = recognizedIntent;
+        }
+    }
+}
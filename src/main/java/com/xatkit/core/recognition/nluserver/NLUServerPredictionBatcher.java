@@ -0,0 +1,243 @@
+package com.xatkit.core.recognition.nluserver;
+
+import com.xatkit.core.recognition.IntentRecognitionProviderException;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.NLUContext;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Prediction;
+import fr.inria.atlanmod.commons.log.Log;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static fr.inria.atlanmod.commons.Preconditions.checkArgument;
+import static java.util.Objects.nonNull;
+
+/**
+ * Groups concurrent prediction requests into batches sent to the NLU server in a single call.
+ * <p>
+ * Submitted requests are buffered until the batch contains {@link NLUServerConfiguration#BATCH_MAX_SIZE} requests,
+ * or until {@link NLUServerConfiguration#BATCH_WINDOW} milliseconds have elapsed since the first buffered request.
+ * The batch is then sent with the provided {@code sender}, and each {@link Prediction} of the result is used to
+ * complete the future of the corresponding request.
+ * <p>
+ * This class bounds the additional latency of a prediction to the configured window, while reducing the number of
+ * HTTP calls (and their overhead) when the bot is under load.
+ */
+public class NLUServerPredictionBatcher {
+
+    /**
+     * The maximum number of requests in a batch.
+     */
+    private final int maxSize;
+
+    /**
+     * The maximum time (in milliseconds) a request is buffered before its batch is sent.
+     */
+    private final long window;
+
+    /**
+     * The function sending a batch to the server.
+     * <p>
+     * The returned {@link CompletableFuture} is completed with the {@link Prediction}s of the batch, in the order of
+     * the provided requests, or with {@code null} if the server returned an error.
+     */
+    private final Function<List<PendingPrediction>, CompletableFuture<List<Prediction>>> sender;
+
+    /**
+     * The executor used to flush the current batch when its window elapses.
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * The requests waiting to be sent.
+     * <p>
+     * Accesses to this list are guarded by {@code this}.
+     */
+    private List<PendingPrediction> pending;
+
+    /**
+     * The scheduled flush of the current batch.
+     */
+    private ScheduledFuture<?> scheduledFlush;
+
+    /**
+     * Whether the batcher has been shut down.
+     * <p>
+     * Accesses to this field are guarded by {@code this}.
+     */
+    private boolean shutdown;
+
+    /**
+     * Constructs a {@link NLUServerPredictionBatcher} with the provided parameters.
+     *
+     * @param maxSize the maximum number of requests in a batch
+     * @param window  the maximum time (in milliseconds) a request is buffered before its batch is sent
+     * @param sender  the function sending a batch to the server
+     * @throws NullPointerException     if the provided {@code sender} is {@code null}
+     * @throws IllegalArgumentException if the provided {@code maxSize} or {@code window} is not strictly positive
+     */
+    public NLUServerPredictionBatcher(int maxSize, long window,
+                                      @NonNull Function<List<PendingPrediction>,
+                                              CompletableFuture<List<Prediction>>> sender) {
+        checkArgument(maxSize > 0, "Cannot create the batcher: the maximum batch size must be strictly positive "
+                + "(provided: %s)", maxSize);
+        checkArgument(window > 0, "Cannot create the batcher: the batch window must be strictly positive "
+                + "(provided: %s)", window);
+        this.maxSize = maxSize;
+        this.window = window;
+        this.sender = sender;
+        this.pending = new ArrayList<>(maxSize);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "nluserver-prediction-batcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Adds a prediction request to the current batch.
+     *
+     * @param nluContext the {@link NLUContext} to compute the prediction in
+     * @param input      the user input to classify
+     * @return a {@link CompletableFuture} completed with the {@link Prediction} computed for the provided {@code
+     * input} once its batch has been processed, or completed exceptionally with an
+     * {@link IntentRecognitionProviderException} if the batcher has been shut down
+     */
+    public CompletableFuture<Prediction> submit(@NonNull NLUContext nluContext, @NonNull String input) {
+        PendingPrediction request = new PendingPrediction(nluContext, input);
+        List<PendingPrediction> batch = null;
+        synchronized (this) {
+            if (shutdown) {
+                request.getFuture().completeExceptionally(new IntentRecognitionProviderException("Cannot compute "
+                        + "the prediction: the batcher has been shut down"));
+                return request.getFuture();
+            }
+            pending.add(request);
+            if (pending.size() >= maxSize) {
+                batch = drain();
+            } else if (pending.size() == 1) {
+                scheduledFlush = scheduler.schedule(this::flush, window, TimeUnit.MILLISECONDS);
+            }
+        }
+        if (nonNull(batch)) {
+            send(batch);
+        }
+        return request.getFuture();
+    }
+
+    /**
+     * Sends the buffered requests, if any.
+     */
+    public void flush() {
+        List<PendingPrediction> batch;
+        synchronized (this) {
+            batch = drain();
+        }
+        if (!batch.isEmpty()) {
+            send(batch);
+        }
+    }
+
+    /**
+     * Sends the buffered requests and stops the batcher.
+     * <p>
+     * Requests submitted after this call are completed exceptionally.
+     */
+    public void shutdown() {
+        synchronized (this) {
+            shutdown = true;
+        }
+        flush();
+        scheduler.shutdown();
+    }
+
+    /**
+     * Removes the buffered requests and cancels the scheduled flush.
+     * <p>
+     * This method must be called while holding the lock on {@code this}.
+     *
+     * @return the removed requests
+     */
+    private List<PendingPrediction> drain() {
+        List<PendingPrediction> batch = pending;
+        pending = new ArrayList<>(maxSize);
+        if (nonNull(scheduledFlush)) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+        return batch;
+    }
+
+    /**
+     * Sends the provided {@code batch} and dispatches the results to the requests' futures.
+     *
+     * @param batch the requests to send
+     */
+    private void send(List<PendingPrediction> batch) {
+        CompletableFuture<List<Prediction>> result;
+        try {
+            result = sender.apply(batch);
+        } catch (RuntimeException e) {
+            batch.forEach(r -> r.getFuture().completeExceptionally(e));
+            return;
+        }
+        result.whenComplete((predictions, throwable) -> {
+            if (nonNull(throwable)) {
+                batch.forEach(r -> r.getFuture().completeExceptionally(throwable));
+            } else if (nonNull(predictions) && predictions.size() != batch.size()) {
+                Log.warn("Error during bot batch prediction: expected {0} predictions, received {1}", batch.size(),
+                        predictions.size());
+                batch.forEach(r -> r.getFuture().complete(null));
+            } else {
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).getFuture().complete(nonNull(predictions) ? predictions.get(i) : null);
+                }
+            }
+        });
+    }
+
+    /**
+     * A prediction request waiting to be sent in a batch.
+     */
+    public static class PendingPrediction {
+
+        /**
+         * The {@link NLUContext} to compute the prediction in.
+         */
+        private final NLUContext nluContext;
+
+        /**
+         * The user input to classify.
+         */
+        private final String input;
+
+        /**
+         * The future to complete with the computed {@link Prediction}.
+         */
+        private final CompletableFuture<Prediction> future;
+
+        private PendingPrediction(NLUContext nluContext, String input) {
+            this.nluContext = nluContext;
+            this.input = input;
+            this.future = new CompletableFuture<>();
+        }
+
+        public NLUContext getNluContext() {
+            return nluContext;
+        }
+
+        public String getInput() {
+            return input;
+        }
+
+        public CompletableFuture<Prediction> getFuture() {
+            return future;
+        }
+    }
+}
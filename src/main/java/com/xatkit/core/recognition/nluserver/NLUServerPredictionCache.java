@@ -0,0 +1,133 @@
+package com.xatkit.core.recognition.nluserver;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Prediction;
+import lombok.NonNull;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static fr.inria.atlanmod.commons.Preconditions.checkArgument;
+
+/**
+ * Caches the {@link Prediction}s returned by the NLU server.
+ * <p>
+ * The cache is bounded by its maximum size, and uses Caffeine's frequency-aware (W-TinyLFU) eviction policy:
+ * frequent inputs (e.g. "hi", "yes", "menu") stay in the cache even when many one-off inputs are classified.
+ * Cached predictions can also expire after a configurable time.
+ * <p>
+ * The cache must be invalidated each time the bot is retrained (see {@link #invalidateAll()}). Predictions
+ * computed by the previous model that are returned after the invalidation are not cached: callers capture the
+ * cache's generation with {@link #getGeneration()} before sending the request, and provide it to
+ * {@link #put(NLUServerPredictionKey, Prediction, long)}.
+ * <p>
+ * A cached {@link Prediction} is returned to every caller classifying the same input: it is made read-only when it
+ * is cached (see {@link Prediction#setReadOnly()}).
+ *
+ * @see NLUServerConfiguration#CACHE_ENABLED
+ */
+public class NLUServerPredictionCache {
+
+    /**
+     * The cached predictions.
+     */
+    private final Cache<NLUServerPredictionKey, Prediction> cache;
+
+    /**
+     * The number of invalidations of the cache.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Constructs a {@link NLUServerPredictionCache} with the provided parameters.
+     *
+     * @param maxSize the maximum number of cached predictions
+     * @param ttl     the time (in milliseconds) a prediction is cached, or a negative value to disable expiration
+     * @throws IllegalArgumentException if the provided {@code maxSize} is negative
+     */
+    public NLUServerPredictionCache(long maxSize, long ttl) {
+        checkArgument(maxSize >= 0, "Cannot create a %s with the provided size %s, expected a positive value",
+                NLUServerPredictionCache.class.getSimpleName(), maxSize);
+        Caffeine<Object, Object> builder = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .recordStats();
+        if (ttl >= 0) {
+            builder.expireAfterWrite(ttl, TimeUnit.MILLISECONDS);
+        }
+        this.cache = builder.build();
+    }
+
+    /**
+     * Returns the cached {@link Prediction} associated to the provided {@code key}.
+     *
+     * @param key the key of the prediction to retrieve
+     * @return the cached {@link Prediction}, or {@code null} if the cache does not contain it
+     * @throws NullPointerException if the provided {@code key} is {@code null}
+     */
+    public Prediction get(@NonNull NLUServerPredictionKey key) {
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * Caches the provided {@code prediction}.
+     * <p>
+     * The {@code prediction} is not cached if the cache has been invalidated since {@code generation} has been
+     * retrieved, i.e. if it may have been computed by an outdated model. The cached {@code prediction} is made
+     * read-only.
+     *
+     * @param key        the key of the prediction to cache
+     * @param prediction the {@link Prediction} to cache
+     * @param generation the generation of the cache when the prediction has been requested
+     * @throws NullPointerException if the provided {@code key} or {@code prediction} is {@code null}
+     * @see #getGeneration()
+     */
+    public void put(@NonNull NLUServerPredictionKey key, @NonNull Prediction prediction, long generation) {
+        if (generation == this.generation.get()) {
+            prediction.setReadOnly();
+            cache.put(key, prediction);
+        }
+    }
+
+    /**
+     * Returns the current generation of the cache.
+     * <p>
+     * The generation is incremented each time the cache is invalidated.
+     *
+     * @return the current generation of the cache
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Removes all the cached predictions.
+     * <p>
+     * This method must be called when the bot is retrained.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    /**
+     * Returns the number of cached predictions.
+     *
+     * @return the (approximate) number of cached predictions
+     */
+    public long size() {
+        return cache.estimatedSize();
+    }
+
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+}
@@ -0,0 +1,33 @@
+package com.xatkit.core.recognition.nluserver;
+
+import lombok.NonNull;
+import lombok.Value;
+
+/**
+ * Identifies the predictions computed by the NLU server.
+ * <p>
+ * Two prediction requests with the same key (i.e. the same input classified in the same context of the same bot)
+ * are answered with the same prediction as long as the bot is not retrained.
+ */
+@Value
+public class NLUServerPredictionKey {
+
+    /**
+     * The name of the bot computing the prediction.
+     */
+    @NonNull
+    String botName;
+
+    /**
+     * The name of the {@link com.xatkit.core.recognition.nluserver.mapper.dsl.NLUContext} the prediction is
+     * computed in.
+     */
+    @NonNull
+    String contextName;
+
+    /**
+     * The user input to classify.
+     */
+    @NonNull
+    String utterance;
+}
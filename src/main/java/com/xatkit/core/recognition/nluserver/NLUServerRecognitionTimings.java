@@ -0,0 +1,158 @@
+package com.xatkit.core.recognition.nluserver;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The duration of the phases of an intent recognition.
+ * <p>
+ * An instance of this class is created for each recognition, and filled by the components computing it: the
+ * {@link NLUServerClientAPIWrapper} records the {@link Phase#REQUEST} and {@link Phase#READ} phases, and the
+ * {@link NLUServerIntentRecognitionProvider} records the {@link Phase#MAPPING} and {@link Phase#CANDIDATE} ones.
+ * The phases that are not executed (e.g. the request phases of a prediction returned by the cache or by the local
+ * exact matching) are not recorded.
+ * <p>
+ * <b>Note</b>: this class is not thread-safe. The phases are recorded one after the other: the phases recorded by
+ * the HTTP client are visible to the thread recording the next ones once it has received the prediction. A request
+ * that may still be running when the recognition completes (e.g. when {@link NLUServerConfiguration#PREDICT_DEADLINE}
+ * is reached) records its phases in a separate instance, that is merged only if the prediction is received (see
+ * {@link #merge(NLUServerRecognitionTimings)}).
+ *
+ * @see NLUServerConfiguration#TIMINGS_ATTACHED
+ * @see NLUServerMetrics#recordTimings(NLUServerRecognitionTimings)
+ */
+public class NLUServerRecognitionTimings {
+
+    /**
+     * The key of the timings in the {@link com.xatkit.intent.RecognizedIntent}'s NLP data.
+     *
+     * @see NLUServerConfiguration#TIMINGS_ATTACHED
+     */
+    public static final String NLP_DATA_KEY = "nlp.nluserver.timings";
+
+    /**
+     * The phases of an intent recognition.
+     */
+    public enum Phase {
+
+        /**
+         * From the submission of the prediction request to the reception of the response.
+         * <p>
+         * The HTTP client does not expose the connection-level events, this phase includes the checkout of a pooled
+         * connection (or the creation of a new one), the computation of the prediction by the server, and the
+         * reception of the response headers. The asynchronous client buffers the response, in which case this phase
+         * also includes the download of the response body.
+         */
+        REQUEST,
+
+        /**
+         * The reading of the response body into a
+         * {@link com.xatkit.core.recognition.nluserver.mapper.dsl.Prediction}.
+         * <p>
+         * This phase includes the download of the response body when it is streamed from the connection.
+         */
+        READ,
+
+        /**
+         * The mapping of the {@link com.xatkit.core.recognition.nluserver.mapper.dsl.Prediction} to
+         * {@link com.xatkit.intent.RecognizedIntent}s.
+         */
+        MAPPING,
+
+        /**
+         * The selection of the best {@link com.xatkit.intent.RecognizedIntent} accessible from the current state.
+         */
+        CANDIDATE;
+
+        /**
+         * The name of the phase used in the metrics tags and in the NLP data of the recognized intents.
+         */
+        private final String tag = name().toLowerCase(Locale.ROOT);
+
+        public String getTag() {
+            return tag;
+        }
+    }
+
+    private static final Phase[] PHASES = Phase.values();
+
+    /**
+     * The duration of each phase in nanoseconds, indexed by {@link Phase#ordinal()}, or {@code -1} if the phase has
+     * not been recorded.
+     */
+    private final long[] durations = new long[PHASES.length];
+
+    /**
+     * Constructs an empty {@link NLUServerRecognitionTimings}.
+     */
+    public NLUServerRecognitionTimings() {
+        Arrays.fill(durations, -1);
+    }
+
+    /**
+     * Records the duration of the provided {@code phase}.
+     * <p>
+     * Recording a phase several times (e.g. when the request is retried) overrides the previous duration.
+     *
+     * @param phase    the {@link Phase} to record
+     * @param duration the duration of the phase in nanoseconds
+     * @throws NullPointerException if the provided {@code phase} is {@code null}
+     */
+    public void record(@NonNull Phase phase, long duration) {
+        durations[phase.ordinal()] = duration;
+    }
+
+    /**
+     * Records the phases recorded in the provided {@code timings}.
+     * <p>
+     * The phases that are not recorded in {@code timings} are left unchanged.
+     *
+     * @param timings the {@link NLUServerRecognitionTimings} to copy the recorded phases from
+     * @throws NullPointerException if the provided {@code timings} is {@code null}
+     */
+    public void merge(@NonNull NLUServerRecognitionTimings timings) {
+        for (int i = 0; i < durations.length; i++) {
+            if (timings.durations[i] >= 0) {
+                durations[i] = timings.durations[i];
+            }
+        }
+    }
+
+    /**
+     * Returns the duration of the provided {@code phase}.
+     *
+     * @param phase the {@link Phase} to retrieve the duration of
+     * @return the duration of the phase in nanoseconds, or {@code -1} if it has not been recorded
+     * @throws NullPointerException if the provided {@code phase} is {@code null}
+     */
+    public long getDuration(@NonNull Phase phase) {
+        return durations[phase.ordinal()];
+    }
+
+    /**
+     * Returns the recorded durations in milliseconds, mapped by {@link Phase#getTag()}.
+     * <p>
+     * The phases are ordered by execution order, the phases that have not been recorded are not included.
+     *
+     * @return the recorded durations
+     */
+    public Map<String, Object> toMap() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        for (Phase phase : PHASES) {
+            long duration = durations[phase.ordinal()];
+            if (duration >= 0) {
+                result.put(phase.getTag(), duration / 1_000_000d);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "NLUServerRecognitionTimings" + toMap();
+    }
+}
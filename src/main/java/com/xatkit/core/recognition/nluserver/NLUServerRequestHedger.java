@@ -0,0 +1,296 @@
+package com.xatkit.core.recognition.nluserver;
+
+import lombok.NonNull;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static fr.inria.atlanmod.commons.Preconditions.checkArgument;
+
+/**
+ * Sends hedged requests to the replicas of the NLU server.
+ * <p>
+ * A request that has not been answered within the configured percentile of the recent latencies is sent again to
+ * another replica of the {@link NLUServerEndpointPool}. The first successful response completes the request, and
+ * the other one is cancelled. A {@code null} response (i.e. an error returned by the server) is handled as a failed
+ * request: it does not complete the request while another one is pending, and its latency is not recorded. The
+ * number of hedged requests is capped to a ratio of the sent requests, so that
+ * hedging does not double the load of the servers when all of them are slow.
+ * <p>
+ * <b>Note</b>: cancelling a request releases its caller and discards its response, but does not abort the
+ * underlying HTTP exchange, that is still accounted in the outstanding requests of its {@link NLUServerEndpoint}
+ * until it completes.
+ *
+ * @see NLUServerConfiguration#HEDGE_ENABLED
+ */
+public class NLUServerRequestHedger {
+
+    /**
+     * The number of latencies used to compute the hedging delay.
+     */
+    static final int LATENCY_WINDOW_SIZE = 512;
+
+    /**
+     * The minimum number of recorded latencies before requests are hedged.
+     */
+    static final int MIN_LATENCY_SAMPLES = 32;
+
+    /**
+     * The number of recorded latencies between two computations of the hedging delay.
+     */
+    private static final int DELAY_REFRESH_INTERVAL = 32;
+
+    /**
+     * The endpoints to send the requests to.
+     */
+    private final NLUServerEndpointPool endpointPool;
+
+    /**
+     * The percentile of the recent latencies after which a request is hedged.
+     */
+    private final double percentile;
+
+    /**
+     * The maximum ratio of hedged requests.
+     */
+    private final double maxRatio;
+
+    /**
+     * The minimum time (in milliseconds) to wait before hedging a request.
+     */
+    private final long minDelay;
+
+    /**
+     * The recent latencies (in nanoseconds), stored as a ring buffer.
+     */
+    private final long[] latencies = new long[LATENCY_WINDOW_SIZE];
+
+    /**
+     * The total number of recorded latencies.
+     */
+    private long recordedLatencies = 0;
+
+    /**
+     * The current hedging delay (in milliseconds), or {@code -1} if not enough latencies have been recorded.
+     */
+    private volatile long hedgeDelay = -1;
+
+    /**
+     * The number of sent requests.
+     */
+    private final AtomicLong requestCount = new AtomicLong();
+
+    /**
+     * The number of hedged requests.
+     */
+    private final AtomicLong hedgeCount = new AtomicLong();
+
+    /**
+     * The scheduler used to send the hedged requests.
+     */
+    private final ScheduledExecutorService scheduler;
+
+    /**
+     * Constructs a {@link NLUServerRequestHedger} with the provided parameters.
+     *
+     * @param endpointPool the {@link NLUServerEndpointPool} to send the requests to
+     * @param percentile   the percentile of the recent latencies after which a request is hedged
+     * @param maxRatio     the maximum ratio of hedged requests
+     * @param minDelay     the minimum time (in milliseconds) to wait before hedging a request
+     * @throws NullPointerException     if the provided {@code endpointPool} is {@code null}
+     * @throws IllegalArgumentException if the provided {@code percentile} is not in {@code ]0, 100]}, or if the
+     *                                  provided {@code maxRatio} is not in {@code [0, 1]}, or if the provided {@code
+     *                                  minDelay} is negative
+     */
+    public NLUServerRequestHedger(@NonNull NLUServerEndpointPool endpointPool, double percentile, double maxRatio,
+                                  long minDelay) {
+        checkArgument(percentile > 0 && percentile <= 100, "Cannot create a %s with the provided percentile %s, "
+                + "expected a value in ]0, 100]", NLUServerRequestHedger.class.getSimpleName(), percentile);
+        checkArgument(maxRatio >= 0 && maxRatio <= 1, "Cannot create a %s with the provided ratio %s, expected a "
+                + "value in [0, 1]", NLUServerRequestHedger.class.getSimpleName(), maxRatio);
+        checkArgument(minDelay >= 0, "Cannot create a %s with the provided delay %s, expected a positive value",
+                NLUServerRequestHedger.class.getSimpleName(), minDelay);
+        this.endpointPool = endpointPool;
+        this.percentile = percentile;
+        this.maxRatio = maxRatio;
+        this.minDelay = minDelay;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "nluserver-request-hedger");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Sends the request created by the provided {@code sender}, and hedges it if it is not answered in time.
+     * <p>
+     * The {@code sender} is called with the endpoint selected by the {@link NLUServerEndpointPool}, and called
+     * again with another endpoint if the request is hedged. The returned {@link CompletableFuture} is completed
+     * with the first successful (non-{@code null}) response. If all the sent requests failed it is completed with
+     * the outcome of the last one, i.e. with {@code null} or exceptionally.
+     *
+     * @param sender the function sending the request to the provided endpoint
+     * @param <T>    the type of the response
+     * @return a {@link CompletableFuture} completed with the first successful response
+     * @throws NullPointerException if the provided {@code sender} is {@code null}
+     */
+    public <T> CompletableFuture<T> send(@NonNull Function<NLUServerEndpoint, CompletableFuture<T>> sender) {
+        requestCount.incrementAndGet();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger pendingRequests = new AtomicInteger(1);
+        long start = System.nanoTime();
+        NLUServerEndpoint primary = endpointPool.select();
+        CompletableFuture<T> primaryRequest = sender.apply(primary);
+        primaryRequest.whenComplete((response, throwable) -> {
+            if (isSuccess(response, throwable)) {
+                recordLatency(System.nanoTime() - start);
+            }
+            complete(result, pendingRequests, response, throwable);
+        });
+        long delay = hedgeDelay;
+        if (delay >= 0 && endpointPool.getEndpoints().size() > 1 && !scheduler.isShutdown()) {
+            ScheduledFuture<?> hedge;
+            try {
+                hedge = scheduler.schedule(() -> hedge(primary, sender, result, pendingRequests), delay,
+                        TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                /*
+                 * The hedger has been shut down concurrently, the request is not hedged.
+                 */
+                hedge = null;
+            }
+            if (hedge != null) {
+                ScheduledFuture<?> scheduledHedge = hedge;
+                result.whenComplete((response, throwable) -> scheduledHedge.cancel(false));
+            }
+        }
+        result.whenComplete((response, throwable) -> primaryRequest.cancel(false));
+        return result;
+    }
+
+    /**
+     * Sends the hedged request to an endpoint different from the {@code primary} one.
+     * <p>
+     * This method does not send any request if the {@code result} is already completed or if the maximum ratio of
+     * hedged requests is reached.
+     *
+     * @param primary         the endpoint the original request has been sent to
+     * @param sender          the function sending the request to the provided endpoint
+     * @param result          the {@link CompletableFuture} to complete with the first successful response
+     * @param pendingRequests the number of pending requests
+     * @param <T>             the type of the response
+     */
+    private <T> void hedge(NLUServerEndpoint primary, Function<NLUServerEndpoint, CompletableFuture<T>> sender,
+                           CompletableFuture<T> result, AtomicInteger pendingRequests) {
+        if (result.isDone() || !tryAcquireHedge()) {
+            return;
+        }
+        NLUServerEndpoint secondary = endpointPool.select(primary);
+        pendingRequests.incrementAndGet();
+        CompletableFuture<T> secondaryRequest = sender.apply(secondary);
+        secondaryRequest.whenComplete((response, throwable) -> complete(result, pendingRequests, response,
+                throwable));
+        result.whenComplete((response, throwable) -> secondaryRequest.cancel(false));
+    }
+
+    /**
+     * Completes the provided {@code result} with the response of one of the sent requests.
+     * <p>
+     * A failed request (i.e. a request completed exceptionally or with {@code null}) only completes the
+     * {@code result} if no other request is pending.
+     *
+     * @param result          the {@link CompletableFuture} to complete
+     * @param pendingRequests the number of pending requests
+     * @param response        the response of the request
+     * @param throwable       the error thrown by the request, if any
+     * @param <T>             the type of the response
+     */
+    private static <T> void complete(CompletableFuture<T> result, AtomicInteger pendingRequests, T response,
+                                     Throwable throwable) {
+        if (isSuccess(response, throwable)) {
+            result.complete(response);
+        } else if (pendingRequests.decrementAndGet() == 0) {
+            if (throwable == null) {
+                result.complete(null);
+            } else {
+                result.completeExceptionally(throwable);
+            }
+        }
+    }
+
+    /**
+     * Returns whether a request completed with the provided {@code response} and {@code throwable} succeeded.
+     *
+     * @param response  the response of the request
+     * @param throwable the error thrown by the request, if any
+     * @return {@code true} if the request returned a non-{@code null} response, {@code false} otherwise
+     */
+    private static boolean isSuccess(Object response, Throwable throwable) {
+        return throwable == null && response != null;
+    }
+
+    /**
+     * Reserves a hedged request if the maximum ratio of hedged requests is not reached.
+     *
+     * @return {@code true} if the request can be hedged, {@code false} otherwise
+     */
+    private boolean tryAcquireHedge() {
+        if (hedgeCount.incrementAndGet() > maxRatio * requestCount.get()) {
+            hedgeCount.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Records the provided {@code latency} and periodically updates the hedging delay.
+     *
+     * @param latency the latency (in nanoseconds) of a successful request
+     */
+    synchronized void recordLatency(long latency) {
+        latencies[(int) (recordedLatencies % LATENCY_WINDOW_SIZE)] = latency;
+        recordedLatencies++;
+        if (recordedLatencies >= MIN_LATENCY_SAMPLES && recordedLatencies % DELAY_REFRESH_INTERVAL == 0) {
+            int size = (int) Math.min(recordedLatencies, LATENCY_WINDOW_SIZE);
+            long[] sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            int index = Math.min(size - 1, (int) Math.ceil(percentile / 100 * size) - 1);
+            hedgeDelay = Math.max(minDelay, TimeUnit.NANOSECONDS.toMillis(sorted[Math.max(0, index)]));
+        }
+    }
+
+    /**
+     * Returns the current hedging delay.
+     *
+     * @return the current hedging delay (in milliseconds), or {@code -1} if not enough latencies have been recorded
+     */
+    public long getHedgeDelay() {
+        return hedgeDelay;
+    }
+
+    /**
+     * Returns the number of hedged requests.
+     *
+     * @return the number of hedged requests
+     */
+    public long getHedgeCount() {
+        return hedgeCount.get();
+    }
+
+    /**
+     * Stops the scheduler sending the hedged requests.
+     * <p>
+     * Requests sent after this method is called are not hedged anymore.
+     */
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
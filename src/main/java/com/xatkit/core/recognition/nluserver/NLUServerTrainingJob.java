@@ -0,0 +1,156 @@
+package com.xatkit.core.recognition.nluserver;
+
+import lombok.NonNull;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * The deployment and training of a bot on the replicas of the NLU server.
+ * <p>
+ * A training job is created by {@link NLUServerClientAPIWrapper#deployAndTrainBotAsync()} and runs in the
+ * background. Its progress can be polled with {@link #getStatus()} and {@link #getProgress()}, and callbacks can be
+ * registered with {@link #onComplete(Consumer)}.
+ * <p>
+ * The job deploys the bot under its {@link #getDeploymentName()}, that differs from the one currently answering
+ * the predictions: the previous model keeps serving the predictions until the job is completed.
+ */
+public class NLUServerTrainingJob {
+
+    /**
+     * The status of a {@link NLUServerTrainingJob}.
+     */
+    public enum Status {
+        /**
+         * The job has been submitted but is not started yet.
+         */
+        PENDING,
+        /**
+         * The bot definition is being sent to the server replicas.
+         */
+        DEPLOYING,
+        /**
+         * The bot is being trained on the server replicas.
+         */
+        TRAINING,
+        /**
+         * The bot has been deployed and trained on all the replicas (or was already up to date), and answers the
+         * predictions.
+         */
+        COMPLETED,
+        /**
+         * The bot could not be deployed or trained on at least one replica. The previous model (if any) keeps
+         * answering the predictions.
+         */
+        FAILED
+    }
+
+    /**
+     * The name the bot is deployed under on the server.
+     */
+    private final String deploymentName;
+
+    /**
+     * The number of replicas to deploy and train the bot on.
+     */
+    private final int endpointCount;
+
+    /**
+     * The number of replicas the bot has been deployed and trained on.
+     */
+    private final AtomicInteger completedEndpoints = new AtomicInteger();
+
+    /**
+     * The current status of the job.
+     */
+    private volatile Status status = Status.PENDING;
+
+    /**
+     * The {@link CompletableFuture} completed with {@code true} if the job succeeded, and {@code false} otherwise.
+     */
+    private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+    /**
+     * Constructs a {@link NLUServerTrainingJob} with the provided parameters.
+     *
+     * @param deploymentName the name the bot is deployed under on the server
+     * @param endpointCount  the number of replicas to deploy and train the bot on
+     * @throws NullPointerException if the provided {@code deploymentName} is {@code null}
+     */
+    public NLUServerTrainingJob(@NonNull String deploymentName, int endpointCount) {
+        this.deploymentName = deploymentName;
+        this.endpointCount = endpointCount;
+    }
+
+    public String getDeploymentName() {
+        return deploymentName;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns the progress of the job.
+     *
+     * @return the ratio of replicas the bot has been deployed and trained on, between {@code 0} and {@code 1}
+     */
+    public double getProgress() {
+        if (status == Status.COMPLETED) {
+            return 1;
+        }
+        return endpointCount == 0 ? 0 : (double) completedEndpoints.get() / endpointCount;
+    }
+
+    /**
+     * Returns whether the job is completed (successfully or not).
+     *
+     * @return {@code true} if the job is completed, {@code false} otherwise
+     */
+    public boolean isDone() {
+        return result.isDone();
+    }
+
+    /**
+     * Returns the {@link CompletableFuture} completed when the job is done.
+     *
+     * @return a {@link CompletableFuture} completed with {@code true} if the job succeeded, and {@code false}
+     * otherwise
+     */
+    public CompletableFuture<Boolean> getResult() {
+        return result;
+    }
+
+    /**
+     * Registers a callback executed when the job is done.
+     * <p>
+     * The callback is executed immediately if the job is already done.
+     *
+     * @param callback the callback to execute
+     * @return this job
+     * @throws NullPointerException if the provided {@code callback} is {@code null}
+     */
+    public NLUServerTrainingJob onComplete(@NonNull Consumer<NLUServerTrainingJob> callback) {
+        result.whenComplete((success, throwable) -> callback.accept(this));
+        return this;
+    }
+
+    void setStatus(Status status) {
+        this.status = status;
+    }
+
+    void endpointCompleted() {
+        completedEndpoints.incrementAndGet();
+    }
+
+    /**
+     * Completes the job.
+     *
+     * @param success whether the job succeeded
+     */
+    void complete(boolean success) {
+        this.status = success ? Status.COMPLETED : Status.FAILED;
+        result.complete(success);
+    }
+}
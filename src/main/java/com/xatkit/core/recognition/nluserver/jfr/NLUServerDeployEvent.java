@@ -0,0 +1,52 @@
+package com.xatkit.core.recognition.nluserver.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import javax.annotation.Nullable;
+
+/**
+ * The creation of a bot on the NLU server.
+ *
+ * @see NLUServerInitializeEvent
+ */
+@Name("com.xatkit.nluserver.Deploy")
+@Label("NLU Server Deployment")
+@Description("Creation of the bot on the NLU server")
+public final class NLUServerDeployEvent extends NLUServerEvent {
+
+    /**
+     * The {@link EventType} of the event, checked before creating an event.
+     */
+    private static final EventType TYPE = NLUServerEventTypes.eventType(NLUServerDeployEvent.class);
+
+    /**
+     * Whether an existing bot with the same name is overwritten.
+     */
+    @Label("Force Overwrite")
+    private boolean forceOverwrite;
+
+    private NLUServerDeployEvent() {
+    }
+
+    /**
+     * Begins a {@link NLUServerDeployEvent} if the event is enabled.
+     *
+     * @param bot            the name the bot is deployed under
+     * @param forceOverwrite whether an existing bot with the same name is overwritten
+     * @return the begun event, or {@code null} if the event is disabled
+     */
+    @Nullable
+    public static NLUServerDeployEvent begin(String bot, boolean forceOverwrite) {
+        if (!NLUServerEventTypes.isEnabled(TYPE)) {
+            return null;
+        }
+        NLUServerDeployEvent event = new NLUServerDeployEvent();
+        event.bot = bot;
+        event.forceOverwrite = forceOverwrite;
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,51 @@
+package com.xatkit.core.recognition.nluserver.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * The base class of the Java Flight Recorder events emitted by the NLU server client.
+ * <p>
+ * The events are only created when their type is enabled in a running recording: the factory methods of the
+ * subclasses check the {@link EventType} of the event before creating it (see {@link NLUServerEventTypes}), and
+ * return {@code null} without allocating anything if it is disabled. The events do not record their
+ * stack trace, the operation they correspond to is identified by their type.
+ * <p>
+ * <b>Note</b>: the events of asynchronous operations are committed by the thread completing the operation (e.g. an
+ * HTTP client thread), their duration still spans from the submission of the operation to its completion.
+ * <p>
+ * The {@code jdk.jfr} API is available from JDK 11 and JDK 8u262, the client does not create the events on older JREs
+ * (see {@link NLUServerFlightRecorder}).
+ */
+@Category({"Xatkit", "NLU Server"})
+@StackTrace(false)
+public abstract class NLUServerEvent extends Event {
+
+    /**
+     * The name the bot is deployed under on the NLU server.
+     */
+    @Label("Bot")
+    protected String bot;
+
+    /**
+     * The HTTP status of the response, or {@code 0} if no response has been received.
+     */
+    @Label("Status")
+    protected int status;
+
+    /**
+     * Ends the event and commits it if it matches the settings of the recording (e.g. its duration threshold).
+     *
+     * @param status the HTTP status of the response, or {@code 0} if no response has been received
+     */
+    public void complete(int status) {
+        end();
+        if (shouldCommit()) {
+            this.status = status;
+            commit();
+        }
+    }
+}
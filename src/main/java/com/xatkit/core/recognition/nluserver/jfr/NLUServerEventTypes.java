@@ -0,0 +1,52 @@
+package com.xatkit.core.recognition.nluserver.jfr;
+
+import jdk.jfr.EventType;
+
+import javax.annotation.Nullable;
+
+import static java.util.Objects.nonNull;
+
+/**
+ * An utility class that checks whether the {@link NLUServerEvent}s are enabled without creating them.
+ * <p>
+ * The factory methods of the events check their {@link EventType} before allocating an event, so that creating an
+ * event costs nothing when no recording is running.
+ * <p>
+ * <b>Note</b>: these methods are not defined in {@link NLUServerEvent}, the Flight Recorder considers the
+ * {@code boolean} methods with a single parameter of an event class as settings of the event.
+ */
+final class NLUServerEventTypes {
+
+    /**
+     * Disables the default constructor, this class only provides static methods and should not be constructed.
+     */
+    private NLUServerEventTypes() {
+    }
+
+    /**
+     * Returns the {@link EventType} of the provided {@code eventClass}.
+     * <p>
+     * This method is called once by each event class, when it is initialized.
+     *
+     * @param eventClass the class of the event
+     * @return the {@link EventType}, or {@code null} if the JVM does not support the Flight Recorder
+     */
+    @Nullable
+    static EventType eventType(Class<? extends NLUServerEvent> eventClass) {
+        try {
+            return EventType.getEventType(eventClass);
+        } catch (InternalError e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns whether the provided {@code eventType} is enabled in a running recording.
+     *
+     * @param eventType the {@link EventType} to check
+     * @return {@code true} if the events of the provided type are recorded, {@code false} otherwise
+     */
+    static boolean isEnabled(@Nullable EventType eventType) {
+        return nonNull(eventType) && eventType.isEnabled();
+    }
+}
@@ -0,0 +1,42 @@
+package com.xatkit.core.recognition.nluserver.jfr;
+
+/**
+ * An utility class that tells whether the Java Flight Recorder API is available in the running JVM.
+ * <p>
+ * The events of this package extend {@code jdk.jfr.Event}, that is not available in JREs older than JDK 8u262. The
+ * client checks {@link #isAvailable()} before calling the factory methods of the events, so that their classes are
+ * never loaded (and the events never recorded) when the API is missing.
+ * <p>
+ * <b>Note</b>: this class must not reference the {@code jdk.jfr} API, it is loaded on every JVM.
+ */
+public final class NLUServerFlightRecorder {
+
+    /**
+     * Whether the {@code jdk.jfr} API is available, computed once when the class is loaded.
+     */
+    private static final boolean AVAILABLE = isJfrAvailable();
+
+    /**
+     * Disables the default constructor, this class only provides static methods and should not be constructed.
+     */
+    private NLUServerFlightRecorder() {
+    }
+
+    /**
+     * Returns whether the {@code jdk.jfr} API is available in the running JVM.
+     *
+     * @return {@code true} if the events of this package can be created, {@code false} otherwise
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    private static boolean isJfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, NLUServerFlightRecorder.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.xatkit.core.recognition.nluserver.jfr;
+
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import javax.annotation.Nullable;
+
+/**
+ * The upload of the bot definition (intents, entities, and contexts) to the NLU server.
+ * <p>
+ * The event includes the serialization of the definition.
+ */
+@Name("com.xatkit.nluserver.Initialize")
+@Label("NLU Server Initialization")
+@Description("Upload of the bot definition to the NLU server")
+public final class NLUServerInitializeEvent extends NLUServerEvent {
+
+    /**
+     * The {@link EventType} of the event, checked before creating an event.
+     */
+    private static final EventType TYPE = NLUServerEventTypes.eventType(NLUServerInitializeEvent.class);
+
+    /**
+     * The size of the request body.
+     */
+    @Label("Payload")
+    @DataAmount
+    private long payloadBytes;
+
+    /**
+     * Whether the request body is gzip-encoded.
+     */
+    @Label("Compressed")
+    private boolean compressed;
+
+    private NLUServerInitializeEvent() {
+    }
+
+    /**
+     * Begins a {@link NLUServerInitializeEvent} if the event is enabled.
+     *
+     * @param bot        the name the bot is deployed under
+     * @param compressed whether the request body is gzip-encoded
+     * @return the begun event, or {@code null} if the event is disabled
+     */
+    @Nullable
+    public static NLUServerInitializeEvent begin(String bot, boolean compressed) {
+        if (!NLUServerEventTypes.isEnabled(TYPE)) {
+            return null;
+        }
+        NLUServerInitializeEvent event = new NLUServerInitializeEvent();
+        event.bot = bot;
+        event.compressed = compressed;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Sets the size of the request body.
+     *
+     * @param payloadBytes the size of the request body in bytes
+     */
+    public void setPayloadBytes(long payloadBytes) {
+        this.payloadBytes = payloadBytes;
+    }
+}
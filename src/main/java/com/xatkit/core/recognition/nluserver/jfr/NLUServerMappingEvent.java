@@ -0,0 +1,90 @@
+package com.xatkit.core.recognition.nluserver.jfr;
+
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Prediction;
+import com.xatkit.intent.RecognizedIntent;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import javax.annotation.Nullable;
+
+/**
+ * The mapping of a {@link Prediction} to the {@link RecognizedIntent} returned to the bot.
+ * <p>
+ * The event includes the creation of the {@link RecognizedIntent}s and the selection of the best candidate
+ * accessible from the current state.
+ */
+@Name("com.xatkit.nluserver.Mapping")
+@Label("NLU Server Recognized Intent Mapping")
+@Description("Mapping of a NLU server prediction to the recognized intent")
+public final class NLUServerMappingEvent extends NLUServerEvent {
+
+    /**
+     * The {@link EventType} of the event, checked before creating an event.
+     */
+    private static final EventType TYPE = NLUServerEventTypes.eventType(NLUServerMappingEvent.class);
+
+    /**
+     * The name of the {@link com.xatkit.core.recognition.nluserver.mapper.dsl.NLUContext} the input has been
+     * classified in.
+     */
+    @Label("Context")
+    private String context;
+
+    /**
+     * The number of classifications of the mapped {@link Prediction}.
+     */
+    @Label("Classifications")
+    private int classificationCount;
+
+    /**
+     * The highest score of the mapped {@link Prediction}.
+     */
+    @Label("Top Score")
+    private float topScore;
+
+    /**
+     * The name of the intent of the returned {@link RecognizedIntent}.
+     */
+    @Label("Intent")
+    private String intent;
+
+    private NLUServerMappingEvent() {
+    }
+
+    /**
+     * Begins a {@link NLUServerMappingEvent} if the event is enabled.
+     *
+     * @param bot     the name of the bot
+     * @param context the name of the context the input has been classified in
+     * @return the begun event, or {@code null} if the event is disabled
+     */
+    @Nullable
+    public static NLUServerMappingEvent begin(String bot, String context) {
+        if (!NLUServerEventTypes.isEnabled(TYPE)) {
+            return null;
+        }
+        NLUServerMappingEvent event = new NLUServerMappingEvent();
+        event.bot = bot;
+        event.context = context;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Ends the event with the mapped {@code prediction} and the returned {@code recognizedIntent}, and commits it.
+     *
+     * @param prediction       the mapped {@link Prediction}
+     * @param recognizedIntent the returned {@link RecognizedIntent}
+     */
+    public void complete(Prediction prediction, RecognizedIntent recognizedIntent) {
+        end();
+        if (shouldCommit()) {
+            this.classificationCount = prediction.size();
+            this.topScore = prediction.isEmpty() ? 0 : prediction.getTopScore();
+            this.intent = recognizedIntent.getDefinition().getName();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.xatkit.core.recognition.nluserver.jfr;
+
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Prediction;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import javax.annotation.Nullable;
+
+/**
+ * A prediction request sent to the NLU server.
+ * <p>
+ * The event spans from the submission of the request to the reading of the returned {@link Prediction}.
+ */
+@Name("com.xatkit.nluserver.Predict")
+@Label("NLU Server Prediction")
+@Description("Prediction request sent to the NLU server")
+public final class NLUServerPredictEvent extends NLUServerEvent {
+
+    /**
+     * The {@link EventType} of the event, checked before creating an event.
+     */
+    private static final EventType TYPE = NLUServerEventTypes.eventType(NLUServerPredictEvent.class);
+
+    /**
+     * The name of the {@link com.xatkit.core.recognition.nluserver.mapper.dsl.NLUContext} the input is classified
+     * in.
+     */
+    @Label("Context")
+    private String context;
+
+    /**
+     * The size of the response body.
+     */
+    @Label("Payload")
+    @DataAmount
+    private long payloadBytes;
+
+    /**
+     * The number of classifications of the returned {@link Prediction}.
+     */
+    @Label("Classifications")
+    private int classificationCount;
+
+    /**
+     * The highest score of the returned {@link Prediction}, or {@code 0} if it is empty.
+     */
+    @Label("Top Score")
+    private float topScore;
+
+    private NLUServerPredictEvent() {
+    }
+
+    /**
+     * Begins a {@link NLUServerPredictEvent} if the event is enabled.
+     *
+     * @param bot     the name the bot is deployed under
+     * @param context the name of the context the input is classified in
+     * @return the begun event, or {@code null} if the event is disabled
+     */
+    @Nullable
+    public static NLUServerPredictEvent begin(String bot, String context) {
+        if (!NLUServerEventTypes.isEnabled(TYPE)) {
+            return null;
+        }
+        NLUServerPredictEvent event = new NLUServerPredictEvent();
+        event.bot = bot;
+        event.context = context;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Sets the size of the response body.
+     *
+     * @param payloadBytes the size of the response body in bytes
+     */
+    public void setPayloadBytes(long payloadBytes) {
+        this.payloadBytes = payloadBytes;
+    }
+
+    /**
+     * Ends the event with the returned {@code prediction} and commits it.
+     *
+     * @param status     the HTTP status of the response, or {@code 0} if no response has been received
+     * @param prediction the returned {@link Prediction}, or {@code null} if the server returned an error
+     * @see #complete(int)
+     */
+    public void complete(int status, @Nullable Prediction prediction) {
+        if (prediction != null) {
+            this.classificationCount = prediction.size();
+            this.topScore = prediction.isEmpty() ? 0 : prediction.getTopScore();
+        }
+        complete(status);
+    }
+}
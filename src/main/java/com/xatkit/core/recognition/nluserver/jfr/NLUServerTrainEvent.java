@@ -0,0 +1,42 @@
+package com.xatkit.core.recognition.nluserver.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+import javax.annotation.Nullable;
+
+/**
+ * The training of a bot on the NLU server.
+ */
+@Name("com.xatkit.nluserver.Train")
+@Label("NLU Server Training")
+@Description("Training of the bot on the NLU server")
+public final class NLUServerTrainEvent extends NLUServerEvent {
+
+    /**
+     * The {@link EventType} of the event, checked before creating an event.
+     */
+    private static final EventType TYPE = NLUServerEventTypes.eventType(NLUServerTrainEvent.class);
+
+    private NLUServerTrainEvent() {
+    }
+
+    /**
+     * Begins a {@link NLUServerTrainEvent} if the event is enabled.
+     *
+     * @param bot the name the bot is deployed under
+     * @return the begun event, or {@code null} if the event is disabled
+     */
+    @Nullable
+    public static NLUServerTrainEvent begin(String bot) {
+        if (!NLUServerEventTypes.isEnabled(TYPE)) {
+            return null;
+        }
+        NLUServerTrainEvent event = new NLUServerTrainEvent();
+        event.bot = bot;
+        event.begin();
+        return event;
+    }
+}
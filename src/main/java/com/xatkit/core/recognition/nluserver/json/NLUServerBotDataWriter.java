@@ -0,0 +1,270 @@
+package com.xatkit.core.recognition.nluserver.json;
+
+import com.google.gson.stream.JsonWriter;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.BotData;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.BotSnapshot;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.CustomEntityType;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.CustomEntityTypeEntry;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.EntityParameter;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.EntityType;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Intent;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.IntentReference;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.NLUContext;
+import fr.inria.atlanmod.commons.log.Log;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes the definition of a {@link BotData} in the format expected by the NLU server's initialization endpoint.
+ * <p>
+ * The definition is streamed from the {@link BotData} to the provided {@link OutputStream} with a
+ * streaming {@link JsonWriter}: training sentences, entity entries, and synonyms are not copied in intermediate
+ * objects.
+ */
+public class NLUServerBotDataWriter {
+
+    /**
+     * The size of the buffer between the thread writing a streamed definition and the thread reading it.
+     */
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Writes the definition of the provided {@code bot} to the provided {@code out}.
+     * <p>
+     * The definition is UTF-8 encoded. This method flushes {@code out} but does not close it.
+     *
+     * @param bot the {@link BotData} to write
+     * @param out the {@link OutputStream} to write the definition to
+     * @throws IOException if an error occurred when writing the definition
+     */
+    public void write(@NonNull BotData bot, @NonNull OutputStream out) throws IOException {
+        write(bot, bot.getBotName(), out);
+    }
+
+    /**
+     * Writes the definition of the provided {@code bot} under the given {@code name} to the provided {@code out}.
+     * <p>
+     * This method allows to deploy several versions of the same bot on the server. The definition is UTF-8
+     * encoded. This method flushes {@code out} but does not close it.
+     *
+     * @param bot  the {@link BotData} to write
+     * @param name the name of the bot on the server
+     * @param out  the {@link OutputStream} to write the definition to
+     * @throws IOException if an error occurred when writing the definition
+     */
+    public void write(@NonNull BotData bot, @NonNull String name, @NonNull OutputStream out) throws IOException {
+        write(bot.snapshot(), name, out);
+    }
+
+    /**
+     * Writes the definition of the provided {@code bot} snapshot under the given {@code name} to the provided
+     * {@code out}.
+     * <p>
+     * The definition is UTF-8 encoded. This method flushes {@code out} but does not close it.
+     *
+     * @param bot  the {@link BotSnapshot} to write
+     * @param name the name of the bot on the server
+     * @param out  the {@link OutputStream} to write the definition to
+     * @throws IOException if an error occurred when writing the definition
+     */
+    public void write(@NonNull BotSnapshot bot, @NonNull String name, @NonNull OutputStream out) throws IOException {
+        JsonWriter writer = NLUServerJsonUtils.newWriter(out);
+        writer.beginObject();
+        writer.name("name").value(name);
+
+        writer.name("contexts").beginArray();
+        for (NLUContext context : bot.getNluContexts()) {
+            writeNLUContext(context, writer);
+        }
+        writer.endArray();
+
+        writer.name("entities").beginArray();
+        for (EntityType entityType : bot.getEntities()) {
+            writeEntityType(entityType, writer);
+        }
+        writer.endArray();
+
+        writer.name("intents").beginArray();
+        for (Intent intent : bot.getIntents()) {
+            writeIntent(intent, writer);
+        }
+        writer.endArray();
+
+        writer.endObject();
+        writer.flush();
+    }
+
+    /**
+     * Returns an {@link InputStream} streaming the definition of the provided {@code bot} snapshot under the given
+     * {@code name}.
+     * <p>
+     * The definition is written by a background thread into a pipe of {@link #STREAM_BUFFER_SIZE} bytes, and
+     * gzip-encoded if {@code compressed} is {@code true}: the whole definition is never held in memory. The writing
+     * thread blocks until the returned stream is read, and stops if the returned stream is closed before the end of
+     * the definition. An error raised when writing the definition is rethrown by the returned stream once the
+     * written content has been read.
+     *
+     * @param bot        the {@link BotSnapshot} to write
+     * @param name       the name of the bot on the server
+     * @param compressed whether to gzip-encode the definition
+     * @return the {@link InputStream} containing the UTF-8 encoded definition
+     * @throws IOException if an error occurred when creating the pipe
+     */
+    public InputStream stream(@NonNull BotSnapshot bot, @NonNull String name, boolean compressed)
+            throws IOException {
+        PipedDefinitionInputStream in = new PipedDefinitionInputStream();
+        PipedOutputStream pipe = new PipedOutputStream(in);
+        Thread producer = new Thread(() -> {
+            OutputStream out = pipe;
+            try {
+                if (compressed) {
+                    out = new GZIPOutputStream(pipe, STREAM_BUFFER_SIZE);
+                }
+                write(bot, name, out);
+            } catch (IOException | RuntimeException e) {
+                /*
+                 * Record the failure before closing the pipe: the reader checks it once it reaches the end of the
+                 * stream.
+                 */
+                in.failure = e;
+            } finally {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    Log.warn("Cannot close the bot definition stream: {0}", e.getMessage());
+                }
+            }
+        }, "nluserver-bot-data-writer");
+        producer.setDaemon(true);
+        producer.start();
+        return in;
+    }
+
+    /**
+     * Writes the provided {@code context} and its intent references.
+     *
+     * @param context the {@link NLUContext} to write
+     * @param writer  the {@link JsonWriter} to write with
+     * @throws IOException if an error occurred when writing the definition
+     */
+    private void writeNLUContext(NLUContext context, JsonWriter writer) throws IOException {
+        writer.beginObject();
+        writer.name("name").value(context.getName());
+        writer.name("intent_refs").beginArray();
+        for (IntentReference intentReference : context.getIntentReferences()) {
+            writer.beginObject().name("intent").value(intentReference.getName()).endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+    }
+
+    /**
+     * Writes the provided {@code entityType}.
+     * <p>
+     * All the entity types are written with the same structure. The {@code entries} of non-custom entity types are
+     * empty.
+     *
+     * @param entityType the {@link EntityType} to write
+     * @param writer     the {@link JsonWriter} to write with
+     * @throws IOException if an error occurred when writing the definition
+     */
+    private void writeEntityType(EntityType entityType, JsonWriter writer) throws IOException {
+        writer.beginObject();
+        writer.name("name").value(entityType.getName());
+        writer.name("entries").beginArray();
+        if (entityType instanceof CustomEntityType) {
+            for (CustomEntityTypeEntry entry : ((CustomEntityType) entityType).getEntries()) {
+                writer.beginObject();
+                writer.name("value").value(entry.getValue());
+                writer.name("synonyms").beginArray();
+                for (String synonym : entry.getSynonyms()) {
+                    writer.value(synonym);
+                }
+                writer.endArray();
+                writer.endObject();
+            }
+        }
+        writer.endArray();
+        writer.endObject();
+    }
+
+    /**
+     * Writes the provided {@code intent}, its training sentences, and its parameters.
+     *
+     * @param intent the {@link Intent} to write
+     * @param writer the {@link JsonWriter} to write with
+     * @throws IOException if an error occurred when writing the definition
+     */
+    private void writeIntent(Intent intent, JsonWriter writer) throws IOException {
+        writer.beginObject();
+        writer.name("name").value(intent.getName());
+        writer.name("training_sentences").beginArray();
+        for (String trainingSentence : intent.getTrainingSentences()) {
+            writer.value(trainingSentence);
+        }
+        writer.endArray();
+        writer.name("parameters").beginArray();
+        for (EntityParameter parameter : intent.getParameters()) {
+            writer.beginObject();
+            writer.name("fragment").value(parameter.getFragment());
+            writer.name("name").value(parameter.getName());
+            writer.name("entity").value(parameter.getType().getName());
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+    }
+
+    /**
+     * The reading end of a streamed definition.
+     * <p>
+     * This stream rethrows the error raised by the writing thread, if any, instead of reporting a truncated
+     * definition as a complete one.
+     */
+    private static class PipedDefinitionInputStream extends PipedInputStream {
+
+        /**
+         * The error raised when writing the definition, or {@code null} if no error occurred.
+         */
+        private volatile Exception failure;
+
+        PipedDefinitionInputStream() {
+            super(STREAM_BUFFER_SIZE);
+        }
+
+        @Override
+        public synchronized int read() throws IOException {
+            int b = super.read();
+            if (b == -1) {
+                checkFailure();
+            }
+            return b;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read == -1) {
+                checkFailure();
+            }
+            return read;
+        }
+
+        /**
+         * Throws the error raised when writing the definition, if any.
+         *
+         * @throws IOException if an error occurred when writing the definition
+         */
+        private void checkFailure() throws IOException {
+            if (failure != null) {
+                throw new IOException("Cannot write the bot definition", failure);
+            }
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.xatkit.core.recognition.nluserver.json;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import lombok.NonNull;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * An utility class that provides the streaming JSON methods shared by the NLUServer readers and writers.
+ * <p>
+ * The documents are read and written with Gson's streaming {@link JsonReader} and {@link JsonWriter}. The readers
+ * created by this class are strict: malformed documents (e.g. missing separators, unquoted names, or trailing
+ * content) are rejected with an {@link IOException}.
+ */
+public final class NLUServerJsonUtils {
+
+    /**
+     * Disables the default constructor, this class only provides static methods and should not be constructed.
+     */
+    private NLUServerJsonUtils() {
+    }
+
+    /**
+     * Creates a strict {@link JsonReader} reading the provided UTF-8 encoded {@code in}.
+     *
+     * @param in the {@link InputStream} to read the JSON document from
+     * @return the created {@link JsonReader}
+     * @throws NullPointerException if the provided {@code in} is {@code null}
+     */
+    public static JsonReader newReader(@NonNull InputStream in) {
+        JsonReader reader = new JsonReader(new InputStreamReader(in, UTF_8));
+        reader.setLenient(false);
+        return reader;
+    }
+
+    /**
+     * Creates a {@link JsonWriter} writing a UTF-8 encoded document to the provided {@code out}.
+     *
+     * @param out the {@link OutputStream} to write the JSON document to
+     * @return the created {@link JsonWriter}
+     * @throws NullPointerException if the provided {@code out} is {@code null}
+     */
+    public static JsonWriter newWriter(@NonNull OutputStream out) {
+        JsonWriter writer = new JsonWriter(new BufferedWriter(new OutputStreamWriter(out, UTF_8)));
+        writer.setLenient(false);
+        return writer;
+    }
+
+    /**
+     * Consumes the next string value, or the next {@code null} value, of the provided {@code reader}.
+     *
+     * @param reader the {@link JsonReader} to read the value from
+     * @return the string value, or {@code null} if the next value is {@code null}
+     * @throws IOException           if an error occurred when reading the document
+     * @throws IllegalStateException if the next token is neither a string nor {@code null}
+     */
+    public static String nextStringOrNull(@NonNull JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+
+    /**
+     * Consumes the next value of the provided {@code reader} and returns it as a plain Java object.
+     * <p>
+     * Objects are returned as {@link Map}s, arrays as {@link List}s, and numbers as {@link Integer}, {@link Long}, or
+     * {@link Double}, depending on their representation.
+     *
+     * @param reader the {@link JsonReader} to read the value from
+     * @return the read value
+     * @throws IOException if an error occurred when reading the document, or if the document is malformed
+     */
+    public static Object readValue(@NonNull JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case BEGIN_OBJECT:
+                Map<String, Object> map = new HashMap<>();
+                reader.beginObject();
+                while (reader.hasNext()) {
+                    String name = reader.nextName();
+                    map.put(name, readValue(reader));
+                }
+                reader.endObject();
+                return map;
+            case BEGIN_ARRAY:
+                List<Object> list = new ArrayList<>();
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    list.add(readValue(reader));
+                }
+                reader.endArray();
+                return list;
+            case STRING:
+                return reader.nextString();
+            case BOOLEAN:
+                return reader.nextBoolean();
+            case NULL:
+                reader.nextNull();
+                return null;
+            case NUMBER:
+                return toNumber(reader.nextString());
+            default:
+                throw new IOException("Unexpected token " + reader.peek() + " at " + reader.getPath());
+        }
+    }
+
+    /**
+     * Checks that the provided {@code reader} has consumed the whole document.
+     *
+     * @param reader the {@link JsonReader} to check
+     * @throws IOException if an error occurred when reading the document, or if the document contains content after
+     *                     its top-level value
+     */
+    public static void endDocument(@NonNull JsonReader reader) throws IOException {
+        if (reader.peek() != JsonToken.END_DOCUMENT) {
+            throw new IOException("Unexpected content after the JSON document at " + reader.getPath());
+        }
+    }
+
+    /**
+     * Converts the provided JSON number {@code literal} to the smallest matching Java number.
+     *
+     * @param literal the number literal to convert
+     * @return the converted {@link Integer}, {@link Long}, or {@link Double}
+     */
+    private static Number toNumber(String literal) {
+        if (literal.indexOf('.') < 0 && literal.indexOf('e') < 0 && literal.indexOf('E') < 0) {
+            try {
+                long value = Long.parseLong(literal);
+                if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                    return (int) value;
+                }
+                return value;
+            } catch (NumberFormatException e) {
+                /*
+                 * The literal does not fit in a long, read it as a double.
+                 */
+            }
+        }
+        return Double.parseDouble(literal);
+    }
+}
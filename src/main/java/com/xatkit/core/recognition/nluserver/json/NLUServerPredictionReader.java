@@ -0,0 +1,216 @@
+package com.xatkit.core.recognition.nluserver.json;
+
+import com.google.gson.stream.JsonReader;
+import com.xatkit.core.recognition.nluserver.mapper.NLUServerIntentTable;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Classification;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.MatchedParam;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Prediction;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Reads the prediction responses of the NLU server into {@link Prediction} instances.
+ * <p>
+ * This class streams the response with a strict {@link JsonReader} and directly fills the arrays of the
+ * {@link Prediction}, without building an intermediate JSON tree nor {@link Classification} instances. The intent
+ * names are resolved with the {@link NLUServerIntentTable} answering the predictions, that is retrieved once per
+ * response.
+ * <p>
+ * Malformed responses (invalid JSON, or values of unexpected types) are rejected with an {@link IOException}.
+ */
+public class NLUServerPredictionReader {
+
+    /**
+     * The supplier of the {@link NLUServerIntentTable} used to resolve the intent names returned by the server.
+     */
+    private final Supplier<NLUServerIntentTable> intentTable;
+
+    /**
+     * Constructs a {@link NLUServerPredictionReader} with the provided {@code intentTable}.
+     *
+     * @param intentTable the supplier of the {@link NLUServerIntentTable} used to resolve the intent names
+     *                    returned by the server
+     * @throws NullPointerException if the provided {@code intentTable} is {@code null}
+     */
+    public NLUServerPredictionReader(@NonNull Supplier<NLUServerIntentTable> intentTable) {
+        this.intentTable = intentTable;
+    }
+
+    /**
+     * Reads a single prediction response from the provided UTF-8 encoded {@code in}.
+     *
+     * @param in the {@link InputStream} containing the response
+     * @return the read {@link Prediction}
+     * @throws IOException if an error occurred when reading the response, or if the response is malformed
+     */
+    public Prediction readPrediction(@NonNull InputStream in) throws IOException {
+        JsonReader reader = NLUServerJsonUtils.newReader(in);
+        try {
+            Prediction prediction = readPrediction(reader, intentTable.get());
+            NLUServerJsonUtils.endDocument(reader);
+            return prediction;
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Malformed prediction response: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads a batch prediction response from the provided UTF-8 encoded {@code in}.
+     *
+     * @param in the {@link InputStream} containing the response
+     * @return the read {@link Prediction}s, in the order of the response
+     * @throws IOException if an error occurred when reading the response, or if the response is malformed
+     */
+    public List<Prediction> readPredictions(@NonNull InputStream in) throws IOException {
+        JsonReader reader = NLUServerJsonUtils.newReader(in);
+        try {
+            List<Prediction> predictions = readPredictions(reader, intentTable.get());
+            NLUServerJsonUtils.endDocument(reader);
+            return predictions;
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Malformed batch prediction response: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads a batch prediction object from the provided {@code reader}.
+     *
+     * @param reader the {@link JsonReader} positioned at the beginning of the batch prediction object
+     * @param table  the {@link NLUServerIntentTable} used to resolve the intent names
+     * @return the read {@link Prediction}s, in the order of the response
+     * @throws IOException if an error occurred when reading the response
+     */
+    private List<Prediction> readPredictions(JsonReader reader, NLUServerIntentTable table) throws IOException {
+        List<Prediction> predictions = new ArrayList<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("predictions")) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    predictions.add(readPrediction(reader, table));
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return predictions;
+    }
+
+    /**
+     * Reads a prediction object from the provided {@code reader}.
+     *
+     * @param reader the {@link JsonReader} positioned at the beginning of the prediction object
+     * @param table  the {@link NLUServerIntentTable} used to resolve the intent names
+     * @return the read {@link Prediction}
+     * @throws IOException if an error occurred when reading the response
+     */
+    private Prediction readPrediction(JsonReader reader, NLUServerIntentTable table) throws IOException {
+        Prediction prediction = new Prediction();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (name.equals("classifications")) {
+                reader.beginArray();
+                while (reader.hasNext()) {
+                    readClassification(reader, table, prediction);
+                }
+                reader.endArray();
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return prediction;
+    }
+
+    /**
+     * Reads a classification object from the provided {@code reader} and adds it to the provided
+     * {@code prediction}.
+     *
+     * @param reader     the {@link JsonReader} positioned at the beginning of the classification object
+     * @param table      the {@link NLUServerIntentTable} used to resolve the intent name
+     * @param prediction the {@link Prediction} to add the classification to
+     * @throws IOException if an error occurred when reading the response
+     */
+    private void readClassification(JsonReader reader, NLUServerIntentTable table, Prediction prediction)
+            throws IOException {
+        int intentId = NLUServerIntentTable.UNKNOWN_INTENT;
+        float score = 0;
+        String matchedUtterance = null;
+        List<MatchedParam> matchedParams = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+                case "intent":
+                    intentId = table.getId(reader.nextString());
+                    break;
+                case "score":
+                    score = (float) reader.nextDouble();
+                    break;
+                case "matched_utterance":
+                    matchedUtterance = NLUServerJsonUtils.nextStringOrNull(reader);
+                    break;
+                case "matched_parameters":
+                    matchedParams = new ArrayList<>();
+                    reader.beginArray();
+                    while (reader.hasNext()) {
+                        matchedParams.add(readMatchedParam(reader));
+                    }
+                    reader.endArray();
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        prediction.addClassification(intentId, table.getIntent(intentId), score, matchedUtterance, matchedParams);
+    }
+
+    /**
+     * Reads a matched parameter object from the provided {@code reader}.
+     *
+     * @param reader the {@link JsonReader} positioned at the beginning of the matched parameter object
+     * @return the read {@link MatchedParam}
+     * @throws IOException if an error occurred when reading the response
+     */
+    @SuppressWarnings("unchecked")
+    private MatchedParam readMatchedParam(JsonReader reader) throws IOException {
+        String paramName = null;
+        String value = "";
+        Map<String, Object> info = null;
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            switch (name) {
+                case "name":
+                    paramName = reader.nextString();
+                    break;
+                case "value":
+                    Object readValue = NLUServerJsonUtils.readValue(reader);
+                    value = readValue == null ? "" : readValue.toString();
+                    break;
+                case "info":
+                    Object readInfo = NLUServerJsonUtils.readValue(reader);
+                    if (readInfo instanceof Map) {
+                        info = (Map<String, Object>) readInfo;
+                    }
+                    break;
+                default:
+                    reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return new MatchedParam(paramName, value, info == null ? new HashMap<>() : info);
+    }
+}
@@ -0,0 +1,168 @@
+package com.xatkit.core.recognition.nluserver.mapper;
+
+import com.xatkit.core.recognition.nluserver.mapper.dsl.BotSnapshot;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Intent;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Prediction;
+import com.xatkit.intent.IntentDefinition;
+import lombok.NonNull;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Resolves the intent names returned by the NLU server to NLUServer {@link Intent}s and Xatkit
+ * {@link IntentDefinition}s.
+ * <p>
+ * The table assigns a dense id to each {@link Intent} of a {@link BotSnapshot}, and stores the corresponding
+ * {@link Intent} and {@link IntentDefinition} in arrays indexed by this id. It is built once when the bot is trained:
+ * the intent name of a classification is looked up once when the prediction is read (see
+ * {@link Prediction#getIntentId(int)}), and the {@link Intent} and {@link IntentDefinition} are then retrieved
+ * without additional name lookups.
+ * <p>
+ * The table is immutable, and published along with the {@link BotSnapshot} it has been built from.
+ */
+public final class NLUServerIntentTable {
+
+    /**
+     * The id returned for intent names that are not part of the table.
+     */
+    public static final int UNKNOWN_INTENT = Prediction.UNKNOWN_INTENT_ID;
+
+    /**
+     * The {@link BotSnapshot} the table has been built from.
+     */
+    private final BotSnapshot bot;
+
+    /**
+     * The ids of the intents, mapped by name.
+     */
+    private final Map<String, Integer> ids;
+
+    /**
+     * The {@link Intent}s, indexed by id.
+     */
+    private final Intent[] intents;
+
+    /**
+     * The {@link IntentDefinition}s corresponding to the {@link #intents}, indexed by id.
+     * <p>
+     * An entry is {@code null} if the intent does not correspond to a registered {@link IntentDefinition}.
+     */
+    private final IntentDefinition[] intentDefinitions;
+
+    /**
+     * Constructs a {@link NLUServerIntentTable} containing the {@link Intent}s of the provided {@code bot}.
+     * <p>
+     * If several intents share the same name only the first one is part of the table, consistently with
+     * {@link BotSnapshot#getIntent(String)}.
+     *
+     * @param bot                the {@link BotSnapshot} containing the {@link Intent}s
+     * @param definitionResolver the function returning the {@link IntentDefinition} corresponding to an intent
+     *                           name, or {@code null} if it does not exist
+     * @throws NullPointerException if the provided {@code bot} or {@code definitionResolver} is {@code null}
+     */
+    public NLUServerIntentTable(@NonNull BotSnapshot bot,
+                                @NonNull Function<String, IntentDefinition> definitionResolver) {
+        this.bot = bot;
+        List<Intent> botIntents = bot.getIntents();
+        this.ids = new HashMap<>((int) (botIntents.size() / 0.75f) + 1);
+        Intent[] tableIntents = new Intent[botIntents.size()];
+        IntentDefinition[] tableDefinitions = new IntentDefinition[botIntents.size()];
+        int size = 0;
+        for (Intent intent : botIntents) {
+            if (ids.putIfAbsent(intent.getName(), size) == null) {
+                tableIntents[size] = intent;
+                tableDefinitions[size] = definitionResolver.apply(intent.getName());
+                size++;
+            }
+        }
+        if (size < tableIntents.length) {
+            tableIntents = Arrays.copyOf(tableIntents, size);
+            tableDefinitions = Arrays.copyOf(tableDefinitions, size);
+        }
+        this.intents = tableIntents;
+        this.intentDefinitions = tableDefinitions;
+    }
+
+    /**
+     * Returns the {@link BotSnapshot} the table has been built from.
+     *
+     * @return the {@link BotSnapshot}
+     */
+    public BotSnapshot getBot() {
+        return bot;
+    }
+
+    /**
+     * Returns the id of the intent with the provided {@code name}.
+     *
+     * @param name the name of the intent
+     * @return the id of the intent, or {@link #UNKNOWN_INTENT} if the table does not contain it
+     */
+    public int getId(String name) {
+        Integer id = ids.get(name);
+        return id == null ? UNKNOWN_INTENT : id;
+    }
+
+    /**
+     * Returns the {@link Intent} with the provided {@code id}.
+     *
+     * @param id the id of the intent
+     * @return the {@link Intent}, or {@code null} if the provided {@code id} is not a valid id
+     */
+    @Nullable
+    public Intent getIntent(int id) {
+        return isValid(id) ? intents[id] : null;
+    }
+
+    /**
+     * Returns the {@link IntentDefinition} of the intent with the provided {@code id}.
+     *
+     * @param id the id of the intent
+     * @return the {@link IntentDefinition}, or {@code null} if the provided {@code id} is not a valid id or if the
+     * intent does not correspond to a registered {@link IntentDefinition}
+     */
+    @Nullable
+    public IntentDefinition getIntentDefinition(int id) {
+        return isValid(id) ? intentDefinitions[id] : null;
+    }
+
+    /**
+     * Returns the {@link IntentDefinition} of the intent of the classification at the provided {@code index} in the
+     * {@code prediction}.
+     * <p>
+     * The {@link IntentDefinition} is only returned if the {@code prediction} has been read with this table, i.e. if
+     * the intent id of the classification designates its {@link Intent} in this table.
+     *
+     * @param prediction the {@link Prediction} containing the classification
+     * @param index      the index of the classification in the {@code prediction}
+     * @return the {@link IntentDefinition}, or {@code null} if the {@code prediction} has not been read with this
+     * table or if the intent does not correspond to a registered {@link IntentDefinition}
+     * @throws IndexOutOfBoundsException if the provided {@code index} is not a valid classification index
+     */
+    @Nullable
+    public IntentDefinition getIntentDefinition(@NonNull Prediction prediction, int index) {
+        int id = prediction.getIntentId(index);
+        if (isValid(id) && intents[id] == prediction.getIntent(index)) {
+            return intentDefinitions[id];
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of intents in the table.
+     *
+     * @return the number of intents
+     */
+    public int size() {
+        return intents.length;
+    }
+
+    private boolean isValid(int id) {
+        return id >= 0 && id < intents.length;
+    }
+}
@@ -2,7 +2,6 @@ package com.xatkit.core.recognition.nluserver.mapper;
 
 import com.xatkit.core.EventDefinitionRegistry;
 import com.xatkit.core.recognition.nluserver.NLUServerConfiguration;
-import com.xatkit.core.recognition.nluserver.mapper.dsl.Classification;
 import com.xatkit.core.recognition.nluserver.mapper.dsl.Intent;
 import com.xatkit.core.recognition.nluserver.mapper.dsl.MatchedParam;
 import com.xatkit.core.recognition.nluserver.mapper.dsl.Prediction;
@@ -14,10 +13,12 @@ import com.xatkit.intent.RecognizedIntent;
 import fr.inria.atlanmod.commons.log.Log;
 import lombok.NonNull;
 
+import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
 
 import static com.xatkit.core.recognition.IntentRecognitionProvider.DEFAULT_FALLBACK_INTENT;
 import static java.util.Objects.isNull;
@@ -68,28 +69,122 @@ public class NLUServerRecognizedIntentMapper {
      * each
      * classification entry to a {@link RecognizedIntent}, but does not select which one to keep and use in the bot's
      * state machine.
+     * <p>
+     * The returned {@link RecognizedIntent}s are sorted by decreasing confidence. Use
+     * {@link #mapBestRecognitionResult(Prediction, Predicate)} to only transform the classification that can be
+     * matched.
      *
      * @param prediction the NLUServer recognition result
      * @return the {@link RecognizedIntent}s corresponding to the provided {@code recognitionResult}
      * @throws NullPointerException if the provided {@code recognitionResult} is {@code null}
      */
     public List<RecognizedIntent> mapRecognitionResult(@NonNull Prediction prediction) {
-        List<Classification> classifications = prediction.getClassifications();
-        classifications =
-                classifications.stream().filter(c -> c.getScore() > configuration.getConfidenceThreshold()).collect(Collectors.toList());
-        List<RecognizedIntent> recognizedIntents = new ArrayList<>();
-        for (Classification classification : classifications) {
-            RecognizedIntent recognizedIntent = IntentFactory.eINSTANCE.createRecognizedIntent();
-            IntentDefinition intentDefinition = convertNLUServerIntentToIntentDefinition(classification.getIntent());
-            recognizedIntent.setDefinition(intentDefinition);
-            recognizedIntent.setRecognitionConfidence(classification.getScore());
-            recognizedIntent.setMatchedInput(classification.getMatchedUtterance());
-            recognizedIntent.getValues().addAll(this.mapParameterValues(intentDefinition, classification.getMatchedParams()));
-            recognizedIntents.add(recognizedIntent);
+        int[] ranking = prediction.rank(configuration.getConfidenceThreshold());
+        List<RecognizedIntent> recognizedIntents = new ArrayList<>(ranking.length);
+        for (int index : ranking) {
+            IntentDefinition intentDefinition = convertNLUServerIntentToIntentDefinition(prediction.getIntent(index));
+            recognizedIntents.add(createRecognizedIntent(prediction, index, intentDefinition));
         }
         return recognizedIntents;
     }
 
+    /**
+     * Transforms the best classification of the NLUServer {@code prediction} to a {@link RecognizedIntent}.
+     * <p>
+     * This method is a lazy alternative to {@link #mapRecognitionResult(Prediction)}: the classifications above
+     * the confidence threshold are ranked on their scores, and only the best one whose {@link IntentDefinition} is
+     * {@code accessible} (typically from the current state) is transformed to a {@link RecognizedIntent}. The
+     * {@link IntentDefinition} of the other classifications is retrieved, but no {@link RecognizedIntent} or
+     * {@link ContextParameterValue} is created for them.
+     * <p>
+     * If none of the classifications is {@code accessible} the returned list contains the top classification, so
+     * that the caller can compute its fallback in the same way as with {@link #mapRecognitionResult(Prediction)}.
+     *
+     * @param prediction the NLUServer recognition result
+     * @param accessible the predicate returning whether an {@link IntentDefinition} can be matched
+     * @return a list containing the best {@link RecognizedIntent}, or an empty list if no classification is
+     * above the confidence threshold
+     * @throws NullPointerException if the provided {@code prediction} or {@code accessible} is {@code null}
+     * @see #mapBestRecognitionResult(Prediction, NLUServerIntentTable, Predicate)
+     */
+    public List<RecognizedIntent> mapBestRecognitionResult(@NonNull Prediction prediction,
+                                                           @NonNull Predicate<IntentDefinition> accessible) {
+        return mapBestRecognitionResult(prediction, null, accessible);
+    }
+
+    /**
+     * Transforms the best classification of the NLUServer {@code prediction} to a {@link RecognizedIntent}.
+     * <p>
+     * The {@link IntentDefinition}s of the classifications read with the provided {@code intentTable} are
+     * retrieved from the table, the other ones are retrieved from the {@link EventDefinitionRegistry}.
+     *
+     * @param prediction  the NLUServer recognition result
+     * @param intentTable the {@link NLUServerIntentTable} the {@code prediction} has been read with
+     * @param accessible  the predicate returning whether an {@link IntentDefinition} can be matched
+     * @return a list containing the best {@link RecognizedIntent}, or an empty list if no classification is
+     * above the confidence threshold
+     * @throws NullPointerException if the provided {@code prediction} or {@code accessible} is {@code null}
+     * @see #mapBestRecognitionResult(Prediction, Predicate)
+     */
+    public List<RecognizedIntent> mapBestRecognitionResult(@NonNull Prediction prediction,
+                                                           @Nullable NLUServerIntentTable intentTable,
+                                                           @NonNull Predicate<IntentDefinition> accessible) {
+        int[] ranking = prediction.rank(configuration.getConfidenceThreshold());
+        if (ranking.length == 0) {
+            return Collections.emptyList();
+        }
+        for (int index : ranking) {
+            IntentDefinition intentDefinition = getIntentDefinition(prediction, index, intentTable);
+            if (accessible.test(intentDefinition)) {
+                return Collections.singletonList(createRecognizedIntent(prediction, index, intentDefinition));
+            }
+        }
+        return Collections.singletonList(createRecognizedIntent(prediction, ranking[0],
+                getIntentDefinition(prediction, ranking[0], intentTable)));
+    }
+
+    /**
+     * Returns the {@link IntentDefinition} of the classification at the provided {@code index} in the
+     * {@code prediction}.
+     *
+     * @param prediction  the {@link Prediction} containing the classification
+     * @param index       the index of the classification in the {@code prediction}
+     * @param intentTable the {@link NLUServerIntentTable} the {@code prediction} may have been read with
+     * @return the {@link IntentDefinition} of the classification, or the {@code DEFAULT_FALLBACK_INTENT} if it
+     * does not exist
+     * @see NLUServerIntentTable#getIntentDefinition(Prediction, int)
+     */
+    private IntentDefinition getIntentDefinition(Prediction prediction, int index,
+                                                 @Nullable NLUServerIntentTable intentTable) {
+        if (nonNull(intentTable)) {
+            IntentDefinition intentDefinition = intentTable.getIntentDefinition(prediction, index);
+            if (nonNull(intentDefinition)) {
+                return intentDefinition;
+            }
+        }
+        return convertNLUServerIntentToIntentDefinition(prediction.getIntent(index));
+    }
+
+    /**
+     * Creates the {@link RecognizedIntent} corresponding to the classification at the provided {@code index} in the
+     * {@code prediction}.
+     *
+     * @param prediction       the {@link Prediction} containing the classification
+     * @param index            the index of the classification in the {@code prediction}
+     * @param intentDefinition the {@link IntentDefinition} of the classification
+     * @return the created {@link RecognizedIntent}
+     */
+    private RecognizedIntent createRecognizedIntent(Prediction prediction, int index,
+                                                    IntentDefinition intentDefinition) {
+        RecognizedIntent recognizedIntent = IntentFactory.eINSTANCE.createRecognizedIntent();
+        recognizedIntent.setDefinition(intentDefinition);
+        recognizedIntent.setRecognitionConfidence(prediction.getScore(index));
+        recognizedIntent.setMatchedInput(prediction.getMatchedUtterance(index));
+        recognizedIntent.getValues().addAll(this.mapParameterValues(intentDefinition,
+                prediction.getMatchedParams(index)));
+        return recognizedIntent;
+    }
+
 
 
     /**
@@ -1,22 +1,44 @@
 package com.xatkit.core.recognition.nluserver.mapper.dsl;
 
 import com.xatkit.core.recognition.nluserver.NLUServerConfiguration;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
 import lombok.NonNull;
+import lombok.ToString;
 import org.json.JSONObject;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The bot definition deployed on the NLU server.
+ * <p>
+ * The {@link NLUContext}s, {@link Intent}s and {@link EntityType}s of the bot are stored in lists (that preserve the
+ * registration order used to serialize the bot), and indexed by name for constant-time lookups. The lists returned
+ * by the getters are unmodifiable views: use the {@code add*} methods or the setters to update the bot, so the
+ * indexes stay consistent with the lists. Elements must not be renamed once added.
+ * <p>
+ * If several elements share the same name the lookup methods return the first one that was added.
+ * <p>
+ * {@link BotData} is not thread-safe: it is the builder the bot definition is registered to, and the threads
+ * computing the predictions read an immutable {@link BotSnapshot} of it instead (see {@link #snapshot()}).
+ */
 @Data
 public class BotData {
 
     @NonNull
     private String botName = null;
 
-    // Internal UUID assigned by the server, not used by now
-    private String UUID;
+    // Internal UUID assigned by the server, not used by now. Set by the thread deploying the bot, that may be a
+    // background training thread (see NLUServerConfiguration#TRAIN_ASYNC)
+    private volatile String UUID;
 
     //@NonNull
     //private NLUServerConfiguration config;
@@ -29,6 +51,21 @@ public class BotData {
 
     private List<EntityType> entities;
 
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final Map<String, NLUContext> nluContextsByName = new HashMap<>();
+
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final Map<String, Intent> intentsByName = new HashMap<>();
+
+    @Getter(AccessLevel.NONE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final Map<String, EntityType> entitiesByName = new HashMap<>();
+
     public BotData(String botName) {
         this.botName = botName;
         this.intents = new ArrayList<>();
@@ -36,36 +73,93 @@ public class BotData {
         this.nluContexts = new ArrayList<>();
     }
 
+    public List<NLUContext> getNluContexts() {
+        return Collections.unmodifiableList(nluContexts);
+    }
+
+    public void setNluContexts(@NonNull List<NLUContext> nluContexts) {
+        this.nluContexts = new ArrayList<>(nluContexts);
+        reindex(this.nluContexts, nluContextsByName, NLUContext::getName);
+    }
+
+    public List<Intent> getIntents() {
+        return Collections.unmodifiableList(intents);
+    }
+
+    public void setIntents(@NonNull List<Intent> intents) {
+        this.intents = new ArrayList<>(intents);
+        reindex(this.intents, intentsByName, Intent::getName);
+    }
+
+    public List<EntityType> getEntities() {
+        return Collections.unmodifiableList(entities);
+    }
+
+    public void setEntities(List<EntityType> entities) {
+        this.entities = entities == null ? new ArrayList<>() : new ArrayList<>(entities);
+        reindex(this.entities, entitiesByName, EntityType::getName);
+    }
+
     public boolean containsIntent(String name) {
-        return (this.intents.stream().filter(i -> i.getName().equals(name)).findAny().orElse(null) != null);
+        return this.intentsByName.containsKey(name);
     }
 
     public boolean containsNLUContext(String name) {
-        return (this.nluContexts.stream().filter(c -> c.getName().equals(name)).findAny().orElse(null) != null);
+        return this.nluContextsByName.containsKey(name);
     }
 
     public Intent getIntent(String name) {
-        return (this.intents.stream().filter(i -> i.getName().equals(name)).findAny().orElse(null));
+        return this.intentsByName.get(name);
     }
 
     public EntityType getEntityType(String name) {
-        return (this.entities.stream().filter(i -> i.getName().equals(name)).findAny().orElse(null));
+        return this.entitiesByName.get(name);
     }
 
     public void addIntent(Intent i) {
         this.intents.add(i);
+        this.intentsByName.putIfAbsent(i.getName(), i);
     }
 
     public void addNLUContext(NLUContext nluContext) {
         this.nluContexts.add(nluContext);
+        this.nluContextsByName.putIfAbsent(nluContext.getName(), nluContext);
     }
 
     public NLUContext getNluContext(String name) {
-        return (this.nluContexts.stream().filter(c -> c.getName().equals(name)).findAny().orElse(null));
+        return this.nluContextsByName.get(name);
     }
 
     public void addEntityType(EntityType entityType) {
         this.entities.add(entityType);
+        this.entitiesByName.putIfAbsent(entityType.getName(), entityType);
+    }
+
+    /**
+     * Creates an immutable {@link BotSnapshot} of the current content of the bot.
+     * <p>
+     * The returned snapshot is not affected by the elements added to this bot afterwards, nor by the modifications
+     * of its {@link NLUContext}s and {@link Intent}s, that are copied. The {@link EntityType}s are shared with the
+     * snapshot.
+     *
+     * @return the created {@link BotSnapshot}
+     */
+    public BotSnapshot snapshot() {
+        return new BotSnapshot(botName, nluContexts, intents, entities);
     }
 
+    /**
+     * Rebuilds the provided {@code index} from the content of the provided {@code elements}.
+     *
+     * @param elements the elements to index
+     * @param index    the index to rebuild
+     * @param name     the function returning the name of an element
+     * @param <T>      the type of the indexed elements
+     */
+    private static <T> void reindex(List<T> elements, Map<String, T> index, Function<T, String> name) {
+        index.clear();
+        for (T element : elements) {
+            index.putIfAbsent(name.apply(element), element);
+        }
+    }
 }
@@ -0,0 +1,186 @@
+package com.xatkit.core.recognition.nluserver.mapper.dsl;
+
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static java.util.Objects.isNull;
+import static java.util.Objects.nonNull;
+
+/**
+ * An immutable view of a {@link BotData} at a given point in time.
+ * <p>
+ * {@link BotData} is the mutable builder the {@link NLUContext}s, {@link Intent}s and {@link EntityType}s are
+ * registered to. A snapshot of the builder is taken when the bot is trained, and published to the threads computing
+ * the predictions once the corresponding model is trained: these threads read the snapshot without locking, while
+ * new elements are registered to the builder.
+ * <p>
+ * The lists and indexes of the snapshot are copies that are never modified. The {@link NLUContext}s,
+ * {@link IntentReference}s, {@link Intent}s and {@link EntityParameter}s are copied as well, with their links resolved
+ * against the content of the snapshot: the provider can keep resolving the links of the {@link BotData} elements
+ * without affecting a published snapshot, and the lists of the copied elements are unmodifiable.
+ * <p>
+ * <b>Note</b>: the {@link EntityType}s (and the entries of the {@link CustomEntityType}s) are shared with the
+ * {@link BotData} they come from, and the copied elements still expose setters: they must not be modified once the
+ * snapshot has been published.
+ *
+ * @see BotData#snapshot()
+ */
+public final class BotSnapshot {
+
+    private final String botName;
+
+    private final List<NLUContext> nluContexts;
+
+    private final List<Intent> intents;
+
+    private final List<EntityType> entities;
+
+    private final Map<String, NLUContext> nluContextsByName;
+
+    private final Map<String, Intent> intentsByName;
+
+    private final Map<String, EntityType> entitiesByName;
+
+    /**
+     * Constructs a {@link BotSnapshot} containing copies of the provided lists and elements.
+     * <p>
+     * The {@link IntentReference}s are linked to the copied {@link Intent} with the same name, and the
+     * {@link EntityParameter}s that are not linked to a type yet are linked to the {@link EntityType} with the
+     * referenced name.
+     *
+     * @param botName     the name of the bot
+     * @param nluContexts the {@link NLUContext}s of the bot
+     * @param intents     the {@link Intent}s of the bot
+     * @param entities    the {@link EntityType}s of the bot
+     * @throws NullPointerException if one of the provided parameters is {@code null}
+     */
+    BotSnapshot(@NonNull String botName, @NonNull List<NLUContext> nluContexts, @NonNull List<Intent> intents,
+                @NonNull List<EntityType> entities) {
+        this.botName = botName;
+        this.entities = Collections.unmodifiableList(new ArrayList<>(entities));
+        this.entitiesByName = index(this.entities, EntityType::getName);
+        List<Intent> intentCopies = new ArrayList<>(intents.size());
+        for (Intent intent : intents) {
+            intentCopies.add(copyIntent(intent));
+        }
+        this.intents = Collections.unmodifiableList(intentCopies);
+        this.intentsByName = index(this.intents, Intent::getName);
+        List<NLUContext> nluContextCopies = new ArrayList<>(nluContexts.size());
+        for (NLUContext nluContext : nluContexts) {
+            nluContextCopies.add(copyNluContext(nluContext));
+        }
+        this.nluContexts = Collections.unmodifiableList(nluContextCopies);
+        this.nluContextsByName = index(this.nluContexts, NLUContext::getName);
+    }
+
+    public String getBotName() {
+        return botName;
+    }
+
+    public List<NLUContext> getNluContexts() {
+        return nluContexts;
+    }
+
+    public List<Intent> getIntents() {
+        return intents;
+    }
+
+    public List<EntityType> getEntities() {
+        return entities;
+    }
+
+    public boolean containsIntent(String name) {
+        return intentsByName.containsKey(name);
+    }
+
+    public boolean containsNLUContext(String name) {
+        return nluContextsByName.containsKey(name);
+    }
+
+    public Intent getIntent(String name) {
+        return intentsByName.get(name);
+    }
+
+    public NLUContext getNluContext(String name) {
+        return nluContextsByName.get(name);
+    }
+
+    public EntityType getEntityType(String name) {
+        return entitiesByName.get(name);
+    }
+
+    /**
+     * Copies the provided {@code intent} and its {@link EntityParameter}s.
+     *
+     * @param intent the {@link Intent} to copy
+     * @return the copied {@link Intent}
+     */
+    private Intent copyIntent(Intent intent) {
+        List<EntityParameter> parameters = new ArrayList<>(intent.getParameters().size());
+        for (EntityParameter parameter : intent.getParameters()) {
+            EntityType type = parameter.getType();
+            if (isNull(type)) {
+                type = entitiesByName.get(parameter.getTypeName());
+            }
+            parameters.add(isNull(type)
+                    ? new EntityParameter(parameter.getName(), parameter.getFragment(), parameter.getTypeName())
+                    : new EntityParameter(parameter.getName(), parameter.getFragment(), type));
+        }
+        Intent copy = new Intent(intent.getName());
+        copy.setTrainingSentences(Collections.unmodifiableList(new ArrayList<>(intent.getTrainingSentences())));
+        copy.setParameters(Collections.unmodifiableList(parameters));
+        return copy;
+    }
+
+    /**
+     * Copies the provided {@code nluContext} and its {@link IntentReference}s.
+     * <p>
+     * The copied references are linked to the copied {@link Intent} with the same name. A reference to an
+     * {@link Intent} that is not part of the snapshot is linked to a copy of its current target, if any.
+     *
+     * @param nluContext the {@link NLUContext} to copy
+     * @return the copied {@link NLUContext}
+     */
+    private NLUContext copyNluContext(NLUContext nluContext) {
+        List<IntentReference> references = new ArrayList<>(nluContext.getIntentReferences().size());
+        for (IntentReference reference : nluContext.getIntentReferences()) {
+            IntentReference copy = new IntentReference(reference.getName());
+            Intent intent = intentsByName.get(reference.getName());
+            if (isNull(intent) && nonNull(reference.getIntent())) {
+                intent = copyIntent(reference.getIntent());
+            }
+            copy.setIntent(intent);
+            references.add(copy);
+        }
+        NLUContext copy = new NLUContext(nluContext.getName());
+        copy.setIntentReferences(Collections.unmodifiableList(references));
+        return copy;
+    }
+
+    /**
+     * Indexes the provided {@code elements} by name.
+     * <p>
+     * If several elements share the same name the first one is indexed, consistently with {@link BotData}.
+     *
+     * @param elements the elements to index
+     * @param name     the function returning the name of an element
+     * @param <T>      the type of the indexed elements
+     * @return an unmodifiable index of the {@code elements}
+     */
+    private static <T> Map<String, T> index(List<T> elements, Function<T, String> name) {
+        if (elements.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, T> index = new HashMap<>((int) (elements.size() / 0.75f) + 1);
+        for (T element : elements) {
+            index.putIfAbsent(name.apply(element), element);
+        }
+        return Collections.unmodifiableMap(index);
+    }
+}
@@ -1,5 +1,8 @@
 package com.xatkit.core.recognition.nluserver.mapper.dsl;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class MatchedParam {
@@ -40,4 +43,31 @@ public class MatchedParam {
     public void setInfo(Map<String, Object> info) {
         this.info = info;
     }
+
+    /**
+     * Returns a deep copy of this {@link MatchedParam}.
+     * <p>
+     * The maps and lists contained in the info of the parameter are copied, modifying the returned
+     * {@link MatchedParam} does not modify this one.
+     *
+     * @return the copy
+     */
+    @SuppressWarnings("unchecked")
+    public MatchedParam copy() {
+        return new MatchedParam(paramName, value, info == null ? null : (Map<String, Object>) copyValue(info));
+    }
+
+    private static Object copyValue(Object value) {
+        if (value instanceof Map) {
+            Map<String, Object> copy = new HashMap<>();
+            ((Map<?, ?>) value).forEach((k, v) -> copy.put((String) k, copyValue(v)));
+            return copy;
+        }
+        if (value instanceof List) {
+            List<Object> copy = new ArrayList<>();
+            ((List<?>) value).forEach(v -> copy.add(copyValue(v)));
+            return copy;
+        }
+        return value;
+    }
 }
@@ -1,35 +1,408 @@
 package com.xatkit.core.recognition.nluserver.mapper.dsl;
 
+import javax.annotation.Nullable;
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+import static fr.inria.atlanmod.commons.Preconditions.checkArgument;
+import static fr.inria.atlanmod.commons.Preconditions.checkState;
+
+/**
+ * The classifications returned by the NLU server for a given input.
+ * <p>
+ * The classifications are stored in parallel arrays indexed by the position of the classification in the
+ * prediction: the intent ids and scores are primitive arrays, and the index of the top classification is maintained
+ * incrementally. Ranking the classifications does not allocate nor unbox anything, and
+ * {@link #getTopClassification()} runs in constant time.
+ * <p>
+ * {@link Classification} instances are only views of these arrays: they are created when they are requested (see
+ * {@link #getClassification(int)}), and modifying them does not modify the prediction. The {@link MatchedParam}s
+ * are copied in the same way when they are retrieved.
+ * <p>
+ * A prediction shared between several consumers (e.g. a cached prediction) is made read-only with
+ * {@link #setReadOnly()}: classifications cannot be added to it anymore.
+ */
 public class Prediction {
-    private List<Classification> classifications;
+
+    /**
+     * The id returned by {@link #getIntentId(int)} for classifications that have not been read with an intent table.
+     */
+    public static final int UNKNOWN_INTENT_ID = -1;
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    /**
+     * The number of classifications in the prediction.
+     */
+    private int size;
+
+    /**
+     * The ids of the intents of the classifications in the intent table used to read them, or
+     * {@link #UNKNOWN_INTENT_ID}.
+     */
+    private int[] intentIds;
+
+    /**
+     * The scores of the classifications.
+     */
+    private float[] scores;
+
+    /**
+     * The {@link Intent}s of the classifications.
+     */
+    private Intent[] intents;
+
+    /**
+     * The matched utterances of the classifications.
+     */
+    private String[] matchedUtterances;
+
+    /**
+     * The matched parameters of the classifications, allocated when the first classification with matched
+     * parameters is added.
+     */
+    private List<MatchedParam>[] matchedParams;
+
+    /**
+     * The index of the classification with the highest score, or {@code -1} if the prediction is empty.
+     */
+    private int topIndex = -1;
+
+    /**
+     * Whether classifications can be added to the prediction.
+     */
+    private volatile boolean readOnly;
 
     public Prediction() {
-        this.classifications = new ArrayList<>();
+        this.intentIds = new int[INITIAL_CAPACITY];
+        this.scores = new float[INITIAL_CAPACITY];
+        this.intents = new Intent[INITIAL_CAPACITY];
+        this.matchedUtterances = new String[INITIAL_CAPACITY];
     }
 
+    /**
+     * Returns the {@link Classification} with the highest score.
+     * <p>
+     * If several classifications have the highest score the first one is returned.
+     *
+     * @return a view of the top {@link Classification}
+     * @throws IndexOutOfBoundsException if the prediction is empty
+     */
     public Classification getTopClassification() {
-        Classification current = classifications.get(0);
-        for (Classification c: classifications) {
-            if (c.getScore() > current.getScore()) {
-                current = c;
+        return getClassification(topIndex == -1 ? 0 : topIndex);
+    }
+
+    /**
+     * Returns the index of the classification with the highest score.
+     *
+     * @return the index of the top classification
+     * @throws IndexOutOfBoundsException if the prediction is empty
+     */
+    public int getTopIndex() {
+        checkIndex(topIndex);
+        return topIndex;
+    }
+
+    /**
+     * Returns the highest score of the prediction.
+     *
+     * @return the highest score
+     * @throws IndexOutOfBoundsException if the prediction is empty
+     */
+    public float getTopScore() {
+        return getScore(topIndex == -1 ? 0 : topIndex);
+    }
+
+    /**
+     * Returns the score of the classification at the provided {@code index}.
+     *
+     * @param index the index of the classification
+     * @return the score of the classification
+     * @throws IndexOutOfBoundsException if the provided {@code index} is not a valid classification index
+     */
+    public float getScore(int index) {
+        checkIndex(index);
+        return scores[index];
+    }
+
+    /**
+     * Returns the id of the intent of the classification at the provided {@code index}.
+     *
+     * @param index the index of the classification
+     * @return the id of the intent in the intent table used to read the classification, or
+     * {@link #UNKNOWN_INTENT_ID} if the classification has not been read with an intent table
+     * @throws IndexOutOfBoundsException if the provided {@code index} is not a valid classification index
+     */
+    public int getIntentId(int index) {
+        checkIndex(index);
+        return intentIds[index];
+    }
+
+    /**
+     * Returns the {@link Intent} of the classification at the provided {@code index}.
+     *
+     * @param index the index of the classification
+     * @return the {@link Intent} of the classification, or {@code null} if the intent is unknown
+     * @throws IndexOutOfBoundsException if the provided {@code index} is not a valid classification index
+     */
+    @Nullable
+    public Intent getIntent(int index) {
+        checkIndex(index);
+        return intents[index];
+    }
+
+    /**
+     * Returns the matched utterance of the classification at the provided {@code index}.
+     *
+     * @param index the index of the classification
+     * @return the matched utterance of the classification, or {@code null} if it is not set
+     * @throws IndexOutOfBoundsException if the provided {@code index} is not a valid classification index
+     */
+    @Nullable
+    public String getMatchedUtterance(int index) {
+        checkIndex(index);
+        return matchedUtterances[index];
+    }
+
+    /**
+     * Returns the matched parameters of the classification at the provided {@code index}.
+     *
+     * @param index the index of the classification
+     * @return a list containing copies of the {@link MatchedParam}s of the classification
+     * @throws IndexOutOfBoundsException if the provided {@code index} is not a valid classification index
+     * @see MatchedParam#copy()
+     */
+    public List<MatchedParam> getMatchedParams(int index) {
+        checkIndex(index);
+        if (matchedParams == null || matchedParams[index] == null) {
+            return new ArrayList<>();
+        }
+        List<MatchedParam> params = matchedParams[index];
+        List<MatchedParam> copies = new ArrayList<>(params.size());
+        for (MatchedParam param : params) {
+            copies.add(param.copy());
+        }
+        return copies;
+    }
+
+    /**
+     * Returns a view of the classification at the provided {@code index}.
+     * <p>
+     * A new {@link Classification} is created each time this method is called.
+     *
+     * @param index the index of the classification
+     * @return a view of the {@link Classification}
+     * @throws IndexOutOfBoundsException if the provided {@code index} is not a valid classification index
+     */
+    public Classification getClassification(int index) {
+        checkIndex(index);
+        Classification classification = new Classification();
+        classification.setIntent(intents[index]);
+        classification.setScore(scores[index]);
+        classification.setMatchedUtterance(matchedUtterances[index]);
+        classification.setMatchedParams(getMatchedParams(index));
+        return classification;
+    }
+
+    /**
+     * Returns the classifications of the prediction.
+     * <p>
+     * The {@link Classification} views are created when they are accessed, see {@link #getClassification(int)}.
+     * <p>
+     * <b>Note</b>: the returned list is read-only, use {@link #addClassification(Classification)} to add a
+     * classification to the prediction.
+     *
+     * @return an unmodifiable list containing the {@link Classification}s, in the order they have been added
+     * @see #addClassification(Classification)
+     */
+    public List<Classification> getClassifications() {
+        return new AbstractList<Classification>() {
+            @Override
+            public Classification get(int index) {
+                return getClassification(index);
+            }
+
+            @Override
+            public int size() {
+                return Prediction.this.size;
+            }
+        };
+    }
+
+    /**
+     * Returns the {@code k} classifications with the highest scores.
+     *
+     * @param k the maximum number of classifications to return
+     * @return the top {@code k} {@link Classification}s, sorted by decreasing score
+     * @throws IllegalArgumentException if the provided {@code k} is negative
+     */
+    public List<Classification> getTopClassifications(int k) {
+        checkArgument(k >= 0, "Cannot retrieve the top %s classifications, expected a positive value", k);
+        int[] ranking = rank(Float.NEGATIVE_INFINITY, k);
+        List<Classification> result = new ArrayList<>(ranking.length);
+        for (int index : ranking) {
+            result.add(getClassification(index));
+        }
+        return result;
+    }
+
+    /**
+     * Returns a new prediction containing the {@code k} classifications with the highest scores.
+     * <p>
+     * The classifications are copied from the arrays of this prediction, no {@link Classification} view is created.
+     *
+     * @param k the maximum number of classifications to keep
+     * @return a new {@link Prediction} containing the top {@code k} classifications, sorted by decreasing score
+     * @throws IllegalArgumentException if the provided {@code k} is negative
+     */
+    public Prediction top(int k) {
+        checkArgument(k >= 0, "Cannot retrieve the top %s classifications, expected a positive value", k);
+        Prediction result = new Prediction();
+        for (int index : rank(Float.NEGATIVE_INFINITY, k)) {
+            result.addClassification(intentIds[index], intents[index], scores[index], matchedUtterances[index],
+                    matchedParams == null ? null : matchedParams[index]);
+        }
+        return result;
+    }
+
+    /**
+     * Ranks the classifications whose score is strictly greater than {@code minScore}.
+     *
+     * @param minScore the score the ranked classifications must exceed
+     * @return the indexes of the ranked classifications, sorted by decreasing score
+     */
+    public int[] rank(float minScore) {
+        return rank(minScore, size);
+    }
+
+    /**
+     * Selects the (at most) {@code k} classifications with the highest scores strictly greater than
+     * {@code minScore}.
+     * <p>
+     * The selection is an insertion sort bounded to {@code k} elements, predictions only contain a few relevant
+     * classifications.
+     *
+     * @param minScore the score the ranked classifications must exceed
+     * @param k        the maximum number of classifications to rank
+     * @return the indexes of the ranked classifications, sorted by decreasing score
+     */
+    private int[] rank(float minScore, int k) {
+        int capacity = Math.min(k, size);
+        int[] ranking = new int[capacity];
+        int rankedSize = 0;
+        for (int i = 0; i < size && capacity > 0; i++) {
+            float score = scores[i];
+            if (score <= minScore || (rankedSize == capacity && score <= scores[ranking[rankedSize - 1]])) {
+                continue;
+            }
+            int position = rankedSize < capacity ? rankedSize++ : capacity - 1;
+            while (position > 0 && scores[ranking[position - 1]] < score) {
+                ranking[position] = ranking[position - 1];
+                position--;
             }
+            ranking[position] = i;
         }
-        return current;
+        return rankedSize == ranking.length ? ranking : Arrays.copyOf(ranking, rankedSize);
     }
 
-    public List<Classification> getClassifications(){
-        return classifications;
+    public int size() {
+        return size;
     }
 
     public boolean isEmpty() {
-        return classifications.isEmpty();
+        return size == 0;
     }
 
+    /**
+     * Makes the prediction read-only.
+     * <p>
+     * Classifications cannot be added to a read-only prediction, and its content cannot be modified through the
+     * objects it returns: it can be safely shared between several consumers.
+     */
+    public void setReadOnly() {
+        this.readOnly = true;
+    }
+
+    /**
+     * Returns whether the prediction is read-only.
+     *
+     * @return {@code true} if the prediction is read-only, {@code false} otherwise
+     * @see #setReadOnly()
+     */
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Adds the provided {@code c} to the prediction.
+     * <p>
+     * The content of {@code c} is copied in the prediction, modifying it afterwards does not modify the
+     * prediction. A {@code null} score is considered as {@code 0}.
+     *
+     * @param c the {@link Classification} to add
+     * @throws IllegalStateException if the prediction is read-only
+     */
     public void addClassification(Classification c) {
-        classifications.add(c);
+        List<MatchedParam> params = null;
+        if (c.getMatchedParams() != null) {
+            params = new ArrayList<>(c.getMatchedParams().size());
+            for (MatchedParam param : c.getMatchedParams()) {
+                params.add(param.copy());
+            }
+        }
+        addClassification(UNKNOWN_INTENT_ID, c.getIntent(), c.getScore() == null ? 0 : c.getScore(),
+                c.getMatchedUtterance(), params);
     }
 
+    /**
+     * Adds a classification with the provided values to the prediction.
+     * <p>
+     * The provided {@code params} list and its {@link MatchedParam}s are stored as is, and must not be modified
+     * afterwards.
+     *
+     * @param intentId         the id of the intent in the intent table used to read the classification, or
+     *                         {@link #UNKNOWN_INTENT_ID}
+     * @param intent           the {@link Intent} of the classification
+     * @param score            the score of the classification
+     * @param matchedUtterance the matched utterance of the classification
+     * @param params           the matched parameters of the classification
+     * @throws IllegalStateException if the prediction is read-only
+     */
+    @SuppressWarnings("unchecked")
+    public void addClassification(int intentId, @Nullable Intent intent, float score,
+                                  @Nullable String matchedUtterance, @Nullable List<MatchedParam> params) {
+        checkState(!readOnly, "Cannot add a classification to a read-only prediction");
+        if (size == scores.length) {
+            int capacity = size * 2;
+            intentIds = Arrays.copyOf(intentIds, capacity);
+            scores = Arrays.copyOf(scores, capacity);
+            intents = Arrays.copyOf(intents, capacity);
+            matchedUtterances = Arrays.copyOf(matchedUtterances, capacity);
+            if (matchedParams != null) {
+                matchedParams = Arrays.copyOf(matchedParams, capacity);
+            }
+        }
+        intentIds[size] = intentId;
+        scores[size] = score;
+        intents[size] = intent;
+        matchedUtterances[size] = matchedUtterance;
+        if (params != null && !params.isEmpty()) {
+            if (matchedParams == null) {
+                matchedParams = new List[scores.length];
+            }
+            matchedParams[size] = params;
+        }
+        if (topIndex == -1 || score > scores[topIndex]) {
+            topIndex = size;
+        }
+        size++;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
 }
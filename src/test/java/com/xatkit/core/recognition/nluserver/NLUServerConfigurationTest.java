@@ -1,5 +1,8 @@
 package com.xatkit.core.recognition.nluserver;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.commons.configuration2.BaseConfiguration;
 import org.apache.commons.configuration2.Configuration;
 import org.junit.Before;
@@ -102,5 +105,174 @@ public class NLUServerConfigurationTest {
         assertThat(configuration.isForceOverwrite()).isFalse();
     }
 
+    @Test
+    public void constructWithHttpPoolOptions() {
+        baseConfiguration.addProperty(NLUServerConfiguration.HTTP_MAX_CONNECTIONS, 50);
+        baseConfiguration.addProperty(NLUServerConfiguration.HTTP_MAX_CONNECTIONS_PER_ROUTE, 10);
+        baseConfiguration.addProperty(NLUServerConfiguration.HTTP_CONNECT_TIMEOUT, 500);
+        baseConfiguration.addProperty(NLUServerConfiguration.HTTP_SOCKET_TIMEOUT, 2000);
+        baseConfiguration.addProperty(NLUServerConfiguration.HTTP_CONNECTION_TTL, 30000L);
+        configuration = new NLUServerConfiguration(baseConfiguration);
+        assertThat(configuration.getHttpMaxConnections()).isEqualTo(50);
+        assertThat(configuration.getHttpMaxConnectionsPerRoute()).isEqualTo(10);
+        assertThat(configuration.getHttpConnectTimeout()).isEqualTo(500);
+        assertThat(configuration.getHttpSocketTimeout()).isEqualTo(2000);
+        assertThat(configuration.getHttpConnectionTtl()).isEqualTo(30000L);
+    }
+
+    @Test
+    public void constructWithoutHttpPoolOptions() {
+        configuration = new NLUServerConfiguration(baseConfiguration);
+        assertThat(configuration.getHttpMaxConnections()).isEqualTo(200);
+        assertThat(configuration.getHttpMaxConnectionsPerRoute()).isEqualTo(20);
+        assertThat(configuration.getHttpConnectTimeout()).isEqualTo(10000);
+        assertThat(configuration.getHttpSocketTimeout()).isEqualTo(60000);
+        assertThat(configuration.getHttpConnectionTtl()).isEqualTo(-1L);
+    }
+
+    @Test
+    public void constructWithSeveralUrls() {
+        baseConfiguration.setProperty(NLUServerConfiguration.URL, "http://replica1:8000, http://replica2:8000");
+        configuration = new NLUServerConfiguration(baseConfiguration);
+        assertThat(configuration.getUrls()).containsExactly("http://replica1:8000", "http://replica2:8000");
+        assertThat(configuration.getUrl()).isEqualTo("http://replica1:8000");
+    }
+
+    @Test
+    public void constructWithoutEndpointOptions() {
+        configuration = new NLUServerConfiguration(baseConfiguration);
+        assertThat(configuration.getUrls()).containsExactly(BOT_URL);
+        assertThat(configuration.getEndpointMaxFailures()).isEqualTo(3);
+        assertThat(configuration.getEndpointEjectionTime()).isEqualTo(10000L);
+    }
+
+    @Test
+    public void constructWithHedgeOptions() {
+        baseConfiguration.addProperty(NLUServerConfiguration.HEDGE_ENABLED, true);
+        baseConfiguration.addProperty(NLUServerConfiguration.HEDGE_PERCENTILE, 99.0);
+        baseConfiguration.addProperty(NLUServerConfiguration.HEDGE_MAX_RATIO, 0.05);
+        baseConfiguration.addProperty(NLUServerConfiguration.HEDGE_MIN_DELAY, 50L);
+        configuration = new NLUServerConfiguration(baseConfiguration);
+        assertThat(configuration.isHedgeEnabled()).isTrue();
+        assertThat(configuration.getHedgePercentile()).isEqualTo(99.0);
+        assertThat(configuration.getHedgeMaxRatio()).isEqualTo(0.05);
+        assertThat(configuration.getHedgeMinDelay()).isEqualTo(50L);
+    }
+
+    @Test
+    public void constructWithoutPredictCoalesce() {
+        configuration = new NLUServerConfiguration(baseConfiguration);
+        assertThat(configuration.isPredictCoalesce()).isFalse();
+    }
+
+    @Test
+    public void constructWithPredictCoalesce() {
+        baseConfiguration.addProperty(NLUServerConfiguration.PREDICT_COALESCE, true);
+        configuration = new NLUServerConfiguration(baseConfiguration);
+        assertThat(configuration.isPredictCoalesce()).isTrue();
+    }
+
+    @Test
+    public void constructWithCacheOptions() {
+        baseConfiguration.addProperty(NLUServerConfiguration.CACHE_ENABLED, true);
+        baseConfiguration.addProperty(NLUServerConfiguration.CACHE_MAX_SIZE, 500L);
+        baseConfiguration.addProperty(NLUServerConfiguration.CACHE_TTL, 60000L);
+        configuration = new NLUServerConfiguration(baseConfiguration);
+        assertThat(configuration.isCacheEnabled()).isTrue();
+        assertThat(configuration.getCacheMaxSize()).isEqualTo(500L);
+        assertThat(configuration.getCacheTtl()).isEqualTo(60000L);
+    }
+
+    @Test
+    public void constructWithDeploySkipUnchanged() {
+        baseConfiguration.addProperty(NLUServerConfiguration.DEPLOY_SKIP_UNCHANGED, true);
+        baseConfiguration.addProperty(NLUServerConfiguration.DEPLOY_FINGERPRINT_DIRECTORY, "fingerprints");
+        configuration = new NLUServerConfiguration(baseConfiguration);
+        assertThat(configuration.isDeploySkipUnchanged()).isTrue();
+        assertThat(configuration.getDeployFingerprintDirectory()).isEqualTo("fingerprints");
+    }
+
+    @Test
+    public void constructWithTrainAsync() {
+        baseConfiguration.addProperty(NLUServerConfiguration.TRAIN_ASYNC, true);
+        configuration = new NLUServerConfiguration(baseConfiguration);
+        assertThat(configuration.isTrainAsync()).isTrue();
+    }
 
+    @Test
+    public void constructWithPredictTopK() {
+        baseConfiguration.addProperty(NLUServerConfiguration.PREDICT_TOP_K, 3);
+        configuration = new NLUServerConfiguration(baseConfiguration);
+        assertThat(configuration.getPredictTopK()).isEqualTo(3);
+    }
+
+    @Test
+    public void constructWithMetrics() {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        baseConfiguration.addProperty(NLUServerConfiguration.METRICS_ENABLED, true);
+        baseConfiguration.addProperty(NLUServerConfiguration.METRICS_REGISTRY, registry);
+        configuration = new NLUServerConfiguration(baseConfiguration);
+        assertThat(configuration.isMetricsEnabled()).isTrue();
+        assertThat(configuration.getMetricsRegistry()).isSameAs(registry);
+    }
+
+    @Test
+    public void constructWithDefaultMetricsRegistry() {
+        configuration = new NLUServerConfiguration(baseConfiguration);
+        assertThat(configuration.isMetricsEnabled()).isFalse();
+        assertThat(configuration.getMetricsRegistry()).isSameAs(Metrics.globalRegistry);
+    }
+
+    @Test
+    public void constructWithoutLocalExactMatch() {
+        configuration = new NLUServerConfiguration(baseConfiguration);
+        assertThat(configuration.isLocalExactMatch()).isFalse();
+    }
+
+    @Test
+    public void constructWithLocalExactMatch() {
+        baseConfiguration.addProperty(NLUServerConfiguration.LOCAL_EXACT_MATCH, true);
+        configuration = new NLUServerConfiguration(baseConfiguration);
+        assertThat(configuration.isLocalExactMatch()).isTrue();
+    }
+
+    @Test
+    public void constructWithTimingsAttached() {
+        baseConfiguration.addProperty(NLUServerConfiguration.TIMINGS_ATTACHED, true);
+        configuration = new NLUServerConfiguration(baseConfiguration);
+        assertThat(configuration.isTimingsAttached()).isTrue();
+    }
+
+    @Test
+    public void constructWithPredictDeadline() {
+        baseConfiguration.addProperty(NLUServerConfiguration.PREDICT_DEADLINE, 250);
+        configuration = new NLUServerConfiguration(baseConfiguration);
+        assertThat(configuration.getPredictDeadline()).isEqualTo(250);
+    }
+
+    @Test
+    public void constructWithAsyncMonitor() {
+        baseConfiguration.addProperty(NLUServerConfiguration.MONITOR_ASYNC, true);
+        baseConfiguration.addProperty(NLUServerConfiguration.MONITOR_QUEUE_SIZE, 100);
+        baseConfiguration.addProperty(NLUServerConfiguration.MONITOR_FLUSH_INTERVAL, 50);
+        baseConfiguration.addProperty(NLUServerConfiguration.MONITOR_OVERFLOW, "Sample");
+        configuration = new NLUServerConfiguration(baseConfiguration);
+        assertThat(configuration.isMonitorAsync()).isTrue();
+        assertThat(configuration.getMonitorQueueSize()).isEqualTo(100);
+        assertThat(configuration.getMonitorFlushInterval()).isEqualTo(50);
+        assertThat(configuration.getMonitorOverflow()).isEqualTo(NLUServerMonitorDispatcher.OverflowPolicy.SAMPLE);
+    }
+
+    @Test
+    public void constructWithDefaultMonitorOverflow() {
+        configuration = new NLUServerConfiguration(baseConfiguration);
+        assertThat(configuration.isMonitorAsync()).isFalse();
+        assertThat(configuration.getMonitorOverflow()).isEqualTo(NLUServerMonitorDispatcher.OverflowPolicy.DROP);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructWithInvalidMonitorOverflow() {
+        baseConfiguration.addProperty(NLUServerConfiguration.MONITOR_OVERFLOW, "block");
+        new NLUServerConfiguration(baseConfiguration);
+    }
 }
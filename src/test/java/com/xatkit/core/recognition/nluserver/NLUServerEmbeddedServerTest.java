@@ -0,0 +1,283 @@
+package com.xatkit.core.recognition.nluserver;
+
+import com.xatkit.core.recognition.IntentRecognitionProviderException;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.BotData;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Intent;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.NLUContext;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Prediction;
+import com.xatkit.core.recognition.nluserver.utils.EmbeddedNLUServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.configuration2.BaseConfiguration;
+import org.apache.commons.configuration2.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static java.util.Objects.nonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs the {@link NLUServerClientAPIWrapper} against an {@link EmbeddedNLUServer}.
+ */
+public class NLUServerEmbeddedServerTest {
+
+    private EmbeddedNLUServer server;
+
+    private Configuration configuration;
+
+    private BotData botData;
+
+    private NLUServerClientAPIWrapper nluServerClientWrapper;
+
+    @Before
+    public void setUp() {
+        server = new EmbeddedNLUServer();
+        server.start();
+        configuration = new BaseConfiguration();
+        configuration.addProperty(NLUServerConfiguration.BOT_NAME, "EmbeddedBot");
+        configuration.addProperty(NLUServerConfiguration.URL, server.getUrl());
+        configuration.addProperty(NLUServerConfiguration.FORCE_OVERWRITE, true);
+        botData = new BotData("EmbeddedBot");
+    }
+
+    @After
+    public void tearDown() {
+        if (nonNull(nluServerClientWrapper)) {
+            nluServerClientWrapper.shutdown();
+        }
+        server.stop();
+    }
+
+    @Test
+    public void deployAndTrainEmptyBot() throws IntentRecognitionProviderException {
+        nluServerClientWrapper = new NLUServerClientAPIWrapper(new NLUServerConfiguration(configuration), botData);
+        assertThat(nluServerClientWrapper.deployAndTrainBot()).isFalse();
+        assertThat(botData.getUUID()).isNotNull();
+    }
+
+    @Test
+    public void deployAndTrainSimpleBot() throws IntentRecognitionProviderException {
+        initializeSimpleBotData(botData);
+        nluServerClientWrapper = new NLUServerClientAPIWrapper(new NLUServerConfiguration(configuration), botData);
+        assertThat(nluServerClientWrapper.deployAndTrainBot()).isTrue();
+        assertThat(server.isTrained(nluServerClientWrapper.getActiveDeploymentName())).isTrue();
+    }
+
+    @Test
+    public void deployAndTrainCompressedBot() throws IntentRecognitionProviderException {
+        configuration.addProperty(NLUServerConfiguration.DEPLOY_COMPRESSION, true);
+        initializeSimpleBotData(botData);
+        nluServerClientWrapper = new NLUServerClientAPIWrapper(new NLUServerConfiguration(configuration), botData);
+        assertThat(nluServerClientWrapper.deployAndTrainBot()).isTrue();
+        assertThat(nluServerClientWrapper.predict(botData.getNluContext("context2"), "Yes")
+                .getTopClassification().getIntent().getName()).isEqualTo("intent1Context2");
+    }
+
+    @Test
+    public void predictExistingContext() throws IntentRecognitionProviderException {
+        initializeSimpleBotData(botData);
+        nluServerClientWrapper = new NLUServerClientAPIWrapper(new NLUServerConfiguration(configuration), botData);
+        nluServerClientWrapper.deployAndTrainBot();
+        Prediction prediction = nluServerClientWrapper.predict(botData.getNluContext("context1"), "he loves your dog");
+        assertThat(prediction).isNotNull();
+        assertThat(prediction.getClassifications()).hasSize(2);
+        assertThat(prediction.getTopClassification().getIntent().getName()).isEqualTo("intent1Ccontext1");
+        assertThat(prediction.getTopClassification().getIntent())
+                .isSameAs(nluServerClientWrapper.getActiveBot().getIntent("intent1Ccontext1"));
+    }
+
+    @Test
+    public void predictAsyncExistingContext() throws IntentRecognitionProviderException {
+        initializeSimpleBotData(botData);
+        nluServerClientWrapper = new NLUServerClientAPIWrapper(new NLUServerConfiguration(configuration), botData);
+        nluServerClientWrapper.deployAndTrainBot();
+        Prediction prediction = nluServerClientWrapper.predictAsync(botData.getNluContext("context1"), "Hi").join();
+        assertThat(prediction).isNotNull();
+        assertThat(prediction.getTopClassification().getIntent().getName()).isEqualTo("intent2Ccontext1");
+        assertThat(prediction.getTopScore()).isEqualTo(1f);
+    }
+
+    @Test
+    public void predictTopK() throws IntentRecognitionProviderException {
+        configuration.addProperty(NLUServerConfiguration.PREDICT_TOP_K, 1);
+        initializeSimpleBotData(botData);
+        nluServerClientWrapper = new NLUServerClientAPIWrapper(new NLUServerConfiguration(configuration), botData);
+        nluServerClientWrapper.deployAndTrainBot();
+        Prediction prediction = nluServerClientWrapper.predict(botData.getNluContext("context1"), "I love your cat");
+        assertThat(prediction.getClassifications()).hasSize(1);
+    }
+
+    @Test
+    public void predictServerError() throws IntentRecognitionProviderException {
+        initializeSimpleBotData(botData);
+        nluServerClientWrapper = new NLUServerClientAPIWrapper(new NLUServerConfiguration(configuration), botData);
+        nluServerClientWrapper.deployAndTrainBot();
+        server.setErrorRate(1);
+        assertThat(nluServerClientWrapper.predict(botData.getNluContext("context1"), "Hi")).isNull();
+        assertThat(server.getPredictionRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void predictWithLatency() throws IntentRecognitionProviderException {
+        initializeSimpleBotData(botData);
+        nluServerClientWrapper = new NLUServerClientAPIWrapper(new NLUServerConfiguration(configuration), botData);
+        nluServerClientWrapper.deployAndTrainBot();
+        server.setLatency(50);
+        long start = System.nanoTime();
+        assertThat(nluServerClientWrapper.predict(botData.getNluContext("context1"), "Hi")).isNotNull();
+        assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(50_000_000L);
+    }
+
+    @Test
+    public void predictWithMetrics() throws IntentRecognitionProviderException {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        configuration.addProperty(NLUServerConfiguration.METRICS_ENABLED, true);
+        configuration.addProperty(NLUServerConfiguration.METRICS_REGISTRY, registry);
+        initializeSimpleBotData(botData);
+        nluServerClientWrapper = new NLUServerClientAPIWrapper(new NLUServerConfiguration(configuration), botData);
+        nluServerClientWrapper.deployAndTrainBot();
+        nluServerClientWrapper.predict(botData.getNluContext("context1"), "Hi");
+        server.setErrorRate(1);
+        nluServerClientWrapper.predict(botData.getNluContext("context1"), "Hi");
+        assertThat(registry.get(NLUServerMetrics.DEPLOY).timer().count()).isEqualTo(1);
+        assertThat(registry.get(NLUServerMetrics.TRAIN).timer().count()).isEqualTo(1);
+        assertThat(registry.get(NLUServerMetrics.PAYLOAD).tag("operation", "deploy").summary().count()).isEqualTo(1);
+        assertThat(registry.get(NLUServerMetrics.PAYLOAD).tag("operation", "predict").summary().count()).isEqualTo(1);
+        assertThat(registry.get(NLUServerMetrics.ERRORS).tag("status", "500").counter().count()).isEqualTo(1);
+        assertThat(registry.get(NLUServerMetrics.IN_FLIGHT).gauge().value()).isEqualTo(0);
+    }
+
+    @Test
+    public void predictWithTimings() throws IntentRecognitionProviderException {
+        initializeSimpleBotData(botData);
+        nluServerClientWrapper = new NLUServerClientAPIWrapper(new NLUServerConfiguration(configuration), botData);
+        nluServerClientWrapper.deployAndTrainBot();
+        server.setLatency(20);
+        NLUServerRecognitionTimings timings = new NLUServerRecognitionTimings();
+        assertThat(nluServerClientWrapper.predict(botData.getNluContext("context1"), "Hi", timings)).isNotNull();
+        assertThat(timings.getDuration(NLUServerRecognitionTimings.Phase.REQUEST)).isGreaterThanOrEqualTo(20_000_000L);
+        assertThat(timings.getDuration(NLUServerRecognitionTimings.Phase.READ)).isNotNegative();
+        NLUServerRecognitionTimings asyncTimings = new NLUServerRecognitionTimings();
+        nluServerClientWrapper.predictAsync(botData.getNluContext("context1"), "Hi", asyncTimings).join();
+        assertThat(asyncTimings.getDuration(NLUServerRecognitionTimings.Phase.REQUEST))
+                .isGreaterThanOrEqualTo(20_000_000L);
+    }
+
+    @Test
+    public void predictCoalesced() throws Exception {
+        configuration.addProperty(NLUServerConfiguration.PREDICT_COALESCE, true);
+        initializeSimpleBotData(botData);
+        nluServerClientWrapper = new NLUServerClientAPIWrapper(new NLUServerConfiguration(configuration), botData);
+        nluServerClientWrapper.deployAndTrainBot();
+        server.setLatency(300);
+        int callers = 8;
+        CountDownLatch startLatch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try {
+            List<Future<Prediction>> predictions = new ArrayList<>();
+            for (int i = 0; i < callers; i++) {
+                predictions.add(executor.submit(() -> {
+                    startLatch.await();
+                    return nluServerClientWrapper.predict(botData.getNluContext("context1"), "Hi");
+                }));
+            }
+            startLatch.countDown();
+            for (Future<Prediction> prediction : predictions) {
+                assertThat(prediction.get().getTopClassification().getIntent().getName())
+                        .isEqualTo("intent2Ccontext1");
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(server.getPredictionRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void predictCoalescedServerError() throws IntentRecognitionProviderException {
+        configuration.addProperty(NLUServerConfiguration.PREDICT_COALESCE, true);
+        initializeSimpleBotData(botData);
+        nluServerClientWrapper = new NLUServerClientAPIWrapper(new NLUServerConfiguration(configuration), botData);
+        nluServerClientWrapper.deployAndTrainBot();
+        server.setLatency(100);
+        server.setErrorRate(1);
+        List<CompletableFuture<Prediction>> predictions = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            predictions.add(nluServerClientWrapper.predictAsync(botData.getNluContext("context1"), "Hi"));
+        }
+        for (CompletableFuture<Prediction> prediction : predictions) {
+            assertThat(prediction.join()).isNull();
+        }
+        assertThat(server.getPredictionRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void predictCoalescedUnreachableServer() throws IntentRecognitionProviderException {
+        configuration.addProperty(NLUServerConfiguration.PREDICT_COALESCE, true);
+        initializeSimpleBotData(botData);
+        nluServerClientWrapper = new NLUServerClientAPIWrapper(new NLUServerConfiguration(configuration), botData);
+        nluServerClientWrapper.deployAndTrainBot();
+        server.stop();
+        List<CompletableFuture<Prediction>> predictions = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            predictions.add(nluServerClientWrapper.predictAsync(botData.getNluContext("context1"), "Hi"));
+        }
+        for (CompletableFuture<Prediction> prediction : predictions) {
+            assertThatThrownBy(prediction::join).isInstanceOf(CompletionException.class);
+        }
+    }
+
+    @Test
+    public void predictBatchedUnsupportedBatchEndpoint() throws IntentRecognitionProviderException {
+        configuration.addProperty(NLUServerConfiguration.BATCH_ENABLED, true);
+        initializeSimpleBotData(botData);
+        nluServerClientWrapper = new NLUServerClientAPIWrapper(new NLUServerConfiguration(configuration), botData);
+        nluServerClientWrapper.deployAndTrainBot();
+        server.setBatchEnabled(false);
+        List<CompletableFuture<Prediction>> predictions = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            predictions.add(nluServerClientWrapper.predictAsync(botData.getNluContext("context1"), "Hi"));
+        }
+        for (CompletableFuture<Prediction> prediction : predictions) {
+            assertThat(prediction.join().getTopClassification().getIntent().getName()).isEqualTo("intent2Ccontext1");
+        }
+        assertThat(server.getPredictionRequestCount()).isEqualTo(4);
+        Prediction prediction = nluServerClientWrapper.predict(botData.getNluContext("context1"), "Hi");
+        assertThat(prediction.getTopClassification().getIntent().getName()).isEqualTo("intent2Ccontext1");
+        assertThat(server.getPredictionRequestCount()).isEqualTo(5);
+    }
+
+    private void initializeSimpleBotData(BotData bot) {
+        NLUContext context1 = new NLUContext("context1");
+        NLUContext context2 = new NLUContext("context2");
+        Intent i1 = new Intent("intent1Ccontext1");
+        i1.addTrainingSentence("I love your dog");
+        i1.addTrainingSentence("I love your cat");
+        i1.addTrainingSentence("You really love my dog");
+        Intent i2 = new Intent("intent2Ccontext1");
+        i2.addTrainingSentence("Hello");
+        i2.addTrainingSentence("Hi");
+        context1.addIntentReference(i1);
+        context1.addIntentReference(i2);
+        Intent i3 = new Intent("intent1Context2");
+        i3.addTrainingSentence("Yes");
+        i3.addTrainingSentence("Absolutely");
+        i3.addTrainingSentence("Yes!");
+        context2.addIntentReference(i3);
+        bot.addNLUContext(context1);
+        bot.addNLUContext(context2);
+        bot.addIntent(i1);
+        bot.addIntent(i2);
+        bot.addIntent(i3);
+    }
+}
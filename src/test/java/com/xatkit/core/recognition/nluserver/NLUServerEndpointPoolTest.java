@@ -0,0 +1,107 @@
+package com.xatkit.core.recognition.nluserver;
+
+import kong.unirest.Unirest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NLUServerEndpointPoolTest {
+
+    private NLUServerEndpoint endpoint1;
+
+    private NLUServerEndpoint endpoint2;
+
+    private NLUServerEndpointPool pool;
+
+    @Before
+    public void setUp() {
+        endpoint1 = new NLUServerEndpoint("http://replica1:8000", Unirest.spawnInstance(), 2, 60000);
+        endpoint2 = new NLUServerEndpoint("http://replica2:8000", Unirest.spawnInstance(), 2, 60000);
+    }
+
+    @After
+    public void tearDown() {
+        endpoint1.shutdown();
+        endpoint2.shutdown();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void constructNullEndpoints() {
+        pool = new NLUServerEndpointPool((List<NLUServerEndpoint>) null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructEmptyEndpoints() {
+        pool = new NLUServerEndpointPool(Collections.emptyList());
+    }
+
+    @Test
+    public void selectLeastOutstandingRequests() {
+        pool = new NLUServerEndpointPool(Arrays.asList(endpoint1, endpoint2));
+        endpoint1.requestStarted();
+        assertThat(pool.select()).isEqualTo(endpoint2);
+        endpoint2.requestStarted();
+        endpoint2.requestStarted();
+        assertThat(pool.select()).isEqualTo(endpoint1);
+    }
+
+    @Test
+    public void selectEjectedEndpoint() {
+        pool = new NLUServerEndpointPool(Arrays.asList(endpoint1, endpoint2));
+        failRequests(endpoint1, 2);
+        assertThat(endpoint1.isHealthy()).isFalse();
+        for (int i = 0; i < 4; i++) {
+            assertThat(pool.select()).isEqualTo(endpoint2);
+        }
+    }
+
+    @Test
+    public void selectSuccessResetsFailures() {
+        pool = new NLUServerEndpointPool(Arrays.asList(endpoint1, endpoint2));
+        failRequests(endpoint1, 1);
+        endpoint1.requestStarted();
+        endpoint1.requestCompleted(true);
+        failRequests(endpoint1, 1);
+        assertThat(endpoint1.isHealthy()).isTrue();
+    }
+
+    @Test
+    public void selectAllEndpointsEjected() {
+        NLUServerEndpoint longEjectionEndpoint = new NLUServerEndpoint("http://replica3:8000",
+                Unirest.spawnInstance(), 2, 120000);
+        pool = new NLUServerEndpointPool(Arrays.asList(longEjectionEndpoint, endpoint1));
+        failRequests(longEjectionEndpoint, 2);
+        failRequests(endpoint1, 2);
+        try {
+            assertThat(pool.select()).isEqualTo(endpoint1);
+        } finally {
+            longEjectionEndpoint.shutdown();
+        }
+    }
+
+    @Test
+    public void selectExcluded() {
+        pool = new NLUServerEndpointPool(Arrays.asList(endpoint1, endpoint2));
+        assertThat(pool.select(endpoint1)).isEqualTo(endpoint2);
+        assertThat(pool.select(endpoint2)).isEqualTo(endpoint1);
+    }
+
+    @Test
+    public void selectExcludedSingleEndpoint() {
+        pool = new NLUServerEndpointPool(Collections.singletonList(endpoint1));
+        assertThat(pool.select(endpoint1)).isEqualTo(endpoint1);
+    }
+
+    private static void failRequests(NLUServerEndpoint endpoint, int count) {
+        for (int i = 0; i < count; i++) {
+            endpoint.requestStarted();
+            endpoint.requestCompleted(false);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.xatkit.core.recognition.nluserver;
+
+import com.xatkit.core.recognition.nluserver.mapper.dsl.BotData;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.EntityParameter;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Intent;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.NLUContext;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Prediction;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NLUServerExactMatchIndexTest {
+
+    private BotData bot;
+
+    private Intent greetings;
+
+    private Intent liveIn;
+
+    private NLUServerExactMatchIndex index;
+
+    @Before
+    public void setUp() {
+        bot = new BotData("MyBot");
+        greetings = new Intent("Greetings");
+        greetings.addTrainingSentence("Hi").addTrainingSentence("Hello there");
+        liveIn = new Intent("LiveIn");
+        liveIn.addTrainingSentence("I live in Barcelona").addTrainingSentence("Where do you live?");
+        liveIn.addAllParameters(Collections.singletonList(new EntityParameter("city", "Barcelona", "city")));
+        Intent ambiguous = new Intent("Ambiguous");
+        ambiguous.addTrainingSentence("Hi");
+        Intent unreachable = new Intent("Unreachable");
+        unreachable.addTrainingSentence("Bye");
+        NLUContext init = new NLUContext("Init");
+        init.addIntentReference(greetings);
+        init.addIntentReference(liveIn);
+        NLUContext other = new NLUContext("Other");
+        other.addIntentReference(greetings);
+        other.addIntentReference(ambiguous);
+        bot.addIntent(greetings);
+        bot.addIntent(liveIn);
+        bot.addIntent(ambiguous);
+        bot.addIntent(unreachable);
+        bot.addNLUContext(init);
+        bot.addNLUContext(other);
+        index = new NLUServerExactMatchIndex(true);
+        index.build(bot.snapshot());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void buildNullBot() {
+        index.build(null);
+    }
+
+    @Test
+    public void matchTrainingSentence() {
+        assertThat(index.match("Init", "Hi")).isEqualTo(greetings);
+    }
+
+    @Test
+    public void matchNormalizedInput() {
+        assertThat(index.match("Init", "  hello   THERE ")).isEqualTo(greetings);
+    }
+
+    @Test
+    public void matchCaseSensitive() {
+        index = new NLUServerExactMatchIndex(false);
+        index.build(bot.snapshot());
+        assertThat(index.match("Init", "hi")).isNull();
+        assertThat(index.match("Init", "Hi")).isEqualTo(greetings);
+    }
+
+    @Test
+    public void matchSentenceWithParameter() {
+        assertThat(index.match("Init", "I live in Barcelona")).isNull();
+        assertThat(index.match("Init", "Where do you live?").getName()).isEqualTo(liveIn.getName());
+    }
+
+    @Test
+    public void matchUnreachableIntent() {
+        assertThat(index.match("Init", "Bye")).isNull();
+    }
+
+    @Test
+    public void matchAmbiguousSentence() {
+        assertThat(index.match("Other", "Hi")).isNull();
+        assertThat(index.match("Other", "Hello there")).isEqualTo(greetings);
+    }
+
+    @Test
+    public void matchUnknownContext() {
+        assertThat(index.match("Unknown", "Hi")).isNull();
+    }
+
+    @Test
+    public void predictTrainingSentence() {
+        Prediction prediction = index.predict("Init", "hi");
+        assertThat(prediction).isNotNull();
+        assertThat(prediction.getClassifications()).hasSize(1);
+        assertThat(prediction.getTopClassification().getIntent()).isEqualTo(greetings);
+        assertThat(prediction.getTopClassification().getScore()).isEqualTo(1.0f);
+        assertThat(prediction.getTopClassification().getMatchedUtterance()).isEqualTo("hi");
+    }
+
+    @Test
+    public void predictUnknownInput() {
+        assertThat(index.predict("Init", "What time is it?")).isNull();
+    }
+}
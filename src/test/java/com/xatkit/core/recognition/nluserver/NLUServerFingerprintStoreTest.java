@@ -0,0 +1,66 @@
+package com.xatkit.core.recognition.nluserver;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NLUServerFingerprintStoreTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path directory;
+
+    private NLUServerFingerprintStore store;
+
+    @Before
+    public void setUp() {
+        directory = temporaryFolder.getRoot().toPath().resolve("fingerprints");
+        store = new NLUServerFingerprintStore(directory, "My Bot/1");
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void constructNullDirectory() {
+        store = new NLUServerFingerprintStore(null, "MyBot");
+    }
+
+    @Test
+    public void constructSanitizedFileName() {
+        assertThat(store.getFile()).isEqualTo(directory.resolve("My_Bot_1.fingerprint"));
+    }
+
+    @Test
+    public void readWithoutFile() {
+        assertThat(store.read()).isNull();
+        assertThat(store.matches("abc")).isFalse();
+    }
+
+    @Test
+    public void writeAndRead() {
+        store.write("abc", "MyBot");
+        assertThat(store.read()).isEqualTo("abc");
+        assertThat(store.readDeploymentName()).isEqualTo("MyBot");
+        assertThat(store.matches("abc")).isTrue();
+        assertThat(store.matches("def")).isFalse();
+    }
+
+    @Test
+    public void writeReplacesFingerprint() {
+        store.write("abc", "MyBot");
+        store.write("def", "MyBot_green");
+        assertThat(store.read()).isEqualTo("def");
+        assertThat(store.readDeploymentName()).isEqualTo("MyBot_green");
+    }
+
+    @Test
+    public void clear() {
+        store.write("abc", "MyBot");
+        store.clear();
+        assertThat(store.read()).isNull();
+    }
+}
@@ -0,0 +1,102 @@
+package com.xatkit.core.recognition.nluserver;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NLUServerMetricsTest {
+
+    private MeterRegistry registry;
+
+    private NLUServerMetrics metrics;
+
+    @Before
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new NLUServerMetrics(registry, "MyBot");
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void constructNullRegistry() {
+        new NLUServerMetrics(null, "MyBot");
+    }
+
+    @Test
+    public void recordPrediction() {
+        metrics.recordPrediction("Init", TimeUnit.MILLISECONDS.toNanos(10));
+        metrics.recordPrediction("Init", TimeUnit.MILLISECONDS.toNanos(20));
+        metrics.recordPrediction("Other", TimeUnit.MILLISECONDS.toNanos(30));
+        Timer initTimer = registry.get(NLUServerMetrics.PREDICT).tag("bot", "MyBot").tag("context", "Init").timer();
+        assertThat(initTimer.count()).isEqualTo(2);
+        assertThat(initTimer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(30);
+        assertThat(registry.get(NLUServerMetrics.PREDICT).tag("context", "Other").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void recordPredictionUnknownContext() {
+        metrics.recordPrediction(null, 1);
+        assertThat(registry.get(NLUServerMetrics.PREDICT).tag("context", NLUServerMetrics.UNKNOWN_CONTEXT).timer()
+                .count()).isEqualTo(1);
+    }
+
+    @Test
+    public void recordTimings() {
+        NLUServerRecognitionTimings timings = new NLUServerRecognitionTimings();
+        timings.record(NLUServerRecognitionTimings.Phase.REQUEST, TimeUnit.MILLISECONDS.toNanos(10));
+        timings.record(NLUServerRecognitionTimings.Phase.MAPPING, TimeUnit.MILLISECONDS.toNanos(1));
+        metrics.recordTimings(timings);
+        assertThat(registry.get(NLUServerMetrics.PHASE).tag("phase", "request").timer()
+                .totalTime(TimeUnit.MILLISECONDS)).isEqualTo(10);
+        assertThat(registry.get(NLUServerMetrics.PHASE).tag("phase", "mapping").timer().count()).isEqualTo(1);
+        assertThat(registry.get(NLUServerMetrics.PHASE).tag("phase", "read").timer().count()).isEqualTo(0);
+    }
+
+    @Test
+    public void recordFallback() {
+        metrics.recordFallback();
+        assertThat(registry.get(NLUServerMetrics.FALLBACKS).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void recordError() {
+        metrics.recordError(500);
+        metrics.recordError(500);
+        metrics.recordError(0);
+        metrics.recordError(999);
+        assertThat(registry.get(NLUServerMetrics.ERRORS).tag("status", "500").counter().count()).isEqualTo(2);
+        assertThat(registry.get(NLUServerMetrics.ERRORS).tag("status", "none").counter().count()).isEqualTo(2);
+    }
+
+    @Test
+    public void inFlightRequests() {
+        metrics.requestStarted();
+        metrics.requestStarted();
+        metrics.requestCompleted();
+        assertThat(registry.get(NLUServerMetrics.IN_FLIGHT).gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    public void recordPayloads() {
+        metrics.recordDeployPayload(1000);
+        metrics.recordPredictPayload(100);
+        metrics.recordPredictPayload(200);
+        assertThat(registry.get(NLUServerMetrics.PAYLOAD).tag("operation", "deploy").summary().totalAmount())
+                .isEqualTo(1000);
+        assertThat(registry.get(NLUServerMetrics.PAYLOAD).tag("operation", "predict").summary().count())
+                .isEqualTo(2);
+    }
+
+    @Test
+    public void recordDeployAndTrain() {
+        metrics.recordDeploy(TimeUnit.SECONDS.toNanos(1));
+        metrics.recordTrain(TimeUnit.SECONDS.toNanos(2));
+        assertThat(registry.get(NLUServerMetrics.DEPLOY).timer().totalTime(TimeUnit.SECONDS)).isEqualTo(1);
+        assertThat(registry.get(NLUServerMetrics.TRAIN).timer().totalTime(TimeUnit.SECONDS)).isEqualTo(2);
+    }
+}
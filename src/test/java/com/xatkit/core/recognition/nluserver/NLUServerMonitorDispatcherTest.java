@@ -0,0 +1,168 @@
+package com.xatkit.core.recognition.nluserver;
+
+import com.xatkit.core.recognition.RecognitionMonitor;
+import com.xatkit.execution.ExecutionFactory;
+import com.xatkit.execution.StateContext;
+import com.xatkit.intent.IntentFactory;
+import com.xatkit.intent.RecognizedIntent;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.xatkit.core.recognition.IntentRecognitionProvider.DEFAULT_FALLBACK_INTENT;
+import static java.util.Objects.nonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class NLUServerMonitorDispatcherTest {
+
+    private RecognitionMonitor recognitionMonitor;
+
+    private NLUServerMonitorDispatcher dispatcher;
+
+    private StateContext context;
+
+    private RecognizedIntent recognizedIntent;
+
+    @Before
+    public void setUp() {
+        recognitionMonitor = mock(RecognitionMonitor.class);
+        context = ExecutionFactory.eINSTANCE.createStateContext();
+        context.setContextId("session");
+        recognizedIntent = IntentFactory.eINSTANCE.createRecognizedIntent();
+        recognizedIntent.setDefinition(DEFAULT_FALLBACK_INTENT);
+    }
+
+    @After
+    public void tearDown() {
+        if (nonNull(dispatcher)) {
+            dispatcher.shutdown();
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void constructNullMonitor() {
+        dispatcher = new NLUServerMonitorDispatcher(null, 10, 10, NLUServerMonitorDispatcher.OverflowPolicy.DROP);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructInvalidCapacity() {
+        dispatcher = new NLUServerMonitorDispatcher(recognitionMonitor, 0, 10,
+                NLUServerMonitorDispatcher.OverflowPolicy.DROP);
+    }
+
+    @Test
+    public void submitLoggedInBackground() {
+        dispatcher = new NLUServerMonitorDispatcher(recognitionMonitor, 10, 10,
+                NLUServerMonitorDispatcher.OverflowPolicy.DROP);
+        assertThat(dispatcher.submit(context, recognizedIntent)).isTrue();
+        ArgumentCaptor<StateContext> loggedContext = ArgumentCaptor.forClass(StateContext.class);
+        verify(recognitionMonitor, timeout(1000)).logRecognizedIntent(loggedContext.capture(), same(recognizedIntent));
+        assertThat(loggedContext.getValue()).isNotSameAs(context);
+        assertThat(loggedContext.getValue().getContextId()).isEqualTo("session");
+    }
+
+    @Test
+    public void submitFullQueueDrop() {
+        dispatcher = new NLUServerMonitorDispatcher(recognitionMonitor, 2, 60000,
+                NLUServerMonitorDispatcher.OverflowPolicy.DROP);
+        assertThat(dispatcher.submit(context, recognizedIntent)).isTrue();
+        assertThat(dispatcher.submit(context, recognizedIntent)).isTrue();
+        assertThat(dispatcher.submit(context, recognizedIntent)).isFalse();
+        assertThat(dispatcher.getQueueSize()).isEqualTo(2);
+        assertThat(dispatcher.getDroppedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void submitHalfFullQueueSample() {
+        dispatcher = new NLUServerMonitorDispatcher(recognitionMonitor, 100, 60000,
+                NLUServerMonitorDispatcher.OverflowPolicy.SAMPLE);
+        for (int i = 0; i < 50; i++) {
+            assertThat(dispatcher.submit(context, recognizedIntent)).isTrue();
+        }
+        for (int i = 0; i < 10 * NLUServerMonitorDispatcher.SAMPLING_RATE; i++) {
+            dispatcher.submit(context, recognizedIntent);
+        }
+        assertThat(dispatcher.getQueueSize()).isEqualTo(60);
+        assertThat(dispatcher.getDroppedCount()).isEqualTo(10 * (NLUServerMonitorDispatcher.SAMPLING_RATE - 1));
+    }
+
+    @Test
+    public void submitSlowMonitor() throws InterruptedException {
+        CountDownLatch blocked = new CountDownLatch(1);
+        CountDownLatch released = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            blocked.countDown();
+            released.await();
+            return null;
+        }).when(recognitionMonitor).logRecognizedIntent(any(), any());
+        dispatcher = new NLUServerMonitorDispatcher(recognitionMonitor, 1, 1,
+                NLUServerMonitorDispatcher.OverflowPolicy.DROP);
+        dispatcher.submit(context, recognizedIntent);
+        assertThat(blocked.await(1, TimeUnit.SECONDS)).isTrue();
+        long start = System.nanoTime();
+        assertThat(dispatcher.submit(context, recognizedIntent)).isTrue();
+        assertThat(dispatcher.submit(context, recognizedIntent)).isFalse();
+        assertThat(System.nanoTime() - start).isLessThan(TimeUnit.MILLISECONDS.toNanos(100));
+        released.countDown();
+    }
+
+    @Test
+    public void shutdownFlushesQueue() {
+        dispatcher = new NLUServerMonitorDispatcher(recognitionMonitor, 10, 60000,
+                NLUServerMonitorDispatcher.OverflowPolicy.DROP);
+        dispatcher.submit(context, recognizedIntent);
+        dispatcher.submit(context, recognizedIntent);
+        verify(recognitionMonitor, never()).logRecognizedIntent(any(), any());
+        dispatcher.shutdown();
+        verify(recognitionMonitor, times(2)).logRecognizedIntent(any(), same(recognizedIntent));
+        verify(recognitionMonitor, never()).shutdown();
+        assertThat(dispatcher.submit(context, recognizedIntent)).isFalse();
+        dispatcher = null;
+    }
+
+    @Test
+    public void submitDuringShutdown() throws InterruptedException {
+        AtomicInteger loggedCount = new AtomicInteger();
+        doAnswer(invocation -> loggedCount.incrementAndGet()).when(recognitionMonitor)
+                .logRecognizedIntent(any(), any());
+        dispatcher = new NLUServerMonitorDispatcher(recognitionMonitor, 100000, 60000,
+                NLUServerMonitorDispatcher.OverflowPolicy.DROP);
+        int threadCount = 4;
+        int submitCount = 10000;
+        AtomicInteger acceptedCount = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(threadCount);
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread(() -> {
+                started.countDown();
+                for (int j = 0; j < submitCount; j++) {
+                    if (dispatcher.submit(context, recognizedIntent)) {
+                        acceptedCount.incrementAndGet();
+                    }
+                }
+            });
+            threads[i].start();
+        }
+        assertThat(started.await(1, TimeUnit.SECONDS)).isTrue();
+        dispatcher.shutdown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertThat(loggedCount.get()).isEqualTo(acceptedCount.get());
+        assertThat(loggedCount.get() + dispatcher.getDroppedCount()).isEqualTo(threadCount * submitCount);
+        dispatcher = null;
+    }
+}
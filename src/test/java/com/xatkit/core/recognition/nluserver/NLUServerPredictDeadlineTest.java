@@ -0,0 +1,146 @@
+package com.xatkit.core.recognition.nluserver;
+
+import com.xatkit.core.EventDefinitionRegistry;
+import com.xatkit.core.recognition.IntentRecognitionProviderException;
+import com.xatkit.core.recognition.nluserver.utils.EmbeddedNLUServer;
+import com.xatkit.core.recognition.nluserver.utils.FakeState;
+import com.xatkit.dsl.DSL;
+import com.xatkit.execution.StateContext;
+import com.xatkit.intent.IntentDefinition;
+import com.xatkit.intent.RecognizedIntent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.commons.configuration2.BaseConfiguration;
+import org.apache.commons.configuration2.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import static com.xatkit.core.recognition.IntentRecognitionProvider.DEFAULT_FALLBACK_INTENT;
+import static java.util.Objects.nonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the {@link NLUServerIntentRecognitionProvider} with a {@link NLUServerConfiguration#PREDICT_DEADLINE} against
+ * an {@link EmbeddedNLUServer}.
+ */
+public class NLUServerPredictDeadlineTest {
+
+    private static final long DEADLINE = 200;
+
+    private EmbeddedNLUServer server;
+
+    private Configuration configuration;
+
+    private EventDefinitionRegistry eventRegistry;
+
+    private IntentDefinition greetings;
+
+    private IntentDefinition bye;
+
+    private FakeState state;
+
+    private NLUServerIntentRecognitionProvider provider;
+
+    @Before
+    public void setUp() {
+        server = new EmbeddedNLUServer();
+        server.start();
+        configuration = new BaseConfiguration();
+        configuration.addProperty(NLUServerConfiguration.BOT_NAME, "DeadlineBot");
+        configuration.addProperty(NLUServerConfiguration.URL, server.getUrl());
+        configuration.addProperty(NLUServerConfiguration.FORCE_OVERWRITE, true);
+        configuration.addProperty(NLUServerConfiguration.PREDICT_DEADLINE, DEADLINE);
+        configuration.addProperty(NLUServerConfiguration.LOCAL_EXACT_MATCH, false);
+        greetings = DSL.intent("Greetings").trainingSentence("Hello").trainingSentence("Hi").getIntentDefinition();
+        bye = DSL.intent("Bye").trainingSentence("Goodbye").getIntentDefinition();
+        eventRegistry = new EventDefinitionRegistry();
+        eventRegistry.registerEventDefinition(greetings);
+        eventRegistry.registerEventDefinition(bye);
+        state = new FakeState();
+        state.setName("Init");
+        state.setIntents(Arrays.asList(greetings, bye));
+    }
+
+    @After
+    public void tearDown() throws IntentRecognitionProviderException {
+        if (nonNull(provider) && !provider.isShutdown()) {
+            provider.shutdown();
+        }
+        server.stop();
+    }
+
+    @Test
+    public void getIntentBeforeDeadline() throws IntentRecognitionProviderException {
+        deployProvider();
+        RecognizedIntent recognizedIntent = provider.getIntent("Hello there", createContext());
+        assertThat(recognizedIntent.getDefinition()).isEqualTo(greetings);
+        assertThat(provider.getDeadlineOverrunCount()).isZero();
+    }
+
+    @Test
+    public void getIntentDeadlineOverrunLocalMatch() throws IntentRecognitionProviderException {
+        deployProvider();
+        server.setLatency(2000);
+        long start = System.nanoTime();
+        RecognizedIntent recognizedIntent = provider.getIntent("Hi", createContext());
+        assertThat(System.nanoTime() - start).isLessThan(1_000_000_000L);
+        assertThat(recognizedIntent.getDefinition()).isEqualTo(greetings);
+        assertThat(provider.getDeadlineOverrunCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void getIntentDeadlineOverrunFallback() throws IntentRecognitionProviderException {
+        MeterRegistry registry = new SimpleMeterRegistry();
+        configuration.addProperty(NLUServerConfiguration.METRICS_ENABLED, true);
+        configuration.addProperty(NLUServerConfiguration.METRICS_REGISTRY, registry);
+        deployProvider();
+        server.setLatency(2000);
+        long start = System.nanoTime();
+        RecognizedIntent recognizedIntent = provider.getIntent("Hello there", createContext());
+        assertThat(System.nanoTime() - start).isLessThan(1_000_000_000L);
+        assertThat(recognizedIntent.getDefinition()).isEqualTo(DEFAULT_FALLBACK_INTENT);
+        assertThat(provider.getDeadlineOverrunCount()).isEqualTo(1);
+        assertThat(registry.get(NLUServerMetrics.DEADLINE_OVERRUNS).counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getIntentBeforeDeadlineTimings() throws IntentRecognitionProviderException {
+        configuration.addProperty(NLUServerConfiguration.TIMINGS_ATTACHED, true);
+        deployProvider();
+        RecognizedIntent recognizedIntent = provider.getIntent("Hello there", createContext());
+        Map<String, Object> timings =
+                (Map<String, Object>) recognizedIntent.getNlpData().get(NLUServerRecognitionTimings.NLP_DATA_KEY);
+        assertThat(timings).containsKeys("request", "read", "mapping", "candidate");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getIntentDeadlineOverrunTimings() throws IntentRecognitionProviderException {
+        configuration.addProperty(NLUServerConfiguration.TIMINGS_ATTACHED, true);
+        deployProvider();
+        server.setLatency(2000);
+        RecognizedIntent recognizedIntent = provider.getIntent("Hi", createContext());
+        Map<String, Object> timings =
+                (Map<String, Object>) recognizedIntent.getNlpData().get(NLUServerRecognitionTimings.NLP_DATA_KEY);
+        assertThat(timings).containsOnlyKeys("mapping", "candidate");
+    }
+
+    private void deployProvider() throws IntentRecognitionProviderException {
+        provider = new NLUServerIntentRecognitionProvider(eventRegistry, configuration, null);
+        provider.registerIntentDefinition(greetings);
+        provider.registerIntentDefinition(bye);
+        provider.registerState(state);
+        provider.trainMLEngine();
+    }
+
+    private StateContext createContext() {
+        StateContext context = provider.createContext("session");
+        context.setState(state);
+        return context;
+    }
+}
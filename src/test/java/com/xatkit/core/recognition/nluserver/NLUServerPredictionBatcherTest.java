@@ -0,0 +1,108 @@
+package com.xatkit.core.recognition.nluserver;
+
+import com.xatkit.core.recognition.IntentRecognitionProviderException;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.NLUContext;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Prediction;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.nonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class NLUServerPredictionBatcherTest {
+
+    private NLUServerPredictionBatcher batcher;
+
+    private List<List<NLUServerPredictionBatcher.PendingPrediction>> sentBatches;
+
+    private NLUContext nluContext;
+
+    @Before
+    public void setUp() {
+        sentBatches = new CopyOnWriteArrayList<>();
+        nluContext = new NLUContext("context1");
+    }
+
+    @After
+    public void tearDown() {
+        if (nonNull(batcher)) {
+            batcher.shutdown();
+        }
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void constructNullSender() {
+        batcher = new NLUServerPredictionBatcher(10, 10, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructInvalidMaxSize() {
+        batcher = new NLUServerPredictionBatcher(0, 10, this::answerBatch);
+    }
+
+    @Test
+    public void submitUpToMaxSize() {
+        batcher = new NLUServerPredictionBatcher(3, 60000, this::answerBatch);
+        CompletableFuture<Prediction> f1 = batcher.submit(nluContext, "hi");
+        CompletableFuture<Prediction> f2 = batcher.submit(nluContext, "hello");
+        assertThat(sentBatches).isEmpty();
+        CompletableFuture<Prediction> f3 = batcher.submit(nluContext, "yes");
+        assertThat(sentBatches).hasSize(1);
+        assertThat(sentBatches.get(0)).hasSize(3);
+        assertThat(f1.join()).isNotNull();
+        assertThat(f2.join()).isNotNull();
+        assertThat(f3.join()).isNotNull();
+    }
+
+    @Test
+    public void submitWindowElapsed() throws Exception {
+        batcher = new NLUServerPredictionBatcher(100, 10, this::answerBatch);
+        CompletableFuture<Prediction> f1 = batcher.submit(nluContext, "hi");
+        assertThat(f1.get(5, TimeUnit.SECONDS)).isNotNull();
+        assertThat(sentBatches).hasSize(1);
+        assertThat(sentBatches.get(0)).hasSize(1);
+    }
+
+    @Test
+    public void submitServerError() {
+        batcher = new NLUServerPredictionBatcher(1, 10, requests -> CompletableFuture.completedFuture(null));
+        assertThat(batcher.submit(nluContext, "hi").join()).isNull();
+    }
+
+    @Test
+    public void shutdownFlushesPendingRequests() {
+        batcher = new NLUServerPredictionBatcher(100, 60000, this::answerBatch);
+        CompletableFuture<Prediction> f1 = batcher.submit(nluContext, "hi");
+        batcher.shutdown();
+        assertThat(f1.join()).isNotNull();
+    }
+
+    @Test
+    public void submitAfterShutdown() {
+        batcher = new NLUServerPredictionBatcher(100, 10, this::answerBatch);
+        batcher.shutdown();
+        CompletableFuture<Prediction> f1 = batcher.submit(nluContext, "hi");
+        assertThatThrownBy(f1::get).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IntentRecognitionProviderException.class);
+        assertThat(sentBatches).isEmpty();
+    }
+
+    private CompletableFuture<List<Prediction>> answerBatch(
+            List<NLUServerPredictionBatcher.PendingPrediction> requests) {
+        sentBatches.add(requests);
+        List<Prediction> predictions = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            predictions.add(new Prediction());
+        }
+        return CompletableFuture.completedFuture(predictions);
+    }
+}
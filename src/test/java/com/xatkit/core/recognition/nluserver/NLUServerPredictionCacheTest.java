@@ -0,0 +1,82 @@
+package com.xatkit.core.recognition.nluserver;
+
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Prediction;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NLUServerPredictionCacheTest {
+
+    private NLUServerPredictionCache cache;
+
+    private NLUServerPredictionKey key;
+
+    private Prediction prediction;
+
+    @Before
+    public void setUp() {
+        cache = new NLUServerPredictionCache(100, -1);
+        key = new NLUServerPredictionKey("MyBot", "Init", "hi");
+        prediction = new Prediction();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructNegativeSize() {
+        cache = new NLUServerPredictionCache(-1, -1);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void getNullKey() {
+        cache.get(null);
+    }
+
+    @Test
+    public void getNotCached() {
+        assertThat(cache.get(key)).isNull();
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getHitCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void getCached() {
+        cache.put(key, prediction, cache.getGeneration());
+        assertThat(cache.get(new NLUServerPredictionKey("MyBot", "Init", "hi"))).isEqualTo(prediction);
+        assertThat(cache.getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void putReadOnly() {
+        cache.put(key, prediction, cache.getGeneration());
+        assertThat(cache.get(key).isReadOnly()).isTrue();
+    }
+
+    @Test
+    public void getOtherContext() {
+        cache.put(key, prediction, cache.getGeneration());
+        assertThat(cache.get(new NLUServerPredictionKey("MyBot", "Other", "hi"))).isNull();
+    }
+
+    @Test
+    public void invalidateAll() {
+        cache.put(key, prediction, cache.getGeneration());
+        cache.invalidateAll();
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    public void putOutdatedPrediction() {
+        long generation = cache.getGeneration();
+        cache.invalidateAll();
+        cache.put(key, prediction, generation);
+        assertThat(cache.get(key)).isNull();
+    }
+
+    @Test
+    public void putExpiredPrediction() throws InterruptedException {
+        cache = new NLUServerPredictionCache(100, 10);
+        cache.put(key, prediction, cache.getGeneration());
+        Thread.sleep(50);
+        assertThat(cache.get(key)).isNull();
+    }
+}
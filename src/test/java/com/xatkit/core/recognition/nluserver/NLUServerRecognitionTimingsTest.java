@@ -0,0 +1,53 @@
+package com.xatkit.core.recognition.nluserver;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+public class NLUServerRecognitionTimingsTest {
+
+    @Test
+    public void constructEmpty() {
+        NLUServerRecognitionTimings timings = new NLUServerRecognitionTimings();
+        for (NLUServerRecognitionTimings.Phase phase : NLUServerRecognitionTimings.Phase.values()) {
+            assertThat(timings.getDuration(phase)).isEqualTo(-1);
+        }
+        assertThat(timings.toMap()).isEmpty();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void recordNullPhase() {
+        new NLUServerRecognitionTimings().record(null, 1);
+    }
+
+    @Test
+    public void merge() {
+        NLUServerRecognitionTimings timings = new NLUServerRecognitionTimings();
+        timings.record(NLUServerRecognitionTimings.Phase.REQUEST, TimeUnit.MILLISECONDS.toNanos(1));
+        timings.record(NLUServerRecognitionTimings.Phase.MAPPING, TimeUnit.MILLISECONDS.toNanos(2));
+        NLUServerRecognitionTimings requestTimings = new NLUServerRecognitionTimings();
+        requestTimings.record(NLUServerRecognitionTimings.Phase.REQUEST, TimeUnit.MILLISECONDS.toNanos(12));
+        requestTimings.record(NLUServerRecognitionTimings.Phase.READ, TimeUnit.MILLISECONDS.toNanos(3));
+        timings.merge(requestTimings);
+        assertThat(timings.toMap()).containsExactly(entry("request", 12d), entry("read", 3d), entry("mapping", 2d));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void mergeNullTimings() {
+        new NLUServerRecognitionTimings().merge(null);
+    }
+
+    @Test
+    public void record() {
+        NLUServerRecognitionTimings timings = new NLUServerRecognitionTimings();
+        timings.record(NLUServerRecognitionTimings.Phase.CANDIDATE, TimeUnit.MICROSECONDS.toNanos(500));
+        timings.record(NLUServerRecognitionTimings.Phase.REQUEST, TimeUnit.MILLISECONDS.toNanos(12));
+        assertThat(timings.getDuration(NLUServerRecognitionTimings.Phase.REQUEST))
+                .isEqualTo(TimeUnit.MILLISECONDS.toNanos(12));
+        assertThat(timings.getDuration(NLUServerRecognitionTimings.Phase.READ)).isEqualTo(-1);
+        assertThat(timings.toMap()).containsExactly(entry("request", 12d), entry("candidate", 0.5d));
+    }
+}
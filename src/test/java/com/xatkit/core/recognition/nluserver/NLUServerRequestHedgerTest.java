@@ -0,0 +1,173 @@
+package com.xatkit.core.recognition.nluserver;
+
+import kong.unirest.Unirest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Objects.nonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NLUServerRequestHedgerTest {
+
+    private NLUServerEndpoint endpoint1;
+
+    private NLUServerEndpoint endpoint2;
+
+    private NLUServerEndpointPool pool;
+
+    private NLUServerRequestHedger hedger;
+
+    private List<NLUServerEndpoint> sentRequests;
+
+    private Map<NLUServerEndpoint, CompletableFuture<String>> requests;
+
+    @Before
+    public void setUp() {
+        endpoint1 = new NLUServerEndpoint("http://replica1:8000", Unirest.spawnInstance(), 3, 10000);
+        endpoint2 = new NLUServerEndpoint("http://replica2:8000", Unirest.spawnInstance(), 3, 10000);
+        pool = new NLUServerEndpointPool(Arrays.asList(endpoint1, endpoint2));
+        sentRequests = new CopyOnWriteArrayList<>();
+        requests = new ConcurrentHashMap<>();
+    }
+
+    @After
+    public void tearDown() {
+        if (nonNull(hedger)) {
+            hedger.shutdown();
+        }
+        pool.shutdown();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void constructNullPool() {
+        hedger = new NLUServerRequestHedger(null, 95, 0.1, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructInvalidPercentile() {
+        hedger = new NLUServerRequestHedger(pool, 0, 0.1, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructInvalidRatio() {
+        hedger = new NLUServerRequestHedger(pool, 95, 1.5, 0);
+    }
+
+    @Test
+    public void sendWithoutLatencies() throws Exception {
+        hedger = new NLUServerRequestHedger(pool, 95, 1, 0);
+        assertThat(hedger.getHedgeDelay()).isEqualTo(-1);
+        CompletableFuture<String> result = hedger.send(this::sendRequest);
+        Thread.sleep(50);
+        assertThat(sentRequests).hasSize(1);
+        requests.get(sentRequests.get(0)).complete("response");
+        assertThat(result.get(1, TimeUnit.SECONDS)).isEqualTo("response");
+        assertThat(hedger.getHedgeCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void sendSlowRequest() throws Exception {
+        hedger = new NLUServerRequestHedger(pool, 95, 1, 10);
+        recordLatencies(hedger, TimeUnit.MILLISECONDS.toNanos(1));
+        assertThat(hedger.getHedgeDelay()).isEqualTo(10);
+        CompletableFuture<String> result = hedger.send(this::sendRequest);
+        waitForRequests(2);
+        NLUServerEndpoint primary = sentRequests.get(0);
+        NLUServerEndpoint secondary = sentRequests.get(1);
+        assertThat(secondary).isNotEqualTo(primary);
+        requests.get(secondary).complete("hedged response");
+        assertThat(result.get(1, TimeUnit.SECONDS)).isEqualTo("hedged response");
+        assertThat(requests.get(primary)).isCancelled();
+        assertThat(hedger.getHedgeCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void sendFailedRequestWithPendingHedge() throws Exception {
+        hedger = new NLUServerRequestHedger(pool, 95, 1, 10);
+        recordLatencies(hedger, TimeUnit.MILLISECONDS.toNanos(1));
+        CompletableFuture<String> result = hedger.send(this::sendRequest);
+        waitForRequests(2);
+        requests.get(sentRequests.get(0)).completeExceptionally(new RuntimeException("error"));
+        assertThat(result).isNotDone();
+        requests.get(sentRequests.get(1)).complete("hedged response");
+        assertThat(result.get(1, TimeUnit.SECONDS)).isEqualTo("hedged response");
+    }
+
+    @Test
+    public void sendServerErrorWithPendingHedge() throws Exception {
+        hedger = new NLUServerRequestHedger(pool, 95, 1, 10);
+        recordLatencies(hedger, TimeUnit.MILLISECONDS.toNanos(1));
+        CompletableFuture<String> result = hedger.send(this::sendRequest);
+        waitForRequests(2);
+        /*
+         * A null response denotes an error returned by the server (e.g. a 500).
+         */
+        requests.get(sentRequests.get(0)).complete(null);
+        assertThat(result).isNotDone();
+        requests.get(sentRequests.get(1)).complete("hedged response");
+        assertThat(result.get(1, TimeUnit.SECONDS)).isEqualTo("hedged response");
+    }
+
+    @Test
+    public void sendServerErrorOnAllRequests() throws Exception {
+        hedger = new NLUServerRequestHedger(pool, 95, 1, 10);
+        recordLatencies(hedger, TimeUnit.MILLISECONDS.toNanos(1));
+        CompletableFuture<String> result = hedger.send(this::sendRequest);
+        waitForRequests(2);
+        requests.get(sentRequests.get(0)).complete(null);
+        requests.get(sentRequests.get(1)).complete(null);
+        assertThat(result.get(1, TimeUnit.SECONDS)).isNull();
+    }
+
+    @Test
+    public void sendServerErrorLatencyNotRecorded() throws Exception {
+        hedger = new NLUServerRequestHedger(pool, 95, 1, 0);
+        for (int i = 0; i < NLUServerRequestHedger.MIN_LATENCY_SAMPLES; i++) {
+            assertThat(hedger.send(endpoint -> CompletableFuture.completedFuture((String) null))
+                    .get(1, TimeUnit.SECONDS)).isNull();
+        }
+        assertThat(hedger.getHedgeDelay()).isEqualTo(-1);
+    }
+
+    @Test
+    public void sendMaxRatioReached() throws Exception {
+        hedger = new NLUServerRequestHedger(pool, 95, 0, 10);
+        recordLatencies(hedger, TimeUnit.MILLISECONDS.toNanos(1));
+        CompletableFuture<String> result = hedger.send(this::sendRequest);
+        Thread.sleep(100);
+        assertThat(sentRequests).hasSize(1);
+        requests.get(sentRequests.get(0)).complete("response");
+        assertThat(result.get(1, TimeUnit.SECONDS)).isEqualTo("response");
+        assertThat(hedger.getHedgeCount()).isEqualTo(0);
+    }
+
+    private CompletableFuture<String> sendRequest(NLUServerEndpoint endpoint) {
+        CompletableFuture<String> request = new CompletableFuture<>();
+        requests.put(endpoint, request);
+        sentRequests.add(endpoint);
+        return request;
+    }
+
+    private void waitForRequests(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (sentRequests.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertThat(sentRequests).hasSize(count);
+    }
+
+    private static void recordLatencies(NLUServerRequestHedger hedger, long latency) {
+        for (int i = 0; i < NLUServerRequestHedger.MIN_LATENCY_SAMPLES; i++) {
+            hedger.recordLatency(latency);
+        }
+    }
+}
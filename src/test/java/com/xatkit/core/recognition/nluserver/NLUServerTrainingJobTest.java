@@ -0,0 +1,67 @@
+package com.xatkit.core.recognition.nluserver;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NLUServerTrainingJobTest {
+
+    private NLUServerTrainingJob job;
+
+    @Before
+    public void setUp() {
+        job = new NLUServerTrainingJob("MyBot_green", 2);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void constructNullDeploymentName() {
+        job = new NLUServerTrainingJob(null, 2);
+    }
+
+    @Test
+    public void constructPendingJob() {
+        assertThat(job.getDeploymentName()).isEqualTo("MyBot_green");
+        assertThat(job.getStatus()).isEqualTo(NLUServerTrainingJob.Status.PENDING);
+        assertThat(job.getProgress()).isEqualTo(0);
+        assertThat(job.isDone()).isFalse();
+    }
+
+    @Test
+    public void endpointCompleted() {
+        job.setStatus(NLUServerTrainingJob.Status.TRAINING);
+        job.endpointCompleted();
+        assertThat(job.getProgress()).isEqualTo(0.5);
+        assertThat(job.isDone()).isFalse();
+    }
+
+    @Test
+    public void completeSuccess() {
+        AtomicReference<NLUServerTrainingJob> completedJob = new AtomicReference<>();
+        job.onComplete(completedJob::set);
+        job.complete(true);
+        assertThat(job.getStatus()).isEqualTo(NLUServerTrainingJob.Status.COMPLETED);
+        assertThat(job.getProgress()).isEqualTo(1);
+        assertThat(job.getResult()).isCompletedWithValue(true);
+        assertThat(completedJob.get()).isEqualTo(job);
+    }
+
+    @Test
+    public void completeFailure() {
+        job.endpointCompleted();
+        job.complete(false);
+        assertThat(job.getStatus()).isEqualTo(NLUServerTrainingJob.Status.FAILED);
+        assertThat(job.getProgress()).isEqualTo(0.5);
+        assertThat(job.getResult()).isCompletedWithValue(false);
+    }
+
+    @Test
+    public void onCompleteDoneJob() {
+        job.complete(true);
+        AtomicReference<NLUServerTrainingJob> completedJob = new AtomicReference<>();
+        job.onComplete(completedJob::set);
+        assertThat(completedJob.get()).isEqualTo(job);
+    }
+}
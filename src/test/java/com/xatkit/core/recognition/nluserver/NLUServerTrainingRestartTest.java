@@ -0,0 +1,131 @@
+package com.xatkit.core.recognition.nluserver;
+
+import com.xatkit.core.EventDefinitionRegistry;
+import com.xatkit.core.recognition.IntentRecognitionProviderException;
+import com.xatkit.core.recognition.nluserver.utils.EmbeddedNLUServer;
+import com.xatkit.core.recognition.nluserver.utils.FakeState;
+import com.xatkit.dsl.DSL;
+import com.xatkit.execution.StateContext;
+import com.xatkit.intent.IntentDefinition;
+import org.apache.commons.configuration2.BaseConfiguration;
+import org.apache.commons.configuration2.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.util.Objects.nonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Restarts a {@link NLUServerIntentRecognitionProvider} with {@link NLUServerConfiguration#DEPLOY_SKIP_UNCHANGED}
+ * and {@link NLUServerConfiguration#TRAIN_ASYNC} enabled against an {@link EmbeddedNLUServer}.
+ */
+public class NLUServerTrainingRestartTest {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private EmbeddedNLUServer server;
+
+    private Configuration configuration;
+
+    private NLUServerIntentRecognitionProvider provider;
+
+    @Before
+    public void setUp() {
+        server = new EmbeddedNLUServer();
+        server.start();
+        configuration = new BaseConfiguration();
+        configuration.addProperty(NLUServerConfiguration.BOT_NAME, "RestartBot");
+        configuration.addProperty(NLUServerConfiguration.URL, server.getUrl());
+        configuration.addProperty(NLUServerConfiguration.FORCE_OVERWRITE, true);
+        configuration.addProperty(NLUServerConfiguration.DEPLOY_SKIP_UNCHANGED, true);
+        configuration.addProperty(NLUServerConfiguration.DEPLOY_FINGERPRINT_DIRECTORY,
+                temporaryFolder.getRoot().getAbsolutePath());
+        configuration.addProperty(NLUServerConfiguration.TRAIN_ASYNC, true);
+    }
+
+    @After
+    public void tearDown() throws IntentRecognitionProviderException {
+        if (nonNull(provider) && !provider.isShutdown()) {
+            provider.shutdown();
+        }
+        server.stop();
+    }
+
+    @Test
+    public void restartUnchangedBot() throws IntentRecognitionProviderException {
+        IntentDefinition greetings = greetingsIntent();
+        startProvider(greetings);
+        provider.shutdown();
+        long trainingRequests = server.getTrainingRequestCount();
+
+        IntentDefinition restartedGreetings = greetingsIntent();
+        startProvider(restartedGreetings);
+        assertThat(provider.getCurrentTrainingJob()).isNull();
+        assertThat(server.getTrainingRequestCount()).isEqualTo(trainingRequests);
+        assertThat(provider.getIntent("Hello there", createContext(restartedGreetings)).getDefinition())
+                .isEqualTo(restartedGreetings);
+    }
+
+    @Test
+    public void restartChangedBot() throws IntentRecognitionProviderException {
+        startProvider(greetingsIntent());
+        provider.shutdown();
+        long trainingRequests = server.getTrainingRequestCount();
+
+        IntentDefinition greetings = greetingsIntent();
+        IntentDefinition bye = DSL.intent("Bye").trainingSentence("Goodbye").getIntentDefinition();
+        startProvider(greetings, bye);
+        assertThat(provider.getCurrentTrainingJob()).isNull();
+        assertThat(server.getTrainingRequestCount()).isGreaterThan(trainingRequests);
+        StateContext context = createContext(greetings, bye);
+        assertThat(provider.getIntent("Hello there", context).getDefinition()).isEqualTo(greetings);
+        assertThat(provider.getIntent("Goodbye my friend", context).getDefinition()).isEqualTo(bye);
+    }
+
+    private static IntentDefinition greetingsIntent() {
+        return DSL.intent("Greetings").trainingSentence("Hello").trainingSentence("Hi").getIntentDefinition();
+    }
+
+    /**
+     * Creates a provider with the provided {@code intents} and trains it.
+     * <p>
+     * The provider is created from scratch, as it would be by a new run of the bot.
+     *
+     * @param intents the intents of the bot
+     * @throws IntentRecognitionProviderException if an error occurred when training the provider
+     */
+    private void startProvider(IntentDefinition... intents) throws IntentRecognitionProviderException {
+        EventDefinitionRegistry eventRegistry = new EventDefinitionRegistry();
+        for (IntentDefinition intent : intents) {
+            eventRegistry.registerEventDefinition(intent);
+        }
+        provider = new NLUServerIntentRecognitionProvider(eventRegistry, configuration, null);
+        for (IntentDefinition intent : intents) {
+            provider.registerIntentDefinition(intent);
+        }
+        provider.registerState(createState(intents));
+        provider.trainMLEngine();
+    }
+
+    private StateContext createContext(IntentDefinition... intents) {
+        StateContext context = provider.createContext("session");
+        context.setState(createState(intents));
+        return context;
+    }
+
+    private static FakeState createState(IntentDefinition... intents) {
+        FakeState state = new FakeState();
+        state.setName("Init");
+        List<IntentDefinition> stateIntents = new ArrayList<>(Arrays.asList(intents));
+        state.setIntents(stateIntents);
+        return state;
+    }
+}
@@ -0,0 +1,128 @@
+package com.xatkit.core.recognition.nluserver.jfr;
+
+import com.xatkit.core.recognition.IntentRecognitionProviderException;
+import com.xatkit.core.recognition.nluserver.NLUServerClientAPIWrapper;
+import com.xatkit.core.recognition.nluserver.NLUServerConfiguration;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.BotData;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Intent;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.NLUContext;
+import com.xatkit.core.recognition.nluserver.utils.EmbeddedNLUServer;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.apache.commons.configuration2.BaseConfiguration;
+import org.apache.commons.configuration2.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.util.Objects.nonNull;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NLUServerEventTest {
+
+    private EmbeddedNLUServer server;
+
+    private NLUServerClientAPIWrapper nluServerClientWrapper;
+
+    private BotData botData;
+
+    private Path recordingFile;
+
+    @Before
+    public void setUp() throws IOException, IntentRecognitionProviderException {
+        server = new EmbeddedNLUServer();
+        server.start();
+        Configuration configuration = new BaseConfiguration();
+        configuration.addProperty(NLUServerConfiguration.BOT_NAME, "JfrBot");
+        configuration.addProperty(NLUServerConfiguration.URL, server.getUrl());
+        configuration.addProperty(NLUServerConfiguration.FORCE_OVERWRITE, true);
+        botData = new BotData("JfrBot");
+        NLUContext context = new NLUContext("context1");
+        Intent intent = new Intent("greetings");
+        intent.addTrainingSentence("Hello");
+        intent.addTrainingSentence("Hi");
+        context.addIntentReference(intent);
+        botData.addNLUContext(context);
+        botData.addIntent(intent);
+        nluServerClientWrapper = new NLUServerClientAPIWrapper(new NLUServerConfiguration(configuration), botData);
+        recordingFile = Files.createTempFile("nluserver", ".jfr");
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        if (nonNull(nluServerClientWrapper)) {
+            nluServerClientWrapper.shutdown();
+        }
+        server.stop();
+        Files.deleteIfExists(recordingFile);
+    }
+
+    @Test
+    public void recordDeployAndPredict() throws IOException {
+        try (Recording recording = new Recording()) {
+            recording.enable(NLUServerDeployEvent.class);
+            recording.enable(NLUServerInitializeEvent.class);
+            recording.enable(NLUServerTrainEvent.class);
+            recording.enable(NLUServerPredictEvent.class);
+            recording.start();
+            nluServerClientWrapper.deployAndTrainBot();
+            nluServerClientWrapper.predict(botData.getNluContext("context1"), "Hi");
+            nluServerClientWrapper.predictAsync(botData.getNluContext("context1"), "Hello").join();
+            recording.stop();
+            recording.dump(recordingFile);
+        }
+        List<RecordedEvent> events = RecordingFile.readAllEvents(recordingFile);
+        assertThat(eventsOfType(events, "com.xatkit.nluserver.Deploy")).hasSize(1);
+        assertThat(eventsOfType(events, "com.xatkit.nluserver.Train")).hasSize(1);
+        List<RecordedEvent> initializeEvents = eventsOfType(events, "com.xatkit.nluserver.Initialize");
+        assertThat(initializeEvents).hasSize(1);
+        assertThat(initializeEvents.get(0).getLong("payloadBytes")).isPositive();
+        List<RecordedEvent> predictEvents = eventsOfType(events, "com.xatkit.nluserver.Predict");
+        assertThat(predictEvents).hasSize(2);
+        for (RecordedEvent event : predictEvents) {
+            assertThat(event.getString("bot")).isEqualTo(nluServerClientWrapper.getActiveDeploymentName());
+            assertThat(event.getString("context")).isEqualTo("context1");
+            assertThat(event.getInt("status")).isEqualTo(200);
+            assertThat(event.getInt("classificationCount")).isEqualTo(1);
+            assertThat(event.getFloat("topScore")).isEqualTo(1f);
+            assertThat(event.getLong("payloadBytes")).isPositive();
+            assertThat(event.getDuration()).isPositive();
+        }
+    }
+
+    @Test
+    public void disabledEvents() {
+        assertThat(NLUServerPredictEvent.begin("JfrBot", "context1")).isNull();
+        assertThat(NLUServerMappingEvent.begin("JfrBot", "context1")).isNull();
+    }
+
+    @Test
+    public void enabledAfterDisabled() {
+        assertThat(NLUServerPredictEvent.begin("JfrBot", "context1")).isNull();
+        try (Recording recording = new Recording()) {
+            recording.enable(NLUServerPredictEvent.class);
+            recording.start();
+            NLUServerPredictEvent event = NLUServerPredictEvent.begin("JfrBot", "context1");
+            assertThat(event).isNotNull();
+            event.complete(200, null);
+            recording.stop();
+        }
+        assertThat(NLUServerPredictEvent.begin("JfrBot", "context1")).isNull();
+    }
+
+    @Test
+    public void flightRecorderAvailable() {
+        assertThat(NLUServerFlightRecorder.isAvailable()).isTrue();
+    }
+
+    private static List<RecordedEvent> eventsOfType(List<RecordedEvent> events, String name) {
+        return events.stream().filter(e -> e.getEventType().getName().equals(name)).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,124 @@
+package com.xatkit.core.recognition.nluserver.json;
+
+import com.xatkit.core.recognition.nluserver.mapper.dsl.BaseEntityType;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.BotData;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.CustomEntityType;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.CustomEntityTypeEntry;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.EntityParameter;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Intent;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.NLUContext;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NLUServerBotDataWriterTest {
+
+    private BotData botData;
+
+    private NLUServerBotDataWriter writer;
+
+    @Before
+    public void setUp() {
+        botData = new BotData("MyBot");
+        writer = new NLUServerBotDataWriter();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void writeNullBot() throws IOException {
+        writer.write(null, new ByteArrayOutputStream());
+    }
+
+    @Test
+    public void writeEmptyBot() throws IOException {
+        Map<String, Object> definition = writeAndRead(botData);
+        assertThat(definition).containsEntry("name", "MyBot");
+        assertThat((List<?>) definition.get("contexts")).isEmpty();
+        assertThat((List<?>) definition.get("entities")).isEmpty();
+        assertThat((List<?>) definition.get("intents")).isEmpty();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void writeBot() throws IOException {
+        CustomEntityType cities = new CustomEntityType("cities");
+        cities.addEntry(new CustomEntityTypeEntry("Barcelona", Arrays.asList("BCN", "Barna")));
+        BaseEntityType any = new BaseEntityType("@sys.any");
+        Intent intent = new Intent("LiveIn");
+        intent.addTrainingSentence("I live in \"Barcelona\"");
+        intent.addAllParameters(Arrays.asList(new EntityParameter("city", "Barcelona", cities)));
+        NLUContext context = new NLUContext("Init");
+        context.addIntentReference(intent);
+        botData.addEntityType(cities);
+        botData.addEntityType(any);
+        botData.addIntent(intent);
+        botData.addNLUContext(context);
+
+        Map<String, Object> definition = writeAndRead(botData);
+
+        List<Map<String, Object>> contexts = (List<Map<String, Object>>) definition.get("contexts");
+        assertThat(contexts).hasSize(1);
+        assertThat(contexts.get(0)).containsEntry("name", "Init");
+        List<Map<String, Object>> intentRefs = (List<Map<String, Object>>) contexts.get(0).get("intent_refs");
+        assertThat(intentRefs).hasSize(1);
+        assertThat(intentRefs.get(0)).containsEntry("intent", "LiveIn");
+
+        List<Map<String, Object>> entities = (List<Map<String, Object>>) definition.get("entities");
+        assertThat(entities).hasSize(2);
+        List<Map<String, Object>> entries = (List<Map<String, Object>>) entities.get(0).get("entries");
+        assertThat(entries).hasSize(1);
+        assertThat(entries.get(0)).containsEntry("value", "Barcelona");
+        assertThat((List<Object>) entries.get(0).get("synonyms")).containsExactly("BCN", "Barna");
+        assertThat((List<?>) entities.get(1).get("entries")).isEmpty();
+
+        List<Map<String, Object>> intents = (List<Map<String, Object>>) definition.get("intents");
+        assertThat(intents).hasSize(1);
+        assertThat((List<Object>) intents.get(0).get("training_sentences")).containsExactly("I live in "
+                + "\"Barcelona\"");
+        List<Map<String, Object>> parameters = (List<Map<String, Object>>) intents.get(0).get("parameters");
+        assertThat(parameters).hasSize(1);
+        assertThat(parameters.get(0)).containsEntry("name", "city").containsEntry("fragment", "Barcelona")
+                .containsEntry("entity", "cities");
+    }
+
+    @Test
+    public void streamBot() throws IOException {
+        Intent intent = new Intent("Greetings");
+        intent.addTrainingSentence("Hello");
+        botData.addIntent(intent);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        writer.write(botData.snapshot(), "MyBot-blue", expected);
+        try (InputStream in = writer.stream(botData.snapshot(), "MyBot-blue", false)) {
+            assertThat(in).hasSameContentAs(new ByteArrayInputStream(expected.toByteArray()));
+        }
+    }
+
+    @Test
+    public void streamCompressedBot() throws IOException {
+        Intent intent = new Intent("Greetings");
+        intent.addTrainingSentence("Hello");
+        botData.addIntent(intent);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        writer.write(botData.snapshot(), "MyBot-blue", expected);
+        try (InputStream in = new GZIPInputStream(writer.stream(botData.snapshot(), "MyBot-blue", true))) {
+            assertThat(in).hasSameContentAs(new ByteArrayInputStream(expected.toByteArray()));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> writeAndRead(BotData bot) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.write(bot, out);
+        return (Map<String, Object>) NLUServerJsonUtils.readValue(NLUServerJsonUtils.newReader(
+                new ByteArrayInputStream(out.toByteArray())));
+    }
+}
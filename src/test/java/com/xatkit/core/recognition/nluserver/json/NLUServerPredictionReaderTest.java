@@ -0,0 +1,129 @@
+package com.xatkit.core.recognition.nluserver.json;
+
+import com.xatkit.core.recognition.nluserver.mapper.NLUServerIntentTable;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.BotData;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Classification;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Intent;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.MatchedParam;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Prediction;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NLUServerPredictionReaderTest {
+
+    private static final String PREDICTION = "{\"classifications\": ["
+            + "{\"intent\": \"intent1\", \"score\": 0.25, \"matched_utterance\": \"hello\", "
+            + "\"matched_parameters\": []},"
+            + "{\"intent\": \"intent2\", \"score\": 0.75, \"matched_utterance\": \"I live in \\\"Barcelona\\\"\", "
+            + "\"matched_parameters\": [{\"name\": \"city\", \"value\": \"Barcelona\", "
+            + "\"info\": {\"start\": 10, \"labels\": [\"GPE\"], \"extra\": null}}]}"
+            + "], \"unknown\": {\"nested\": [1, 2.5, true]}}";
+
+    private Intent intent1;
+
+    private Intent intent2;
+
+    private NLUServerPredictionReader reader;
+
+    @Before
+    public void setUp() {
+        BotData bot = new BotData("MyBot");
+        intent1 = new Intent("intent1");
+        intent2 = new Intent("intent2");
+        bot.addIntent(intent1);
+        bot.addIntent(intent2);
+        NLUServerIntentTable intentTable = new NLUServerIntentTable(bot.snapshot(), name -> null);
+        reader = new NLUServerPredictionReader(() -> intentTable);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void constructNullIntentResolver() {
+        new NLUServerPredictionReader(null);
+    }
+
+    @Test
+    public void readPrediction() throws IOException {
+        Prediction prediction = reader.readPrediction(toInputStream(PREDICTION));
+        assertThat(prediction.getClassifications()).hasSize(2);
+        assertThat(prediction.getIntentId(prediction.getTopIndex())).isEqualTo(1);
+        Classification top = prediction.getTopClassification();
+        assertThat(top.getIntent()).isEqualTo(intent2);
+        assertThat(top.getScore()).isEqualTo(0.75f);
+        assertThat(top.getMatchedUtterance()).isEqualTo("I live in \"Barcelona\"");
+        assertThat(top.getMatchedParams()).hasSize(1);
+        MatchedParam param = top.getMatchedParams().get(0);
+        assertThat(param.getParamName()).isEqualTo("city");
+        assertThat(param.getValue()).isEqualTo("Barcelona");
+        assertThat(param.getInfoItem("start")).isEqualTo(10);
+        assertThat((List<?>) param.getInfoItem("labels")).containsExactly("GPE");
+        assertThat(param.getInfo()).containsKey("extra");
+    }
+
+    @Test
+    public void readEmptyPrediction() throws IOException {
+        Prediction prediction = reader.readPrediction(toInputStream("{\"classifications\": []}"));
+        assertThat(prediction.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void readPredictions() throws IOException {
+        List<Prediction> predictions = reader.readPredictions(toInputStream("{\"predictions\": [" + PREDICTION + ", "
+                + "{\"classifications\": []}]}"));
+        assertThat(predictions).hasSize(2);
+        assertThat(predictions.get(0).getClassifications()).hasSize(2);
+        assertThat(predictions.get(1).isEmpty()).isTrue();
+    }
+
+    @Test(expected = IOException.class)
+    public void readMalformedPrediction() throws IOException {
+        reader.readPrediction(toInputStream("{\"classifications\": [{\"intent\": \"intent1"));
+    }
+
+    @Test(expected = IOException.class)
+    public void readPredictionMissingComma() throws IOException {
+        reader.readPrediction(toInputStream("{\"classifications\": [{\"intent\": \"intent1\" \"score\": 0.5}]}"));
+    }
+
+    @Test(expected = IOException.class)
+    public void readPredictionMissingColon() throws IOException {
+        reader.readPrediction(toInputStream("{\"classifications\" [{\"intent\": \"intent1\", \"score\": 0.5}]}"));
+    }
+
+    @Test(expected = IOException.class)
+    public void readPredictionInvalidValue() throws IOException {
+        reader.readPrediction(toInputStream("{\"classifications\": [{\"intent\": \"intent1\", \"score\": #}]}"));
+    }
+
+    @Test(expected = IOException.class)
+    public void readPredictionInvalidScore() throws IOException {
+        reader.readPrediction(toInputStream("{\"classifications\": [{\"intent\": \"intent1\", \"score\": "
+                + "\"high\"}]}"));
+    }
+
+    @Test(expected = IOException.class)
+    public void readPredictionUnexpectedType() throws IOException {
+        reader.readPrediction(toInputStream("{\"classifications\": {\"intent\": \"intent1\"}}"));
+    }
+
+    @Test(expected = IOException.class)
+    public void readPredictionTrailingContent() throws IOException {
+        reader.readPrediction(toInputStream("{\"classifications\": []} {}"));
+    }
+
+    @Test(expected = IOException.class)
+    public void readPredictionsMalformed() throws IOException {
+        reader.readPredictions(toInputStream("{\"predictions\": [{\"classifications\": []} {}]}"));
+    }
+
+    private static InputStream toInputStream(String value) {
+        return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,75 @@
+package com.xatkit.core.recognition.nluserver.mapper;
+
+import com.xatkit.core.recognition.nluserver.mapper.dsl.BotData;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Intent;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Prediction;
+import com.xatkit.dsl.DSL;
+import com.xatkit.intent.IntentDefinition;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NLUServerIntentTableTest {
+
+    private BotData bot;
+
+    private Intent greetings;
+
+    private Intent bye;
+
+    private IntentDefinition greetingsDefinition;
+
+    private Map<String, IntentDefinition> definitions;
+
+    @Before
+    public void setUp() {
+        bot = new BotData("MyBot");
+        greetings = new Intent("Greetings");
+        bye = new Intent("Bye");
+        bot.addIntent(greetings);
+        bot.addIntent(bye);
+        bot.addIntent(new Intent("Greetings"));
+        greetingsDefinition = DSL.intent("Greetings").trainingSentence("Hi").getIntentDefinition();
+        definitions = new HashMap<>();
+        definitions.put("Greetings", greetingsDefinition);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void constructNullBot() {
+        new NLUServerIntentTable(null, definitions::get);
+    }
+
+    @Test
+    public void construct() {
+        NLUServerIntentTable table = new NLUServerIntentTable(bot.snapshot(), definitions::get);
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.getId("Greetings")).isEqualTo(0);
+        assertThat(table.getId("Bye")).isEqualTo(1);
+        assertThat(table.getId("Unknown")).isEqualTo(NLUServerIntentTable.UNKNOWN_INTENT);
+        assertThat(table.getIntent(0)).isEqualTo(greetings);
+        assertThat(table.getIntent(1)).isEqualTo(bye);
+        assertThat(table.getIntent(NLUServerIntentTable.UNKNOWN_INTENT)).isNull();
+        assertThat(table.getIntentDefinition(0)).isSameAs(greetingsDefinition);
+        assertThat(table.getIntentDefinition(1)).isNull();
+    }
+
+    @Test
+    public void getIntentDefinitionFromPrediction() {
+        NLUServerIntentTable table = new NLUServerIntentTable(bot.snapshot(), definitions::get);
+        Prediction prediction = new Prediction();
+        prediction.addClassification(table.getId("Greetings"), greetings, 0.9f, null, null);
+        assertThat(table.getIntentDefinition(prediction, 0)).isSameAs(greetingsDefinition);
+    }
+
+    @Test
+    public void getIntentDefinitionFromPredictionReadWithAnotherTable() {
+        NLUServerIntentTable table = new NLUServerIntentTable(bot.snapshot(), definitions::get);
+        Prediction prediction = new Prediction();
+        prediction.addClassification(0, new Intent("Greetings"), 0.9f, null, null);
+        assertThat(table.getIntentDefinition(prediction, 0)).isNull();
+    }
+}
@@ -0,0 +1,115 @@
+package com.xatkit.core.recognition.nluserver.mapper;
+
+import com.xatkit.core.EventDefinitionRegistry;
+import com.xatkit.core.recognition.nluserver.NLUServerConfiguration;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.BotData;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Classification;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Intent;
+import com.xatkit.core.recognition.nluserver.mapper.dsl.Prediction;
+import com.xatkit.dsl.DSL;
+import com.xatkit.intent.IntentDefinition;
+import com.xatkit.intent.RecognizedIntent;
+import org.apache.commons.configuration2.BaseConfiguration;
+import org.apache.commons.configuration2.Configuration;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NLUServerRecognizedIntentMapperTest {
+
+    private IntentDefinition greetings;
+
+    private IntentDefinition howAreYou;
+
+    private IntentDefinition bye;
+
+    private NLUServerRecognizedIntentMapper mapper;
+
+    private Prediction prediction;
+
+    @Before
+    public void setUp() {
+        greetings = DSL.intent("Greetings").trainingSentence("Hi").getIntentDefinition();
+        howAreYou = DSL.intent("HowAreYou").trainingSentence("How are you?").getIntentDefinition();
+        bye = DSL.intent("Bye").trainingSentence("Bye").getIntentDefinition();
+        EventDefinitionRegistry eventRegistry = new EventDefinitionRegistry();
+        eventRegistry.registerEventDefinition(greetings);
+        eventRegistry.registerEventDefinition(howAreYou);
+        eventRegistry.registerEventDefinition(bye);
+        Configuration configuration = new BaseConfiguration();
+        configuration.addProperty(NLUServerConfiguration.BOT_NAME, "BOTPROJECT");
+        configuration.addProperty(NLUServerConfiguration.URL, "BOTURL");
+        configuration.addProperty(NLUServerConfiguration.CONFIDENCE_THRESHOLD, 0.3f);
+        mapper = new NLUServerRecognizedIntentMapper(new NLUServerConfiguration(configuration), eventRegistry);
+        prediction = new Prediction();
+        prediction.addClassification(createClassification("Bye", 0.1f));
+        prediction.addClassification(createClassification("HowAreYou", 0.4f));
+        prediction.addClassification(createClassification("Greetings", 0.5f));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void mapNullPrediction() {
+        mapper.mapRecognitionResult(null);
+    }
+
+    @Test
+    public void mapRecognitionResult() {
+        List<RecognizedIntent> recognizedIntents = mapper.mapRecognitionResult(prediction);
+        assertThat(recognizedIntents).hasSize(2);
+        assertThat(recognizedIntents.get(0).getDefinition()).isEqualTo(greetings);
+        assertThat(recognizedIntents.get(0).getRecognitionConfidence()).isEqualTo(0.5f);
+        assertThat(recognizedIntents.get(1).getDefinition()).isEqualTo(howAreYou);
+    }
+
+    @Test
+    public void mapBestRecognitionResultTopAccessible() {
+        List<RecognizedIntent> recognizedIntents = mapper.mapBestRecognitionResult(prediction, d -> true);
+        assertThat(recognizedIntents).hasSize(1);
+        assertThat(recognizedIntents.get(0).getDefinition()).isEqualTo(greetings);
+    }
+
+    @Test
+    public void mapBestRecognitionResultSecondAccessible() {
+        List<RecognizedIntent> recognizedIntents = mapper.mapBestRecognitionResult(prediction,
+                d -> d.equals(howAreYou));
+        assertThat(recognizedIntents).hasSize(1);
+        assertThat(recognizedIntents.get(0).getDefinition()).isEqualTo(howAreYou);
+        assertThat(recognizedIntents.get(0).getRecognitionConfidence()).isEqualTo(0.4f);
+    }
+
+    @Test
+    public void mapBestRecognitionResultBelowThreshold() {
+        List<RecognizedIntent> recognizedIntents = mapper.mapBestRecognitionResult(prediction, d -> d.equals(bye));
+        assertThat(recognizedIntents).hasSize(1);
+        assertThat(recognizedIntents.get(0).getDefinition()).isEqualTo(greetings);
+    }
+
+    @Test
+    public void mapBestRecognitionResultEmptyPrediction() {
+        assertThat(mapper.mapBestRecognitionResult(new Prediction(), d -> true)).isEmpty();
+    }
+
+    @Test
+    public void mapBestRecognitionResultWithIntentTable() {
+        IntentDefinition tableDefinition = DSL.intent("Greetings").trainingSentence("Hello").getIntentDefinition();
+        BotData bot = new BotData("MyBot");
+        Intent intent = new Intent("Greetings");
+        bot.addIntent(intent);
+        NLUServerIntentTable intentTable = new NLUServerIntentTable(bot.snapshot(), name -> tableDefinition);
+        prediction.addClassification(intentTable.getId("Greetings"), intent, 0.9f, "input", null);
+        List<RecognizedIntent> recognizedIntents = mapper.mapBestRecognitionResult(prediction, intentTable,
+                d -> true);
+        assertThat(recognizedIntents.get(0).getDefinition()).isSameAs(tableDefinition);
+    }
+
+    private static Classification createClassification(String intentName, float score) {
+        Classification classification = new Classification();
+        classification.setIntent(new Intent(intentName));
+        classification.setScore(score);
+        classification.setMatchedUtterance("input");
+        return classification;
+    }
+}
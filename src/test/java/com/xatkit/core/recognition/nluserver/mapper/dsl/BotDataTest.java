@@ -0,0 +1,134 @@
+package com.xatkit.core.recognition.nluserver.mapper.dsl;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BotDataTest {
+
+    private BotData bot;
+
+    @Before
+    public void setUp() {
+        bot = new BotData("MyBot");
+    }
+
+    @Test
+    public void addIntent() {
+        Intent intent = new Intent("Greetings");
+        bot.addIntent(intent);
+        assertThat(bot.containsIntent("Greetings")).isTrue();
+        assertThat(bot.getIntent("Greetings")).isSameAs(intent);
+        assertThat(bot.getIntents()).containsExactly(intent);
+        assertThat(bot.containsIntent("Unknown")).isFalse();
+        assertThat(bot.getIntent("Unknown")).isNull();
+    }
+
+    @Test
+    public void addDuplicatedIntent() {
+        Intent first = new Intent("Greetings");
+        Intent second = new Intent("Greetings");
+        bot.addIntent(first);
+        bot.addIntent(second);
+        assertThat(bot.getIntents()).containsExactly(first, second);
+        assertThat(bot.getIntent("Greetings")).isSameAs(first);
+    }
+
+    @Test
+    public void addNLUContext() {
+        NLUContext context = new NLUContext("Init");
+        bot.addNLUContext(context);
+        assertThat(bot.containsNLUContext("Init")).isTrue();
+        assertThat(bot.getNluContext("Init")).isSameAs(context);
+        assertThat(bot.getNluContext("Unknown")).isNull();
+    }
+
+    @Test
+    public void addEntityType() {
+        CustomEntityType entityType = new CustomEntityType("cities");
+        bot.addEntityType(entityType);
+        assertThat(bot.getEntityType("cities")).isSameAs(entityType);
+        assertThat(bot.getEntityType("Unknown")).isNull();
+    }
+
+    @Test
+    public void setIntents() {
+        bot.addIntent(new Intent("Greetings"));
+        Intent intent = new Intent("LiveIn");
+        bot.setIntents(Arrays.asList(intent));
+        assertThat(bot.containsIntent("Greetings")).isFalse();
+        assertThat(bot.getIntent("LiveIn")).isSameAs(intent);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void modifyIntents() {
+        bot.getIntents().add(new Intent("Greetings"));
+    }
+
+    @Test
+    public void snapshot() {
+        Intent intent = new Intent("Greetings");
+        NLUContext context = new NLUContext("Init");
+        bot.addIntent(intent);
+        bot.addNLUContext(context);
+        BotSnapshot snapshot = bot.snapshot();
+        assertThat(snapshot.getBotName()).isEqualTo("MyBot");
+        assertThat(snapshot.getIntents()).containsExactly(intent);
+        assertThat(snapshot.getIntent("Greetings")).isEqualTo(intent).isNotSameAs(intent);
+        assertThat(snapshot.getNluContext("Init")).isEqualTo(context).isNotSameAs(context);
+    }
+
+    @Test
+    public void snapshotResolvesLinks() {
+        Intent intent = new Intent("LiveIn");
+        intent.addAllParameters(Collections.singletonList(new EntityParameter("city", "Barcelona", "city")));
+        NLUContext context = new NLUContext("Init");
+        context.addAllIntentReferences(Collections.singletonList(new IntentReference("LiveIn")));
+        BaseEntityType city = new BaseEntityType("city");
+        bot.addIntent(intent);
+        bot.addNLUContext(context);
+        bot.addEntityType(city);
+        BotSnapshot snapshot = bot.snapshot();
+        Intent snapshotIntent = snapshot.getIntent("LiveIn");
+        assertThat(snapshotIntent.getParameters().get(0).getType()).isSameAs(city);
+        assertThat(snapshot.getNluContext("Init").getIntentReferences().get(0).getIntent()).isSameAs(snapshotIntent);
+        assertThat(intent.getParameters().get(0).getType()).isNull();
+        assertThat(context.getIntentReferences().get(0).getIntent()).isNull();
+    }
+
+    @Test
+    public void snapshotNotAffectedByModification() {
+        Intent intent = new Intent("Greetings");
+        intent.addTrainingSentence("Hi");
+        bot.addIntent(intent);
+        BotSnapshot snapshot = bot.snapshot();
+        intent.addTrainingSentence("Hello");
+        assertThat(snapshot.getIntent("Greetings").getTrainingSentences()).containsExactly("Hi");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void modifySnapshotTrainingSentences() {
+        bot.addIntent(new Intent("Greetings"));
+        bot.snapshot().getIntent("Greetings").addTrainingSentence("Hi");
+    }
+
+    @Test
+    public void snapshotNotAffectedByRegistration() {
+        bot.addIntent(new Intent("Greetings"));
+        BotSnapshot snapshot = bot.snapshot();
+        bot.addIntent(new Intent("LiveIn"));
+        bot.addNLUContext(new NLUContext("Init"));
+        assertThat(snapshot.getIntents()).hasSize(1);
+        assertThat(snapshot.containsIntent("LiveIn")).isFalse();
+        assertThat(snapshot.containsNLUContext("Init")).isFalse();
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void modifySnapshotIntents() {
+        bot.snapshot().getIntents().add(new Intent("Greetings"));
+    }
+}
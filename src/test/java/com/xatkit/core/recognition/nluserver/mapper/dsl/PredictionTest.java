@@ -0,0 +1,176 @@
+package com.xatkit.core.recognition.nluserver.mapper.dsl;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PredictionTest {
+
+    private Prediction prediction;
+
+    private Classification bye;
+
+    private Classification howAreYou;
+
+    private Classification greetings;
+
+    @Before
+    public void setUp() {
+        prediction = new Prediction();
+        bye = createClassification("Bye", 0.1f);
+        howAreYou = createClassification("HowAreYou", 0.4f);
+        greetings = createClassification("Greetings", 0.5f);
+        prediction.addClassification(bye);
+        prediction.addClassification(greetings);
+        prediction.addClassification(howAreYou);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getTopClassificationEmptyPrediction() {
+        new Prediction().getTopClassification();
+    }
+
+    @Test
+    public void getTopClassification() {
+        assertThat(prediction.getTopClassification()).isEqualTo(greetings);
+        assertThat(prediction.getTopScore()).isEqualTo(0.5f);
+    }
+
+    @Test
+    public void getTopClassificationSameScores() {
+        Classification other = createClassification("Other", 0.5f);
+        prediction.addClassification(other);
+        assertThat(prediction.getTopClassification()).isEqualTo(greetings);
+    }
+
+    @Test
+    public void getScore() {
+        assertThat(prediction.getScore(0)).isEqualTo(0.1f);
+        assertThat(prediction.getScore(2)).isEqualTo(0.4f);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getScoreInvalidIndex() {
+        prediction.getScore(3);
+    }
+
+    @Test
+    public void getTopClassifications() {
+        assertThat(prediction.getTopClassifications(2)).containsExactly(greetings, howAreYou);
+        assertThat(prediction.getTopClassifications(5)).containsExactly(greetings, howAreYou, bye);
+        assertThat(prediction.getTopClassifications(0)).isEmpty();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void getTopClassificationsNegativeK() {
+        prediction.getTopClassifications(-1);
+    }
+
+    @Test
+    public void top() {
+        Prediction top = prediction.top(2);
+        assertThat(top.getClassifications()).containsExactly(greetings, howAreYou);
+        assertThat(top.getTopScore()).isEqualTo(0.5f);
+        assertThat(prediction.top(0).isEmpty()).isTrue();
+    }
+
+    @Test
+    public void addClassificationWithValues() {
+        Intent intent = new Intent("Other");
+        MatchedParam param = new MatchedParam("city", "Barcelona", new HashMap<>());
+        prediction.addClassification(2, intent, 0.9f, "I live in Barcelona", Collections.singletonList(param));
+        assertThat(prediction.getTopIndex()).isEqualTo(3);
+        assertThat(prediction.getIntentId(3)).isEqualTo(2);
+        assertThat(prediction.getIntent(3)).isSameAs(intent);
+        assertThat(prediction.getMatchedUtterance(3)).isEqualTo("I live in Barcelona");
+        assertThat(prediction.getMatchedParams(3)).extracting(MatchedParam::getValue).containsExactly("Barcelona");
+        assertThat(prediction.getMatchedParams(0)).isEmpty();
+        Classification top = prediction.getTopClassification();
+        assertThat(top.getIntent()).isSameAs(intent);
+        assertThat(top.getScore()).isEqualTo(0.9f);
+        assertThat(top.getMatchedParams()).extracting(MatchedParam::getParamName).containsExactly("city");
+    }
+
+    @Test
+    public void getIntentIdAddedClassification() {
+        assertThat(prediction.getIntentId(0)).isEqualTo(Prediction.UNKNOWN_INTENT_ID);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void getTopIndexEmptyPrediction() {
+        new Prediction().getTopIndex();
+    }
+
+    @Test
+    public void modifyAddedClassification() {
+        greetings.setScore(0.01f);
+        assertThat(prediction.getTopClassification().getScore()).isEqualTo(0.5f);
+    }
+
+    @Test
+    public void modifyClassificationView() {
+        prediction.getTopClassification().setScore(0.01f);
+        prediction.getTopClassification().addMatchedParam(new MatchedParam("city", "Barcelona", new HashMap<>()));
+        assertThat(prediction.getTopScore()).isEqualTo(0.5f);
+        assertThat(prediction.getMatchedParams(prediction.getTopIndex())).isEmpty();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void addClassificationReadOnly() {
+        prediction.setReadOnly();
+        prediction.addClassification(createClassification("Other", 1f));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void modifyMatchedParams() {
+        Map<String, Object> info = new HashMap<>();
+        info.put("labels", new ArrayList<>(Collections.singletonList("GPE")));
+        prediction.addClassification(0, new Intent("Other"), 0.9f, null,
+                Collections.singletonList(new MatchedParam("city", "Barcelona", info)));
+        MatchedParam param = prediction.getMatchedParams(3).get(0);
+        param.setValue("Paris");
+        param.getInfo().put("start", 10);
+        ((List<Object>) param.getInfo().get("labels")).add("LOC");
+        prediction.getTopClassification().getMatchedParams().get(0).getInfo().clear();
+        MatchedParam stored = prediction.getMatchedParams(3).get(0);
+        assertThat(stored.getValue()).isEqualTo("Barcelona");
+        assertThat(stored.getInfo()).containsOnlyKeys("labels");
+        assertThat((List<Object>) stored.getInfo().get("labels")).containsExactly("GPE");
+    }
+
+    @Test
+    public void rank() {
+        assertThat(prediction.rank(0.3f)).containsExactly(1, 2);
+        assertThat(prediction.rank(0.5f)).isEmpty();
+    }
+
+    @Test
+    public void addManyClassifications() {
+        for (int i = 0; i < 10; i++) {
+            prediction.addClassification(createClassification("Intent" + i, i / 100f));
+        }
+        assertThat(prediction.size()).isEqualTo(13);
+        assertThat(prediction.getTopClassification()).isEqualTo(greetings);
+        assertThat(prediction.getScore(12)).isEqualTo(0.09f);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void modifyClassifications() {
+        prediction.getClassifications().add(createClassification("Other", 1f));
+    }
+
+    private static Classification createClassification(String intentName, float score) {
+        Classification classification = new Classification();
+        classification.setIntent(new Intent(intentName));
+        classification.setScore(score);
+        return classification;
+    }
+}
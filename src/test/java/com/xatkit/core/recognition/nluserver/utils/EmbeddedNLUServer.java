@@ -0,0 +1,681 @@
+package com.xatkit.core.recognition.nluserver.utils;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.xatkit.core.recognition.nluserver.json.NLUServerJsonUtils;
+import fr.inria.atlanmod.commons.log.Log;
+
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+
+import static fr.inria.atlanmod.commons.Preconditions.checkArgument;
+import static fr.inria.atlanmod.commons.Preconditions.checkState;
+
+/**
+ * An in-process stand-in for the Xatkit NLU server.
+ * <p>
+ * This server implements the {@code /bot/new/}, {@code /bot/{botname}/initialize/}, {@code /bot/{botname}/train/},
+ * {@code /bot/{botname}/predict/}, and {@code /bot/{botname}/predict/batch/} endpoints used by the
+ * {@link com.xatkit.core.recognition.nluserver.NLUServerClientAPIWrapper}, and can be used to run end-to-end tests
+ * and load benchmarks without deploying an actual NLU server.
+ * <p>
+ * The predictions are computed with a deterministic classifier: the score of an intent is the highest Jaccard
+ * similarity between the tokens of the utterance and the tokens of one of its training sentences. Only the intents
+ * of the requested context are classified, and the classifications are returned by decreasing score.
+ * <p>
+ * The prediction endpoints can be configured to simulate a remote server: {@link #setLatency(long)} and
+ * {@link #setJitter(long)} delay the responses, and {@link #setErrorRate(double)} makes a fraction of the
+ * predictions fail with a {@code 500} status. The jitter and errors are drawn from a {@link Random} initialized
+ * with {@link #setSeed(long)}, so that a sequential run is repeatable. Deployment and training requests are never
+ * delayed nor failed.
+ * <p>
+ * Example:
+ * <pre>
+ * {@code
+ * try (EmbeddedNLUServer server = new EmbeddedNLUServer()) {
+ *     server.setLatency(20);
+ *     server.start();
+ *     configuration.addProperty(NLUServerConfiguration.URL, server.getUrl());
+ *     // ...
+ * }
+ * }
+ * </pre>
+ */
+public class EmbeddedNLUServer implements AutoCloseable {
+
+    /**
+     * The pattern matching the bot-specific endpoints.
+     */
+    private static final Pattern BOT_ENDPOINT =
+            Pattern.compile("^/bot/([^/]+)/(initialize|train|predict|predict/batch)/?$");
+
+    /**
+     * The pattern splitting sentences into tokens.
+     */
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * The bots deployed on the server, mapped by name.
+     */
+    private final Map<String, EmbeddedBot> bots = new ConcurrentHashMap<>();
+
+    /**
+     * The number of prediction requests received by the server.
+     * <p>
+     * A batch request counts as a single request.
+     */
+    private final AtomicLong predictionRequestCount = new AtomicLong();
+
+    /**
+     * The number of training requests received by the server.
+     */
+    private final AtomicLong trainingRequestCount = new AtomicLong();
+
+    /**
+     * The fixed delay (in milliseconds) added to each prediction request.
+     */
+    private volatile long latency = 0;
+
+    /**
+     * The maximum random delay (in milliseconds) added to {@link #latency}.
+     */
+    private volatile long jitter = 0;
+
+    /**
+     * The probability that a prediction request fails with a {@code 500} status.
+     */
+    private volatile double errorRate = 0;
+
+    /**
+     * Whether the server implements the batch prediction endpoint.
+     */
+    private volatile boolean batchEnabled = true;
+
+    /**
+     * The {@link Random} used to compute the jitter and inject errors.
+     */
+    private volatile Random random = new Random(0);
+
+    /**
+     * The underlying {@link HttpServer}, or {@code null} if the server is not started.
+     */
+    private HttpServer httpServer;
+
+    /**
+     * The {@link ExecutorService} handling the requests, or {@code null} if the server is not started.
+     */
+    private ExecutorService executor;
+
+    /**
+     * Starts the server on an ephemeral port of the loopback interface.
+     *
+     * @throws IllegalStateException if the server is already started
+     * @throws UncheckedIOException  if the server cannot be bound
+     * @see #getUrl()
+     */
+    public synchronized void start() {
+        checkState(httpServer == null, "The %s is already started", EmbeddedNLUServer.class.getSimpleName());
+        try {
+            httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot start the embedded NLU server", e);
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = Executors.newCachedThreadPool(r -> {
+            Thread thread = new Thread(r, "embedded-nlu-server-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpServer.setExecutor(executor);
+        httpServer.createContext("/", this::handle);
+        httpServer.start();
+        Log.info("Embedded NLU server started at {0}", getUrl());
+    }
+
+    /**
+     * Stops the server.
+     * <p>
+     * This method does nothing if the server is not started. The deployed bots are kept, and are available if the
+     * server is restarted.
+     */
+    public synchronized void stop() {
+        if (httpServer != null) {
+            httpServer.stop(0);
+            executor.shutdownNow();
+            httpServer = null;
+            executor = null;
+        }
+    }
+
+    /**
+     * Stops the server.
+     *
+     * @see #stop()
+     */
+    @Override
+    public void close() {
+        stop();
+    }
+
+    /**
+     * Returns the base URL of the server.
+     *
+     * @return the base URL of the server
+     * @throws IllegalStateException if the server is not started
+     */
+    public synchronized String getUrl() {
+        checkState(httpServer != null, "The %s is not started", EmbeddedNLUServer.class.getSimpleName());
+        InetSocketAddress address = httpServer.getAddress();
+        return "http://" + address.getHostString() + ":" + address.getPort();
+    }
+
+    /**
+     * Sets the fixed delay added to each prediction request.
+     *
+     * @param latency the delay in milliseconds
+     * @throws IllegalArgumentException if the provided {@code latency} is negative
+     */
+    public void setLatency(long latency) {
+        checkArgument(latency >= 0, "Cannot set the latency to %s, expected a positive value", latency);
+        this.latency = latency;
+    }
+
+    /**
+     * Sets the maximum random delay added to the {@link #setLatency(long) latency} of each prediction request.
+     *
+     * @param jitter the maximum delay in milliseconds
+     * @throws IllegalArgumentException if the provided {@code jitter} is negative
+     */
+    public void setJitter(long jitter) {
+        checkArgument(jitter >= 0, "Cannot set the jitter to %s, expected a positive value", jitter);
+        this.jitter = jitter;
+    }
+
+    /**
+     * Sets the probability that a prediction request fails with a {@code 500} status.
+     *
+     * @param errorRate the probability, between {@code 0} and {@code 1}
+     * @throws IllegalArgumentException if the provided {@code errorRate} is not between {@code 0} and {@code 1}
+     */
+    public void setErrorRate(double errorRate) {
+        checkArgument(errorRate >= 0 && errorRate <= 1, "Cannot set the error rate to %s, expected a value between "
+                + "0 and 1", errorRate);
+        this.errorRate = errorRate;
+    }
+
+    /**
+     * Sets whether the server implements the batch prediction endpoint.
+     * <p>
+     * If disabled, batch prediction requests are answered with a {@code 404} status, like a server that does not
+     * implement the endpoint.
+     *
+     * @param batchEnabled {@code true} to enable the batch prediction endpoint, {@code false} otherwise
+     */
+    public void setBatchEnabled(boolean batchEnabled) {
+        this.batchEnabled = batchEnabled;
+    }
+
+    /**
+     * Sets the seed of the {@link Random} used to compute the jitter and inject errors.
+     *
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Returns the number of prediction requests received by the server.
+     * <p>
+     * A batch prediction request counts as a single request.
+     *
+     * @return the number of prediction requests
+     */
+    public long getPredictionRequestCount() {
+        return predictionRequestCount.get();
+    }
+
+    /**
+     * Returns the number of training requests received by the server.
+     *
+     * @return the number of training requests
+     */
+    public long getTrainingRequestCount() {
+        return trainingRequestCount.get();
+    }
+
+    /**
+     * Returns whether a bot with the provided {@code name} is deployed and trained on the server.
+     *
+     * @param name the name of the bot
+     * @return {@code true} if the bot is trained, {@code false} otherwise
+     */
+    public boolean isTrained(String name) {
+        EmbeddedBot bot = bots.get(name);
+        return bot != null && bot.trained;
+    }
+
+    /**
+     * Dispatches the provided {@code exchange} to the corresponding endpoint.
+     *
+     * @param exchange the {@link HttpExchange} to handle
+     * @throws IOException if an error occurred when reading the request or writing the response
+     */
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Unsupported method " + exchange.getRequestMethod());
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            if (path.equals("/bot/new/") || path.equals("/bot/new")) {
+                handleNewBot(exchange);
+                return;
+            }
+            Matcher matcher = BOT_ENDPOINT.matcher(path);
+            if (!matcher.matches() || (!batchEnabled && matcher.group(2).equals("predict/batch"))) {
+                sendError(exchange, 404, "Unknown endpoint " + path);
+                return;
+            }
+            EmbeddedBot bot = bots.get(matcher.group(1));
+            if (bot == null) {
+                sendError(exchange, 404, "Unknown bot " + matcher.group(1));
+                return;
+            }
+            switch (matcher.group(2)) {
+                case "initialize":
+                    handleInitialize(exchange, bot);
+                    break;
+                case "train":
+                    handleTrain(exchange, bot);
+                    break;
+                case "predict":
+                    handlePredict(exchange, bot);
+                    break;
+                default:
+                    handleBatchPredict(exchange, bot);
+                    break;
+            }
+        } catch (IOException | RuntimeException e) {
+            Log.error(e, "Error when handling the request {0}", exchange.getRequestURI());
+            sendError(exchange, 500, String.valueOf(e.getMessage()));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Handles a bot creation request.
+     * <p>
+     * An existing bot is only replaced if the request sets {@code force_overwrite}.
+     *
+     * @param exchange the {@link HttpExchange} to handle
+     * @throws IOException if an error occurred when reading the request or writing the response
+     */
+    private void handleNewBot(HttpExchange exchange) throws IOException {
+        Map<String, Object> request = readBody(exchange);
+        String name = (String) request.get("name");
+        if (name == null) {
+            sendError(exchange, 400, "Missing bot name");
+            return;
+        }
+        EmbeddedBot bot = new EmbeddedBot();
+        if (Boolean.TRUE.equals(request.get("force_overwrite"))) {
+            bots.put(name, bot);
+        } else if (bots.putIfAbsent(name, bot) != null) {
+            sendError(exchange, 409, "The bot " + name + " already exists");
+            return;
+        }
+        sendJson(exchange, 200, writer -> writer.beginObject().name("uuid").value(bot.uuid).endObject());
+    }
+
+    /**
+     * Handles a bot initialization request.
+     * <p>
+     * The training sentences of the intents are tokenized when the bot is initialized.
+     *
+     * @param exchange the {@link HttpExchange} to handle
+     * @param bot      the {@link EmbeddedBot} to initialize
+     * @throws IOException if an error occurred when reading the request or writing the response
+     */
+    @SuppressWarnings("unchecked")
+    private void handleInitialize(HttpExchange exchange, EmbeddedBot bot) throws IOException {
+        Map<String, Object> definition = readBody(exchange);
+        Map<String, List<Set<String>>> intents = new HashMap<>();
+        for (Map<String, Object> intent : (List<Map<String, Object>>) getList(definition, "intents")) {
+            List<Set<String>> sentences = new ArrayList<>();
+            for (Object sentence : getList(intent, "training_sentences")) {
+                sentences.add(tokenize((String) sentence));
+            }
+            intents.put((String) intent.get("name"), sentences);
+        }
+        Map<String, List<String>> contexts = new HashMap<>();
+        for (Map<String, Object> context : (List<Map<String, Object>>) getList(definition, "contexts")) {
+            List<String> intentNames = new ArrayList<>();
+            for (Map<String, Object> intentRef : (List<Map<String, Object>>) getList(context, "intent_refs")) {
+                intentNames.add((String) intentRef.get("intent"));
+            }
+            contexts.put((String) context.get("name"), intentNames);
+        }
+        synchronized (bot) {
+            bot.intents = intents;
+            bot.contexts = contexts;
+            bot.trained = false;
+        }
+        sendJson(exchange, 200, writer -> writer.beginObject().name("uuid").value(bot.uuid).endObject());
+    }
+
+    /**
+     * Handles a training request.
+     * <p>
+     * Bots without intents cannot be trained, consistently with the NLU server.
+     *
+     * @param exchange the {@link HttpExchange} to handle
+     * @param bot      the {@link EmbeddedBot} to train
+     * @throws IOException if an error occurred when reading the request or writing the response
+     */
+    private void handleTrain(HttpExchange exchange, EmbeddedBot bot) throws IOException {
+        trainingRequestCount.incrementAndGet();
+        readBody(exchange);
+        synchronized (bot) {
+            if (bot.intents.isEmpty()) {
+                sendError(exchange, 400, "Cannot train a bot without intents");
+                return;
+            }
+            bot.trained = true;
+        }
+        sendJson(exchange, 200, writer -> writer.beginObject().name("uuid").value(bot.uuid).endObject());
+    }
+
+    /**
+     * Handles a prediction request.
+     *
+     * @param exchange the {@link HttpExchange} to handle
+     * @param bot      the {@link EmbeddedBot} to predict with
+     * @throws IOException if an error occurred when reading the request or writing the response
+     */
+    private void handlePredict(HttpExchange exchange, EmbeddedBot bot) throws IOException {
+        predictionRequestCount.incrementAndGet();
+        Map<String, Object> request = readBody(exchange);
+        if (!simulateRemoteServer(exchange, bot)) {
+            return;
+        }
+        sendJson(exchange, 200, writer -> writePrediction(bot, request, writer));
+    }
+
+    /**
+     * Handles a batch prediction request.
+     *
+     * @param exchange the {@link HttpExchange} to handle
+     * @param bot      the {@link EmbeddedBot} to predict with
+     * @throws IOException if an error occurred when reading the request or writing the response
+     */
+    @SuppressWarnings("unchecked")
+    private void handleBatchPredict(HttpExchange exchange, EmbeddedBot bot) throws IOException {
+        predictionRequestCount.incrementAndGet();
+        Map<String, Object> request = readBody(exchange);
+        if (!simulateRemoteServer(exchange, bot)) {
+            return;
+        }
+        sendJson(exchange, 200, writer -> {
+            writer.beginObject();
+            writer.name("predictions").beginArray();
+            for (Map<String, Object> predictionRequest : (List<Map<String, Object>>) getList(request, "requests")) {
+                writePrediction(bot, predictionRequest, writer);
+            }
+            writer.endArray();
+            writer.endObject();
+        });
+    }
+
+    /**
+     * Applies the configured latency, jitter, and error rate to a prediction request on the provided {@code bot}.
+     *
+     * @param exchange the {@link HttpExchange} to handle
+     * @param bot      the {@link EmbeddedBot} to predict with
+     * @return {@code true} if the prediction can be computed, {@code false} if an error has been sent
+     * @throws IOException if an error occurred when writing the response
+     */
+    private boolean simulateRemoteServer(HttpExchange exchange, EmbeddedBot bot) throws IOException {
+        Random currentRandom = this.random;
+        long delay = latency;
+        long currentJitter = jitter;
+        if (currentJitter > 0) {
+            delay += (long) (currentRandom.nextDouble() * (currentJitter + 1));
+        }
+        boolean fail = errorRate > 0 && currentRandom.nextDouble() < errorRate;
+        if (delay > 0) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                sendError(exchange, 503, "Interrupted");
+                return false;
+            }
+        }
+        if (fail) {
+            sendError(exchange, 500, "Injected error");
+            return false;
+        }
+        if (!bot.trained) {
+            sendError(exchange, 400, "The bot is not trained");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Classifies the utterance of the provided {@code request} and writes the resulting prediction.
+     *
+     * @param bot     the {@link EmbeddedBot} to predict with
+     * @param request the prediction request containing the {@code utterance}, the {@code context}, and the optional
+     *                {@code top_k}
+     * @param writer  the {@link JsonWriter} to write the prediction with
+     * @throws IOException if an error occurred when writing the prediction
+     */
+    private void writePrediction(EmbeddedBot bot, Map<String, Object> request, JsonWriter writer)
+            throws IOException {
+        String utterance = String.valueOf(request.get("utterance"));
+        Object topK = request.get("top_k");
+        List<ScoredIntent> scoredIntents = bot.classify(tokenize(utterance), (String) request.get("context"));
+        int limit = topK instanceof Number && ((Number) topK).intValue() > 0 ?
+                Math.min(((Number) topK).intValue(), scoredIntents.size()) : scoredIntents.size();
+        writer.beginObject();
+        writer.name("classifications").beginArray();
+        for (ScoredIntent scoredIntent : scoredIntents.subList(0, limit)) {
+            writer.beginObject();
+            writer.name("intent").value(scoredIntent.name);
+            writer.name("score").value(scoredIntent.score);
+            writer.name("matched_utterance").value(utterance);
+            writer.name("matched_parameters").beginArray().endArray();
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+    }
+
+    /**
+     * Reads the JSON object sent in the body of the provided {@code exchange}.
+     * <p>
+     * The body is decompressed if the request has a {@code gzip} {@code Content-Encoding}.
+     *
+     * @param exchange the {@link HttpExchange} to read the body of
+     * @return the read object, or an empty map if the body is empty
+     * @throws IOException if an error occurred when reading the body
+     */
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> readBody(HttpExchange exchange) throws IOException {
+        InputStream in = exchange.getRequestBody();
+        if ("gzip".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+            in = new GZIPInputStream(in);
+        }
+        byte[] body = readAll(in);
+        if (body.length == 0) {
+            return Collections.emptyMap();
+        }
+        try (JsonReader reader = NLUServerJsonUtils.newReader(new ByteArrayInputStream(body))) {
+            Object value = NLUServerJsonUtils.readValue(reader);
+            return value instanceof Map ? (Map<String, Object>) value : Collections.emptyMap();
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<?> getList(Map<String, Object> map, String key) {
+        Object value = map.get(key);
+        return value instanceof List ? (List<?>) value : Collections.emptyList();
+    }
+
+    /**
+     * Writes a JSON response with the provided {@code status}.
+     *
+     * @param exchange the {@link HttpExchange} to write the response to
+     * @param status   the HTTP status of the response
+     * @param body     the function writing the body of the response
+     * @throws IOException if an error occurred when writing the response
+     */
+    private static void sendJson(HttpExchange exchange, int status, JsonBody body) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        JsonWriter writer = NLUServerJsonUtils.newWriter(buffer);
+        body.write(writer);
+        writer.flush();
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, buffer.size());
+        try (OutputStream out = exchange.getResponseBody()) {
+            buffer.writeTo(out);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        sendJson(exchange, status, writer -> writer.beginObject().name("error").value(message).endObject());
+    }
+
+    /**
+     * Splits the provided {@code sentence} into lower-cased tokens.
+     *
+     * @param sentence the sentence to split
+     * @return the tokens of the sentence
+     */
+    private static Set<String> tokenize(@Nullable String sentence) {
+        Set<String> tokens = new HashSet<>();
+        if (sentence != null) {
+            for (String token : TOKEN_SEPARATOR.split(sentence.toLowerCase())) {
+                if (!token.isEmpty()) {
+                    tokens.add(token);
+                }
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Writes the body of a JSON response.
+     */
+    @FunctionalInterface
+    private interface JsonBody {
+
+        void write(JsonWriter writer) throws IOException;
+    }
+
+    /**
+     * A bot deployed on the {@link EmbeddedNLUServer}.
+     */
+    private static class EmbeddedBot {
+
+        private final String uuid = UUID.randomUUID().toString();
+
+        /**
+         * The tokenized training sentences of the intents, mapped by intent name.
+         */
+        private volatile Map<String, List<Set<String>>> intents = Collections.emptyMap();
+
+        /**
+         * The names of the intents of each context, mapped by context name.
+         */
+        private volatile Map<String, List<String>> contexts = Collections.emptyMap();
+
+        private volatile boolean trained = false;
+
+        /**
+         * Classifies the provided {@code tokens} against the intents of the provided {@code context}.
+         *
+         * @param tokens  the tokens of the utterance
+         * @param context the name of the context
+         * @return the intents of the context with their scores, sorted by decreasing score
+         */
+        private List<ScoredIntent> classify(Set<String> tokens, @Nullable String context) {
+            Map<String, List<Set<String>>> currentIntents = intents;
+            List<String> intentNames = contexts.getOrDefault(context, Collections.emptyList());
+            List<ScoredIntent> result = new ArrayList<>(intentNames.size());
+            for (String intentName : intentNames) {
+                float score = 0;
+                for (Set<String> sentence : currentIntents.getOrDefault(intentName, Collections.emptyList())) {
+                    score = Math.max(score, jaccard(tokens, sentence));
+                }
+                result.add(new ScoredIntent(intentName, score));
+            }
+            result.sort((s1, s2) -> Float.compare(s2.score, s1.score));
+            return result;
+        }
+
+        private static float jaccard(Set<String> s1, Set<String> s2) {
+            if (s1.isEmpty() && s2.isEmpty()) {
+                return 0;
+            }
+            int intersection = 0;
+            for (String token : s1) {
+                if (s2.contains(token)) {
+                    intersection++;
+                }
+            }
+            return (float) intersection / (s1.size() + s2.size() - intersection);
+        }
+    }
+
+    private static class ScoredIntent {
+
+        private final String name;
+
+        private final float score;
+
+        private ScoredIntent(String name, float score) {
+            this.name = name;
+            this.score = score;
+        }
+    }
+}